@@ -0,0 +1,340 @@
+package com.learnwithme.blog.devblog.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+import com.learnwithme.blog.devblog.dto.CacheStatsDto;
+
+/**
+ * Bounded in-process LRU cache with entry-count and weight limits, a per-entry TTL
+ * and single-flight loading: concurrent misses for the same key share one load.
+ * Pinned keys are skipped by eviction; they still expire and can be invalidated.
+ * Keys are spread over segments with a lock and a share of the limits each, so reads
+ * of different keys rarely wait on one another; recency is tracked per segment.
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class BoundedCache<K, V> {
+
+    private static final int MAX_SEGMENTS = 16;
+    // Fewer segments for small caches, so per-segment limits do not evict much early
+    private static final int MIN_ENTRIES_PER_SEGMENT = 64;
+
+    private final String name;
+    private final int maxEntries;
+    private final long maxWeight;
+    private final long ttlNanos;
+    private final ToLongFunction<V> weigher;
+
+    private final List<Segment> segments;
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    // Raised before every invalidation sweeps the segments
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Predicate<K> pinned = key -> false;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public BoundedCache(String name, int maxEntries, long maxWeight, Duration ttl, ToLongFunction<V> weigher) {
+        this.name = name;
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        this.ttlNanos = ttl.toNanos();
+        this.weigher = weigher;
+
+        int segmentCount = Math.min(MAX_SEGMENTS, Integer.highestOneBit(Math.max(1, maxEntries / MIN_ENTRIES_PER_SEGMENT)));
+        List<Segment> created = new ArrayList<>(segmentCount);
+        for (int i = 0; i < segmentCount; i++) {
+            created.add(new Segment(ceilDiv(maxEntries, segmentCount), ceilDiv(maxWeight, segmentCount)));
+        }
+        this.segments = List.copyOf(created);
+    }
+
+    /**
+     * Get a value, loading it on a miss. Only one caller runs the loader for a key;
+     * everyone else waiting on that key receives the same result or exception.
+     * @param key the key
+     * @param loader loads the value; a null result is returned but not cached
+     * @return the cached or freshly loaded value
+     */
+    public V get(K key, Function<K, V> loader) {
+        V cached = lookup(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+
+        CompletableFuture<V> ownLoad = new CompletableFuture<>();
+        CompletableFuture<V> runningLoad = inFlight.putIfAbsent(key, ownLoad);
+        if (runningLoad != null) {
+            return await(runningLoad);
+        }
+
+        long startGeneration = generation.get();
+        try {
+            V value = loader.apply(key);
+            if (value != null) {
+                store(key, value, startGeneration);
+            }
+            ownLoad.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            loadFailures.increment();
+            ownLoad.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, ownLoad);
+        }
+    }
+
+    /**
+     * Get a value without loading it and without touching the hit/miss counters
+     * @param key the key
+     * @return the value, or null if absent or expired
+     */
+    public V peek(K key) {
+        return lookup(key);
+    }
+
+    /**
+     * Insert or replace a value
+     * @param key the key
+     * @param value the value
+     */
+    public void put(K key, V value) {
+        store(key, value, generation.get());
+    }
+
+    /**
+     * @return a token for {@link #putIfUnchanged}, taken before reading the value to store
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Insert or replace a value read elsewhere, unless an invalidation happened since
+     * the generation was taken, in which case the value may already be stale
+     * @param key the key
+     * @param value the value
+     * @param startGeneration the {@link #generation()} taken before the value was read
+     */
+    public void putIfUnchanged(K key, V value, long startGeneration) {
+        store(key, value, startGeneration);
+    }
+
+    /**
+     * Remove a key. A load for that key that is still running will not be cached.
+     * @param key the key
+     */
+    public void invalidate(K key) {
+        generation.incrementAndGet();
+        segmentFor(key).remove(key);
+    }
+
+    /**
+     * Remove every key matching a predicate
+     * @param predicate selects the keys to remove
+     */
+    public void invalidateIf(Predicate<K> predicate) {
+        invalidateEntriesIf((key, value) -> predicate.test(key));
+    }
+
+    /**
+     * Remove every entry whose key and value match a predicate
+     * @param predicate selects the entries to remove
+     */
+    public void invalidateEntriesIf(BiPredicate<K, V> predicate) {
+        generation.incrementAndGet();
+        for (Segment segment : segments) {
+            segment.removeIf(predicate);
+        }
+    }
+
+    /**
+     * Remove every entry
+     */
+    public void invalidateAll() {
+        invalidateEntriesIf((key, value) -> true);
+    }
+
+    /**
+     * Choose the keys that eviction must skip, replacing the previous choice
+     * @param predicate selects the pinned keys; keep it cheap, eviction tests it per entry
+     */
+    public void pinIf(Predicate<K> predicate) {
+        pinned = predicate;
+    }
+
+    public CacheStatsDto stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long requests = hitCount + missCount;
+
+        int size = 0;
+        long weight = 0;
+        int pinnedCount = 0;
+        Predicate<K> currentlyPinned = pinned;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.entries.size();
+                weight += segment.totalWeight;
+                pinnedCount += (int) segment.entries.keySet().stream().filter(currentlyPinned).count();
+            }
+        }
+
+        return CacheStatsDto.builder()
+                .name(name)
+                .size(size)
+                .weight(weight)
+                .maxEntries(maxEntries)
+                .maxWeight(maxWeight)
+                .hits(hitCount)
+                .misses(missCount)
+                .hitRate(requests == 0 ? 0.0 : (double) hitCount / requests)
+                .loadFailures(loadFailures.sum())
+                .evictions(evictions.sum())
+                .expirations(expirations.sum())
+                .pinned(pinnedCount)
+                .build();
+    }
+
+    private V lookup(K key) {
+        return segmentFor(key).lookup(key);
+    }
+
+    private void store(K key, V value, long startGeneration) {
+        segmentFor(key).store(key, value, weigher.applyAsLong(value), startGeneration);
+    }
+
+    private Segment segmentFor(K key) {
+        int hash = key.hashCode();
+        return segments.get((hash ^ (hash >>> 16)) & (segments.size() - 1));
+    }
+
+    private V await(CompletableFuture<V> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static int ceilDiv(int value, int divisor) {
+        return (int) ceilDiv((long) value, divisor);
+    }
+
+    private static long ceilDiv(long value, int divisor) {
+        return value / divisor + (value % divisor == 0 ? 0 : 1);
+    }
+
+    /**
+     * One lock's share of the entries, in least recently used order
+     */
+    private final class Segment {
+        private final int maxEntries;
+        private final long maxWeight;
+        // Access-ordered, so iteration starts at the least recently used entry
+        private final LinkedHashMap<K, CacheEntry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private long totalWeight;
+
+        private Segment(int maxEntries, long maxWeight) {
+            this.maxEntries = maxEntries;
+            this.maxWeight = maxWeight;
+        }
+
+        private synchronized V lookup(K key) {
+            CacheEntry<V> entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (System.nanoTime() - entry.expiresAt > 0) {
+                entries.remove(key);
+                totalWeight -= entry.weight;
+                expirations.increment();
+                return null;
+            }
+            return entry.value;
+        }
+
+        private synchronized void store(K key, V value, long weight, long startGeneration) {
+            // An invalidation raced with the load, so the value may already be stale;
+            // invalidations raise the generation before taking this lock
+            if (startGeneration != generation.get()) {
+                return;
+            }
+
+            CacheEntry<V> previous = entries.put(key, new CacheEntry<>(value, weight, System.nanoTime() + ttlNanos));
+            if (previous != null) {
+                totalWeight -= previous.weight;
+            }
+            totalWeight += weight;
+
+            evictIfNeeded();
+        }
+
+        private synchronized void remove(K key) {
+            CacheEntry<V> removed = entries.remove(key);
+            if (removed != null) {
+                totalWeight -= removed.weight;
+            }
+        }
+
+        private synchronized void removeIf(BiPredicate<K, V> predicate) {
+            Iterator<Map.Entry<K, CacheEntry<V>>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<K, CacheEntry<V>> entry = iterator.next();
+                if (predicate.test(entry.getKey(), entry.getValue().value)) {
+                    iterator.remove();
+                    totalWeight -= entry.getValue().weight;
+                }
+            }
+        }
+
+        private void evictIfNeeded() {
+            Predicate<K> currentlyPinned = pinned;
+            Iterator<Map.Entry<K, CacheEntry<V>>> eldest = entries.entrySet().iterator();
+            while ((entries.size() > maxEntries || totalWeight > maxWeight) && eldest.hasNext()) {
+                Map.Entry<K, CacheEntry<V>> entry = eldest.next();
+                if (currentlyPinned.test(entry.getKey())) {
+                    continue;
+                }
+                eldest.remove();
+                totalWeight -= entry.getValue().weight;
+                evictions.increment();
+            }
+        }
+    }
+
+    private static final class CacheEntry<V> {
+        private final V value;
+        private final long weight;
+        private final long expiresAt;
+
+        private CacheEntry(V value, long weight, long expiresAt) {
+            this.value = value;
+            this.weight = weight;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.learnwithme.blog.devblog.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.learnwithme.blog.devblog.config.CdnConfig;
+import com.learnwithme.blog.devblog.event.CategoryChangedEvent;
+import com.learnwithme.blog.devblog.event.PostChange;
+import com.learnwithme.blog.devblog.event.PostChangedEvent;
+
+/**
+ * Purges from the CDN exactly the responses a write made outdated: the surrogate keys
+ * of the tags the local response cache drops. Keys are collected for a short window
+ * and sent deduplicated, in batches, so a burst of writes costs a few purge calls.
+ * The window also gives other nodes time to drop their own cached copies before the
+ * CDN fetches the page again. Only the node that made a write purges it.
+ */
+@Component
+public class CdnPurger {
+
+    private static final Logger logger = LoggerFactory.getLogger(CdnPurger.class);
+
+    private final PurgeClient purgeClient;
+    private final boolean enabled;
+    private final Duration batchWindow;
+    private final int maxBatchSize;
+
+    private final Set<String> pending = new LinkedHashSet<>();
+    private boolean flushScheduled;
+
+    private ScheduledExecutorService executor;
+
+    public CdnPurger(PurgeClient purgeClient,
+                     @Value(CdnConfig.ENABLED) boolean enabled,
+                     @Value("${app.cdn.purge.batch-window:1s}") Duration batchWindow,
+                     @Value("${app.cdn.purge.max-batch-size:256}") int maxBatchSize) {
+        this.purgeClient = purgeClient;
+        this.enabled = enabled;
+        this.batchWindow = batchWindow;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    @PostConstruct
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cdn-purger");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+        // Send what is still pending rather than leave it to s-maxage
+        flush();
+    }
+
+    @EventListener
+    public void onPostChanged(PostChangedEvent event) {
+        if (!enabled || event.isRemote()) {
+            return;
+        }
+        List<String> tags = new ArrayList<>();
+        for (PostChange change : event.getChanges()) {
+            tags.addAll(ResponseTags.affectedBy(change));
+        }
+        enqueue(tags);
+    }
+
+    @EventListener
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        if (!enabled || event.isRemote()) {
+            return;
+        }
+        enqueue(ResponseTags.affectedBy(event));
+    }
+
+    private void enqueue(Iterable<String> tags) {
+        synchronized (pending) {
+            for (String tag : tags) {
+                pending.add(SurrogateKeys.encode(tag));
+            }
+            if (executor.isShutdown()) {
+                // Shutting down; stop() sends what is pending
+                return;
+            }
+            if (pending.size() >= maxBatchSize) {
+                executor.execute(this::flush);
+            } else if (!flushScheduled) {
+                flushScheduled = true;
+                executor.schedule(this::flush, batchWindow.toMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void flush() {
+        List<String> keys;
+        synchronized (pending) {
+            flushScheduled = false;
+            if (pending.isEmpty()) {
+                return;
+            }
+            keys = new ArrayList<>(pending);
+            pending.clear();
+        }
+
+        for (int from = 0; from < keys.size(); from += maxBatchSize) {
+            List<String> batch = keys.subList(from, Math.min(keys.size(), from + maxBatchSize));
+            try {
+                purgeClient.purge(batch);
+            } catch (RuntimeException e) {
+                logger.warn("CDN purge of {} keys failed, retrying: {}", batch.size(), e.getMessage());
+                retry(keys.subList(from, keys.size()));
+                return;
+            }
+        }
+        logger.debug("Purged {} surrogate keys", keys.size());
+    }
+
+    private void retry(List<String> keys) {
+        synchronized (pending) {
+            pending.addAll(keys);
+            if (!flushScheduled && !executor.isShutdown()) {
+                flushScheduled = true;
+                executor.schedule(this::flush, batchWindow.toMillis() * 5, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.learnwithme.blog.devblog.cache;
+
+/**
+ * HTTP validators for one representation: a strong entity tag and a last-modified time
+ */
+public final class ContentVersion {
+
+    private final String tag;
+    private final long lastModified;
+
+    public ContentVersion(String tag, long lastModified) {
+        this.tag = tag;
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * @return the quoted entity tag
+     */
+    public String getEtag() {
+        return "\"" + tag + "\"";
+    }
+
+    /**
+     * @return last modification time in epoch milliseconds
+     */
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * Validators for a response that depends on both versions
+     * @param other the other version
+     * @return a version that changes whenever either one does
+     */
+    public ContentVersion and(ContentVersion other) {
+        return new ContentVersion(tag + "." + other.tag, Math.max(lastModified, other.lastModified));
+    }
+}
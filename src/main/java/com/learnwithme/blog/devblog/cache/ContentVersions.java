@@ -0,0 +1,231 @@
+package com.learnwithme.blog.devblog.cache;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.learnwithme.blog.devblog.dto.BlogPostDto;
+import com.learnwithme.blog.devblog.event.CategoryChangedEvent;
+import com.learnwithme.blog.devblog.event.PostChange;
+import com.learnwithme.blog.devblog.event.PostChangedEvent;
+import com.learnwithme.blog.devblog.model.ChangeCounter;
+import com.learnwithme.blog.devblog.model.PostFeed;
+
+/**
+ * Validators for conditional GETs, answerable without touching MongoDB.
+ * Single posts are versioned by their updatedAt, or the time their copied category
+ * names last changed if that is later, read from the post cache when the post is in it.
+ * Feeds and the category list are versioned by a change counter kept in MongoDB, so
+ * every node hands out the same validators and they survive restarts. Local writes
+ * increment the counters they affect; writes on other nodes arrive as remote events
+ * and re-read them. Counters are held in memory and re-read on a short interval, so a
+ * node still catches up when remote events are lost or the bus is not running. While
+ * the counters cannot be read, feed and category validators never match, so no stale
+ * 304 is sent.
+ */
+@Component
+public class ContentVersions {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContentVersions.class);
+
+    private static final String CATEGORIES_KEY = "categories";
+
+    // Counts every post and category write, for caches that cannot tell what a write affected
+    private static final String WRITES_KEY = "writes";
+
+    @Autowired
+    private PostCache postCache;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${app.content-versions.refresh-interval:30s}")
+    private Duration refreshInterval;
+
+    private final Map<String, ChangeCounter> counters = new ConcurrentHashMap<>();
+
+    // False until the counters were read and whenever the last read failed, as
+    // validators are not shared then
+    private volatile boolean loaded;
+
+    // Makes every validator handed out while the counters are unknown different
+    private final AtomicLong unknownVersions = new AtomicLong();
+
+    private ScheduledExecutorService refresher;
+
+    @PostConstruct
+    public void start() {
+        load();
+        refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "content-versions-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = refreshInterval.toMillis();
+        refresher.scheduleWithFixedDelay(this::load, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+    }
+
+    /**
+     * Read every counter, catching up with writes whose remote events never arrived
+     */
+    public void load() {
+        try {
+            mongoTemplate.findAll(ChangeCounter.class).forEach(this::merge);
+            if (!loaded) {
+                logger.info("Change counters loaded, feed validators are shared again");
+            }
+            loaded = true;
+        } catch (RuntimeException e) {
+            // Reported when the node starts and when reads stop working, not on every retry
+            if (loaded || refresher == null) {
+                logger.warn("Could not read change counters, feed validators are off until they can be: {}",
+                        e.getMessage());
+            }
+            loaded = false;
+        }
+    }
+
+    /**
+     * @param postId the post ID
+     * @return the post's validators, or null if the post is not cached
+     */
+    public ContentVersion forCachedPostId(String postId) {
+        BlogPostDto post = postCache.peekById(postId);
+        return post == null ? null : forPost(post);
+    }
+
+    /**
+     * @param slug the post slug
+     * @return the post's validators, or null if the post is not cached
+     */
+    public ContentVersion forCachedPostSlug(String slug) {
+        BlogPostDto post = postCache.peekBySlug(slug);
+        return post == null ? null : forPost(post);
+    }
+
+    /**
+     * @param post the post
+     * @return validators derived from the post's ID and its last change
+     */
+    public ContentVersion forPost(BlogPostDto post) {
+        // A category rename changes the rendered post without touching updatedAt
+        long lastModified = Math.max(toEpochMillis(post.getUpdatedAt()), toEpochMillis(post.getCategorySyncedAt()));
+        return new ContentVersion(post.getId() + "-" + Long.toString(lastModified, 36), lastModified);
+    }
+
+    /**
+     * @param feed the feed
+     * @return validators that change whenever a post in the feed is written
+     */
+    public ContentVersion forFeed(PostFeed feed) {
+        return collectionVersion(feed.getKey());
+    }
+
+    /**
+     * @return validators that change whenever any category is written
+     */
+    public ContentVersion forCategories() {
+        return collectionVersion(CATEGORIES_KEY);
+    }
+
+    /**
+     * @return the number of post and category writes made on any node, or -1 if the
+     *         counters could not be loaded and the number is unknown
+     */
+    public long writeSequence() {
+        if (!loaded) {
+            return -1;
+        }
+        ChangeCounter counter = counters.get(WRITES_KEY);
+        return counter == null ? 0 : counter.getSeq();
+    }
+
+    @EventListener
+    public void onPostChanged(PostChangedEvent event) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (PostChange change : event.getChanges()) {
+            for (PostFeed feed : change.getAffectedFeeds()) {
+                keys.add(feed.getKey());
+            }
+        }
+        keys.add(WRITES_KEY);
+        update(keys, event.isRemote());
+    }
+
+    @EventListener
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        update(Set.of(CATEGORIES_KEY, WRITES_KEY), event.isRemote());
+    }
+
+    /**
+     * Count a write, or for a write made elsewhere, read back what that node counted
+     */
+    private void update(Set<String> keys, boolean remote) {
+        try {
+            if (!remote) {
+                BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ChangeCounter.class);
+                for (String key : keys) {
+                    operations.upsert(Query.query(Criteria.where("_id").is(key)),
+                            new Update().inc("seq", 1).currentDate("changedAt"));
+                }
+                operations.execute();
+            }
+            mongoTemplate.find(Query.query(Criteria.where("_id").in(keys)), ChangeCounter.class).forEach(this::merge);
+        } catch (RuntimeException e) {
+            logger.warn("Could not update change counters {}: {}", keys, e.getMessage());
+        }
+    }
+
+    private void merge(ChangeCounter counter) {
+        // Reads of concurrent writes may come back out of order; keep the newest
+        counters.merge(counter.getId(), counter, (current, read) -> read.getSeq() >= current.getSeq() ? read : current);
+    }
+
+    private ContentVersion collectionVersion(String key) {
+        if (!loaded) {
+            // Other nodes may have written since; a tag no client holds is never a 304
+            return new ContentVersion("unknown-" + Long.toString(unknownVersions.incrementAndGet(), 36)
+                    + "-" + Long.toString(System.nanoTime(), 36), -1);
+        }
+        ChangeCounter counter = counters.get(key);
+        if (counter == null) {
+            // Not written since counting began; no modification time, so only the tag is checked
+            return new ContentVersion("0", -1);
+        }
+        return new ContentVersion(Long.toString(counter.getSeq(), 36), toEpochMillis(counter.getChangedAt()));
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime == null ? 0 : dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,66 @@
+package com.learnwithme.blog.devblog.cache;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.learnwithme.blog.devblog.dto.CacheStatsDto;
+import com.learnwithme.blog.devblog.event.PostChange;
+import com.learnwithme.blog.devblog.event.PostChangedEvent;
+import com.learnwithme.blog.devblog.model.PostFeed;
+import com.learnwithme.blog.devblog.repository.BlogPostRepository;
+
+/**
+ * Per-feed post counts, so paginated feeds can report totals without a
+ * countDocuments query on every request. Counts are evicted when a post joins
+ * or leaves the feed.
+ */
+@Component
+public class FeedCountCache implements MonitoredCache {
+
+    private static final String DRAFTS_KEY = "drafts";
+
+    @Autowired
+    private BlogPostRepository blogPostRepository;
+
+    private final BoundedCache<String, Long> counts;
+
+    public FeedCountCache(@Value("${app.cache.feed-counts.max-entries:10000}") int maxEntries,
+                          @Value("${app.cache.feed-counts.ttl:30m}") Duration ttl) {
+        this.counts = new BoundedCache<>("feed-counts", maxEntries, maxEntries, ttl, count -> 1);
+    }
+
+    /**
+     * Number of published posts in a feed. The unfiltered feed is derived from the
+     * collection's estimated size minus the cached number of drafts.
+     * @param feed the feed
+     * @return the cached count
+     */
+    public long count(PostFeed feed) {
+        if (feed.getType() == PostFeed.Type.ALL) {
+            long drafts = counts.get(DRAFTS_KEY, key -> blogPostRepository.countUnpublished());
+            return Math.max(0, blogPostRepository.estimatedCount() - drafts);
+        }
+        return counts.get(feed.getKey(), key -> blogPostRepository.countFeed(feed));
+    }
+
+    @EventListener
+    public void onPostChanged(PostChangedEvent event) {
+        for (PostChange change : event.getChanges()) {
+            for (PostFeed feed : change.getMembershipChangedFeeds()) {
+                counts.invalidate(feed.getKey());
+            }
+            if (change.isPublishStateChanged()) {
+                counts.invalidate(DRAFTS_KEY);
+            }
+        }
+    }
+
+    @Override
+    public CacheStatsDto stats() {
+        return counts.stats();
+    }
+}
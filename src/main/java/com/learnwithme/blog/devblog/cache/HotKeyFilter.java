@@ -0,0 +1,40 @@
+package com.learnwithme.blog.devblog.cache;
+
+import java.io.IOException;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Counts every read of the public post API in the {@link HotKeyTracker}. Runs ahead
+ * of the response cache, whose hits never reach the controllers.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class HotKeyFilter extends OncePerRequestFilter {
+
+    private final HotKeyTracker hotKeyTracker;
+
+    public HotKeyFilter(HotKeyTracker hotKeyTracker) {
+        this.hotKeyTracker = hotKeyTracker;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        hotKeyTracker.record(HotKeyTracker.keyOf(ResponseCacheFilter.cacheKey(request)));
+        chain.doFilter(request, response);
+    }
+}
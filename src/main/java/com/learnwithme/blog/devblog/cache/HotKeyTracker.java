@@ -0,0 +1,334 @@
+package com.learnwithme.blog.devblog.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriUtils;
+
+import com.learnwithme.blog.devblog.dto.HotKeyDto;
+
+/**
+ * Finds the post, slug, tag and search keys that are hot right now. Every public post
+ * read is counted in a count-min sketch, and a Space-Saving summary keeps the top keys
+ * with their counts; a key only displaces the summary's least counted key once the
+ * sketch shows it is at least as frequent, so a long tail of one-off keys cannot
+ * churn it. All counts are halved every decay interval, so they follow the current
+ * traffic. Keys whose count crosses the pin threshold are pinned in every
+ * {@link PinnableCache} and unpinned once they cool down to half of it. Counting is
+ * lock-free; only changes to the summary and the pinned keys are serialised.
+ */
+@Component
+public class HotKeyTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotKeyTracker.class);
+
+    private static final String POSTS_PATH = "/api/posts";
+
+    @Autowired
+    private List<PinnableCache> pinnableCaches;
+
+    private final boolean enabled;
+    private final int capacity;
+    private final long pinThreshold;
+    private final int maxPinned;
+    private final Duration decayInterval;
+
+    private final AtomicLongArray[] sketch;
+    private final int sketchWidth;
+    // Changed under the lock, read without it
+    private final Map<String, Counter> top = new ConcurrentHashMap<>();
+    private final Set<String> pinned = ConcurrentHashMap.newKeySet();
+    // At most the least count in the full summary, as of the last time it was looked up
+    private volatile long floor;
+
+    private ScheduledExecutorService decayer;
+
+    public HotKeyTracker(@Value("${app.hot-keys.enabled:true}") boolean enabled,
+                         @Value("${app.hot-keys.capacity:100}") int capacity,
+                         @Value("${app.hot-keys.sketch-width:4096}") int sketchWidth,
+                         @Value("${app.hot-keys.sketch-depth:4}") int sketchDepth,
+                         @Value("${app.hot-keys.pin-threshold:1000}") long pinThreshold,
+                         @Value("${app.hot-keys.max-pinned:50}") int maxPinned,
+                         @Value("${app.hot-keys.decay-interval:30s}") Duration decayInterval) {
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.sketchWidth = sketchWidth;
+        this.sketch = new AtomicLongArray[sketchDepth];
+        for (int row = 0; row < sketchDepth; row++) {
+            this.sketch[row] = new AtomicLongArray(sketchWidth);
+        }
+        this.pinThreshold = pinThreshold;
+        this.maxPinned = maxPinned;
+        this.decayInterval = decayInterval;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        decayer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hot-key-decay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = decayInterval.toMillis();
+        decayer.scheduleWithFixedDelay(this::decay, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (decayer != null) {
+            decayer.shutdownNow();
+        }
+    }
+
+    /**
+     * Count one read of a key. Reads of tracked keys and of keys too rare to enter the
+     * summary only touch atomic counters; the lock is taken when the summary or the
+     * pinned keys may change.
+     * @param key the key, as classified by {@link #keyOf(String)}; null is ignored
+     */
+    public void record(String key) {
+        if (!enabled || key == null) {
+            return;
+        }
+        long estimate = addToSketch(key);
+        Counter counter = top.get(key);
+        if (counter != null) {
+            long count = counter.count.incrementAndGet();
+            if (!shouldPin(key, count, counter.error)) {
+                return;
+            }
+        } else if (estimate <= floor) {
+            // Not more frequent than the least counted key, so it would not displace it
+            return;
+        }
+
+        boolean pinsChanged = false;
+        synchronized (this) {
+            // A key found in the summary was counted above, or added by another read since
+            counter = top.get(key);
+            if (counter == null && top.size() < capacity) {
+                counter = new Counter(1, 0);
+                top.put(key, counter);
+            } else if (counter == null && capacity > 0) {
+                Map.Entry<String, Counter> least = least();
+                long leastCount = least.getValue().count.get();
+                if (estimate > leastCount) {
+                    top.remove(least.getKey());
+                    pinsChanged = pinned.remove(least.getKey());
+                    counter = new Counter(leastCount + 1, leastCount);
+                    top.put(key, counter);
+                }
+                // Every count is at least the least one, including the new key's
+                floor = leastCount;
+            }
+
+            // Pin on the guaranteed count only, so keys the summary overestimates stay unpinned
+            if (counter != null && shouldPin(key, counter.count.get(), counter.error)) {
+                pinned.add(key);
+                pinsChanged = true;
+                logger.info("Pinned hot key {} at {} reads", key, counter.count.get());
+            }
+        }
+        if (pinsChanged) {
+            publish();
+        }
+    }
+
+    private boolean shouldPin(String key, long count, long error) {
+        return count - error >= pinThreshold && pinned.size() < maxPinned && !pinned.contains(key);
+    }
+
+    /**
+     * @return the tracked keys, most counted first
+     */
+    public synchronized List<HotKeyDto> hotKeys() {
+        List<HotKeyDto> keys = new ArrayList<>(top.size());
+        for (Map.Entry<String, Counter> entry : top.entrySet()) {
+            keys.add(HotKeyDto.builder()
+                    .key(entry.getKey())
+                    .count(entry.getValue().count.get())
+                    .error(entry.getValue().error)
+                    .sketchEstimate(estimate(entry.getKey()))
+                    .pinned(pinned.contains(entry.getKey()))
+                    .build());
+        }
+        keys.sort(Comparator.comparingLong(HotKeyDto::getCount).reversed());
+        return keys;
+    }
+
+    /**
+     * Classify a public post request by what it reads, e.g. "slug:my-post", "tag:java"
+     * or "search:spring boot". Paging and other parameters are ignored.
+     * @param requestKey request path, optionally followed by its query string
+     * @return the key, or null if the request does not read posts
+     */
+    public static String keyOf(String requestKey) {
+        int start = requestKey.indexOf(POSTS_PATH);
+        if (start < 0) {
+            return null;
+        }
+        int queryStart = requestKey.indexOf('?', start);
+        String path = requestKey.substring(start + POSTS_PATH.length(), queryStart < 0 ? requestKey.length() : queryStart);
+        String query = queryStart < 0 ? "" : requestKey.substring(queryStart + 1);
+        if (!path.isEmpty() && !path.startsWith("/")) {
+            return null;
+        }
+
+        String[] segments = path.isEmpty() || path.equals("/") ? new String[0] : path.substring(1).split("/");
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = UriUtils.decode(segments[i], StandardCharsets.UTF_8);
+        }
+        return switch (segments.length) {
+            case 0 -> "feed";
+            case 1 -> switch (segments[0]) {
+                case "recent" -> "recent";
+                case "search" -> termKey("search:", parameter(query, "term"));
+                case "suggest" -> termKey("suggest:", parameter(query, "prefix"));
+                default -> "post:" + segments[0];
+            };
+            case 2 -> switch (segments[0]) {
+                case "slug" -> "slug:" + segments[1];
+                case "tag" -> "tag:" + segments[1];
+                case "author" -> "author:" + segments[1];
+                case "category" -> "category:" + segments[1];
+                default -> null;
+            };
+            case 4 -> "category".equals(segments[0]) && "subcategory".equals(segments[2])
+                    ? "subcategory:" + segments[1] + "/" + segments[3]
+                    : null;
+            default -> null;
+        };
+    }
+
+    private void decay() {
+        boolean unpinned;
+        synchronized (this) {
+            // Reads counted while a row is halved may be halved or not; the counts are estimates anyway
+            for (AtomicLongArray row : sketch) {
+                for (int i = 0; i < row.length(); i++) {
+                    row.getAndUpdate(i, count -> count >>> 1);
+                }
+            }
+            Iterator<Map.Entry<String, Counter>> iterator = top.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, Counter> entry = iterator.next();
+                Counter counter = entry.getValue();
+                counter.error >>>= 1;
+                if (counter.count.updateAndGet(count -> count >>> 1) == 0) {
+                    iterator.remove();
+                }
+            }
+            Map.Entry<String, Counter> least = top.size() < capacity ? null : least();
+            floor = least == null ? 0 : least.getValue().count.get();
+
+            unpinned = pinned.removeIf(key -> {
+                Counter counter = top.get(key);
+                return counter == null || counter.count.get() - counter.error < pinThreshold / 2;
+            });
+        }
+        if (unpinned) {
+            logger.info("Hot keys cooled down and were unpinned");
+            publish();
+        }
+    }
+
+    private void publish() {
+        // Always hand out the latest set, so concurrent publishes cannot leave an older one in place
+        synchronized (pinnableCaches) {
+            Set<String> hotKeys;
+            synchronized (this) {
+                hotKeys = Set.copyOf(pinned);
+            }
+            for (PinnableCache cache : pinnableCaches) {
+                cache.pinHotKeys(hotKeys);
+            }
+        }
+    }
+
+    private long addToSketch(String key) {
+        int hash = key.hashCode();
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < sketch.length; row++) {
+            estimate = Math.min(estimate, sketch[row].incrementAndGet(column(hash, row)));
+        }
+        return estimate;
+    }
+
+    private long estimate(String key) {
+        int hash = key.hashCode();
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < sketch.length; row++) {
+            estimate = Math.min(estimate, sketch[row].get(column(hash, row)));
+        }
+        return estimate;
+    }
+
+    private int column(int hash, int row) {
+        long h = (hash & 0xFFFFFFFFL) * 0x9E3779B97F4A7C15L + row * 0xC2B2AE3D27D4EB4FL;
+        h ^= h >>> 31;
+        h *= 0xBF58476D1CE4E5B9L;
+        h ^= h >>> 29;
+        return (int) Long.remainderUnsigned(h, sketchWidth);
+    }
+
+    private Map.Entry<String, Counter> least() {
+        Map.Entry<String, Counter> least = null;
+        for (Map.Entry<String, Counter> entry : top.entrySet()) {
+            if (least == null || entry.getValue().count.get() < least.getValue().count.get()) {
+                least = entry;
+            }
+        }
+        return least;
+    }
+
+    private static String termKey(String prefix, String term) {
+        return term == null ? null : prefix + term.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String parameter(String query, String name) {
+        for (String pair : query.split("&")) {
+            if (pair.startsWith(name + "=")) {
+                return pair.substring(name.length() + 1);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Space-Saving counter: count overestimates the key's reads by at most error. The
+     * count is bumped without the lock; the error only changes under it.
+     */
+    private static final class Counter {
+        private final AtomicLong count;
+        private volatile long error;
+
+        private Counter(long count, long error) {
+            this.count = new AtomicLong(count);
+            this.error = error;
+        }
+    }
+}
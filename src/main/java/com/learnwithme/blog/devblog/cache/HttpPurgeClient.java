@@ -0,0 +1,40 @@
+package com.learnwithme.blog.devblog.cache;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Purges through a CDN's batch purge endpoint, posting
+ * {@code {"surrogate_keys": [...]}} as Fastly's surrogate key API expects.
+ */
+public class HttpPurgeClient implements PurgeClient {
+
+    private final RestTemplate restTemplate;
+    private final String url;
+    private final String tokenHeader;
+    private final String token;
+
+    public HttpPurgeClient(RestTemplate restTemplate, String url, String tokenHeader, String token) {
+        this.restTemplate = restTemplate;
+        this.url = url;
+        this.tokenHeader = tokenHeader;
+        this.token = token;
+    }
+
+    @Override
+    public void purge(Collection<String> surrogateKeys) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+        if (token != null && !token.isBlank()) {
+            headers.set(tokenHeader, token);
+        }
+        restTemplate.postForEntity(url, new HttpEntity<>(Map.of("surrogate_keys", surrogateKeys), headers), String.class);
+    }
+}
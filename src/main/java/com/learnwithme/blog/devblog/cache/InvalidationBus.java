@@ -0,0 +1,359 @@
+package com.learnwithme.blog.devblog.cache;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.annotation.PreDestroy;
+
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import com.learnwithme.blog.devblog.event.CategoryChangedEvent;
+import com.learnwithme.blog.devblog.event.PostChange;
+import com.learnwithme.blog.devblog.event.PostChangedEvent;
+import com.learnwithme.blog.devblog.model.BlogPost;
+import com.learnwithme.blog.devblog.repository.BlogPostRepository;
+import com.mongodb.CursorType;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+
+/**
+ * Carries post and category changes between the nodes of a deployment, so every
+ * node's caches and indexes follow writes made elsewhere. Each local change is
+ * appended to a capped collection; every node follows that collection with a change
+ * stream when Mongo runs as a replica set, or with a tailable cursor otherwise, and
+ * replays the changes of other nodes as remote events. Posts travel with their
+ * listing fields only, without their content.
+ */
+@Component
+public class InvalidationBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(InvalidationBus.class);
+
+    static final String MODE_CHANGE_STREAM = "change-stream";
+    static final String MODE_TAILABLE = "tailable";
+
+    private static final String TYPE_POSTS = "posts";
+    private static final String TYPE_CATEGORY = "category";
+    private static final String TYPE_HELLO = "hello";
+
+    private static final Set<String> SENT_FIELDS = sentFields();
+
+    private static final long AWAIT_MILLIS = 1000;
+    private static final long RECONNECT_MILLIS = 2000;
+
+    private final MongoTemplate mongoTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final String collectionName;
+    private final long sizeBytes;
+    private final String mode;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private volatile boolean running;
+    private Thread consumer;
+
+    // Where the consumer is; only touched by the consumer thread once it runs
+    private BsonDocument resumeToken;
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> changeStream;
+    private ObjectId lastSeen;
+
+    public InvalidationBus(MongoTemplate mongoTemplate,
+                           ApplicationEventPublisher eventPublisher,
+                           @Value("${app.cache.invalidation-bus.enabled:true}") boolean enabled,
+                           @Value("${app.cache.invalidation-bus.collection:cache_invalidations}") String collectionName,
+                           @Value("${app.cache.invalidation-bus.size-bytes:16777216}") long sizeBytes,
+                           @Value("${app.cache.invalidation-bus.mode:auto}") String mode) {
+        this.mongoTemplate = mongoTemplate;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.collectionName = collectionName;
+        this.sizeBytes = sizeBytes;
+        this.mode = mode;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || running) {
+            return;
+        }
+        boolean useChangeStream;
+        try {
+            ensureCollection();
+
+            // Position the cursor now, so changes from here on are not missed
+            useChangeStream = useChangeStream();
+            if (useChangeStream) {
+                changeStream = openChangeStream();
+            } else {
+                collection().insertOne(message(TYPE_HELLO));
+                Document newest = collection().find().sort(new Document("$natural", -1)).limit(1).first();
+                lastSeen = newest == null ? null : newest.getObjectId("_id");
+            }
+        } catch (RuntimeException e) {
+            // Caches on this node then rely on their TTLs for writes made elsewhere
+            logger.error("Invalidation bus not started: {}", e.getMessage());
+            return;
+        }
+
+        running = true;
+        consumer = new Thread(() -> consume(useChangeStream), "invalidation-bus");
+        consumer.setDaemon(true);
+        consumer.start();
+        logger.info("Invalidation bus started on node {} using {}", nodeId,
+                useChangeStream ? "a change stream" : "a tailable cursor");
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        if (consumer != null) {
+            consumer.interrupt();
+            try {
+                consumer.join(AWAIT_MILLIS * 2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            consumer = null;
+        }
+    }
+
+    @EventListener
+    public void onPostChanged(PostChangedEvent event) {
+        if (!running || event.isRemote()) {
+            return;
+        }
+        List<Document> changes = new ArrayList<>();
+        for (PostChange change : event.getChanges()) {
+            changes.add(new Document("postId", change.getPostId())
+                    .append("before", toDocument(change.getBefore()))
+                    .append("after", toDocument(change.getAfter())));
+        }
+        publish(message(TYPE_POSTS).append("changes", changes));
+    }
+
+    @EventListener
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        if (!running || event.isRemote()) {
+            return;
+        }
+        publish(message(TYPE_CATEGORY).append("categoryId", event.getCategoryId()));
+    }
+
+    /**
+     * @return this node's id, which tags the changes it publishes
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    private void publish(Document message) {
+        try {
+            collection().insertOne(message);
+        } catch (RuntimeException e) {
+            // The write itself succeeded; other nodes catch up when their caches expire
+            logger.warn("Could not publish cache invalidation: {}", e.getMessage());
+        }
+    }
+
+    private void consume(boolean useChangeStream) {
+        while (running) {
+            try {
+                if (useChangeStream) {
+                    followChangeStream();
+                } else {
+                    tail();
+                }
+            } catch (RuntimeException e) {
+                if (!running) {
+                    break;
+                }
+                logger.warn("Invalidation bus cursor failed, reconnecting: {}", e.getMessage());
+                closeChangeStream();
+                try {
+                    TimeUnit.MILLISECONDS.sleep(RECONNECT_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    break;
+                }
+            }
+        }
+        closeChangeStream();
+    }
+
+    private void followChangeStream() {
+        if (changeStream == null) {
+            changeStream = openChangeStream();
+        }
+        while (running) {
+            ChangeStreamDocument<Document> change = changeStream.tryNext();
+            if (change != null) {
+                resumeToken = change.getResumeToken();
+                handle(change.getFullDocument());
+            }
+        }
+    }
+
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> openChangeStream() {
+        var stream = collection()
+                .watch(List.of(Aggregates.match(Filters.eq("operationType", "insert"))))
+                .maxAwaitTime(AWAIT_MILLIS, TimeUnit.MILLISECONDS);
+        if (resumeToken != null) {
+            stream = stream.resumeAfter(resumeToken);
+        }
+        return stream.cursor();
+    }
+
+    private void closeChangeStream() {
+        if (changeStream != null) {
+            try {
+                changeStream.close();
+            } catch (RuntimeException e) {
+                logger.debug("Could not close change stream", e);
+            }
+            changeStream = null;
+        }
+    }
+
+    /**
+     * Follow the capped collection in insertion order. After a reconnect, messages up
+     * to the last one handled are skipped; if that one has already been overwritten,
+     * everything still in the collection is newer and is handled.
+     */
+    private void tail() {
+        try (MongoCursor<Document> cursor = collection().find()
+                .cursorType(CursorType.TailableAwait)
+                .maxAwaitTime(AWAIT_MILLIS, TimeUnit.MILLISECONDS)
+                .iterator()) {
+
+            boolean caughtUp = lastSeen == null;
+            while (running) {
+                Document message = cursor.tryNext();
+                if (message == null) {
+                    if (cursor.getServerCursor() == null) {
+                        return;
+                    }
+                    if (!caughtUp) {
+                        logger.warn("Invalidation bus fell behind the capped collection; some invalidations may be lost");
+                        lastSeen = null;
+                        return;
+                    }
+                    continue;
+                }
+
+                ObjectId id = message.getObjectId("_id");
+                if (!caughtUp) {
+                    caughtUp = id.equals(lastSeen);
+                    continue;
+                }
+                lastSeen = id;
+                handle(message);
+            }
+        }
+    }
+
+    private void handle(Document message) {
+        if (message == null || nodeId.equals(message.getString("node"))) {
+            return;
+        }
+        try {
+            switch (message.getString("type")) {
+                case TYPE_POSTS -> {
+                    List<PostChange> changes = new ArrayList<>();
+                    for (Document change : message.getList("changes", Document.class)) {
+                        changes.add(new PostChange(change.getString("postId"),
+                                toPost(change.get("before", Document.class)),
+                                toPost(change.get("after", Document.class))));
+                    }
+                    eventPublisher.publishEvent(PostChangedEvent.remote(changes));
+                }
+                case TYPE_CATEGORY -> eventPublisher.publishEvent(CategoryChangedEvent.remote(message.getString("categoryId")));
+                default -> {
+                    // Hello messages only keep the tailable cursor open
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Could not apply invalidation {}: {}", message.get("_id"), e.getMessage());
+        }
+    }
+
+    private boolean useChangeStream() {
+        if (MODE_CHANGE_STREAM.equals(mode)) {
+            return true;
+        }
+        if (MODE_TAILABLE.equals(mode)) {
+            return false;
+        }
+        // Change streams need a replica set
+        return mongoTemplate.executeCommand(new Document("hello", 1)).containsKey("setName");
+    }
+
+    private void ensureCollection() {
+        if (mongoTemplate.collectionExists(collectionName)) {
+            return;
+        }
+        try {
+            mongoTemplate.createCollection(collectionName, CollectionOptions.empty().capped().size(sizeBytes));
+        } catch (RuntimeException e) {
+            // Another node created it first
+            if (!mongoTemplate.collectionExists(collectionName)) {
+                throw e;
+            }
+        }
+    }
+
+    private MongoCollection<Document> collection() {
+        return mongoTemplate.getCollection(collectionName);
+    }
+
+    private Document message(String type) {
+        return new Document("_id", new ObjectId())
+                .append("node", nodeId)
+                .append("type", type)
+                .append("createdAt", new Date());
+    }
+
+    /**
+     * Only the listing fields go on the bus, so a message stays small whatever the size
+     * of the post and the capped collection holds many of them; nodes that need the
+     * content, like the search index, read it back
+     */
+    private Document toDocument(BlogPost post) {
+        if (post == null) {
+            return null;
+        }
+        Document document = new Document();
+        mongoTemplate.getConverter().write(post, document);
+        document.keySet().retainAll(SENT_FIELDS);
+        return document;
+    }
+
+    private BlogPost toPost(Document document) {
+        return document == null ? null : mongoTemplate.getConverter().read(BlogPost.class, document);
+    }
+
+    private static Set<String> sentFields() {
+        Set<String> fields = new HashSet<>(List.of(BlogPostRepository.SNAPSHOT_FIELDS));
+        fields.add("_id");
+        return Set.copyOf(fields);
+    }
+}
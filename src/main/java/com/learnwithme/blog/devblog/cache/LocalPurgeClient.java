@@ -0,0 +1,43 @@
+package com.learnwithme.blog.devblog.cache;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Stand-in for a CDN when none is configured, and for tests: purges are only logged
+ * and the most recent batches kept in memory.
+ */
+public class LocalPurgeClient implements PurgeClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalPurgeClient.class);
+
+    private static final int MAX_BATCHES = 100;
+
+    private final Deque<List<String>> batches = new ArrayDeque<>();
+
+    @Override
+    public synchronized void purge(Collection<String> surrogateKeys) {
+        logger.debug("Purging surrogate keys {}", surrogateKeys);
+        if (batches.size() == MAX_BATCHES) {
+            batches.removeFirst();
+        }
+        batches.addLast(List.copyOf(surrogateKeys));
+    }
+
+    /**
+     * @return the most recent purge batches, oldest first
+     */
+    public synchronized List<List<String>> getBatches() {
+        return new ArrayList<>(batches);
+    }
+
+    public synchronized void clear() {
+        batches.clear();
+    }
+}
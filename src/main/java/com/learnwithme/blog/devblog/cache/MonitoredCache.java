@@ -0,0 +1,15 @@
+package com.learnwithme.blog.devblog.cache;
+
+import com.learnwithme.blog.devblog.dto.CacheStatsDto;
+
+/**
+ * A cache whose counters are reported on the admin cache endpoint
+ */
+public interface MonitoredCache {
+
+    /**
+     * Current size and hit/miss/eviction counters
+     * @return cache statistics
+     */
+    CacheStatsDto stats();
+}
@@ -0,0 +1,595 @@
+package com.learnwithme.blog.devblog.cache;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.learnwithme.blog.devblog.dto.CacheStatsDto;
+
+/**
+ * Memory-mapped, append-only store of rendered pages on local disk, so a restarted
+ * node keeps the pages it served before. Records are written to one mapped file and
+ * found through an in-heap index of offsets, rebuilt on boot by scanning the file;
+ * removals append a tombstone, and the file is compacted once it fills up. Each
+ * record carries a CRC so a write torn by a crash ends the scan instead of being read.
+ * The store also keeps an access log of page keys, so the hottest pages can be
+ * preloaded on boot. Pages never outlive the response cache's TTL, and pages found
+ * on boot must be checked by the owner against writes made while the node was down
+ * before they are served. A directory is used by one process at a time: the store
+ * holds a lock on it while open, and stays off if another instance holds it.
+ */
+@Component
+public class PageStore implements MonitoredCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(PageStore.class);
+
+    private static final int MAGIC = 0x50414745;
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+    // Magic and length before the body, CRC after it
+    private static final int FRAME_BYTES = 12;
+    private static final int MAX_STRING_BYTES = 0xFFFF;
+    private static final String DATA_FILE = "pages.dat";
+    private static final String ACCESS_LOG_FILE = "access.log";
+    private static final String LOCK_FILE = "store.lock";
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int capacity;
+    private final long maxAgeMillis;
+    private final int maxTrackedKeys;
+    private final Duration accessLogInterval;
+
+    private final Map<String, Entry> index = new HashMap<>();
+    private final Map<String, LongAdder> accesses = new ConcurrentHashMap<>();
+    private volatile Map<String, Long> accessCounts = Map.of();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder writeFailures = new LongAdder();
+    private long expirations;
+    private long compactions;
+
+    // Pages written before this time were recovered from an earlier run
+    private long openedAt;
+
+    // Locked for as long as the store is open; a file of its own, as compaction replaces the data file
+    private FileChannel lockChannel;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int position;
+    private long liveBytes;
+    private ScheduledExecutorService accessLogWriter;
+
+    public PageStore(@Value("${app.cache.page-store.enabled:true}") boolean enabled,
+                     @Value("${app.cache.page-store.dir:${user.home}/.devblog/page-store-${server.port:8080}}") String directory,
+                     @Value("${app.cache.page-store.max-bytes:268435456}") long maxBytes,
+                     @Value("${app.cache.page-store.max-age:24h}") Duration maxAge,
+                     @Value("${app.cache.responses.ttl:5m}") Duration responseTtl,
+                     @Value("${app.cache.page-store.max-tracked-keys:20000}") int maxTrackedKeys,
+                     @Value("${app.cache.page-store.access-log-interval:5m}") Duration accessLogInterval) {
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.capacity = (int) Math.min(maxBytes, Integer.MAX_VALUE);
+        // A stored page is a cached response, so it expires no later than one
+        this.maxAgeMillis = Math.min(maxAge.toMillis(), responseTtl.toMillis());
+        this.maxTrackedKeys = maxTrackedKeys;
+        this.accessLogInterval = accessLogInterval;
+    }
+
+    @PostConstruct
+    public synchronized void open() {
+        if (!enabled) {
+            return;
+        }
+        openedAt = System.currentTimeMillis();
+        try {
+            Files.createDirectories(directory);
+            if (!lock()) {
+                logger.warn("Page store disabled, {} is in use by another instance", directory);
+                close();
+                return;
+            }
+            channel = FileChannel.open(directory.resolve(DATA_FILE),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            recover();
+            accessCounts = readAccessLog();
+            logger.info("Page store opened with {} pages ({} bytes) and {} logged keys",
+                    index.size(), liveBytes, accessCounts.size());
+        } catch (IOException e) {
+            logger.warn("Page store disabled, could not open {}: {}", directory, e.getMessage());
+            close();
+            return;
+        }
+
+        accessLogWriter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "page-store-access-log");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = accessLogInterval.toMillis();
+        accessLogWriter.scheduleWithFixedDelay(this::writeAccessLog, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (accessLogWriter != null) {
+            accessLogWriter.shutdownNow();
+        }
+        writeAccessLog();
+        synchronized (this) {
+            if (buffer != null) {
+                buffer.force();
+            }
+            close();
+        }
+    }
+
+    /**
+     * @param key the page key
+     * @return a copy of the stored page, or null if absent or older than the maximum age
+     */
+    public synchronized byte[] get(String key) {
+        Entry entry = index.get(key);
+        if (entry == null || buffer == null) {
+            misses.increment();
+            return null;
+        }
+        if (isExpired(entry)) {
+            expirations++;
+            remove(key);
+            misses.increment();
+            return null;
+        }
+
+        byte[] page = new byte[entry.pageLength];
+        buffer.get(entry.pageOffset, page);
+        hits.increment();
+        return page;
+    }
+
+    /**
+     * Store a page, replacing any earlier version
+     * @param key the page key
+     * @param tags invalidation tags of the page
+     * @param page the page bytes
+     */
+    public synchronized void put(String key, Set<String> tags, byte[] page) {
+        if (buffer == null) {
+            return;
+        }
+
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        List<byte[]> tagBytes = tags.stream()
+                .map(tag -> tag.getBytes(StandardCharsets.UTF_8))
+                .collect(Collectors.toList());
+        if (keyBytes.length > MAX_STRING_BYTES || tagBytes.size() > MAX_STRING_BYTES
+                || tagBytes.stream().anyMatch(tag -> tag.length > MAX_STRING_BYTES)) {
+            writeFailures.increment();
+            return;
+        }
+        int bodyLength = 1 + 8 + 2 + keyBytes.length + 2 + 4 + page.length;
+        for (byte[] tag : tagBytes) {
+            bodyLength += 2 + tag.length;
+        }
+
+        ByteBuffer body = ByteBuffer.allocate(bodyLength);
+        body.put(PUT).putLong(System.currentTimeMillis());
+        body.putShort((short) keyBytes.length).put(keyBytes);
+        body.putShort((short) tagBytes.size());
+        for (byte[] tag : tagBytes) {
+            body.putShort((short) tag.length).put(tag);
+        }
+        body.putInt(page.length);
+        int pageOffsetInBody = body.position();
+        body.put(page);
+
+        int offset = append(body.array());
+        if (offset < 0) {
+            return;
+        }
+        Entry entry = new Entry(offset, FRAME_BYTES + bodyLength, offset + 8 + pageOffsetInBody, page.length,
+                Set.copyOf(tags), System.currentTimeMillis());
+        Entry previous = index.put(key, entry);
+        if (previous != null) {
+            liveBytes -= previous.recordLength;
+        }
+        liveBytes += entry.recordLength;
+    }
+
+    /**
+     * @param key the page key to drop
+     */
+    public synchronized void remove(String key) {
+        Entry removed = index.remove(key);
+        if (removed == null || buffer == null) {
+            return;
+        }
+        liveBytes -= removed.recordLength;
+
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer body = ByteBuffer.allocate(1 + 8 + 2 + keyBytes.length);
+        body.put(REMOVE).putLong(System.currentTimeMillis());
+        body.putShort((short) keyBytes.length).put(keyBytes);
+        append(body.array());
+    }
+
+    /**
+     * @param tag drop every page carrying this tag
+     */
+    public synchronized void removeTagged(String tag) {
+        List<String> tagged = index.entrySet().stream()
+                .filter(entry -> entry.getValue().tags.contains(tag))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        tagged.forEach(this::remove);
+    }
+
+    /**
+     * Drop pages recovered from an earlier run that fail a check. Pages stored since
+     * the store opened are kept current by invalidation and are not checked.
+     * @param stale tells whether a recovered page is out of date
+     * @return number of pages dropped
+     */
+    public synchronized int removeRecoveredIf(Predicate<byte[]> stale) {
+        List<String> dropped = new ArrayList<>();
+        for (Map.Entry<String, Entry> item : index.entrySet()) {
+            Entry entry = item.getValue();
+            if (entry.writtenAt >= openedAt) {
+                continue;
+            }
+            byte[] page = new byte[entry.pageLength];
+            buffer.get(entry.pageOffset, page);
+            if (stale.test(page)) {
+                dropped.add(item.getKey());
+            }
+        }
+        dropped.forEach(this::remove);
+        return dropped.size();
+    }
+
+    /**
+     * Count a request for a page towards the access log
+     * @param key the page key
+     */
+    public void recordAccess(String key) {
+        // One key per line in the log
+        if (buffer == null || key.indexOf('\n') >= 0 || key.indexOf('\r') >= 0) {
+            return;
+        }
+        LongAdder counter = accesses.get(key);
+        if (counter == null) {
+            if (accesses.size() >= maxTrackedKeys) {
+                return;
+            }
+            counter = accesses.computeIfAbsent(key, k -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    /**
+     * Most requested stored pages according to the access log
+     * @param limit maximum number of keys
+     * @return keys, most requested first
+     */
+    public synchronized List<String> hotKeys(int limit) {
+        return accessCounts.entrySet().stream()
+                .filter(entry -> index.containsKey(entry.getKey()))
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public synchronized CacheStatsDto stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long requests = hitCount + missCount;
+        return CacheStatsDto.builder()
+                .name("page-store")
+                .size(index.size())
+                .weight(liveBytes)
+                .maxEntries(Integer.MAX_VALUE)
+                .maxWeight(capacity)
+                .hits(hitCount)
+                .misses(missCount)
+                .hitRate(requests == 0 ? 0.0 : (double) hitCount / requests)
+                .loadFailures(writeFailures.sum())
+                .evictions(compactions)
+                .expirations(expirations)
+                .build();
+    }
+
+    /**
+     * Append a framed record, compacting first if the file is full
+     * @return the record's offset, or -1 if it does not fit
+     */
+    private int append(byte[] body) {
+        int recordLength = FRAME_BYTES + body.length;
+        if ((long) position + recordLength > capacity) {
+            compact();
+            if (buffer == null || (long) position + recordLength > capacity) {
+                writeFailures.increment();
+                return -1;
+            }
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        int offset = position;
+        buffer.putInt(offset, MAGIC);
+        buffer.putInt(offset + 4, body.length);
+        buffer.put(offset + 8, body);
+        buffer.putInt(offset + 8 + body.length, (int) crc.getValue());
+        position += recordLength;
+        return offset;
+    }
+
+    /**
+     * Rebuild the index from the file, stopping at the first torn or missing record
+     */
+    private void recover() {
+        int offset = 0;
+        while (offset + FRAME_BYTES <= capacity && buffer.getInt(offset) == MAGIC) {
+            int bodyLength = buffer.getInt(offset + 4);
+            if (bodyLength <= 0 || (long) offset + FRAME_BYTES + bodyLength > capacity) {
+                break;
+            }
+            byte[] body = new byte[bodyLength];
+            buffer.get(offset + 8, body);
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            if ((int) crc.getValue() != buffer.getInt(offset + 8 + bodyLength)) {
+                break;
+            }
+
+            ByteBuffer record = ByteBuffer.wrap(body);
+            byte type = record.get();
+            long writtenAt = record.getLong();
+            String key = readString(record);
+            Entry previous;
+            if (type == PUT) {
+                int tagCount = record.getShort() & 0xFFFF;
+                List<String> tags = new ArrayList<>(tagCount);
+                for (int i = 0; i < tagCount; i++) {
+                    tags.add(readString(record));
+                }
+                int pageLength = record.getInt();
+                Entry entry = new Entry(offset, FRAME_BYTES + bodyLength, offset + 8 + record.position(), pageLength,
+                        Set.copyOf(tags), writtenAt);
+                previous = index.put(key, entry);
+                liveBytes += entry.recordLength;
+            } else {
+                previous = index.remove(key);
+            }
+            if (previous != null) {
+                liveBytes -= previous.recordLength;
+            }
+            offset += FRAME_BYTES + bodyLength;
+        }
+        position = offset;
+
+        // Pages past their maximum age are not worth keeping across the restart
+        List<String> expired = index.entrySet().stream()
+                .filter(entry -> isExpired(entry.getValue()))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        expired.forEach(this::remove);
+    }
+
+    /**
+     * Copy the live records into a fresh file and switch to it
+     */
+    private void compact() {
+        Path target = directory.resolve(DATA_FILE + ".compacting");
+        try (FileChannel compacted = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer compactedBuffer = compacted.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+
+            // Newest first, and only up to half the file, so the next compaction is far off
+            List<Map.Entry<String, Entry>> live = new ArrayList<>(index.entrySet());
+            live.sort((a, b) -> Integer.compare(a.getValue().offset, b.getValue().offset));
+            Collections.reverse(live);
+
+            Map<String, Entry> kept = new LinkedHashMap<>();
+            int offset = 0;
+            long now = System.currentTimeMillis();
+            for (Map.Entry<String, Entry> item : live) {
+                Entry entry = item.getValue();
+                if (now - entry.writtenAt > maxAgeMillis || offset + entry.recordLength > capacity / 2) {
+                    continue;
+                }
+                byte[] record = new byte[entry.recordLength];
+                buffer.get(entry.offset, record);
+                compactedBuffer.put(offset, record);
+                kept.put(item.getKey(), entry.movedTo(offset));
+                offset += entry.recordLength;
+            }
+            compactedBuffer.force();
+            Files.move(target, directory.resolve(DATA_FILE),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            channel.close();
+            channel = FileChannel.open(directory.resolve(DATA_FILE), StandardOpenOption.READ, StandardOpenOption.WRITE);
+            buffer = compactedBuffer;
+            position = offset;
+            index.clear();
+            index.putAll(kept);
+            liveBytes = offset;
+            compactions++;
+            logger.info("Page store compacted to {} pages ({} bytes)", kept.size(), offset);
+        } catch (IOException e) {
+            logger.warn("Page store compaction failed, disabling the store: {}", e.getMessage());
+            close();
+        }
+    }
+
+    /**
+     * @return true if this instance now owns the directory
+     */
+    private boolean lock() throws IOException {
+        lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            FileLock lock = lockChannel.tryLock();
+            return lock != null;
+        } catch (OverlappingFileLockException e) {
+            // Held by another store in this JVM
+            return false;
+        }
+    }
+
+    private void writeAccessLog() {
+        synchronized (accesses) {
+            if (!accesses.isEmpty()) {
+                flushAccesses();
+            }
+        }
+    }
+
+    private void flushAccesses() {
+
+        // Halve the older counts so yesterday's hot pages give way to today's
+        Map<String, Long> merged = new HashMap<>();
+        accessCounts.forEach((key, count) -> merged.put(key, count / 2));
+        for (String key : new ArrayList<>(accesses.keySet())) {
+            LongAdder counter = accesses.remove(key);
+            if (counter != null) {
+                merged.merge(key, counter.sum(), Long::sum);
+            }
+        }
+        Map<String, Long> top = merged.entrySet().stream()
+                .filter(entry -> entry.getValue() > 0)
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(maxTrackedKeys)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+        accessCounts = top;
+
+        Path target = directory.resolve(ACCESS_LOG_FILE + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, Long> entry : top.entrySet()) {
+                writer.write(entry.getValue() + "\t" + entry.getKey());
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            logger.warn("Could not write page access log: {}", e.getMessage());
+            return;
+        }
+        try {
+            Files.move(target, directory.resolve(ACCESS_LOG_FILE),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Could not replace page access log: {}", e.getMessage());
+        }
+    }
+
+    private Map<String, Long> readAccessLog() throws IOException {
+        Path file = directory.resolve(ACCESS_LOG_FILE);
+        if (!Files.exists(file)) {
+            return Map.of();
+        }
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            int tab = line.indexOf('\t');
+            if (tab <= 0) {
+                continue;
+            }
+            try {
+                counts.put(line.substring(tab + 1), Long.parseLong(line.substring(0, tab)));
+            } catch (NumberFormatException e) {
+                // Skip a damaged line rather than the whole log
+            }
+        }
+        return counts;
+    }
+
+    private boolean isExpired(Entry entry) {
+        return System.currentTimeMillis() - entry.writtenAt > maxAgeMillis;
+    }
+
+    private void close() {
+        buffer = null;
+        index.clear();
+        liveBytes = 0;
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.debug("Could not close page store file", e);
+            }
+            channel = null;
+        }
+        if (lockChannel != null) {
+            // Closing the channel releases the lock
+            try {
+                lockChannel.close();
+            } catch (IOException e) {
+                logger.debug("Could not release page store lock", e);
+            }
+            lockChannel = null;
+        }
+    }
+
+    private static String readString(ByteBuffer record) {
+        byte[] bytes = new byte[record.getShort() & 0xFFFF];
+        record.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static final class Entry {
+        private final int offset;
+        private final int recordLength;
+        private final int pageOffset;
+        private final int pageLength;
+        private final Set<String> tags;
+        private final long writtenAt;
+
+        private Entry(int offset, int recordLength, int pageOffset, int pageLength, Set<String> tags, long writtenAt) {
+            this.offset = offset;
+            this.recordLength = recordLength;
+            this.pageOffset = pageOffset;
+            this.pageLength = pageLength;
+            this.tags = tags;
+            this.writtenAt = writtenAt;
+        }
+
+        private Entry movedTo(int newOffset) {
+            return new Entry(newOffset, recordLength, pageOffset - offset + newOffset, pageLength, tags, writtenAt);
+        }
+    }
+}
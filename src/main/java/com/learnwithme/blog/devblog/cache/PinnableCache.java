@@ -0,0 +1,15 @@
+package com.learnwithme.blog.devblog.cache;
+
+import java.util.Set;
+
+/**
+ * A read cache that keeps the entries of hot request keys from being evicted
+ */
+public interface PinnableCache {
+
+    /**
+     * Pin the entries serving these hot keys, and unpin all others
+     * @param hotKeys keys as classified by {@link HotKeyTracker#keyOf(String)}
+     */
+    void pinHotKeys(Set<String> hotKeys);
+}
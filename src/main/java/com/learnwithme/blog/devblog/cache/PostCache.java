@@ -0,0 +1,115 @@
+package com.learnwithme.blog.devblog.cache;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.learnwithme.blog.devblog.dto.BlogPostDto;
+import com.learnwithme.blog.devblog.dto.CacheStatsDto;
+import com.learnwithme.blog.devblog.event.PostChange;
+import com.learnwithme.blog.devblog.event.PostChangedEvent;
+
+/**
+ * Read-through cache of single blog posts, keyed by both id and slug
+ */
+@Component
+public class PostCache implements MonitoredCache, PinnableCache {
+
+    private static final String ID_PREFIX = "id:";
+    private static final String SLUG_PREFIX = "slug:";
+
+    // Rough fixed cost of a DTO and its non-content fields, in bytes
+    private static final long ENTRY_OVERHEAD = 512;
+
+    private final BoundedCache<String, BlogPostDto> cache;
+
+    public PostCache(@Value("${app.cache.posts.max-entries:2000}") int maxEntries,
+                     @Value("${app.cache.posts.max-weight-bytes:67108864}") long maxWeightBytes,
+                     @Value("${app.cache.posts.ttl:10m}") Duration ttl) {
+        this.cache = new BoundedCache<>("posts", maxEntries, maxWeightBytes, ttl, PostCache::weigh);
+    }
+
+    /**
+     * Get a post by ID, loading it on a miss
+     * @param postId the post ID
+     * @param loader loads the post from the database
+     * @return the post
+     */
+    public BlogPostDto getById(String postId, Supplier<BlogPostDto> loader) {
+        return cache.get(ID_PREFIX + postId, key -> loader.get());
+    }
+
+    /**
+     * Get a post by slug, loading it on a miss
+     * @param slug the post slug
+     * @param loader loads the post from the database
+     * @return the post
+     */
+    public BlogPostDto getBySlug(String slug, Supplier<BlogPostDto> loader) {
+        return cache.get(SLUG_PREFIX + slug, key -> loader.get());
+    }
+
+    /**
+     * Get a cached post by ID without loading it
+     * @param postId the post ID
+     * @return the post, or null if it is not cached
+     */
+    public BlogPostDto peekById(String postId) {
+        return cache.peek(ID_PREFIX + postId);
+    }
+
+    /**
+     * Get a cached post by slug without loading it
+     * @param slug the post slug
+     * @return the post, or null if it is not cached
+     */
+    public BlogPostDto peekBySlug(String slug) {
+        return cache.peek(SLUG_PREFIX + slug);
+    }
+
+    /**
+     * Evict a post under its ID and every slug it was or is reachable by
+     * @param postId the post ID
+     * @param slugs old and new slugs of the post
+     */
+    public void invalidate(String postId, String... slugs) {
+        cache.invalidate(ID_PREFIX + postId);
+        for (String slug : slugs) {
+            if (slug != null) {
+                cache.invalidate(SLUG_PREFIX + slug);
+            }
+        }
+    }
+
+    @EventListener
+    public void onPostChanged(PostChangedEvent event) {
+        for (PostChange change : event.getChanges()) {
+            invalidate(change.getPostId(), change.getSlugs().toArray(String[]::new));
+        }
+    }
+
+    @Override
+    public void pinHotKeys(Set<String> hotKeys) {
+        cache.pinIf(key -> key.startsWith(ID_PREFIX)
+                ? hotKeys.contains("post:" + key.substring(ID_PREFIX.length()))
+                : hotKeys.contains(key));
+    }
+
+    @Override
+    public CacheStatsDto stats() {
+        return cache.stats();
+    }
+
+    private static long weigh(BlogPostDto post) {
+        long chars = length(post.getContent()) + length(post.getTitle()) + length(post.getSummary());
+        return ENTRY_OVERHEAD + 2 * chars;
+    }
+
+    private static long length(String value) {
+        return value == null ? 0 : value.length();
+    }
+}
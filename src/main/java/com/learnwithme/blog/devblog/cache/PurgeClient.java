@@ -0,0 +1,16 @@
+package com.learnwithme.blog.devblog.cache;
+
+import java.util.Collection;
+
+/**
+ * Removes responses from the CDN by surrogate key.
+ */
+public interface PurgeClient {
+
+    /**
+     * Purge every response carrying one of the keys
+     * @param surrogateKeys encoded surrogate keys, deduplicated
+     * @throws RuntimeException if the purge was not accepted; the keys are retried
+     */
+    void purge(Collection<String> surrogateKeys);
+}
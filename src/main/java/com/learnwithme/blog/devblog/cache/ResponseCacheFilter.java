@@ -0,0 +1,489 @@
+package com.learnwithme.blog.devblog.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.zip.GZIPOutputStream;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import com.learnwithme.blog.devblog.dto.CacheStatsDto;
+import com.learnwithme.blog.devblog.event.CategoryChangedEvent;
+import com.learnwithme.blog.devblog.event.PostChange;
+import com.learnwithme.blog.devblog.event.PostChangedEvent;
+
+/**
+ * Whole-response cache for anonymous GETs of the public post and category APIs.
+ * Rendered responses are stored as final JSON bytes plus a gzip variant, keyed by
+ * path and sorted query parameters, and replayed without reaching the controllers.
+ * Only responses the handler tagged through {@link ResponseTags} are stored; writes
+ * drop them by tag. Concurrent misses for the same URL share a single render.
+ * Stored responses are also written to the {@link PageStore}, which outlives restarts:
+ * a miss is answered from there before rendering, and the most requested pages are
+ * loaded back into memory on boot. Each stored page records the shared write sequence
+ * it was rendered at; on boot, pages from the previous run are kept only if no post or
+ * category was written since, on any node, and none are served until that is checked.
+ */
+@Component
+public class ResponseCacheFilter extends OncePerRequestFilter implements MonitoredCache, PinnableCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseCacheFilter.class);
+
+    private static final String GZIP = "gzip";
+    private static final String X_CACHE = "X-Cache";
+    private static final int MIN_COMPRESS_BYTES = 1024;
+    private static final long ENTRY_OVERHEAD = 256;
+
+    private final boolean enabled;
+    private final int maxBodyBytes;
+    private final int preloadCount;
+    private final BoundedCache<String, CachedResponse> responses;
+    private final PageStore pageStore;
+    private final ContentVersions contentVersions;
+
+    // Set once pages recovered from the previous run have been checked
+    private volatile boolean recoveredPagesChecked;
+
+    // Orders persisting a page against dropping its tags, so a dropped page is never written back
+    private final Object persistLock = new Object();
+
+    public ResponseCacheFilter(PageStore pageStore,
+                               ContentVersions contentVersions,
+                               @Value("${app.cache.responses.enabled:true}") boolean enabled,
+                               @Value("${app.cache.responses.max-entries:5000}") int maxEntries,
+                               @Value("${app.cache.responses.max-weight-bytes:33554432}") long maxWeightBytes,
+                               @Value("${app.cache.responses.max-body-bytes:1048576}") int maxBodyBytes,
+                               @Value("${app.cache.responses.ttl:5m}") Duration ttl,
+                               @Value("${app.cache.page-store.preload:200}") int preloadCount) {
+        this.pageStore = pageStore;
+        this.contentVersions = contentVersions;
+        this.enabled = enabled;
+        this.maxBodyBytes = maxBodyBytes;
+        this.preloadCount = preloadCount;
+        this.responses = new BoundedCache<>("responses", maxEntries, maxWeightBytes, ttl, CachedResponse::weight);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!enabled || !"GET".equals(request.getMethod()) || request.getHeader(HttpHeaders.AUTHORIZATION) != null) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !(path.startsWith("/api/posts") || path.startsWith("/api/categories"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        String key = cacheKey(request);
+        ContentCachingResponseWrapper[] rendered = new ContentCachingResponseWrapper[1];
+        CachedResponse cached;
+        try {
+            cached = responses.get(key, missed -> {
+                if (recoveredPagesChecked) {
+                    CachedResponse persisted = CachedResponse.decode(pageStore.get(missed));
+                    if (persisted != null) {
+                        return persisted;
+                    }
+                }
+                // Read before rendering, so a write racing the render makes the page look older, not newer
+                long writeSequence = contentVersions.writeSequence();
+                rendered[0] = new ContentCachingResponseWrapper(response);
+                render(request, rendered[0], chain);
+                return capture(request, rendered[0], writeSequence);
+            });
+        } catch (ChainException e) {
+            if (e.getCause() instanceof ServletException cause) {
+                throw cause;
+            }
+            throw ((UncheckedIOException) e.getCause()).getCause();
+        }
+
+        if (cached != null) {
+            pageStore.recordAccess(key);
+        }
+        if (rendered[0] != null) {
+            // This request rendered the response itself, cacheable or not
+            if (cached != null) {
+                persist(key, cached);
+                response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                response.setHeader(X_CACHE, "MISS");
+            }
+            rendered[0].copyBodyToResponse();
+        } else if (cached != null) {
+            replay(cached, request, response);
+        } else {
+            // Shared a render that turned out not to be cacheable
+            chain.doFilter(request, response);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        if (!enabled) {
+            return;
+        }
+        // Writes made while this node was down, here or elsewhere, never reached the stored pages
+        long writeSequence = contentVersions.writeSequence();
+        int dropped = pageStore.removeRecoveredIf(page -> {
+            CachedResponse persisted = CachedResponse.decode(page);
+            return writeSequence < 0 || persisted == null || persisted.writeSequence != writeSequence;
+        });
+        recoveredPagesChecked = true;
+        if (dropped > 0) {
+            logger.info("Dropped {} stored pages written before posts or categories changed", dropped);
+        }
+
+        List<String> hotKeys = pageStore.hotKeys(preloadCount);
+        int loaded = 0;
+        for (String key : hotKeys) {
+            CachedResponse persisted = CachedResponse.decode(pageStore.get(key));
+            if (persisted != null) {
+                responses.put(key, persisted);
+                loaded++;
+            }
+        }
+        logger.info("Preloaded {} of {} hot pages from the page store", loaded, hotKeys.size());
+    }
+
+    @EventListener
+    public void onPostChanged(PostChangedEvent event) {
+        for (PostChange change : event.getChanges()) {
+            ResponseTags.affectedBy(change).forEach(this::invalidateTag);
+        }
+    }
+
+    @EventListener
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        ResponseTags.affectedBy(event).forEach(this::invalidateTag);
+    }
+
+    @Override
+    public void pinHotKeys(Set<String> hotKeys) {
+        if (hotKeys.isEmpty()) {
+            responses.pinIf(key -> false);
+        } else {
+            responses.pinIf(key -> {
+                String hotKey = HotKeyTracker.keyOf(key);
+                return hotKey != null && hotKeys.contains(hotKey);
+            });
+        }
+    }
+
+    @Override
+    public CacheStatsDto stats() {
+        return responses.stats();
+    }
+
+    private void invalidateTag(String tag) {
+        synchronized (persistLock) {
+            responses.invalidateEntriesIf((key, cached) -> cached.tags.contains(tag));
+            pageStore.removeTagged(tag);
+        }
+    }
+
+    /**
+     * Write a freshly rendered page through to the page store, unless a write has
+     * already dropped it from memory again
+     */
+    private void persist(String key, CachedResponse cached) {
+        synchronized (persistLock) {
+            if (responses.peek(key) == cached) {
+                pageStore.put(key, cached.tags, cached.encode());
+            }
+        }
+    }
+
+    private void render(HttpServletRequest request, HttpServletResponse response, FilterChain chain) {
+        try {
+            chain.doFilter(request, response);
+        } catch (ServletException e) {
+            throw new ChainException(e);
+        } catch (IOException e) {
+            throw new ChainException(new UncheckedIOException(e));
+        }
+    }
+
+    private CachedResponse capture(HttpServletRequest request, ContentCachingResponseWrapper response, long writeSequence) {
+        Set<String> tags = ResponseTags.of(request);
+        byte[] body = response.getContentAsByteArray();
+        String contentType = response.getContentType();
+
+        if (response.getStatus() != HttpStatus.OK.value() || tags.isEmpty() || StaleReads.isStale(request) || body.length > maxBodyBytes
+                || contentType == null || !MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(contentType))) {
+            return null;
+        }
+
+        byte[] gzipped = body.length >= MIN_COMPRESS_BYTES ? gzip(body) : null;
+        return new CachedResponse(body, gzipped != null && gzipped.length < body.length ? gzipped : null,
+                contentType,
+                response.getHeader(HttpHeaders.ETAG),
+                response.getHeader(HttpHeaders.LAST_MODIFIED),
+                response.getHeader(HttpHeaders.CACHE_CONTROL),
+                Set.copyOf(tags),
+                writeSequence);
+    }
+
+    private void replay(CachedResponse cached, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        boolean gzipped = cached.gzipped != null && acceptsGzip(request);
+        // A strong validator names one exact body, so the compressed one gets a tag of its own
+        String etag = gzipped ? gzipEtag(cached.etag) : cached.etag;
+        if (etag != null) {
+            response.setHeader(HttpHeaders.ETAG, etag);
+        }
+        if (cached.lastModified != null) {
+            response.setHeader(HttpHeaders.LAST_MODIFIED, cached.lastModified);
+        }
+        if (cached.cacheControl != null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, cached.cacheControl);
+            if (cached.cacheControl.contains(SurrogateKeys.S_MAXAGE)) {
+                // Surrogate keys are the response's tags, so they need not be stored
+                response.setHeader(SurrogateKeys.HEADER, SurrogateKeys.header(cached.tags));
+            }
+        }
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        response.setHeader(X_CACHE, "HIT");
+
+        if (notModified(request, etag, cached.lastModified)) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+
+        byte[] body = cached.body;
+        if (gzipped) {
+            body = cached.gzipped;
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+        }
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(cached.contentType);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    /**
+     * Path plus query parameters sorted by name, so parameter order does not split entries
+     */
+    static String cacheKey(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        if (path.length() > 1 && path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+
+        StringBuilder key = new StringBuilder(path);
+        Map<String, String[]> parameters = new TreeMap<>(request.getParameterMap());
+        char separator = '?';
+        for (Map.Entry<String, String[]> parameter : parameters.entrySet()) {
+            for (String value : parameter.getValue()) {
+                key.append(separator).append(parameter.getKey()).append('=').append(value);
+                separator = '&';
+            }
+        }
+        return key.toString();
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        return Arrays.stream(acceptEncoding.split(","))
+                .map(String::trim)
+                .anyMatch(coding -> coding.equals(GZIP) || (coding.startsWith(GZIP + ";") && !coding.matches(".*q=0(\\.0*)?$")));
+    }
+
+    /**
+     * Conditional GET against the stored validators, like the controllers answer it:
+     * If-Modified-Since only counts when the request has no If-None-Match
+     */
+    private static boolean notModified(HttpServletRequest request, String etag, String lastModified) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            return etag != null && etagMatches(ifNoneMatch, etag);
+        }
+
+        String ifModifiedSince = request.getHeader(HttpHeaders.IF_MODIFIED_SINCE);
+        if (ifModifiedSince == null || lastModified == null) {
+            return false;
+        }
+        try {
+            return !parseHttpDate(lastModified).isAfter(parseHttpDate(ifModifiedSince));
+        } catch (DateTimeParseException e) {
+            // An unreadable date is ignored, as the controllers do
+            return false;
+        }
+    }
+
+    private static Instant parseHttpDate(String value) {
+        return ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+    }
+
+    /**
+     * @return the entity tag of the gzip variant: the same tag with a "-gzip" suffix
+     */
+    private static String gzipEtag(String etag) {
+        if (etag == null || !etag.endsWith("\"")) {
+            return etag;
+        }
+        return etag.substring(0, etag.length() - 1) + "-" + GZIP + "\"";
+    }
+
+    private static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        return Arrays.stream(ifNoneMatch.split(","))
+                .map(String::trim)
+                .map(candidate -> candidate.startsWith("W/") ? candidate.substring(2) : candidate)
+                .anyMatch(candidate -> candidate.equals(etag) || candidate.equals("*"));
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            return null;
+        }
+        return compressed.toByteArray();
+    }
+
+    private static final class CachedResponse {
+        private final byte[] body;
+        private final byte[] gzipped;
+        private final String contentType;
+        private final String etag;
+        private final String lastModified;
+        private final String cacheControl;
+        private final Set<String> tags;
+        // Shared write sequence when the response was rendered, or -1 if unknown
+        private final long writeSequence;
+
+        private CachedResponse(byte[] body, byte[] gzipped, String contentType, String etag,
+                               String lastModified, String cacheControl, Set<String> tags, long writeSequence) {
+            this.body = body;
+            this.gzipped = gzipped;
+            this.contentType = contentType;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.cacheControl = cacheControl;
+            this.tags = tags;
+            this.writeSequence = writeSequence;
+        }
+
+        private long weight() {
+            return ENTRY_OVERHEAD + body.length + (gzipped == null ? 0 : gzipped.length);
+        }
+
+        private byte[] encode() {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream((int) weight());
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                writeBytes(out, body);
+                writeBytes(out, gzipped);
+                writeString(out, contentType);
+                writeString(out, etag);
+                writeString(out, lastModified);
+                writeString(out, cacheControl);
+                out.writeInt(tags.size());
+                for (String tag : tags) {
+                    out.writeUTF(tag);
+                }
+                out.writeLong(writeSequence);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return bytes.toByteArray();
+        }
+
+        private static CachedResponse decode(byte[] page) {
+            if (page == null) {
+                return null;
+            }
+            try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(page))) {
+                byte[] body = readBytes(in);
+                byte[] gzipped = readBytes(in);
+                String contentType = readString(in);
+                String etag = readString(in);
+                String lastModified = readString(in);
+                String cacheControl = readString(in);
+                int tagCount = in.readInt();
+                Set<String> tags = new HashSet<>();
+                for (int i = 0; i < tagCount; i++) {
+                    tags.add(in.readUTF());
+                }
+                long writeSequence = in.readLong();
+                return new CachedResponse(body, gzipped, contentType, etag, lastModified, cacheControl,
+                        Set.copyOf(tags), writeSequence);
+            } catch (IOException e) {
+                // An unreadable page is simply rendered again
+                return null;
+            }
+        }
+
+        private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+            out.writeInt(bytes == null ? -1 : bytes.length);
+            if (bytes != null) {
+                out.write(bytes);
+            }
+        }
+
+        private static byte[] readBytes(DataInputStream in) throws IOException {
+            int length = in.readInt();
+            if (length < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            in.readFully(bytes);
+            return bytes;
+        }
+
+        private static void writeString(DataOutputStream out, String value) throws IOException {
+            out.writeBoolean(value != null);
+            if (value != null) {
+                out.writeUTF(value);
+            }
+        }
+
+        private static String readString(DataInputStream in) throws IOException {
+            return in.readBoolean() ? in.readUTF() : null;
+        }
+    }
+
+    /**
+     * Carries a checked exception from the filter chain through the cache loader
+     */
+    private static final class ChainException extends RuntimeException {
+        private ChainException(Exception cause) {
+            super(cause);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.learnwithme.blog.devblog.cache;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import com.learnwithme.blog.devblog.event.CategoryChangedEvent;
+import com.learnwithme.blog.devblog.event.PostChange;
+import com.learnwithme.blog.devblog.model.PostFeed;
+
+/**
+ * Invalidation tags that handlers attach to the response being rendered. The
+ * response cache only stores tagged responses, and drops them when one of their
+ * tags is invalidated.
+ */
+public final class ResponseTags {
+
+    static final String ATTRIBUTE = ResponseTags.class.getName() + ".tags";
+
+    public static final String FEED = "feed";
+    public static final String CATEGORIES = "categories";
+
+    private ResponseTags() {
+        // Utility class with private constructor
+    }
+
+    public static String post(String postId) {
+        return "post:" + postId;
+    }
+
+    public static String category(String categoryId) {
+        return "category:" + categoryId;
+    }
+
+    /**
+     * @param feed the feed
+     * @return the tag of responses listing the feed; subcategory feeds share their category's tag
+     */
+    public static String feed(PostFeed feed) {
+        return switch (feed.getType()) {
+            case ALL -> FEED;
+            case CATEGORY, SUBCATEGORY -> category(feed.getCategoryId());
+            case TAG -> "tag:" + feed.getTag();
+            case AUTHOR -> "author:" + feed.getAuthor();
+        };
+    }
+
+    /**
+     * @param change a post write
+     * @return the tags of every response the write makes outdated
+     */
+    public static Set<String> affectedBy(PostChange change) {
+        Set<String> tags = new LinkedHashSet<>();
+        tags.add(post(change.getPostId()));
+        for (PostFeed feed : change.getAffectedFeeds()) {
+            tags.add(feed(feed));
+        }
+        return tags;
+    }
+
+    /**
+     * @param event a category write
+     * @return the tags of every response the write makes outdated
+     */
+    public static Set<String> affectedBy(CategoryChangedEvent event) {
+        return Set.of(CATEGORIES, category(event.getCategoryId()));
+    }
+
+    /**
+     * Tag the response of the current request
+     * @param tags the tags
+     */
+    public static void add(String... tags) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        Set<String> current = (Set<String>) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (current == null) {
+            current = new LinkedHashSet<>();
+            attributes.setAttribute(ATTRIBUTE, current, RequestAttributes.SCOPE_REQUEST);
+        }
+        current.addAll(Set.of(tags));
+    }
+
+    @SuppressWarnings("unchecked")
+    static Set<String> of(HttpServletRequest request) {
+        Set<String> tags = (Set<String>) request.getAttribute(ATTRIBUTE);
+        return tags == null ? Set.of() : tags;
+    }
+}
@@ -0,0 +1,260 @@
+package com.learnwithme.blog.devblog.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import com.learnwithme.blog.devblog.dto.CacheStatsDto;
+import com.learnwithme.blog.devblog.event.PostChange;
+import com.learnwithme.blog.devblog.event.PostChangedEvent;
+import com.learnwithme.blog.devblog.model.BlogPost;
+
+/**
+ * Answers "does a post with this slug exist?" from memory, so lookups of slugs that
+ * were never used cost no query. A counting Bloom filter holds every current slug,
+ * drafts included, and follows creates, renames and deletes; it never misses an
+ * existing slug. Its rare false positives, once confirmed missing by the database,
+ * are remembered for a short while in a negative cache.
+ */
+@Component
+public class SlugFilter implements MonitoredCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(SlugFilter.class);
+
+    private static final int SATURATED = 0xFF;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private final double falsePositiveRate;
+    private final BoundedCache<String, Boolean> missing;
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder passed = new LongAdder();
+
+    // Bumped on every slug change, so a lookup that raced a write does not cache a miss
+    private volatile long generation;
+
+    private volatile Filter filter;
+    private int expectedSlugs;
+
+    public SlugFilter(@Value("${app.cache.slug-filter.expected-slugs:100000}") int expectedSlugs,
+                      @Value("${app.cache.slug-filter.false-positive-rate:0.01}") double falsePositiveRate,
+                      @Value("${app.cache.missing-slugs.max-entries:20000}") int maxMissing,
+                      @Value("${app.cache.missing-slugs.ttl:60s}") Duration missingTtl) {
+        this.expectedSlugs = expectedSlugs;
+        this.falsePositiveRate = falsePositiveRate;
+        this.missing = new BoundedCache<>("missing-slugs", maxMissing, maxMissing, missingTtl, value -> 1);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        Filter built = build();
+        if (built.count > expectedSlugs) {
+            // Grow ahead of the collection rather than let the error rate climb
+            expectedSlugs = built.count * 2;
+            built = build();
+        }
+
+        filter = built;
+        generation++;
+        missing.invalidateAll();
+        logger.info("Slug filter built with {} slugs in {} bytes", built.count, built.counters.length);
+    }
+
+    /**
+     * @param slug the slug
+     * @return true if no post can have this slug; false if one might
+     */
+    public boolean isKnownMissing(String slug) {
+        if (!mightExist(slug) || missing.peek(slug) != null) {
+            rejected.increment();
+            return true;
+        }
+        passed.increment();
+        return false;
+    }
+
+    /**
+     * @param slug the slug
+     * @return false only if no post has this slug; the filter never misses a used slug
+     */
+    public boolean mightExist(String slug) {
+        Filter current = filter;
+        // Until the filter is built every slug might exist
+        return slug == null || current == null || current.mightContain(slug);
+    }
+
+    /**
+     * @return the current generation, to be passed to {@link #recordMissing} after the lookup
+     */
+    public long generation() {
+        return generation;
+    }
+
+    /**
+     * Remember a slug the database did not know, unless slugs changed during the lookup
+     * @param slug the slug
+     * @param lookupGeneration the generation read before the lookup started
+     */
+    public void recordMissing(String slug, long lookupGeneration) {
+        synchronized (this) {
+            if (generation == lookupGeneration) {
+                missing.put(slug, Boolean.TRUE);
+            }
+        }
+    }
+
+    @EventListener
+    public synchronized void onPostChanged(PostChangedEvent event) {
+        Filter current = filter;
+        for (PostChange change : event.getChanges()) {
+            String before = change.getBefore() == null ? null : change.getBefore().getSlug();
+            String after = change.getAfter() == null ? null : change.getAfter().getSlug();
+            if (before != null && before.equals(after)) {
+                continue;
+            }
+            if (current != null) {
+                if (before != null) {
+                    current.remove(before);
+                }
+                if (after != null) {
+                    current.add(after);
+                }
+            }
+            if (after != null) {
+                missing.invalidate(after);
+            }
+        }
+        generation++;
+
+        if (current != null && current.count > expectedSlugs) {
+            rebuild();
+        } else {
+            // Publishes the counter updates to readers, who read the field first
+            filter = current;
+        }
+    }
+
+    private Filter build() {
+        Query slugs = new Query();
+        slugs.fields().include("slug");
+
+        Filter built = new Filter(expectedSlugs, falsePositiveRate);
+        try (Stream<BlogPost> stream = mongoTemplate.stream(slugs, BlogPost.class)) {
+            stream.map(BlogPost::getSlug).filter(Objects::nonNull).forEach(built::add);
+        }
+        return built;
+    }
+
+    @Override
+    public CacheStatsDto stats() {
+        Filter current = filter;
+        CacheStatsDto missingStats = missing.stats();
+        long rejectedCount = rejected.sum();
+        long passedCount = passed.sum();
+        long lookups = rejectedCount + passedCount;
+        return CacheStatsDto.builder()
+                .name("slug-filter")
+                .size(current == null ? 0 : current.count)
+                .weight(current == null ? 0 : current.counters.length)
+                .maxEntries(expectedSlugs)
+                .maxWeight(current == null ? 0 : current.counters.length)
+                .hits(rejectedCount)
+                .misses(passedCount)
+                .hitRate(lookups == 0 ? 0.0 : (double) rejectedCount / lookups)
+                .loadFailures(0)
+                .evictions(missingStats.getEvictions())
+                .expirations(missingStats.getExpirations())
+                .build();
+    }
+
+    /**
+     * Counting Bloom filter with one byte per counter, so slugs can be removed again.
+     * A counter that saturates stays saturated, which keeps the filter free of false negatives.
+     */
+    private static final class Filter {
+        private final byte[] counters;
+        private final int hashes;
+        private int count;
+
+        private Filter(int expected, double falsePositiveRate) {
+            double ln2 = Math.log(2);
+            long size = (long) Math.ceil(-Math.max(expected, 1) * Math.log(falsePositiveRate) / (ln2 * ln2));
+            this.counters = new byte[(int) Math.min(Math.max(size, 64), Integer.MAX_VALUE - 8)];
+            this.hashes = Math.max(1, (int) Math.round((double) counters.length / Math.max(expected, 1) * ln2));
+        }
+
+        private void add(String slug) {
+            long[] hash = hash(slug);
+            for (int i = 0; i < hashes; i++) {
+                int index = index(hash, i);
+                if ((counters[index] & 0xFF) < SATURATED) {
+                    counters[index]++;
+                }
+            }
+            count++;
+        }
+
+        private void remove(String slug) {
+            if (!mightContain(slug)) {
+                return;
+            }
+            long[] hash = hash(slug);
+            for (int i = 0; i < hashes; i++) {
+                int index = index(hash, i);
+                int value = counters[index] & 0xFF;
+                if (value > 0 && value < SATURATED) {
+                    counters[index]--;
+                }
+            }
+            count = Math.max(0, count - 1);
+        }
+
+        private boolean mightContain(String slug) {
+            long[] hash = hash(slug);
+            for (int i = 0; i < hashes; i++) {
+                if (counters[index(hash, i)] == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int index(long[] hash, int i) {
+            return (int) Long.remainderUnsigned(hash[0] + i * hash[1], counters.length);
+        }
+
+        /**
+         * Two independent 64-bit hashes for double hashing
+         */
+        private static long[] hash(String slug) {
+            long h = 0xcbf29ce484222325L;
+            for (byte b : slug.getBytes(StandardCharsets.UTF_8)) {
+                h = (h ^ (b & 0xFF)) * 0x100000001b3L;
+            }
+            return new long[] {mix(h), mix(h ^ 0x9E3779B97F4A7C15L) | 1};
+        }
+
+        private static long mix(long h) {
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            h *= 0xc4ceb9fe1a85ec53L;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+}
@@ -0,0 +1,352 @@
+package com.learnwithme.blog.devblog.cache;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.learnwithme.blog.devblog.dto.CacheStatsDto;
+import com.learnwithme.blog.devblog.dto.StaleReadStatsDto;
+import com.learnwithme.blog.devblog.event.PostChange;
+import com.learnwithme.blog.devblog.event.PostChangedEvent;
+import com.mongodb.MongoException;
+
+/**
+ * Stale-while-revalidate guard for the public read paths. Each read runs on a small
+ * pool and the caller waits at most a latency budget for it. Results that arrive are
+ * kept as the last good answer for their key; when a read is slower than the budget
+ * or fails because the database is unavailable, the last good answer is served with
+ * staleness headers instead, as long as it is within the endpoint's staleness limit,
+ * while the query still in flight refreshes it in the background. Concurrent reads of
+ * the same key share one query, so a slow database is not hit once per request.
+ */
+@Component
+public class StaleReads implements MonitoredCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(StaleReads.class);
+
+    static final String STALE_ATTRIBUTE = StaleReads.class.getName() + ".stale";
+    private static final String STALENESS_HEADER = "X-Data-Staleness";
+    private static final String STALE_WARNING = "110 - \"Response is Stale\"";
+
+    /**
+     * Public read paths, each with its own default staleness limit, overridable with
+     * {@code app.resilience.max-staleness.<name>}
+     */
+    public enum Endpoint {
+        POST("post", Duration.ofHours(24)),
+        FEED("feed", Duration.ofMinutes(15)),
+        RECENT("recent", Duration.ofMinutes(15));
+
+        private final String name;
+        private final Duration defaultMaxStaleness;
+
+        Endpoint(String name, Duration defaultMaxStaleness) {
+            this.name = name;
+            this.defaultMaxStaleness = defaultMaxStaleness;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    private final boolean enabled;
+    private final long latencyBudgetMillis;
+    private final Map<Endpoint, Long> maxStalenessMillis = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, Counters> counters = new EnumMap<>(Endpoint.class);
+    private final BoundedCache<String, LastGood> lastGood;
+    private final Map<String, CompletableFuture<Object>> pending = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor executor;
+
+    public StaleReads(Environment environment,
+                      @Value("${app.resilience.enabled:true}") boolean enabled,
+                      @Value("${app.resilience.latency-budget:500ms}") Duration latencyBudget,
+                      @Value("${app.resilience.last-good.max-entries:10000}") int maxEntries,
+                      @Value("${app.resilience.threads:16}") int threads,
+                      @Value("${app.resilience.queue-size:256}") int queueSize) {
+        this.enabled = enabled;
+        this.latencyBudgetMillis = latencyBudget.toMillis();
+
+        Duration longest = Duration.ZERO;
+        for (Endpoint endpoint : Endpoint.values()) {
+            Duration limit = environment.getProperty("app.resilience.max-staleness." + endpoint.name,
+                    Duration.class, endpoint.defaultMaxStaleness);
+            maxStalenessMillis.put(endpoint, limit.toMillis());
+            counters.put(endpoint, new Counters());
+            longest = limit.compareTo(longest) > 0 ? limit : longest;
+        }
+        this.lastGood = new BoundedCache<>("last-good-reads", maxEntries, maxEntries, longest, entry -> 1);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize), runnable -> {
+                    Thread thread = new Thread(runnable, "stale-reads-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Run a read within the latency budget, falling back to its last good result
+     * @param endpoint the read path, which sets the staleness limit
+     * @param key the read's arguments, unique within the endpoint
+     * @param query the read itself
+     * @return the fresh result, or the last good one when the read is slow or the database is down
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T read(Endpoint endpoint, String key, Supplier<T> query) {
+        if (!enabled) {
+            return query.get();
+        }
+
+        String storeKey = endpoint.name + ":" + key;
+        Counters endpointCounters = counters.get(endpoint);
+
+        CompletableFuture<Object> result;
+        try {
+            result = start(storeKey, query);
+        } catch (RejectedExecutionException e) {
+            // Every worker is stuck on the database: answer from memory if possible
+            LastGood last = usable(endpoint, storeKey);
+            if (last != null) {
+                endpointCounters.staleOnTimeout.increment();
+                return (T) serveStale(last);
+            }
+            endpointCounters.fresh.increment();
+            return query.get();
+        }
+
+        try {
+            Object value = result.get(latencyBudgetMillis, TimeUnit.MILLISECONDS);
+            endpointCounters.fresh.increment();
+            return (T) value;
+        } catch (TimeoutException e) {
+            LastGood last = usable(endpoint, storeKey);
+            if (last != null) {
+                endpointCounters.staleOnTimeout.increment();
+                return (T) serveStale(last);
+            }
+            // Nothing to fall back to: wait for the slow read like before
+            endpointCounters.slowWithoutFallback.increment();
+            return (T) await(endpoint, storeKey, result);
+        } catch (ExecutionException e) {
+            return (T) onFailure(endpoint, storeKey, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reading " + storeKey, e);
+        }
+    }
+
+    /**
+     * @param request the request
+     * @return true if part of the response was served from stale data
+     */
+    public static boolean isStale(HttpServletRequest request) {
+        return request.getAttribute(STALE_ATTRIBUTE) != null;
+    }
+
+    /**
+     * Counters of fresh and stale reads per endpoint
+     * @return one entry per endpoint
+     */
+    public List<StaleReadStatsDto> staleReadStats() {
+        return Arrays.stream(Endpoint.values())
+                .map(endpoint -> counters.get(endpoint).toDto(endpoint, maxStalenessMillis.get(endpoint)))
+                .collect(Collectors.toList());
+    }
+
+    @EventListener
+    public void onPostChanged(PostChangedEvent event) {
+        // A changed post must not come back from memory, even while the database is down
+        boolean listed = false;
+        for (PostChange change : event.getChanges()) {
+            lastGood.invalidate(Endpoint.POST.name + ":id:" + change.getPostId());
+            for (String slug : change.getSlugs()) {
+                lastGood.invalidate(Endpoint.POST.name + ":slug:" + slug);
+            }
+            listed |= !change.getAffectedFeeds().isEmpty();
+        }
+
+        // Nor may a list that still shows it as it was; drafts are in no list
+        if (listed) {
+            String feedPrefix = Endpoint.FEED.name + ":";
+            String recentPrefix = Endpoint.RECENT.name + ":";
+            lastGood.invalidateIf(key -> key.startsWith(feedPrefix) || key.startsWith(recentPrefix));
+        }
+    }
+
+    @Override
+    public CacheStatsDto stats() {
+        return lastGood.stats();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private CompletableFuture<Object> start(String storeKey, Supplier<?> query) {
+        CompletableFuture<Object> created = new CompletableFuture<>();
+        CompletableFuture<Object> existing = pending.putIfAbsent(storeKey, created);
+        if (existing != null) {
+            return existing;
+        }
+
+        // A write invalidating the key while the read runs makes its result stale already
+        long startGeneration = lastGood.generation();
+        try {
+            executor.execute(() -> {
+                try {
+                    Object value = query.get();
+                    if (value != null) {
+                        lastGood.putIfUnchanged(storeKey, new LastGood(value, System.currentTimeMillis()),
+                                startGeneration);
+                    }
+                    created.complete(value);
+                } catch (Throwable t) {
+                    created.completeExceptionally(t);
+                } finally {
+                    pending.remove(storeKey, created);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(storeKey, created);
+            throw e;
+        }
+        return created;
+    }
+
+    private Object await(Endpoint endpoint, String storeKey, CompletableFuture<Object> result) {
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            return onFailure(endpoint, storeKey, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reading " + storeKey, e);
+        }
+    }
+
+    private Object onFailure(Endpoint endpoint, String storeKey, Throwable failure) {
+        Counters endpointCounters = counters.get(endpoint);
+        if (isUnavailable(failure)) {
+            LastGood last = usable(endpoint, storeKey);
+            if (last != null) {
+                logger.warn("Serving stale {} after database failure: {}", storeKey, failure.getMessage());
+                endpointCounters.staleOnFailure.increment();
+                return serveStale(last);
+            }
+            endpointCounters.failedWithoutFallback.increment();
+        }
+
+        // Not found, bad request and the like are answers, not outages
+        if (failure instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        if (failure instanceof Error error) {
+            throw error;
+        }
+        throw new IllegalStateException(failure);
+    }
+
+    private LastGood usable(Endpoint endpoint, String storeKey) {
+        LastGood last = lastGood.peek(storeKey);
+        if (last == null || System.currentTimeMillis() - last.fetchedAt > maxStalenessMillis.get(endpoint)) {
+            return null;
+        }
+        return last;
+    }
+
+    private static boolean isUnavailable(Throwable failure) {
+        return failure instanceof DataAccessException || failure instanceof MongoException;
+    }
+
+    /**
+     * Mark the current response as stale so neither clients nor the response cache keep it
+     */
+    private static Object serveStale(LastGood last) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            servletAttributes.getRequest().setAttribute(STALE_ATTRIBUTE, Boolean.TRUE);
+
+            HttpServletResponse response = servletAttributes.getResponse();
+            if (response != null && !response.isCommitted()) {
+                long ageSeconds = Math.max(0, (System.currentTimeMillis() - last.fetchedAt) / 1000);
+                String previous = response.getHeader(STALENESS_HEADER);
+                if (previous != null) {
+                    ageSeconds = Math.max(ageSeconds, Long.parseLong(previous));
+                }
+                response.setHeader(HttpHeaders.WARNING, STALE_WARNING);
+                response.setHeader(STALENESS_HEADER, String.valueOf(ageSeconds));
+                response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+            }
+        }
+        return last.value;
+    }
+
+    private static final class LastGood {
+        private final Object value;
+        private final long fetchedAt;
+
+        private LastGood(Object value, long fetchedAt) {
+            this.value = value;
+            this.fetchedAt = fetchedAt;
+        }
+    }
+
+    private static final class Counters {
+        private final LongAdder fresh = new LongAdder();
+        private final LongAdder staleOnTimeout = new LongAdder();
+        private final LongAdder staleOnFailure = new LongAdder();
+        private final LongAdder slowWithoutFallback = new LongAdder();
+        private final LongAdder failedWithoutFallback = new LongAdder();
+
+        private StaleReadStatsDto toDto(Endpoint endpoint, long maxStalenessMillis) {
+            long freshReads = fresh.sum();
+            long stale = staleOnTimeout.sum() + staleOnFailure.sum();
+            long total = freshReads + stale;
+            return StaleReadStatsDto.builder()
+                    .endpoint(endpoint.name)
+                    .maxStalenessSeconds(maxStalenessMillis / 1000)
+                    .freshReads(freshReads)
+                    .staleReads(stale)
+                    .staleOnTimeout(staleOnTimeout.sum())
+                    .staleOnFailure(staleOnFailure.sum())
+                    .slowWithoutFallback(slowWithoutFallback.sum())
+                    .failedWithoutFallback(failedWithoutFallback.sum())
+                    .staleRate(total == 0 ? 0.0 : (double) stale / total)
+                    .build();
+        }
+    }
+}
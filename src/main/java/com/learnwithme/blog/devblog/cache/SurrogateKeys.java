@@ -0,0 +1,105 @@
+package com.learnwithme.blog.devblog.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.stream.Collectors;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import com.learnwithme.blog.devblog.config.CdnConfig;
+
+/**
+ * Lets a CDN cache public responses for long and drop them precisely. Anonymous GETs
+ * that a handler tagged through {@link ResponseTags} get a {@code Surrogate-Key}
+ * header listing those tags, and a {@code Cache-Control} that allows shared caches to
+ * keep them for {@code s-maxage} while browsers still revalidate every time. Writes
+ * purge the same keys through the {@link CdnPurger}.
+ */
+@ControllerAdvice
+public class SurrogateKeys implements ResponseBodyAdvice<Object> {
+
+    public static final String HEADER = "Surrogate-Key";
+    static final String S_MAXAGE = "s-maxage";
+
+    private final boolean enabled;
+    private final String cacheControl;
+
+    public SurrogateKeys(@Value(CdnConfig.ENABLED) boolean enabled,
+                         @Value("${app.cdn.s-maxage:1h}") Duration sMaxAge) {
+        this.enabled = enabled;
+        this.cacheControl = "max-age=0, must-revalidate, " + S_MAXAGE + "=" + sMaxAge.toSeconds();
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return enabled;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servletRequest
+                && response instanceof ServletServerHttpResponse servletResponse) {
+            HttpServletRequest httpRequest = servletRequest.getServletRequest();
+            HttpServletResponse httpResponse = servletResponse.getServletResponse();
+            if (isSharedCacheable(httpRequest, httpResponse)) {
+                // Replaces the "no-cache" set for conditional requests, rather than adding to it
+                httpResponse.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+                httpResponse.setHeader(HEADER, header(ResponseTags.of(httpRequest)));
+            }
+        }
+        return body;
+    }
+
+    /**
+     * @param tags response tags
+     * @return the tags as a space separated Surrogate-Key header value
+     */
+    public static String header(Collection<String> tags) {
+        return tags.stream().sorted().map(SurrogateKeys::encode).collect(Collectors.joining(" "));
+    }
+
+    /**
+     * Percent-encode what cannot appear in a surrogate key, such as the spaces of
+     * multi-word tags, so a key always names exactly one tag
+     * @param tag the tag
+     * @return the surrogate key
+     */
+    public static String encode(String tag) {
+        StringBuilder key = new StringBuilder(tag.length());
+        for (byte b : tag.getBytes(StandardCharsets.UTF_8)) {
+            int c = b & 0xFF;
+            if (c <= ' ' || c >= 0x7F || c == '%') {
+                key.append('%').append(Character.toUpperCase(Character.forDigit(c >> 4, 16)))
+                        .append(Character.toUpperCase(Character.forDigit(c & 0xF, 16)));
+            } else {
+                key.append((char) c);
+            }
+        }
+        return key.toString();
+    }
+
+    private static boolean isSharedCacheable(HttpServletRequest request, HttpServletResponse response) {
+        return "GET".equals(request.getMethod())
+                && request.getHeader(HttpHeaders.AUTHORIZATION) == null
+                && response.getStatus() == HttpStatus.OK.value()
+                && !StaleReads.isStale(request)
+                && !ResponseTags.of(request).isEmpty();
+    }
+}
@@ -0,0 +1,40 @@
+package com.learnwithme.blog.devblog.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.RestTemplate;
+
+import com.learnwithme.blog.devblog.cache.HttpPurgeClient;
+import com.learnwithme.blog.devblog.cache.LocalPurgeClient;
+import com.learnwithme.blog.devblog.cache.PurgeClient;
+
+@Configuration
+public class CdnConfig {
+
+    /**
+     * Whether responses are handed to a CDN: by default only when there is a purge URL,
+     * so shared caches are never told to keep what {@link LocalPurgeClient} cannot purge
+     */
+    public static final String ENABLED = "${app.cdn.enabled:#{!'${app.cdn.purge.url:}'.isBlank()}}";
+
+    @Value("${app.cdn.purge.url:}")
+    private String purgeUrl;
+
+    @Value("${app.cdn.purge.token-header:Fastly-Key}")
+    private String tokenHeader;
+
+    @Value("${app.cdn.purge.token:}")
+    private String token;
+
+    /**
+     * Purges go to the configured CDN, or stay local when no purge URL is set
+     */
+    @Bean
+    public PurgeClient purgeClient(RestTemplate restTemplate) {
+        if (purgeUrl.isBlank()) {
+            return new LocalPurgeClient();
+        }
+        return new HttpPurgeClient(restTemplate, purgeUrl, tokenHeader, token);
+    }
+}
@@ -1,4 +1,140 @@
 package com.learnwithme.blog.devblog.config;
 
-public class MongoConfig {
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import com.learnwithme.blog.devblog.model.BlogPost;
+import com.learnwithme.blog.devblog.model.Category;
+import com.learnwithme.blog.devblog.model.PostRevision;
+import com.learnwithme.blog.devblog.model.Subscriber;
+
+/**
+ * Creates the indexes declared on the entities at startup, before the server takes
+ * requests, and reports drift: declared indexes that could not be created, differ
+ * from what exists, or indexes on the collection that are not declared anywhere.
+ * A unique index that cannot be built fails startup with the duplicate keys, since
+ * the writes that rely on it would otherwise go unchecked.
+ */
+@Configuration
+public class MongoConfig implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(MongoConfig.class);
+
+    private static final int MAX_REPORTED_DUPLICATES = 20;
+
+    private static final List<Class<?>> INDEXED_ENTITIES = List.of(BlogPost.class, Category.class, Subscriber.class,
+            PostRevision.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MongoMappingContext mappingContext;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        ensureIndexes();
+    }
+
+    public void ensureIndexes() {
+        MongoPersistentEntityIndexResolver resolver = new MongoPersistentEntityIndexResolver(mappingContext);
+
+        for (Class<?> entityClass : INDEXED_ENTITIES) {
+            IndexOperations indexOps = mongoTemplate.indexOps(entityClass);
+            String collection = mongoTemplate.getCollectionName(entityClass);
+
+            Map<String, IndexDefinition> expected = new LinkedHashMap<>();
+            for (IndexDefinition definition : resolver.resolveIndexFor(entityClass)) {
+                expected.put(definition.getIndexOptions().getString("name"), definition);
+                try {
+                    indexOps.ensureIndex(definition);
+                } catch (RuntimeException e) {
+                    String name = definition.getIndexOptions().getString("name");
+                    if (definition.getIndexOptions().getBoolean("unique", false)) {
+                        throw new IllegalStateException("Could not create unique index " + name + " on " + collection
+                                + "; duplicate keys: " + duplicates(collection, definition.getIndexKeys()), e);
+                    }
+                    logger.error("Could not create index {} on {}: {}", name, collection, e.getMessage());
+                }
+            }
+
+            reportDrift(collection, expected, indexOps.getIndexInfo());
+        }
+    }
+
+    /**
+     * @param collection the collection to look in
+     * @param keys the keys of the unique index
+     * @return the key values held by more than one document, with their counts
+     */
+    private List<Document> duplicates(String collection, Document keys) {
+        Document group = new Document();
+        keys.keySet().forEach(key -> group.put(key.replace('.', '_'), "$" + key));
+        List<Document> pipeline = List.of(
+                new Document("$group", new Document("_id", group).append("count", new Document("$sum", 1))),
+                new Document("$match", new Document("count", new Document("$gt", 1))),
+                new Document("$limit", MAX_REPORTED_DUPLICATES));
+        try {
+            return mongoTemplate.getCollection(collection).aggregate(pipeline).into(new ArrayList<>());
+        } catch (RuntimeException e) {
+            logger.warn("Could not list duplicate keys on {}: {}", collection, e.getMessage());
+            return List.of();
+        }
+    }
+
+    private void reportDrift(String collection, Map<String, IndexDefinition> expected, List<IndexInfo> existing) {
+        Map<String, IndexInfo> existingByName = new LinkedHashMap<>();
+        existing.forEach(info -> existingByName.put(info.getName(), info));
+
+        expected.forEach((name, definition) -> {
+            IndexInfo actual = existingByName.get(name);
+            if (actual == null) {
+                logger.warn("Index drift on {}: declared index {} {} is missing", collection, name, definition.getIndexKeys());
+            } else if (!sameKeys(definition.getIndexKeys(), actual)) {
+                logger.warn("Index drift on {}: index {} has keys {} but {} is declared",
+                        collection, name, actual.getIndexFields(), definition.getIndexKeys());
+            } else if (definition.getIndexOptions().getBoolean("unique", false) != actual.isUnique()) {
+                logger.warn("Index drift on {}: index {} unique={} but unique={} is declared", collection, name,
+                        actual.isUnique(), definition.getIndexOptions().getBoolean("unique", false));
+            }
+        });
+
+        existingByName.keySet().stream()
+                .filter(name -> !"_id_".equals(name) && !expected.containsKey(name))
+                .forEach(name -> logger.warn("Index drift on {}: undeclared index {} {}",
+                        collection, name, existingByName.get(name).getIndexFields()));
+    }
+
+    private boolean sameKeys(Document declared, IndexInfo actual) {
+        if (declared.size() != actual.getIndexFields().size()) {
+            return false;
+        }
+        int position = 0;
+        for (Map.Entry<String, Object> key : declared.entrySet()) {
+            IndexField field = actual.getIndexFields().get(position++);
+            boolean ascending = ((Number) key.getValue()).intValue() > 0;
+            boolean fieldAscending = field.getDirection() != Sort.Direction.DESC;
+            if (!field.getKey().equals(key.getKey()) || ascending != fieldAscending) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
@@ -94,7 +94,9 @@ public class WebSecurityConfig {
         configuration.setExposedHeaders(Arrays.asList(
                 "Access-Control-Allow-Origin",
                 "Access-Control-Allow-Credentials",
-                "Authorization"
+                "Authorization",
+                "ETag",
+                "Last-Modified"
         ));
 
         // ✅ Allow credentials (cookies, authorization headers)
@@ -137,6 +139,7 @@ public class WebSecurityConfig {
                                 .requestMatchers("/api/admin/**").hasRole("ADMIN")
                                 .requestMatchers(HttpMethod.POST, "/api/posts/**").hasRole("ADMIN")
                                 .requestMatchers(HttpMethod.PUT, "/api/posts/**").hasRole("ADMIN")
+                                .requestMatchers(HttpMethod.PATCH, "/api/posts/**").hasRole("ADMIN")
                                 .requestMatchers(HttpMethod.DELETE, "/api/posts/**").hasRole("ADMIN")
 
                                 // ✅ Any other request needs authentication
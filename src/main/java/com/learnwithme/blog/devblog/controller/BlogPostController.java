@@ -1,8 +1,13 @@
 package com.learnwithme.blog.devblog.controller;
 
+import com.learnwithme.blog.devblog.cache.ContentVersion;
+import com.learnwithme.blog.devblog.cache.ContentVersions;
+import com.learnwithme.blog.devblog.cache.ResponseTags;
 import com.learnwithme.blog.devblog.exception.BadRequestException;
 import com.learnwithme.blog.devblog.service.ArticleGenerationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -11,13 +16,28 @@ import org.springframework.security.access.prepost.PreAuthorize;
 
 import com.learnwithme.blog.devblog.dto.ApiResponseDto;
 import com.learnwithme.blog.devblog.dto.BlogPostDto;
+import com.learnwithme.blog.devblog.dto.BlogPostSummaryDto;
+import com.learnwithme.blog.devblog.dto.BulkOperationRequestDto;
 import com.learnwithme.blog.devblog.dto.PageResponseDto;
+import com.learnwithme.blog.devblog.dto.PostPatchDto;
+import com.learnwithme.blog.devblog.dto.SuggestionDto;
+import com.learnwithme.blog.devblog.model.PostFeed;
 import com.learnwithme.blog.devblog.service.BlogPostService;
+import com.learnwithme.blog.devblog.service.PostBulkService;
+import com.learnwithme.blog.devblog.util.ConditionalRequests;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 
 @CrossOrigin(origins = "*", allowedHeaders = "*")
@@ -25,9 +45,17 @@ import java.util.Map;
 @RequestMapping("/api/posts")
 public class BlogPostController {
 
+    private static final int MAX_SUGGESTIONS = 10;
+
     private final BlogPostService blogPostService;
     @Autowired
     private ArticleGenerationService articleGenerationService;
+    @Autowired
+    private ContentVersions contentVersions;
+    @Autowired
+    private PostBulkService postBulkService;
+    @Autowired
+    private ObjectMapper objectMapper;
     public BlogPostController(BlogPostService blogPostService) {
         this.blogPostService = blogPostService;
     }
@@ -36,16 +64,29 @@ public class BlogPostController {
      * Get all published blog posts with pagination
      * @param pageNumber page number (default 0)
      * @param pageSize page size (default 10)
+     * @param mode "page" (default) for cached totals, "slice" for hasNext only
+     * @param cursor keyset cursor; when present (empty for the first page) pageNumber is ignored
      * @return paginated blog posts
      */
     @GetMapping
-    public ResponseEntity<ApiResponseDto<PageResponseDto<BlogPostDto>>> getAllPosts(
+    public ResponseEntity<ApiResponseDto<PageResponseDto<BlogPostSummaryDto>>> getAllPosts(
             @RequestParam(value = "pageNumber", defaultValue = "0", required = false) int pageNumber,
-            @RequestParam(value = "pageSize", defaultValue = "10", required = false) int pageSize) {
+            @RequestParam(value = "pageSize", defaultValue = "10", required = false) int pageSize,
+            @RequestParam(value = "mode", defaultValue = "page", required = false) String mode,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            WebRequest webRequest) {
+
+        if (ConditionalRequests.notModified(webRequest, contentVersions.forFeed(PostFeed.all()))) {
+            return null;
+        }
 
-        PageResponseDto<BlogPostDto> postResponse = blogPostService.getAllPosts(pageNumber, pageSize);
+        PageResponseDto<BlogPostSummaryDto> postResponse = cursor != null
+                ? blogPostService.getFeedAfterCursor(PostFeed.all(), cursor, pageSize)
+                : blogPostService.getAllPosts(pageNumber, pageSize, includeTotals(mode));
 
-        ApiResponseDto<PageResponseDto<BlogPostDto>> response = ApiResponseDto.success(
+        ResponseTags.add(ResponseTags.FEED);
+
+        ApiResponseDto<PageResponseDto<BlogPostSummaryDto>> response = ApiResponseDto.success(
                 postResponse,
                 "Blog posts retrieved successfully",
                 HttpStatus.OK.value()
@@ -60,8 +101,19 @@ public class BlogPostController {
      * @return blog post
      */
     @GetMapping("/{postId}")
-    public ResponseEntity<ApiResponseDto<BlogPostDto>> getPostById(@PathVariable String postId) {
+    public ResponseEntity<ApiResponseDto<BlogPostDto>> getPostById(@PathVariable String postId, WebRequest webRequest) {
+        // Cached posts are revalidated without loading them; others are loaded first
+        ContentVersion cachedVersion = contentVersions.forCachedPostId(postId);
+        if (cachedVersion != null && ConditionalRequests.notModified(webRequest, cachedVersion)) {
+            return null;
+        }
+
         BlogPostDto postDto = blogPostService.getPostById(postId);
+        if (cachedVersion == null && ConditionalRequests.notModified(webRequest, contentVersions.forPost(postDto))) {
+            return null;
+        }
+
+        ResponseTags.add(ResponseTags.post(postDto.getId()));
 
         ApiResponseDto<BlogPostDto> response = ApiResponseDto.success(
                 postDto,
@@ -78,8 +130,19 @@ public class BlogPostController {
      * @return blog post
      */
     @GetMapping("/slug/{slug}")
-    public ResponseEntity<ApiResponseDto<BlogPostDto>> getPostBySlug(@PathVariable String slug) {
+    public ResponseEntity<ApiResponseDto<BlogPostDto>> getPostBySlug(@PathVariable String slug, WebRequest webRequest) {
+        // Cached posts are revalidated without loading them; others are loaded first
+        ContentVersion cachedVersion = contentVersions.forCachedPostSlug(slug);
+        if (cachedVersion != null && ConditionalRequests.notModified(webRequest, cachedVersion)) {
+            return null;
+        }
+
         BlogPostDto postDto = blogPostService.getPostBySlug(slug);
+        if (cachedVersion == null && ConditionalRequests.notModified(webRequest, contentVersions.forPost(postDto))) {
+            return null;
+        }
+
+        ResponseTags.add(ResponseTags.post(postDto.getId()));
 
         ApiResponseDto<BlogPostDto> response = ApiResponseDto.success(
                 postDto,
@@ -116,7 +179,7 @@ public class BlogPostController {
     /**
      * Update blog post (admin only)
      * @param postId blog post ID
-     * @param blogPostDto updated blog post data
+     * @param blogPostDto updated blog post data; with a version, a post changed since is rejected with 409
      * @return updated blog post
      */
     @PutMapping("/{postId}")
@@ -136,6 +199,58 @@ public class BlogPostController {
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
+    /**
+     * Patch blog post fields and content (admin only)
+     * @param postId blog post ID
+     * @param patch changed fields and content edits, with the version they were made against
+     * @return patched blog post, without its content
+     */
+    @PatchMapping("/{postId}")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<ApiResponseDto<BlogPostDto>> patchPost(
+            @PathVariable String postId,
+            @RequestBody PostPatchDto patch) {
+
+        BlogPostDto patchedPost = blogPostService.patchPost(postId, patch);
+
+        ApiResponseDto<BlogPostDto> response = ApiResponseDto.success(
+                patchedPost,
+                "Blog post patched successfully",
+                HttpStatus.OK.value()
+        );
+
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    /**
+     * Apply one operation to many blog posts (admin only). Progress is streamed as
+     * newline-delimited JSON, one line per batch and a last line with done=true; a
+     * stream that ends without it was cut short, and the batches reported so far stand.
+     * @param request the operation and the posts it applies to, by ids or by filter
+     * @param response the response the progress is written to
+     */
+    @PostMapping("/bulk")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public void bulkOperation(@RequestBody BulkOperationRequestDto request,
+                              HttpServletResponse response) throws IOException {
+        postBulkService.execute(request, progress -> {
+            try {
+                // Started with the first line, so a rejected request still gets an error body
+                if (!response.isCommitted()) {
+                    response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+                    response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+                }
+                OutputStream out = response.getOutputStream();
+                out.write(objectMapper.writeValueAsBytes(progress));
+                out.write('\n');
+                out.flush();
+            } catch (IOException e) {
+                // The client went away; stop before the next batch
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
     /**
      * Delete blog post (admin only)
      * @param postId blog post ID
@@ -159,17 +274,32 @@ public class BlogPostController {
      * @param categoryId category ID
      * @param pageNumber page number
      * @param pageSize page size
+     * @param mode "page" (default) for cached totals, "slice" for hasNext only
+     * @param cursor keyset cursor; when present (empty for the first page) pageNumber is ignored
      * @return paginated blog posts for the category
      */
     @GetMapping("/category/{categoryId}")
-    public ResponseEntity<ApiResponseDto<PageResponseDto<BlogPostDto>>> getPostsByCategory(
+    public ResponseEntity<ApiResponseDto<PageResponseDto<BlogPostSummaryDto>>> getPostsByCategory(
             @PathVariable String categoryId,
             @RequestParam(value = "pageNumber", defaultValue = "0", required = false) int pageNumber,
-            @RequestParam(value = "pageSize", defaultValue = "10", required = false) int pageSize) {
+            @RequestParam(value = "pageSize", defaultValue = "10", required = false) int pageSize,
+            @RequestParam(value = "mode", defaultValue = "page", required = false) String mode,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            WebRequest webRequest) {
+
+        ContentVersion version = contentVersions.forFeed(PostFeed.category(categoryId))
+                .and(contentVersions.forCategories());
+        if (ConditionalRequests.notModified(webRequest, version)) {
+            return null;
+        }
 
-        PageResponseDto<BlogPostDto> postResponse = blogPostService.getPostsByCategory(categoryId, pageNumber, pageSize);
+        PageResponseDto<BlogPostSummaryDto> postResponse = cursor != null
+                ? blogPostService.getFeedAfterCursor(PostFeed.category(categoryId), cursor, pageSize)
+                : blogPostService.getPostsByCategory(categoryId, pageNumber, pageSize, includeTotals(mode));
 
-        ApiResponseDto<PageResponseDto<BlogPostDto>> response = ApiResponseDto.success(
+        ResponseTags.add(ResponseTags.feed(PostFeed.category(categoryId)));
+
+        ApiResponseDto<PageResponseDto<BlogPostSummaryDto>> response = ApiResponseDto.success(
                 postResponse,
                 "Blog posts for category retrieved successfully",
                 HttpStatus.OK.value()
@@ -184,19 +314,33 @@ public class BlogPostController {
      * @param subcategorySlug subcategory slug
      * @param pageNumber page number
      * @param pageSize page size
+     * @param mode "page" (default) for cached totals, "slice" for hasNext only
+     * @param cursor keyset cursor; when present (empty for the first page) pageNumber is ignored
      * @return paginated blog posts for the subcategory
      */
     @GetMapping("/category/{categoryId}/subcategory/{subcategorySlug}")
-    public ResponseEntity<ApiResponseDto<PageResponseDto<BlogPostDto>>> getPostsBySubcategory(
+    public ResponseEntity<ApiResponseDto<PageResponseDto<BlogPostSummaryDto>>> getPostsBySubcategory(
             @PathVariable String categoryId,
             @PathVariable String subcategorySlug,
             @RequestParam(value = "pageNumber", defaultValue = "0", required = false) int pageNumber,
-            @RequestParam(value = "pageSize", defaultValue = "10", required = false) int pageSize) {
+            @RequestParam(value = "pageSize", defaultValue = "10", required = false) int pageSize,
+            @RequestParam(value = "mode", defaultValue = "page", required = false) String mode,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            WebRequest webRequest) {
+
+        ContentVersion version = contentVersions.forFeed(PostFeed.subcategory(categoryId, subcategorySlug))
+                .and(contentVersions.forCategories());
+        if (ConditionalRequests.notModified(webRequest, version)) {
+            return null;
+        }
+
+        PageResponseDto<BlogPostSummaryDto> postResponse = cursor != null
+                ? blogPostService.getFeedAfterCursor(PostFeed.subcategory(categoryId, subcategorySlug), cursor, pageSize)
+                : blogPostService.getPostsBySubcategory(categoryId, subcategorySlug, pageNumber, pageSize, includeTotals(mode));
 
-        PageResponseDto<BlogPostDto> postResponse = blogPostService.getPostsBySubcategory(
-                categoryId, subcategorySlug, pageNumber, pageSize);
+        ResponseTags.add(ResponseTags.feed(PostFeed.subcategory(categoryId, subcategorySlug)));
 
-        ApiResponseDto<PageResponseDto<BlogPostDto>> response = ApiResponseDto.success(
+        ApiResponseDto<PageResponseDto<BlogPostSummaryDto>> response = ApiResponseDto.success(
                 postResponse,
                 "Blog posts for subcategory retrieved successfully",
                 HttpStatus.OK.value()
@@ -206,21 +350,27 @@ public class BlogPostController {
     }
 
     /**
-     * Search blog posts by title
+     * Search published blog posts, ranked by relevance
      * @param term search term
      * @param pageNumber page number
      * @param pageSize page size
-     * @return paginated search results
+     * @param mode "page" (default) for cached totals, "slice" for hasNext only
+     * @param fuzzy also match misspelled terms within edit distance 1-2 (default false)
+     * @return paginated search results, with didYouMean set when terms were misspelled
      */
     @GetMapping("/search")
-    public ResponseEntity<ApiResponseDto<PageResponseDto<BlogPostDto>>> searchPosts(
+    public ResponseEntity<ApiResponseDto<PageResponseDto<BlogPostSummaryDto>>> searchPosts(
             @RequestParam(value = "term") String term,
             @RequestParam(value = "pageNumber", defaultValue = "0", required = false) int pageNumber,
-            @RequestParam(value = "pageSize", defaultValue = "10", required = false) int pageSize) {
+            @RequestParam(value = "pageSize", defaultValue = "10", required = false) int pageSize,
+            @RequestParam(value = "mode", defaultValue = "page", required = false) String mode,
+            @RequestParam(value = "fuzzy", defaultValue = "false", required = false) boolean fuzzy) {
 
-        PageResponseDto<BlogPostDto> postResponse = blogPostService.searchPosts(term, pageNumber, pageSize);
+        PageResponseDto<BlogPostSummaryDto> postResponse = blogPostService.searchPosts(term, pageNumber, pageSize, includeTotals(mode), fuzzy);
 
-        ApiResponseDto<PageResponseDto<BlogPostDto>> response = ApiResponseDto.success(
+        ResponseTags.add(ResponseTags.FEED);
+
+        ApiResponseDto<PageResponseDto<BlogPostSummaryDto>> response = ApiResponseDto.success(
                 postResponse,
                 "Search results retrieved successfully",
                 HttpStatus.OK.value()
@@ -229,22 +379,59 @@ public class BlogPostController {
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
+    /**
+     * Type-ahead suggestions for the search box
+     * @param prefix what the reader has typed so far
+     * @param limit maximum number of suggestions (default 8, at most 10)
+     * @return matching tags and post titles
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<ApiResponseDto<List<SuggestionDto>>> suggest(
+            @RequestParam(value = "prefix") String prefix,
+            @RequestParam(value = "limit", defaultValue = "8", required = false) int limit) {
+
+        List<SuggestionDto> suggestions = blogPostService.suggest(prefix, Math.max(0, Math.min(limit, MAX_SUGGESTIONS)));
+
+        ResponseTags.add(ResponseTags.FEED);
+
+        ApiResponseDto<List<SuggestionDto>> response = ApiResponseDto.success(
+                suggestions,
+                "Suggestions retrieved successfully",
+                HttpStatus.OK.value()
+        );
+
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
     /**
      * Get blog posts by tag
      * @param tag tag name
      * @param pageNumber page number
      * @param pageSize page size
+     * @param mode "page" (default) for cached totals, "slice" for hasNext only
+     * @param cursor keyset cursor; when present (empty for the first page) pageNumber is ignored
      * @return paginated blog posts for the tag
      */
     @GetMapping("/tag/{tag}")
-    public ResponseEntity<ApiResponseDto<PageResponseDto<BlogPostDto>>> getPostsByTag(
+    public ResponseEntity<ApiResponseDto<PageResponseDto<BlogPostSummaryDto>>> getPostsByTag(
             @PathVariable String tag,
             @RequestParam(value = "pageNumber", defaultValue = "0", required = false) int pageNumber,
-            @RequestParam(value = "pageSize", defaultValue = "10", required = false) int pageSize) {
+            @RequestParam(value = "pageSize", defaultValue = "10", required = false) int pageSize,
+            @RequestParam(value = "mode", defaultValue = "page", required = false) String mode,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            WebRequest webRequest) {
+
+        if (ConditionalRequests.notModified(webRequest, contentVersions.forFeed(PostFeed.tag(tag)))) {
+            return null;
+        }
 
-        PageResponseDto<BlogPostDto> postResponse = blogPostService.getPostsByTag(tag, pageNumber, pageSize);
+        PageResponseDto<BlogPostSummaryDto> postResponse = cursor != null
+                ? blogPostService.getFeedAfterCursor(PostFeed.tag(tag), cursor, pageSize)
+                : blogPostService.getPostsByTag(tag, pageNumber, pageSize, includeTotals(mode));
 
-        ApiResponseDto<PageResponseDto<BlogPostDto>> response = ApiResponseDto.success(
+        ResponseTags.add(ResponseTags.feed(PostFeed.tag(tag)));
+
+        ApiResponseDto<PageResponseDto<BlogPostSummaryDto>> response = ApiResponseDto.success(
                 postResponse,
                 "Blog posts for tag retrieved successfully",
                 HttpStatus.OK.value()
@@ -253,15 +440,58 @@ public class BlogPostController {
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
+    /**
+     * Get blog posts by author
+     * @param author author name
+     * @param pageNumber page number
+     * @param pageSize page size
+     * @param mode "page" (default) for cached totals, "slice" for hasNext only
+     * @param cursor keyset cursor; when present (empty for the first page) pageNumber is ignored
+     * @return paginated blog posts for the author
+     */
+    @GetMapping("/author/{author}")
+    public ResponseEntity<ApiResponseDto<PageResponseDto<BlogPostSummaryDto>>> getPostsByAuthor(
+            @PathVariable String author,
+            @RequestParam(value = "pageNumber", defaultValue = "0", required = false) int pageNumber,
+            @RequestParam(value = "pageSize", defaultValue = "10", required = false) int pageSize,
+            @RequestParam(value = "mode", defaultValue = "page", required = false) String mode,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            WebRequest webRequest) {
+
+        if (ConditionalRequests.notModified(webRequest, contentVersions.forFeed(PostFeed.author(author)))) {
+            return null;
+        }
+
+        PageResponseDto<BlogPostSummaryDto> postResponse = cursor != null
+                ? blogPostService.getFeedAfterCursor(PostFeed.author(author), cursor, pageSize)
+                : blogPostService.getPostsByAuthor(author, pageNumber, pageSize, includeTotals(mode));
+
+        ResponseTags.add(ResponseTags.feed(PostFeed.author(author)));
+
+        ApiResponseDto<PageResponseDto<BlogPostSummaryDto>> response = ApiResponseDto.success(
+                postResponse,
+                "Blog posts for author retrieved successfully",
+                HttpStatus.OK.value()
+        );
+
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
     /**
      * Get recent blog posts
      * @return recent blog posts
      */
     @GetMapping("/recent")
-    public ResponseEntity<ApiResponseDto<BlogPostDto[]>> getRecentPosts() {
-        BlogPostDto[] recentPosts = blogPostService.getRecentPosts();
+    public ResponseEntity<ApiResponseDto<BlogPostSummaryDto[]>> getRecentPosts(WebRequest webRequest) {
+        if (ConditionalRequests.notModified(webRequest, contentVersions.forFeed(PostFeed.all()))) {
+            return null;
+        }
+
+        BlogPostSummaryDto[] recentPosts = blogPostService.getRecentPosts();
 
-        ApiResponseDto<BlogPostDto[]> response = ApiResponseDto.success(
+        ResponseTags.add(ResponseTags.FEED);
+
+        ApiResponseDto<BlogPostSummaryDto[]> response = ApiResponseDto.success(
                 recentPosts,
                 "Recent blog posts retrieved successfully",
                 HttpStatus.OK.value()
@@ -274,15 +504,17 @@ public class BlogPostController {
      * Publish or unpublish a blog post (admin only)
      * @param postId blog post ID
      * @param publish publish status
+     * @param version the version last read; when given, a post changed since is rejected with 409
      * @return updated blog post
      */
     @PutMapping("/{postId}/publish")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     public ResponseEntity<ApiResponseDto<BlogPostDto>> togglePublishStatus(
             @PathVariable String postId,
-            @RequestParam boolean publish) {
+            @RequestParam boolean publish,
+            @RequestParam(value = "version", required = false) Long version) {
 
-        BlogPostDto updatedPost = blogPostService.togglePublishStatus(postId, publish);
+        BlogPostDto updatedPost = blogPostService.togglePublishStatus(postId, publish, version);
 
         String message = publish ? "Blog post published successfully" : "Blog post unpublished successfully";
 
@@ -294,6 +526,35 @@ public class BlogPostController {
 
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
+    /**
+     * Schedule blog post publishing and expiry (admin only)
+     * @param postId blog post ID
+     * @param publishAt when to publish the post; omit to clear
+     * @param unpublishAt when to unpublish the post; omit to clear
+     * @param version the version last read; a post changed since is rejected with 409
+     * @return updated blog post
+     */
+    @PutMapping("/{postId}/schedule")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<ApiResponseDto<BlogPostDto>> schedulePost(
+            @PathVariable String postId,
+            @RequestParam(value = "publishAt", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime publishAt,
+            @RequestParam(value = "unpublishAt", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime unpublishAt,
+            @RequestParam(value = "version", required = false) Long version) {
+
+        BlogPostDto updatedPost = blogPostService.schedulePost(postId, publishAt, unpublishAt, version);
+
+        ApiResponseDto<BlogPostDto> response = ApiResponseDto.success(
+                updatedPost,
+                "Blog post schedule updated successfully",
+                HttpStatus.OK.value()
+        );
+
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
     /**
      * Upload an image file to the blog image storage.
      *
@@ -324,4 +585,8 @@ public class BlogPostController {
         );
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
+
+    private boolean includeTotals(String mode) {
+        return !"slice".equalsIgnoreCase(mode);
+    }
 }
@@ -0,0 +1,84 @@
+package com.learnwithme.blog.devblog.controller;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.learnwithme.blog.devblog.cache.HotKeyTracker;
+import com.learnwithme.blog.devblog.cache.MonitoredCache;
+import com.learnwithme.blog.devblog.cache.StaleReads;
+import com.learnwithme.blog.devblog.dto.ApiResponseDto;
+import com.learnwithme.blog.devblog.dto.CacheStatsDto;
+import com.learnwithme.blog.devblog.dto.HotKeyDto;
+import com.learnwithme.blog.devblog.dto.StaleReadStatsDto;
+
+@RestController
+@RequestMapping("/api/admin/caches")
+@PreAuthorize("hasRole('ROLE_ADMIN')")
+public class CacheAdminController {
+
+    @Autowired
+    private List<MonitoredCache> caches;
+
+    @Autowired
+    private StaleReads staleReads;
+
+    @Autowired
+    private HotKeyTracker hotKeyTracker;
+
+    /**
+     * Get hit/miss/eviction counters of every in-process cache (admin only)
+     * @return statistics per cache
+     */
+    @GetMapping
+    public ResponseEntity<ApiResponseDto<List<CacheStatsDto>>> getCacheStats() {
+        List<CacheStatsDto> stats = caches.stream()
+                .map(MonitoredCache::stats)
+                .collect(Collectors.toList());
+
+        ApiResponseDto<List<CacheStatsDto>> response = ApiResponseDto.success(
+                stats,
+                "Cache statistics retrieved successfully",
+                HttpStatus.OK.value()
+        );
+
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    /**
+     * Get how often each public read path was answered fresh or from stale data (admin only)
+     * @return statistics per read path
+     */
+    @GetMapping("/stale-reads")
+    public ResponseEntity<ApiResponseDto<List<StaleReadStatsDto>>> getStaleReadStats() {
+        ApiResponseDto<List<StaleReadStatsDto>> response = ApiResponseDto.success(
+                staleReads.staleReadStats(),
+                "Stale read statistics retrieved successfully",
+                HttpStatus.OK.value()
+        );
+
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    /**
+     * Get the most read post, slug, tag and search keys of the last few minutes (admin only)
+     * @return hot keys with their decayed read counts, most read first
+     */
+    @GetMapping("/hot-keys")
+    public ResponseEntity<ApiResponseDto<List<HotKeyDto>>> getHotKeys() {
+        ApiResponseDto<List<HotKeyDto>> response = ApiResponseDto.success(
+                hotKeyTracker.hotKeys(),
+                "Hot keys retrieved successfully",
+                HttpStatus.OK.value()
+        );
+
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+}
@@ -6,11 +6,17 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import com.learnwithme.blog.devblog.cache.ContentVersion;
+import com.learnwithme.blog.devblog.cache.ContentVersions;
+import com.learnwithme.blog.devblog.cache.ResponseTags;
 
 import com.learnwithme.blog.devblog.dto.ApiResponseDto;
 import com.learnwithme.blog.devblog.dto.CategoryDto;
 import com.learnwithme.blog.devblog.dto.SubcategoryDto;
 import com.learnwithme.blog.devblog.service.CategoryService;
+import com.learnwithme.blog.devblog.util.ConditionalRequests;
 
 import jakarta.validation.Valid;
 @CrossOrigin(origins = "*", allowedHeaders = "*")
@@ -21,14 +27,24 @@ public class CategoryController {
     @Autowired
     private CategoryService categoryService;
 
+    @Autowired
+    private ContentVersions contentVersions;
+
     /**
      * Get all categories
      * @return list of all categories
      */
     @GetMapping
-    public ResponseEntity<ApiResponseDto<List<CategoryDto>>> getAllCategories() {
+    public ResponseEntity<ApiResponseDto<List<CategoryDto>>> getAllCategories(WebRequest webRequest) {
+        ContentVersion version = contentVersions.forCategories();
+        if (ConditionalRequests.notModified(webRequest, version)) {
+            return null;
+        }
+
         List<CategoryDto> categories = categoryService.getAllCategories();
 
+        ResponseTags.add(ResponseTags.CATEGORIES);
+
         ApiResponseDto<List<CategoryDto>> response = ApiResponseDto.success(
                 categories,
                 "Categories retrieved successfully",
@@ -44,9 +60,16 @@ public class CategoryController {
      * @return category
      */
     @GetMapping("/{categoryId}")
-    public ResponseEntity<ApiResponseDto<CategoryDto>> getCategoryById(@PathVariable String categoryId) {
+    public ResponseEntity<ApiResponseDto<CategoryDto>> getCategoryById(@PathVariable String categoryId, WebRequest webRequest) {
+        ContentVersion version = contentVersions.forCategories();
+        if (ConditionalRequests.notModified(webRequest, version)) {
+            return null;
+        }
+
         CategoryDto category = categoryService.getCategoryById(categoryId);
 
+        ResponseTags.add(ResponseTags.CATEGORIES);
+
         ApiResponseDto<CategoryDto> response = ApiResponseDto.success(
                 category,
                 "Category retrieved successfully",
@@ -62,9 +85,16 @@ public class CategoryController {
      * @return category
      */
     @GetMapping("/slug/{slug}")
-    public ResponseEntity<ApiResponseDto<CategoryDto>> getCategoryBySlug(@PathVariable String slug) {
+    public ResponseEntity<ApiResponseDto<CategoryDto>> getCategoryBySlug(@PathVariable String slug, WebRequest webRequest) {
+        ContentVersion version = contentVersions.forCategories();
+        if (ConditionalRequests.notModified(webRequest, version)) {
+            return null;
+        }
+
         CategoryDto category = categoryService.getCategoryBySlug(slug);
 
+        ResponseTags.add(ResponseTags.CATEGORIES);
+
         ApiResponseDto<CategoryDto> response = ApiResponseDto.success(
                 category,
                 "Category retrieved successfully",
@@ -0,0 +1,60 @@
+package com.learnwithme.blog.devblog.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.learnwithme.blog.devblog.dto.ApiResponseDto;
+import com.learnwithme.blog.devblog.dto.CategoryPropagationDto;
+import com.learnwithme.blog.devblog.service.CategoryPropagationService;
+
+@RestController
+@RequestMapping("/api/admin/category-propagations")
+@PreAuthorize("hasRole('ROLE_ADMIN')")
+public class CategoryPropagationController {
+
+    @Autowired
+    private CategoryPropagationService categoryPropagationService;
+
+    /**
+     * Get the progress of copying category renames and deletions into posts (admin only)
+     * @return one job per changed category, most recently requested first
+     */
+    @GetMapping
+    public ResponseEntity<ApiResponseDto<List<CategoryPropagationDto>>> getPropagations() {
+        List<CategoryPropagationDto> propagations = categoryPropagationService.getPropagations();
+
+        ApiResponseDto<List<CategoryPropagationDto>> response = ApiResponseDto.success(
+                propagations,
+                "Category propagations retrieved successfully",
+                HttpStatus.OK.value()
+        );
+
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    /**
+     * Get the progress of copying one category's changes into its posts (admin only)
+     * @param categoryId category ID
+     * @return the category's job
+     */
+    @GetMapping("/{categoryId}")
+    public ResponseEntity<ApiResponseDto<CategoryPropagationDto>> getPropagation(@PathVariable String categoryId) {
+        CategoryPropagationDto propagation = categoryPropagationService.getPropagation(categoryId);
+
+        ApiResponseDto<CategoryPropagationDto> response = ApiResponseDto.success(
+                propagation,
+                "Category propagation retrieved successfully",
+                HttpStatus.OK.value()
+        );
+
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+}
@@ -0,0 +1,117 @@
+package com.learnwithme.blog.devblog.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.learnwithme.blog.devblog.dto.ApiResponseDto;
+import com.learnwithme.blog.devblog.dto.BlogPostDto;
+import com.learnwithme.blog.devblog.dto.PostRevisionDto;
+import com.learnwithme.blog.devblog.dto.RevisionDiffDto;
+import com.learnwithme.blog.devblog.service.PostRevisionService;
+
+@RestController
+@RequestMapping("/api/admin/posts/{postId}/revisions")
+@PreAuthorize("hasRole('ROLE_ADMIN')")
+public class PostRevisionController {
+
+    @Autowired
+    private PostRevisionService postRevisionService;
+
+    /**
+     * Get the content revisions of a blog post (admin only)
+     * @param postId blog post ID
+     * @return revisions without their content, newest first
+     */
+    @GetMapping
+    public ResponseEntity<ApiResponseDto<List<PostRevisionDto>>> getRevisions(@PathVariable String postId) {
+        List<PostRevisionDto> revisions = postRevisionService.getRevisions(postId);
+
+        ApiResponseDto<List<PostRevisionDto>> response = ApiResponseDto.success(
+                revisions,
+                "Revisions retrieved successfully",
+                HttpStatus.OK.value()
+        );
+
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    /**
+     * Get one revision of a blog post with its content (admin only)
+     * @param postId blog post ID
+     * @param revision the revision: the post version it was saved with
+     * @return the revision
+     */
+    @GetMapping("/{revision}")
+    public ResponseEntity<ApiResponseDto<PostRevisionDto>> getRevision(
+            @PathVariable String postId,
+            @PathVariable long revision) {
+
+        PostRevisionDto postRevision = postRevisionService.getRevision(postId, revision);
+
+        ApiResponseDto<PostRevisionDto> response = ApiResponseDto.success(
+                postRevision,
+                "Revision retrieved successfully",
+                HttpStatus.OK.value()
+        );
+
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    /**
+     * Compare a revision of a blog post with an earlier one, line by line (admin only)
+     * @param postId blog post ID
+     * @param revision the newer revision
+     * @param from the older revision; omit for the one just before
+     * @return the diff in the unified format
+     */
+    @GetMapping("/{revision}/diff")
+    public ResponseEntity<ApiResponseDto<RevisionDiffDto>> diffRevisions(
+            @PathVariable String postId,
+            @PathVariable long revision,
+            @RequestParam(value = "from", required = false) Long from) {
+
+        RevisionDiffDto diff = postRevisionService.diffRevisions(postId, from, revision);
+
+        ApiResponseDto<RevisionDiffDto> response = ApiResponseDto.success(
+                diff,
+                "Revisions compared successfully",
+                HttpStatus.OK.value()
+        );
+
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    /**
+     * Restore the content of a revision, which records it as a new revision (admin only)
+     * @param postId blog post ID
+     * @param revision the revision to restore
+     * @param version the version last read; when given, a post changed since is rejected with 409
+     * @return updated blog post
+     */
+    @PutMapping("/{revision}/restore")
+    public ResponseEntity<ApiResponseDto<BlogPostDto>> restoreRevision(
+            @PathVariable String postId,
+            @PathVariable long revision,
+            @RequestParam(value = "version", required = false) Long version) {
+
+        BlogPostDto restored = postRevisionService.restoreRevision(postId, revision, version);
+
+        ApiResponseDto<BlogPostDto> response = ApiResponseDto.success(
+                restored,
+                "Revision restored successfully",
+                HttpStatus.OK.value()
+        );
+
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+}
@@ -29,9 +29,19 @@ public class BlogPostDto {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
+    // When the copied category names last changed without the post itself being edited
+    private LocalDateTime categorySyncedAt;
+
     @Builder.Default
     private List<String> tags = new ArrayList<>();
 
     @Builder.Default
     private boolean published = false;
+
+    // Scheduled publish and unpublish times, if any
+    private LocalDateTime publishAt;
+    private LocalDateTime unpublishAt;
+
+    // Version the client last read; updates that carry it fail if the post changed since
+    private Long version;
 }
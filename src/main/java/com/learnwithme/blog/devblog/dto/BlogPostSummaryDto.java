@@ -0,0 +1,43 @@
+package com.learnwithme.blog.devblog.dto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Lightweight listing view of a blog post, used by feeds instead of the full content
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class BlogPostSummaryDto {
+
+    private String id;
+    private String title;
+    private String slug;
+    private String summary;
+    private String categoryId;
+    private String categoryName;
+    private String subcategorySlug;
+    private String subcategoryName;
+    private String imageUrl;
+    private String author;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    // Search results only: content excerpt with matches wrapped in <mark>
+    @JsonInclude(Include.NON_NULL)
+    private String snippet;
+
+    @Builder.Default
+    private List<String> tags = new ArrayList<>();
+}
@@ -0,0 +1,47 @@
+package com.learnwithme.blog.devblog.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One operation applied to many blog posts: those listed by id, or else those
+ * matching every filter field given
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkOperationRequestDto {
+
+    public enum Operation {
+        SET_TAGS, ADD_TAG, REMOVE_TAG, MOVE_CATEGORY, PUBLISH, UNPUBLISH, DELETE
+    }
+
+    private Operation operation;
+
+    // Selection: ids, or a filter on these fields
+    @Builder.Default
+    private List<String> ids = new ArrayList<>();
+    private String filterCategoryId;
+    private String filterSubcategorySlug;
+    private String filterTag;
+    private String filterAuthor;
+    private Boolean filterPublished;
+
+    // Operation arguments
+    private List<String> tags;
+    private String tag;
+    private String categoryId;
+    private String subcategorySlug;
+
+    // Ordered runs stop at the first failed write; unordered ones carry on
+    @Builder.Default
+    private boolean ordered = true;
+
+    private Integer batchSize;
+}
@@ -0,0 +1,36 @@
+package com.learnwithme.blog.devblog.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Running totals of a bulk operation, reported after every batch
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkProgressDto {
+
+    private int batches;
+
+    // Posts selected so far
+    private long matched;
+
+    // Posts written; the rest were already in the requested state, changed
+    // concurrently (conflicts) or failed
+    private long modified;
+    private long unchanged;
+    private long conflicts;
+    private long failed;
+
+    @Builder.Default
+    private List<String> errors = new ArrayList<>();
+
+    private boolean done;
+}
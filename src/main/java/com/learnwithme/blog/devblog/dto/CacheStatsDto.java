@@ -0,0 +1,26 @@
+package com.learnwithme.blog.devblog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CacheStatsDto {
+
+    private String name;
+    private int size;
+    private long weight;
+    private int maxEntries;
+    private long maxWeight;
+    private long hits;
+    private long misses;
+    private double hitRate;
+    private long loadFailures;
+    private long evictions;
+    private long expirations;
+    private int pinned;
+}
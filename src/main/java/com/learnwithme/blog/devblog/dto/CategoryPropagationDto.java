@@ -0,0 +1,27 @@
+package com.learnwithme.blog.devblog.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CategoryPropagationDto {
+
+    private String categoryId;
+    private String status;
+    private long postsScanned;
+    private long postsUpdated;
+    private long batches;
+    private String lastPostId;
+    private String owner;
+    private LocalDateTime requestedAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String error;
+}
@@ -0,0 +1,19 @@
+package com.learnwithme.blog.devblog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HotKeyDto {
+
+    private String key;
+    private long count;
+    private long error;
+    private long sketchEstimate;
+    private boolean pinned;
+}
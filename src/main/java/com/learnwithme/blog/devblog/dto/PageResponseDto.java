@@ -2,6 +2,9 @@ package com.learnwithme.blog.devblog.dto;
 
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -9,12 +12,20 @@ import lombok.NoArgsConstructor;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonInclude(Include.NON_NULL)  // Totals are omitted from slice and cursor pages
 public class PageResponseDto<T> {
 
     private List<T> content;
-    private int pageNumber;
+    private Integer pageNumber;
     private int pageSize;
-    private long totalElements;
-    private int totalPages;
+    private Long totalElements;
+    private Integer totalPages;
     private boolean last;
+    private boolean hasNext;
+
+    // Opaque keyset cursor for the next page; null on the last page and in offset mode
+    private String nextCursor;
+
+    // Corrected query on search pages whose query had misspelled terms
+    private String didYouMean;
 }
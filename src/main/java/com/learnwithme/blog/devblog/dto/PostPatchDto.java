@@ -0,0 +1,32 @@
+package com.learnwithme.blog.devblog.dto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A partial update of a blog post, made against the version the client last read.
+ * Fields left null are not changed; content is changed by text edits only.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PostPatchDto {
+
+    // Base of the patch: the version the client last read, or failing that its updatedAt
+    private Long version;
+    private LocalDateTime updatedAt;
+
+    private String title;
+    private String summary;
+    private List<String> tags;
+
+    @Builder.Default
+    private List<TextEditDto> contentEdits = new ArrayList<>();
+}
@@ -0,0 +1,27 @@
+package com.learnwithme.blog.devblog.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PostRevisionDto {
+
+    private String postId;
+    private long revision;
+    private boolean snapshot;
+    private int contentLength;
+
+    // Size of the stored delta or snapshot, compressed
+    private int storedBytes;
+    private LocalDateTime createdAt;
+
+    // Only set when a single revision is requested
+    private String content;
+}
@@ -0,0 +1,24 @@
+package com.learnwithme.blog.devblog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RevisionDiffDto {
+
+    private String postId;
+
+    // Null when diffing against the empty text before the first revision
+    private Long fromRevision;
+    private long toRevision;
+    private int linesAdded;
+    private int linesRemoved;
+
+    // Line diff in the unified format
+    private String diff;
+}
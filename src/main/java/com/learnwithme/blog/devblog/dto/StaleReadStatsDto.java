@@ -0,0 +1,23 @@
+package com.learnwithme.blog.devblog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StaleReadStatsDto {
+
+    private String endpoint;
+    private long maxStalenessSeconds;
+    private long freshReads;
+    private long staleReads;
+    private long staleOnTimeout;
+    private long staleOnFailure;
+    private long slowWithoutFallback;
+    private long failedWithoutFallback;
+    private double staleRate;
+}
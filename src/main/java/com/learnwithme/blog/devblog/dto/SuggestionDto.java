@@ -0,0 +1,24 @@
+package com.learnwithme.blog.devblog.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SuggestionDto {
+
+    public static final String TYPE_TAG = "tag";
+    public static final String TYPE_POST = "post";
+
+    private String type;
+    private String text;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String slug;
+}
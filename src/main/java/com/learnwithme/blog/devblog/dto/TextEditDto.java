@@ -0,0 +1,27 @@
+package com.learnwithme.blog.devblog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One change to a text field: replace the text {@code delete} found at {@code offset}
+ * with {@code insert}. Offsets are UTF-16 code units, as JavaScript string indexes,
+ * and refer to the text as of the patch's base version.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TextEditDto {
+
+    private int offset;
+
+    // The text being replaced, checked against the stored text; empty for a pure insert
+    @Builder.Default
+    private String delete = "";
+
+    @Builder.Default
+    private String insert = "";
+}
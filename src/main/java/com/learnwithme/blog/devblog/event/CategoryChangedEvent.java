@@ -0,0 +1,39 @@
+package com.learnwithme.blog.devblog.event;
+
+/**
+ * Published after a category or its subcategories are created, updated or deleted.
+ * Writes made on other nodes arrive as remote events through the invalidation bus.
+ */
+public class CategoryChangedEvent {
+
+    private final String categoryId;
+    private final boolean remote;
+
+    public CategoryChangedEvent(String categoryId) {
+        this(categoryId, false);
+    }
+
+    private CategoryChangedEvent(String categoryId, boolean remote) {
+        this.categoryId = categoryId;
+        this.remote = remote;
+    }
+
+    /**
+     * @param categoryId the category changed by another node
+     * @return the event to replay the change locally
+     */
+    public static CategoryChangedEvent remote(String categoryId) {
+        return new CategoryChangedEvent(categoryId, true);
+    }
+
+    public String getCategoryId() {
+        return categoryId;
+    }
+
+    /**
+     * @return true if the write happened on another node
+     */
+    public boolean isRemote() {
+        return remote;
+    }
+}
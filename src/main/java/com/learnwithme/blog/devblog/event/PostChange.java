@@ -0,0 +1,117 @@
+package com.learnwithme.blog.devblog.event;
+
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+
+import com.learnwithme.blog.devblog.model.BlogPost;
+import com.learnwithme.blog.devblog.model.PostFeed;
+
+/**
+ * State of one blog post before and after a write. Snapshots may carry listing
+ * fields only, so consumers must not rely on the content being present.
+ */
+public class PostChange {
+
+    private final String postId;
+    private final BlogPost before;
+    private final BlogPost after;
+
+    public PostChange(String postId, BlogPost before, BlogPost after) {
+        this.postId = postId;
+        this.before = before;
+        this.after = after;
+    }
+
+    public String getPostId() {
+        return postId;
+    }
+
+    /**
+     * @return the post before the write, or null if it was created
+     */
+    public BlogPost getBefore() {
+        return before;
+    }
+
+    /**
+     * @return the post after the write, or null if it was deleted
+     */
+    public BlogPost getAfter() {
+        return after;
+    }
+
+    /**
+     * @return the old and new slug, without duplicates
+     */
+    public Set<String> getSlugs() {
+        Set<String> slugs = new LinkedHashSet<>();
+        if (before != null && before.getSlug() != null) {
+            slugs.add(before.getSlug());
+        }
+        if (after != null && after.getSlug() != null) {
+            slugs.add(after.getSlug());
+        }
+        return slugs;
+    }
+
+    /**
+     * @return every feed the post appeared in before or appears in after the write
+     */
+    public Set<PostFeed> getAffectedFeeds() {
+        Set<PostFeed> feeds = feedsOf(before);
+        feeds.addAll(feedsOf(after));
+        return feeds;
+    }
+
+    /**
+     * @return feeds whose membership changed: the post joined or left them
+     */
+    public Set<PostFeed> getMembershipChangedFeeds() {
+        Set<PostFeed> beforeFeeds = feedsOf(before);
+        Set<PostFeed> afterFeeds = feedsOf(after);
+
+        Set<PostFeed> changed = new LinkedHashSet<>(beforeFeeds);
+        changed.addAll(afterFeeds);
+        Set<PostFeed> unchanged = new LinkedHashSet<>(beforeFeeds);
+        unchanged.retainAll(afterFeeds);
+        changed.removeAll(unchanged);
+        return changed;
+    }
+
+    /**
+     * @return true if the post was created, deleted, published or unpublished
+     */
+    public boolean isPublishStateChanged() {
+        return before == null || after == null || before.isPublished() != after.isPublished();
+    }
+
+    /**
+     * Feeds a post is listed in; unpublished posts are in none
+     * @param post the post, may be null
+     * @return the feeds
+     */
+    public static Set<PostFeed> feedsOf(BlogPost post) {
+        Set<PostFeed> feeds = new LinkedHashSet<>();
+        if (post == null || !post.isPublished()) {
+            return feeds;
+        }
+
+        feeds.add(PostFeed.all());
+        if (post.getCategoryId() != null) {
+            feeds.add(PostFeed.category(post.getCategoryId()));
+            if (post.getSubcategorySlug() != null) {
+                feeds.add(PostFeed.subcategory(post.getCategoryId(), post.getSubcategorySlug()));
+            }
+        }
+        if (post.getTags() != null) {
+            post.getTags().stream()
+                    .filter(Objects::nonNull)
+                    .forEach(tag -> feeds.add(PostFeed.tag(tag)));
+        }
+        if (post.getAuthor() != null) {
+            feeds.add(PostFeed.author(post.getAuthor()));
+        }
+        return feeds;
+    }
+}
@@ -0,0 +1,48 @@
+package com.learnwithme.blog.devblog.event;
+
+import java.util.List;
+
+import com.learnwithme.blog.devblog.model.BlogPost;
+
+/**
+ * Published after blog posts are created, updated, (un)published or deleted, so that
+ * caches and indexes can invalidate exactly what the write affected. Writes made on
+ * other nodes arrive as remote events through the invalidation bus.
+ */
+public class PostChangedEvent {
+
+    private final List<PostChange> changes;
+    private final boolean remote;
+
+    public PostChangedEvent(List<PostChange> changes) {
+        this(changes, false);
+    }
+
+    private PostChangedEvent(List<PostChange> changes, boolean remote) {
+        this.changes = List.copyOf(changes);
+        this.remote = remote;
+    }
+
+    public static PostChangedEvent of(String postId, BlogPost before, BlogPost after) {
+        return new PostChangedEvent(List.of(new PostChange(postId, before, after)));
+    }
+
+    /**
+     * @param changes changes made by another node
+     * @return the event to replay them locally
+     */
+    public static PostChangedEvent remote(List<PostChange> changes) {
+        return new PostChangedEvent(changes, true);
+    }
+
+    public List<PostChange> getChanges() {
+        return changes;
+    }
+
+    /**
+     * @return true if the write happened on another node
+     */
+    public boolean isRemote() {
+        return remote;
+    }
+}
@@ -2,6 +2,7 @@ package com.learnwithme.blog.devblog.exception;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -55,6 +56,20 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(apiException, HttpStatus.BAD_REQUEST);
     }
 
+    // Handle ConflictException and optimistic locking failures
+    @ExceptionHandler({ConflictException.class, OptimisticLockingFailureException.class})
+    public ResponseEntity<ApiException> handleConflictException(
+            RuntimeException exception, WebRequest request) {
+
+        ApiException apiException = ApiException.of(
+                exception.getMessage(),
+                request.getDescription(false),
+                HttpStatus.CONFLICT.value()
+        );
+
+        return new ResponseEntity<>(apiException, HttpStatus.CONFLICT);
+    }
+
     // Handle validation exceptions
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Object> handleMethodArgumentNotValidException(
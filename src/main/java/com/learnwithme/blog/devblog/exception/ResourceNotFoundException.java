@@ -16,9 +16,25 @@ public class ResourceNotFoundException extends RuntimeException {
     private String fieldValue;
 
     public ResourceNotFoundException(String resourceName, String fieldName, String fieldValue) {
-        super(String.format("%s not found with %s : '%s'", resourceName, fieldName, fieldValue));
+        this(resourceName, fieldName, fieldValue, true);
+    }
+
+    private ResourceNotFoundException(String resourceName, String fieldName, String fieldValue, boolean writableStackTrace) {
+        super(String.format("%s not found with %s : '%s'", resourceName, fieldName, fieldValue), null, false, writableStackTrace);
         this.resourceName = resourceName;
         this.fieldName = fieldName;
         this.fieldValue = fieldValue;
     }
+
+    /**
+     * A not-found without a stack trace, for lookups that miss often enough that
+     * capturing the stack would dominate their cost
+     * @param resourceName the resource
+     * @param fieldName the field looked up by
+     * @param fieldValue the value that was not found
+     * @return the exception
+     */
+    public static ResourceNotFoundException withoutStackTrace(String resourceName, String fieldName, String fieldValue) {
+        return new ResourceNotFoundException(resourceName, fieldName, fieldValue, false);
+    }
 }
@@ -5,6 +5,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import lombok.AllArgsConstructor;
@@ -15,8 +19,19 @@ import lombok.NoArgsConstructor;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 @Document(collection = "blog_posts")
+@CompoundIndexes({
+        // Feeds filter on published (plus one dimension) and page newest first by (createdAt, _id)
+        @CompoundIndex(name = "feed_all", def = "{'published': 1, 'createdAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "feed_category", def = "{'categoryId': 1, 'published': 1, 'createdAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "feed_subcategory",
+                def = "{'categoryId': 1, 'subcategorySlug': 1, 'published': 1, 'createdAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "feed_tag", def = "{'tags': 1, 'published': 1, 'createdAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "feed_author", def = "{'author': 1, 'published': 1, 'createdAt': -1, '_id': -1}"),
+        // Category name propagation walks a category's posts in _id order
+        @CompoundIndex(name = "category_scan", def = "{'categoryId': 1, '_id': 1}")
+})
 public class BlogPost {
 
     @Id
@@ -24,10 +39,14 @@ public class BlogPost {
 
     private String title;
 
+    @Indexed(name = "slug_unique", unique = true)
     private String slug;
 
     private String content;
 
+    // Plain-text excerpt shown in feeds, persisted so listings never need the content
+    private String summary;
+
     private String categoryId;
 
     private String categoryName;
@@ -42,6 +61,9 @@ public class BlogPost {
 
     private LocalDateTime updatedAt;
 
+    // When the copied category names last changed without the post itself being edited
+    private LocalDateTime categorySyncedAt;
+
     private String imageUrl;
 
     @Builder.Default
@@ -50,6 +72,17 @@ public class BlogPost {
     @Builder.Default
     private boolean published = false;
 
+    // Times at which the post goes live and is taken down again without anyone at the keyboard
+    @Indexed(name = "publish_at", sparse = true)
+    private LocalDateTime publishAt;
+
+    @Indexed(name = "unpublish_at", sparse = true)
+    private LocalDateTime unpublishAt;
+
+    // Incremented by every write, so concurrent edits are detected rather than lost
+    @Version
+    private Long version;
+
     public void addTag(String tag) {
         this.tags.add(tag);
     }
@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.ArrayList;
@@ -18,8 +19,10 @@ public class Category {
     @Id
     private String id;
 
+    @Indexed(name = "name_asc")
     private String name;
 
+    @Indexed(name = "slug_unique", unique = true)
     private String slug;
 
     private List<Subcategory> subcategories = new ArrayList<>();
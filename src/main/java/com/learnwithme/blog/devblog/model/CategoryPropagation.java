@@ -0,0 +1,53 @@
+package com.learnwithme.blog.devblog.model;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The job that copies a category's current name and subcategory names into its posts,
+ * or clears them once the category is deleted. There is one job per category; a change
+ * made while it runs bumps the generation and makes it start over.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "category_propagations")
+public class CategoryPropagation {
+
+    public enum Status {
+        PENDING, RUNNING, DONE, FAILED
+    }
+
+    // The category ID
+    @Id
+    private String id;
+
+    private Status status;
+
+    // Bumped by every category change
+    private long generation;
+
+    // Resume point: the last post ID handled by the current generation
+    private String lastPostId;
+
+    private long postsScanned;
+    private long postsUpdated;
+    private long batches;
+
+    // Node running the job, and until when; an expired lease lets another node resume it
+    private String owner;
+    private LocalDateTime leaseUntil;
+
+    private LocalDateTime requestedAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String error;
+}
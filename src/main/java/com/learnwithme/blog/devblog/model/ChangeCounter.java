@@ -0,0 +1,32 @@
+package com.learnwithme.blog.devblog.model;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Count of the writes that affected one feed or listing, shared by every node, so
+ * the HTTP validators derived from it are the same on all of them and across restarts
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "change_counters")
+public class ChangeCounter {
+
+    // The feed key, or the name of another listing
+    @Id
+    private String id;
+
+    private long seq;
+
+    // Server time of the last write counted
+    private LocalDateTime changedAt;
+}
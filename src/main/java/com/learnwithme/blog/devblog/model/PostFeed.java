@@ -0,0 +1,55 @@
+package com.learnwithme.blog.devblog.model;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * Identifies one of the published post feeds: everything, or posts filtered by
+ * category, subcategory, tag or author
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class PostFeed {
+
+    public enum Type { ALL, CATEGORY, SUBCATEGORY, TAG, AUTHOR }
+
+    Type type;
+    String categoryId;
+    String subcategorySlug;
+    String tag;
+    String author;
+
+    public static PostFeed all() {
+        return new PostFeed(Type.ALL, null, null, null, null);
+    }
+
+    public static PostFeed category(String categoryId) {
+        return new PostFeed(Type.CATEGORY, categoryId, null, null, null);
+    }
+
+    public static PostFeed subcategory(String categoryId, String subcategorySlug) {
+        return new PostFeed(Type.SUBCATEGORY, categoryId, subcategorySlug, null, null);
+    }
+
+    public static PostFeed tag(String tag) {
+        return new PostFeed(Type.TAG, null, null, tag, null);
+    }
+
+    public static PostFeed author(String author) {
+        return new PostFeed(Type.AUTHOR, null, null, null, author);
+    }
+
+    /**
+     * @return a stable string key for this feed, e.g. "feed", "category:42" or "tag:java"
+     */
+    public String getKey() {
+        return switch (type) {
+            case ALL -> "feed";
+            case CATEGORY -> "category:" + categoryId;
+            case SUBCATEGORY -> "subcategory:" + categoryId + "/" + subcategorySlug;
+            case TAG -> "tag:" + tag;
+            case AUTHOR -> "author:" + author;
+        };
+    }
+}
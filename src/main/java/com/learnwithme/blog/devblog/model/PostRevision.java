@@ -0,0 +1,53 @@
+package com.learnwithme.blog.devblog.model;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One saved version of a blog post's content. Most revisions store a compressed delta
+ * against the revision they were edited from; every so often a revision stores the
+ * whole text instead, so rebuilding any revision applies a bounded number of deltas.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "post_revisions")
+@CompoundIndex(name = "post_revision", def = "{'postId': 1, 'revision': 1}", unique = true)
+public class PostRevision {
+
+    @Id
+    private String id;
+
+    private String postId;
+
+    // The post version the content was saved with
+    private long revision;
+
+    // True if data holds the whole text rather than a delta
+    private boolean snapshot;
+
+    // Revision the delta applies to; null for snapshots
+    private Long baseRevision;
+
+    // Deltas between the nearest snapshot and this revision, this one included
+    private int chainLength;
+
+    // Compressed delta, or the compressed text of a snapshot
+    private byte[] data;
+
+    // Size of data, kept so listings can leave data out
+    private int storedBytes;
+
+    private int contentLength;
+
+    private LocalDateTime createdAt;
+}
@@ -1,16 +1,32 @@
 package com.learnwithme.blog.devblog.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 
 import com.learnwithme.blog.devblog.model.BlogPost;
 
-public interface BlogPostRepository extends MongoRepository<BlogPost, String> {
+public interface BlogPostRepository extends MongoRepository<BlogPost, String>, BlogPostRepositoryCustom {
+
+    /**
+     * Fields loaded for feed listings; everything except the full content
+     */
+    String LISTING_FIELDS = "{ 'title': 1, 'slug': 1, 'summary': 1, 'categoryId': 1, 'categoryName': 1, "
+            + "'subcategorySlug': 1, 'subcategoryName': 1, 'author': 1, 'imageUrl': 1, 'tags': 1, "
+            + "'createdAt': 1, 'updatedAt': 1 }";
+
+    /**
+     * Fields loaded for the snapshots of change events: the listing fields plus what
+     * decides feed membership and concurrency, but never the content
+     */
+    String[] SNAPSHOT_FIELDS = {"title", "slug", "summary", "categoryId", "categoryName", "subcategorySlug",
+            "subcategoryName", "author", "imageUrl", "tags", "createdAt", "updatedAt", "published", "version",
+            "publishAt", "unpublishAt", "categorySyncedAt"};
 
     /**
      * Find a blog post by its slug
@@ -19,6 +35,39 @@ public interface BlogPostRepository extends MongoRepository<BlogPost, String> {
      */
     Optional<BlogPost> findBySlug(String slug);
 
+    /**
+     * Find the category placement and version of a blog post, without its content
+     * @param id the blog post ID
+     * @return the blog post with categoryId, subcategorySlug and version only
+     */
+    @Query(value = "{ '_id': ?0 }", fields = "{ 'categoryId': 1, 'subcategorySlug': 1, 'version': 1 }")
+    Optional<BlogPost> findPlacementById(String id);
+
+    /**
+     * Find the version and update time of a blog post, without its content
+     * @param id the blog post ID
+     * @return the blog post with version and updatedAt only
+     */
+    @Query(value = "{ '_id': ?0 }", fields = "{ 'version': 1, 'updatedAt': 1 }")
+    Optional<BlogPost> findVersionById(String id);
+
+    /**
+     * Find the content of a blog post with its version and update time
+     * @param id the blog post ID
+     * @return the blog post with content, version and updatedAt only
+     */
+    @Query(value = "{ '_id': ?0 }", fields = "{ 'content': 1, 'version': 1, 'updatedAt': 1 }")
+    Optional<BlogPost> findContentById(String id);
+
+    /**
+     * Find the posts with a publish or unpublish transition due by the given time
+     * @param until the end of the time range
+     * @return the blog posts with publishAt and unpublishAt only
+     */
+    @Query(value = "{ '$or': [ { 'publishAt': { '$lte': ?0 } }, { 'unpublishAt': { '$lte': ?0 } } ] }",
+            fields = "{ 'publishAt': 1, 'unpublishAt': 1 }")
+    List<BlogPost> findScheduledUntil(LocalDateTime until);
+
     /**
      * Check if a blog post with the given slug exists
      * @param slug the slug
@@ -27,58 +76,54 @@ public interface BlogPostRepository extends MongoRepository<BlogPost, String> {
     boolean existsBySlug(String slug);
 
     /**
-     * Find all published blog posts
+     * Find all published blog posts (listing fields only)
      * @param pageable pagination information
-     * @return page of published blog posts
+     * @return slice of published blog posts
      */
-    Page<BlogPost> findByPublishedTrue(Pageable pageable);
+    @Query(fields = LISTING_FIELDS)
+    Slice<BlogPost> findByPublishedTrue(Pageable pageable);
 
     /**
      * Find published blog posts by category
      * @param categoryId the category ID
      * @param pageable pagination information
-     * @return page of published blog posts for the category
+     * @return slice of published blog posts for the category
      */
-    Page<BlogPost> findByCategoryIdAndPublishedTrue(String categoryId, Pageable pageable);
+    @Query(fields = LISTING_FIELDS)
+    Slice<BlogPost> findByCategoryIdAndPublishedTrue(String categoryId, Pageable pageable);
 
     /**
      * Find published blog posts by category and subcategory
      * @param categoryId the category ID
      * @param subcategorySlug the subcategory slug
      * @param pageable pagination information
-     * @return page of published blog posts for the subcategory
+     * @return slice of published blog posts for the subcategory
      */
-    Page<BlogPost> findByCategoryIdAndSubcategorySlugAndPublishedTrue(String categoryId, String subcategorySlug, Pageable pageable);
+    @Query(fields = LISTING_FIELDS)
+    Slice<BlogPost> findByCategoryIdAndSubcategorySlugAndPublishedTrue(String categoryId, String subcategorySlug, Pageable pageable);
 
     /**
      * Find published blog posts by tag
      * @param tag the tag
      * @param pageable pagination information
-     * @return page of published blog posts for the tag
-     */
-    @Query("{'tags': ?0, 'published': true}")
-    Page<BlogPost> findByTagAndPublishedTrue(String tag, Pageable pageable);
-
-    /**
-     * Search published blog posts by title (case-insensitive)
-     * @param searchTerm the search term
-     * @param pageable pagination information
-     * @return page of published blog posts matching the search term
+     * @return slice of published blog posts for the tag
      */
-    @Query("{'title': {$regex: ?0, $options: 'i'}, 'published': true}")
-    Page<BlogPost> searchByTitleAndPublishedTrue(String searchTerm, Pageable pageable);
+    @Query(value = "{'tags': ?0, 'published': true}", fields = LISTING_FIELDS)
+    Slice<BlogPost> findByTagAndPublishedTrue(String tag, Pageable pageable);
 
     /**
      * Find top 5 most recent blog posts
      * @return list of recent blog posts
      */
+    @Query(fields = LISTING_FIELDS)
     List<BlogPost> findTop5ByPublishedTrueOrderByCreatedAtDesc();
 
     /**
      * Find all blog posts by author
      * @param author the author
      * @param pageable pagination information
-     * @return page of blog posts by the author
+     * @return slice of blog posts by the author
      */
-    Page<BlogPost> findByAuthorAndPublishedTrue(String author, Pageable pageable);
+    @Query(fields = LISTING_FIELDS)
+    Slice<BlogPost> findByAuthorAndPublishedTrue(String author, Pageable pageable);
 }
@@ -0,0 +1,73 @@
+package com.learnwithme.blog.devblog.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.learnwithme.blog.devblog.model.BlogPost;
+import com.learnwithme.blog.devblog.model.PostFeed;
+import com.learnwithme.blog.devblog.util.FeedCursor;
+
+/**
+ * Blog post queries that cannot be expressed as derived repository methods
+ */
+public interface BlogPostRepositoryCustom {
+
+    /**
+     * Find published posts of a feed, newest first, strictly after a keyset cursor. Posts
+     * without a creation time are left out.
+     * @param feed the feed to read
+     * @param after the (createdAt, id) of the last post already seen, or null for the first page
+     * @param limit maximum number of posts to return
+     * @return posts with listing fields only
+     */
+    List<BlogPost> findFeedAfter(PostFeed feed, FeedCursor after, int limit);
+
+    /**
+     * Count the published posts of a feed
+     * @param feed the feed
+     * @return exact number of posts
+     */
+    long countFeed(PostFeed feed);
+
+    /**
+     * Count draft (unpublished) posts
+     * @return exact number of drafts
+     */
+    long countUnpublished();
+
+    /**
+     * Estimate the size of the whole collection from its metadata, without scanning
+     * @return estimated number of posts, published or not
+     */
+    long estimatedCount();
+
+    /**
+     * Apply targeted field updates to one post in a single findAndModify, bumping its version
+     * @param postId the post ID
+     * @param expectedVersion the version the update is based on, or null to update any version
+     * @param update the fields to set or unset
+     * @return the post as it was before the update, or null if no post matched
+     */
+    BlogPost findAndModify(String postId, Long expectedVersion, Update update);
+
+    /**
+     * Apply targeted field updates to one post only while it is still scheduled for the
+     * given time, bumping its version. The update is expected to clear the schedule
+     * field, so of several nodes firing the same transition exactly one succeeds.
+     * @param postId the post ID
+     * @param field the schedule field, publishAt or unpublishAt
+     * @param at the scheduled time
+     * @param update the fields to set or unset
+     * @return the post as it was before the update, or null if it is no longer scheduled for that time
+     */
+    BlogPost findAndModifyIfScheduled(String postId, String field, LocalDateTime at, Update update);
+
+    /**
+     * Find the highest number used to tell posts with the same base slug apart
+     * @param baseSlug the slug without a numeric suffix
+     * @return the highest suffix in use, 1 if only the base slug is taken, 0 if not even that
+     */
+    long findHighestSlugSuffix(String baseSlug);
+}
@@ -0,0 +1,119 @@
+package com.learnwithme.blog.devblog.repository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.learnwithme.blog.devblog.model.BlogPost;
+import com.learnwithme.blog.devblog.model.PostFeed;
+import com.learnwithme.blog.devblog.util.FeedCursor;
+
+public class BlogPostRepositoryImpl implements BlogPostRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public List<BlogPost> findFeedAfter(PostFeed feed, FeedCursor after, int limit) {
+        Criteria criteria = feedCriteria(feed);
+
+        if (after == null) {
+            // A post without a creation time could not be paged past, so keyset feeds leave it out;
+            // the cursor conditions below exclude it as well
+            criteria.and("createdAt").ne(null);
+        } else {
+            Object lastId = ObjectId.isValid(after.getId()) ? new ObjectId(after.getId()) : after.getId();
+            criteria = criteria.orOperator(
+                    Criteria.where("createdAt").lt(after.getCreatedAt()),
+                    Criteria.where("createdAt").is(after.getCreatedAt()).and("_id").lt(lastId));
+        }
+
+        Query query = new BasicQuery(new Document(), Document.parse(BlogPostRepository.LISTING_FIELDS))
+                .addCriteria(criteria)
+                .with(Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("_id")))
+                .limit(limit);
+
+        return mongoTemplate.find(query, BlogPost.class);
+    }
+
+    @Override
+    public long countFeed(PostFeed feed) {
+        return mongoTemplate.count(new Query(feedCriteria(feed)), BlogPost.class);
+    }
+
+    @Override
+    public long countUnpublished() {
+        return mongoTemplate.count(new Query(Criteria.where("published").is(false)), BlogPost.class);
+    }
+
+    @Override
+    public long estimatedCount() {
+        return mongoTemplate.estimatedCount(BlogPost.class);
+    }
+
+    @Override
+    public BlogPost findAndModify(String postId, Long expectedVersion, Update update) {
+        Criteria criteria = Criteria.where("_id").is(postId);
+        if (expectedVersion != null) {
+            criteria.and("version").is(expectedVersion);
+        }
+        // The pre-image is returned, so callers get the old and the new state from one round trip
+        return mongoTemplate.findAndModify(new Query(criteria), update.inc("version", 1),
+                FindAndModifyOptions.options().returnNew(false), BlogPost.class);
+    }
+
+    @Override
+    public BlogPost findAndModifyIfScheduled(String postId, String field, LocalDateTime at, Update update) {
+        // Stored times keep milliseconds only
+        Criteria criteria = Criteria.where("_id").is(postId).and(field).is(at.truncatedTo(ChronoUnit.MILLIS));
+        return mongoTemplate.findAndModify(new Query(criteria), update.inc("version", 1),
+                FindAndModifyOptions.options().returnNew(false), BlogPost.class);
+    }
+
+    @Override
+    public long findHighestSlugSuffix(String baseSlug) {
+        // Escaped by hand rather than with \Q..\E, so Mongo sees a literal prefix it can bound the slug index with
+        String literal = baseSlug.replaceAll("\\W", "\\\\$0");
+        Pattern numbered = Pattern.compile("^" + literal + "(?:-(\\d{1,9}))?$");
+        Query query = new Query(Criteria.where("slug").regex(numbered));
+        query.fields().include("slug");
+
+        long highest = 0;
+        for (BlogPost post : mongoTemplate.find(query, BlogPost.class)) {
+            Matcher matcher = numbered.matcher(post.getSlug());
+            if (matcher.matches()) {
+                long suffix = matcher.group(1) == null ? 1 : Long.parseLong(matcher.group(1));
+                highest = Math.max(highest, suffix);
+            }
+        }
+        return highest;
+    }
+
+    static Criteria feedCriteria(PostFeed feed) {
+        Criteria criteria = Criteria.where("published").is(true);
+
+        switch (feed.getType()) {
+            case CATEGORY -> criteria.and("categoryId").is(feed.getCategoryId());
+            case SUBCATEGORY -> criteria.and("categoryId").is(feed.getCategoryId())
+                    .and("subcategorySlug").is(feed.getSubcategorySlug());
+            case TAG -> criteria.and("tags").is(feed.getTag());
+            case AUTHOR -> criteria.and("author").is(feed.getAuthor());
+            default -> { }
+        }
+
+        return criteria;
+    }
+}
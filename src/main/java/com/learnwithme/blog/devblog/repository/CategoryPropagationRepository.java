@@ -0,0 +1,16 @@
+package com.learnwithme.blog.devblog.repository;
+
+import java.util.List;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import com.learnwithme.blog.devblog.model.CategoryPropagation;
+
+public interface CategoryPropagationRepository extends MongoRepository<CategoryPropagation, String> {
+
+    /**
+     * Find all propagation jobs, most recently requested first
+     * @return list of all jobs
+     */
+    List<CategoryPropagation> findAllByOrderByRequestedAtDesc();
+}
@@ -0,0 +1,56 @@
+package com.learnwithme.blog.devblog.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+
+import com.learnwithme.blog.devblog.model.PostRevision;
+
+public interface PostRevisionRepository extends MongoRepository<PostRevision, String> {
+
+    /**
+     * Find one revision of a post
+     * @param postId the post ID
+     * @param revision the revision
+     * @return optional containing the revision if found
+     */
+    Optional<PostRevision> findByPostIdAndRevision(String postId, long revision);
+
+    /**
+     * List a post's revisions without their data, newest first
+     * @param postId the post ID
+     * @return the revisions
+     */
+    @Query(value = "{ 'postId': ?0 }", fields = "{ 'data': 0 }", sort = "{ 'revision': -1 }")
+    List<PostRevision> findHistoryByPostId(String postId);
+
+    /**
+     * Find the revisions of a post in a range, oldest first
+     * @param postId the post ID
+     * @param from first revision, inclusive
+     * @param to last revision, inclusive
+     * @return the revisions
+     */
+    @Query(value = "{ 'postId': ?0, 'revision': { '$gte': ?1, '$lte': ?2 } }", sort = "{ 'revision': 1 }")
+    List<PostRevision> findRange(String postId, long from, long to);
+
+    /**
+     * Find the newest snapshot at or before a revision
+     * @param postId the post ID
+     * @param revision the revision
+     * @return optional containing the snapshot if there is one
+     */
+    Optional<PostRevision> findFirstByPostIdAndSnapshotTrueAndRevisionLessThanEqualOrderByRevisionDesc(String postId, long revision);
+
+    /**
+     * Find the newest revision before another one
+     * @param postId the post ID
+     * @param revision the revision
+     * @return optional containing the previous revision if there is one
+     */
+    Optional<PostRevision> findFirstByPostIdAndRevisionLessThanOrderByRevisionDesc(String postId, long revision);
+
+    void deleteByPostId(String postId);
+}
@@ -0,0 +1,158 @@
+package com.learnwithme.blog.devblog.scheduling;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.learnwithme.blog.devblog.dto.BlogPostDto;
+import com.learnwithme.blog.devblog.event.PostChange;
+import com.learnwithme.blog.devblog.event.PostChangedEvent;
+import com.learnwithme.blog.devblog.model.BlogPost;
+import com.learnwithme.blog.devblog.repository.BlogPostRepository;
+import com.learnwithme.blog.devblog.service.BlogPostService;
+
+/**
+ * Publishes and unpublishes posts at their scheduled times. Transitions due within the
+ * horizon are loaded from the publishAt and unpublishAt indexes at startup and on every
+ * refresh, and schedules set later arrive through change events, local or from other
+ * nodes. Each transition sits on a timer wheel until it is due, so nothing polls the
+ * collection. Every node fires its timers, but a transition is a write conditional on
+ * the scheduled time that also clears it, so exactly one node makes it.
+ */
+@Component
+public class PublishScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(PublishScheduler.class);
+
+    private static final String REFRESH_KEY = "refresh";
+
+    @Autowired
+    private BlogPostService blogPostService;
+
+    @Autowired
+    private BlogPostRepository blogPostRepository;
+
+    private final boolean enabled;
+    private final Duration horizon;
+    private final Duration refreshInterval;
+    private final Duration retryDelay;
+    private final TimerWheel<String> wheel;
+
+    // End of the time range loaded into the wheel; later transitions wait for a refresh
+    private volatile LocalDateTime loadedUntil;
+
+    public PublishScheduler(@Value("${app.publish-schedule.enabled:true}") boolean enabled,
+                            @Value("${app.publish-schedule.tick:1s}") Duration tick,
+                            @Value("${app.publish-schedule.wheel-size:512}") int wheelSize,
+                            @Value("${app.publish-schedule.horizon:24h}") Duration horizon,
+                            @Value("${app.publish-schedule.refresh-interval:1h}") Duration refreshInterval,
+                            @Value("${app.publish-schedule.retry-delay:30s}") Duration retryDelay) {
+        this.enabled = enabled;
+        this.horizon = horizon;
+        // Refresh before the loaded range runs out
+        this.refreshInterval = refreshInterval.compareTo(horizon) < 0 ? refreshInterval : horizon.dividedBy(2);
+        this.retryDelay = retryDelay;
+        this.wheel = new TimerWheel<>("publish-scheduler", tick.toMillis(), wheelSize);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        wheel.start();
+        refresh();
+    }
+
+    @PreDestroy
+    public void stop() {
+        wheel.stop();
+    }
+
+    @EventListener
+    public void onPostChanged(PostChangedEvent event) {
+        if (!enabled || loadedUntil == null) {
+            return;
+        }
+        for (PostChange change : event.getChanges()) {
+            BlogPost before = change.getBefore();
+            BlogPost after = change.getAfter();
+            if (before != null) {
+                cancel(change.getPostId(), true, before.getPublishAt(), after == null ? null : after.getPublishAt());
+                cancel(change.getPostId(), false, before.getUnpublishAt(), after == null ? null : after.getUnpublishAt());
+            }
+            if (after != null) {
+                schedule(change.getPostId(), true, after.getPublishAt());
+                schedule(change.getPostId(), false, after.getUnpublishAt());
+            }
+        }
+    }
+
+    private void refresh() {
+        LocalDateTime until = LocalDateTime.now().plus(horizon);
+        try {
+            loadedUntil = until;
+            int loaded = 0;
+            for (BlogPost post : blogPostRepository.findScheduledUntil(until)) {
+                schedule(post.getId(), true, post.getPublishAt());
+                schedule(post.getId(), false, post.getUnpublishAt());
+                loaded++;
+            }
+            logger.info("Publish scheduler loaded {} scheduled posts due by {}", loaded, until);
+            wheel.schedule(REFRESH_KEY, System.currentTimeMillis() + refreshInterval.toMillis(), this::refresh);
+        } catch (RuntimeException e) {
+            logger.warn("Could not load scheduled posts, retrying: {}", e.getMessage());
+            wheel.schedule(REFRESH_KEY, System.currentTimeMillis() + retryDelay.toMillis(), this::refresh);
+        }
+    }
+
+    private void schedule(String postId, boolean publish, LocalDateTime at) {
+        // Not due before the next refresh, which loads it then
+        if (at != null && !at.isAfter(loadedUntil)) {
+            wheel.schedule(key(postId, publish, at), toEpochMillis(at), () -> fire(postId, publish, at));
+        }
+    }
+
+    private void cancel(String postId, boolean publish, LocalDateTime before, LocalDateTime after) {
+        if (before != null && !before.equals(after)) {
+            wheel.cancel(key(postId, publish, before));
+        }
+    }
+
+    private void fire(String postId, boolean publish, LocalDateTime at) {
+        try {
+            BlogPostDto post = blogPostService.applyScheduledTransition(postId, publish, at);
+            if (post != null) {
+                logger.info("{} post {} as scheduled for {}", publish ? "Published" : "Unpublished", postId, at);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Scheduled {} of post {} failed, retrying: {}", publish ? "publish" : "unpublish",
+                    postId, e.getMessage());
+            wheel.schedule(key(postId, publish, at), System.currentTimeMillis() + retryDelay.toMillis(),
+                    () -> fire(postId, publish, at));
+        }
+    }
+
+    /**
+     * Timers are keyed by their time too, so a stale timer, say one loaded by a refresh
+     * racing a reschedule, never replaces the current one; it just finds nothing to do
+     */
+    private static String key(String postId, boolean publish, LocalDateTime at) {
+        return (publish ? "publish:" : "unpublish:") + postId + "@" + toEpochMillis(at);
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        // Matches how LocalDateTime values are stored: in the system time zone
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,170 @@
+package com.learnwithme.blog.devblog.scheduling;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Hashed timer wheel: timers hash by deadline into a ring of buckets, and a single
+ * thread advances one bucket per tick, so scheduling, cancelling and firing cost the
+ * same however many timers are pending. Timers further away than one turn of the
+ * wheel wait out the remaining turns in their bucket. A timer fires within one tick
+ * after its deadline, on the wheel's thread; timers due in the same tick fire in
+ * deadline order. Every timer has a key, and scheduling a key again replaces it.
+ * @param <K> timer key type
+ */
+public class TimerWheel<K> {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimerWheel.class);
+
+    private final String name;
+    private final long tickNanos;
+    private final List<List<Timer<K>>> wheel;
+    private final int mask;
+    private final Map<K, Timer<K>> timers = new HashMap<>();
+
+    private final long startNanos;
+    private long tick;
+    private volatile boolean running;
+    private Thread worker;
+
+    /**
+     * @param name name of the wheel's thread
+     * @param tickMillis length of a tick: the timers' precision
+     * @param wheelSize number of buckets, rounded up to a power of two
+     */
+    public TimerWheel(String name, long tickMillis, int wheelSize) {
+        this.name = name;
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, tickMillis));
+        int size = Integer.highestOneBit(Math.max(2, wheelSize) - 1) << 1;
+        this.wheel = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            wheel.add(new ArrayList<>());
+        }
+        this.mask = size - 1;
+        this.startNanos = System.nanoTime();
+    }
+
+    public synchronized void start() {
+        if (worker != null) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::work, name);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public void stop() {
+        Thread thread;
+        synchronized (this) {
+            running = false;
+            thread = worker;
+            worker = null;
+        }
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * Schedule a task, replacing the timer with the same key
+     * @param key the timer key
+     * @param deadlineMillis epoch millis at which to run the task; past deadlines run on the next tick
+     * @param task the task
+     */
+    public synchronized void schedule(K key, long deadlineMillis, Runnable task) {
+        cancel(key);
+
+        long delayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, deadlineMillis - System.currentTimeMillis()));
+        long deadlineTick = (System.nanoTime() - startNanos + delayNanos + tickNanos - 1) / tickNanos;
+        // The bucket of the current tick is the next to expire, so overdue timers go there
+        long ticks = Math.max(deadlineTick, tick);
+
+        Timer<K> timer = new Timer<>(key, deadlineMillis, task, (ticks - tick) / wheel.size(), (int) (ticks & mask));
+        wheel.get(timer.bucket).add(timer);
+        timers.put(key, timer);
+    }
+
+    /**
+     * @param key the timer key
+     * @return true if a pending timer was cancelled
+     */
+    public synchronized boolean cancel(K key) {
+        Timer<K> timer = timers.remove(key);
+        if (timer == null) {
+            return false;
+        }
+        wheel.get(timer.bucket).remove(timer);
+        return true;
+    }
+
+    /**
+     * @return number of pending timers
+     */
+    public synchronized int size() {
+        return timers.size();
+    }
+
+    private void work() {
+        while (running) {
+            long sleepNanos = startNanos + (tick + 1) * tickNanos - System.nanoTime();
+            if (sleepNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException e) {
+                    break;
+                }
+            }
+
+            List<Timer<K>> expired = new ArrayList<>();
+            synchronized (this) {
+                Iterator<Timer<K>> iterator = wheel.get((int) (tick & mask)).iterator();
+                while (iterator.hasNext()) {
+                    Timer<K> timer = iterator.next();
+                    if (timer.rounds > 0) {
+                        timer.rounds--;
+                    } else {
+                        iterator.remove();
+                        timers.remove(timer.key);
+                        expired.add(timer);
+                    }
+                }
+                tick++;
+            }
+
+            expired.sort(Comparator.comparingLong(timer -> timer.deadlineMillis));
+            for (Timer<K> timer : expired) {
+                try {
+                    timer.task.run();
+                } catch (RuntimeException e) {
+                    logger.warn("Timer {} of {} failed: {}", timer.key, name, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static final class Timer<K> {
+        private final K key;
+        private final long deadlineMillis;
+        private final Runnable task;
+        private final int bucket;
+        // Turns of the wheel left before the timer is due
+        private long rounds;
+
+        private Timer(K key, long deadlineMillis, Runnable task, long rounds, int bucket) {
+            this.key = key;
+            this.deadlineMillis = deadlineMillis;
+            this.task = task;
+            this.rounds = rounds;
+            this.bucket = bucket;
+        }
+    }
+}
@@ -0,0 +1,363 @@
+package com.learnwithme.blog.devblog.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import com.learnwithme.blog.devblog.dto.BlogPostSummaryDto;
+import com.learnwithme.blog.devblog.event.PostChange;
+import com.learnwithme.blog.devblog.event.PostChangedEvent;
+import com.learnwithme.blog.devblog.model.BlogPost;
+import com.learnwithme.blog.devblog.repository.BlogPostRepository;
+import com.learnwithme.blog.devblog.util.BlogPostMapper;
+import com.learnwithme.blog.devblog.util.ExcerptUtil;
+
+/**
+ * In-memory inverted index over the title, tags, summary and content of published
+ * posts, ranked with BM25 and per-field boosts. Built at startup and kept current
+ * from {@link PostChangedEvent}s.
+ */
+@Component
+public class PostSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostSearchIndex.class);
+
+    private static final int TITLE = 0;
+    private static final int TAGS = 1;
+    private static final int SUMMARY = 2;
+    private static final int CONTENT = 3;
+    private static final double[] FIELD_BOOSTS = {3.0, 2.5, 1.5, 1.0};
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // Fuzzy matches count for less than exact ones: weight = FUZZY_PENALTY ^ distance
+    private static final int MAX_EDIT_DISTANCE = 2;
+    private static final int SPELLING_PREFIX_LENGTH = 7;
+    private static final int MAX_FUZZY_EXPANSIONS = 3;
+    private static final double FUZZY_PENALTY = 0.5;
+
+    private static final int SNIPPET_LENGTH = 200;
+    private static final int SNIPPET_LEAD = 60;
+    private static final Pattern WORD = Pattern.compile("[\\p{L}\\p{N}]+");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private BlogPostRepository blogPostRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // term -> post ID -> term frequency per field
+    private final Map<String, Map<String, int[]>> postings = new HashMap<>();
+    private final Map<String, IndexedPost> posts = new HashMap<>();
+    private final long[] totalFieldLengths = new long[FIELD_BOOSTS.length];
+    private final SymSpellDictionary dictionary = new SymSpellDictionary(MAX_EDIT_DISTANCE, SPELLING_PREFIX_LENGTH);
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Query published = new Query(Criteria.where("published").is(true));
+
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            posts.clear();
+            dictionary.clear();
+            Arrays.fill(totalFieldLengths, 0);
+
+            try (Stream<BlogPost> stream = mongoTemplate.stream(published, BlogPost.class)) {
+                stream.forEach(this::add);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        logger.info("Search index built with {} posts and {} terms", posts.size(), postings.size());
+    }
+
+    @EventListener
+    public void onPostChanged(PostChangedEvent event) {
+        // Listing-only snapshots lack the content indexing needs; load it in one query per event
+        List<String> missingContent = new ArrayList<>();
+        for (PostChange change : event.getChanges()) {
+            BlogPost post = change.getAfter();
+            if (post != null && post.isPublished() && post.getContent() == null) {
+                missingContent.add(change.getPostId());
+            }
+        }
+        Map<String, BlogPost> loaded = new HashMap<>();
+        if (!missingContent.isEmpty()) {
+            blogPostRepository.findAllById(missingContent).forEach(post -> loaded.put(post.getId(), post));
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (PostChange change : event.getChanges()) {
+                BlogPost post = change.getAfter();
+                if (post != null && post.isPublished() && post.getContent() == null) {
+                    post = loaded.get(change.getPostId());
+                }
+
+                remove(change.getPostId());
+                if (post != null && post.isPublished()) {
+                    add(post);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rank published posts against a free-text query
+     * @param query the query
+     * @param pageNumber the page number, from 0
+     * @param pageSize the page size, at least 1
+     * @param fuzzy also match terms within a small edit distance of misspelled query terms
+     * @return the requested page of hits, best first, with highlighted snippets, and a
+     *         corrected query when some query terms are not in the index
+     */
+    public SearchResults search(String query, int pageNumber, int pageSize, boolean fuzzy) {
+        if (pageNumber < 0 || pageSize < 1) {
+            throw new IllegalArgumentException("Invalid page " + pageNumber + " of size " + pageSize);
+        }
+        List<String> queryTerms = Tokenizer.tokenize(query).stream().distinct().toList();
+        if (queryTerms.isEmpty()) {
+            return new SearchResults(List.of(), 0, null);
+        }
+
+        lock.readLock().lock();
+        try {
+            // Unknown terms are looked up in the spelling dictionary for "did you mean"
+            // and, in fuzzy mode, expanded to their closest known terms
+            Map<String, Double> weightedTerms = new LinkedHashMap<>();
+            List<String> correctedTerms = new ArrayList<>(queryTerms.size());
+            boolean corrected = false;
+            for (String term : queryTerms) {
+                if (postings.containsKey(term)) {
+                    weightedTerms.merge(term, 1.0, Math::max);
+                    correctedTerms.add(term);
+                    continue;
+                }
+
+                List<SymSpellDictionary.Correction> corrections = corrections(term);
+                if (corrections.isEmpty()) {
+                    correctedTerms.add(term);
+                    continue;
+                }
+                corrected = true;
+                correctedTerms.add(corrections.get(0).getTerm());
+                if (fuzzy) {
+                    for (SymSpellDictionary.Correction correction : corrections) {
+                        weightedTerms.merge(correction.getTerm(),
+                                Math.pow(FUZZY_PENALTY, correction.getDistance()), Math::max);
+                    }
+                }
+            }
+            String didYouMean = corrected ? String.join(" ", correctedTerms) : null;
+
+            Map<String, Double> scores = score(weightedTerms);
+
+            List<IndexedPost> ranked = scores.keySet().stream()
+                    .map(posts::get)
+                    .sorted(Comparator.<IndexedPost>comparingDouble(post -> scores.get(post.summary.getId()))
+                            .reversed()
+                            .thenComparing(post -> post.summary.getCreatedAt(),
+                                    Comparator.nullsLast(Comparator.reverseOrder())))
+                    .toList();
+
+            // In long, so a page far past the end is empty rather than an overflow
+            int from = (int) Math.min((long) pageNumber * pageSize, ranked.size());
+            int to = (int) Math.min((long) from + pageSize, ranked.size());
+
+            List<BlogPostSummaryDto> hits = new ArrayList<>(to - from);
+            for (IndexedPost post : ranked.subList(from, to)) {
+                hits.add(post.summary.toBuilder()
+                        .snippet(snippet(post, weightedTerms.keySet()))
+                        .build());
+            }
+            return new SearchResults(hits, ranked.size(), didYouMean);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Closest known terms for a term that is not in the index, nearest and most
+     * widely used first. Short terms get a smaller edit distance, since almost any
+     * short word is one or two edits away from another.
+     */
+    private List<SymSpellDictionary.Correction> corrections(String term) {
+        int maxDistance = term.length() <= 3 ? 0 : term.length() <= 5 ? 1 : MAX_EDIT_DISTANCE;
+        if (maxDistance == 0) {
+            return List.of();
+        }
+
+        return dictionary.lookup(term, maxDistance).stream()
+                .sorted(Comparator.comparingInt(SymSpellDictionary.Correction::getDistance)
+                        .thenComparing(correction -> postings.get(correction.getTerm()).size(), Comparator.reverseOrder()))
+                .limit(MAX_FUZZY_EXPANSIONS)
+                .toList();
+    }
+
+    private Map<String, Double> score(Map<String, Double> weightedTerms) {
+        int documentCount = posts.size();
+        double[] averageLengths = new double[FIELD_BOOSTS.length];
+        for (int field = 0; field < FIELD_BOOSTS.length; field++) {
+            averageLengths[field] = documentCount == 0 ? 0 : Math.max(1.0, (double) totalFieldLengths[field] / documentCount);
+        }
+
+        Map<String, Double> scores = new HashMap<>();
+        weightedTerms.forEach((term, weight) -> {
+            Map<String, int[]> termPostings = postings.get(term);
+            if (termPostings == null) {
+                return;
+            }
+
+            int documentFrequency = termPostings.size();
+            double idf = Math.log(1 + (documentCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+
+            termPostings.forEach((postId, frequencies) -> {
+                int[] lengths = posts.get(postId).fieldLengths;
+                double termScore = 0;
+                for (int field = 0; field < FIELD_BOOSTS.length; field++) {
+                    int tf = frequencies[field];
+                    if (tf > 0) {
+                        double norm = K1 * (1 - B + B * lengths[field] / averageLengths[field]);
+                        termScore += FIELD_BOOSTS[field] * tf * (K1 + 1) / (tf + norm);
+                    }
+                }
+                scores.merge(postId, weight * idf * termScore, Double::sum);
+            });
+        });
+        return scores;
+    }
+
+    private void add(BlogPost post) {
+        IndexedPost indexed = new IndexedPost();
+        indexed.summary = BlogPostMapper.toSummaryDto(post);
+        indexed.plainText = ExcerptUtil.toPlainText(post.getContent());
+
+        String[] fieldTexts = new String[FIELD_BOOSTS.length];
+        fieldTexts[TITLE] = post.getTitle();
+        fieldTexts[TAGS] = post.getTags() == null ? null : String.join(" ", post.getTags());
+        fieldTexts[SUMMARY] = post.getSummary();
+        fieldTexts[CONTENT] = indexed.plainText;
+
+        for (int field = 0; field < FIELD_BOOSTS.length; field++) {
+            List<String> terms = Tokenizer.tokenize(fieldTexts[field]);
+            indexed.fieldLengths[field] = terms.size();
+            totalFieldLengths[field] += terms.size();
+
+            for (String term : terms) {
+                Map<String, int[]> termPostings = postings.get(term);
+                if (termPostings == null) {
+                    termPostings = new HashMap<>();
+                    postings.put(term, termPostings);
+                    dictionary.add(term);
+                }
+                termPostings.computeIfAbsent(post.getId(), key -> new int[FIELD_BOOSTS.length])[field]++;
+                indexed.terms.add(term);
+            }
+        }
+
+        posts.put(post.getId(), indexed);
+    }
+
+    private void remove(String postId) {
+        IndexedPost indexed = posts.remove(postId);
+        if (indexed == null) {
+            return;
+        }
+
+        for (int field = 0; field < FIELD_BOOSTS.length; field++) {
+            totalFieldLengths[field] -= indexed.fieldLengths[field];
+        }
+        for (String term : indexed.terms) {
+            Map<String, int[]> termPostings = postings.get(term);
+            termPostings.remove(postId);
+            if (termPostings.isEmpty()) {
+                postings.remove(term);
+                dictionary.remove(term);
+            }
+        }
+    }
+
+    private String snippet(IndexedPost post, Set<String> queryTerms) {
+        String text = post.plainText;
+
+        int firstMatch = -1;
+        Matcher words = WORD.matcher(text);
+        while (words.find()) {
+            if (queryTerms.contains(Tokenizer.normalize(words.group()))) {
+                firstMatch = words.start();
+                break;
+            }
+        }
+
+        if (firstMatch < 0) {
+            return escape(post.summary.getSummary() == null ? "" : post.summary.getSummary());
+        }
+
+        int start = Math.max(0, firstMatch - SNIPPET_LEAD);
+        if (start > 0) {
+            int wordStart = text.indexOf(' ', start);
+            start = wordStart < 0 || wordStart > firstMatch ? start : wordStart + 1;
+        }
+        int end = Math.min(text.length(), start + SNIPPET_LENGTH);
+
+        StringBuilder snippet = new StringBuilder();
+        if (start > 0) {
+            snippet.append("…");
+        }
+        int copied = start;
+        Matcher windowWords = WORD.matcher(text).region(start, end);
+        while (windowWords.find()) {
+            if (queryTerms.contains(Tokenizer.normalize(windowWords.group()))) {
+                snippet.append(escape(text.substring(copied, windowWords.start())))
+                        .append("<mark>")
+                        .append(escape(windowWords.group()))
+                        .append("</mark>");
+                copied = windowWords.end();
+            }
+        }
+        snippet.append(escape(text.substring(copied, end)));
+        if (end < text.length()) {
+            snippet.append("…");
+        }
+        return snippet.toString();
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
+    private static final class IndexedPost {
+        private BlogPostSummaryDto summary;
+        private String plainText;
+        private final int[] fieldLengths = new int[FIELD_BOOSTS.length];
+        private final Set<String> terms = new HashSet<>();
+    }
+}
@@ -0,0 +1,169 @@
+package com.learnwithme.blog.devblog.search;
+
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import com.learnwithme.blog.devblog.dto.SuggestionDto;
+import com.learnwithme.blog.devblog.event.PostChange;
+import com.learnwithme.blog.devblog.event.PostChangedEvent;
+import com.learnwithme.blog.devblog.model.BlogPost;
+
+/**
+ * Type-ahead suggestions over published post titles, newest first, and tags, most
+ * used first. Built at startup and kept current from {@link PostChangedEvent}s.
+ */
+@Component
+public class PostSuggestionIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostSuggestionIndex.class);
+
+    private static final int TOP_K = 10;
+    private static final int MAX_TAG_SUGGESTIONS = 3;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private final PrefixIndex titles = new PrefixIndex(TOP_K);
+    private final PrefixIndex tags = new PrefixIndex(TOP_K);
+
+    // Current items, so they can be removed by identity when a post changes
+    private final Map<String, PrefixIndex.Item> titleItems = new HashMap<>();
+    private final Map<String, PrefixIndex.Item> tagItems = new HashMap<>();
+    private final Map<String, Integer> tagCounts = new HashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        Query published = new Query(Criteria.where("published").is(true));
+        published.fields().include("title", "slug", "tags", "createdAt", "published");
+
+        titles.update(List.copyOf(titleItems.values()), List.of());
+        tags.update(List.copyOf(tagItems.values()), List.of());
+        titleItems.clear();
+        tagItems.clear();
+        tagCounts.clear();
+
+        try (Stream<BlogPost> stream = mongoTemplate.stream(published, BlogPost.class)) {
+            stream.forEach(post -> {
+                titleItems.put(post.getId(), titleItem(post));
+                tagsOf(post).forEach(tag -> tagCounts.merge(tag, 1, Integer::sum));
+            });
+        }
+        tagCounts.forEach((tag, count) -> tagItems.put(tag, new PrefixIndex.Item(tag, null, count)));
+
+        titles.update(List.of(), titleItems.values());
+        tags.update(List.of(), tagItems.values());
+
+        logger.info("Suggestion index built with {} titles and {} tags", titleItems.size(), tagItems.size());
+    }
+
+    @EventListener
+    public synchronized void onPostChanged(PostChangedEvent event) {
+        List<PrefixIndex.Item> removedTitles = new ArrayList<>();
+        List<PrefixIndex.Item> addedTitles = new ArrayList<>();
+        Set<String> changedTags = new LinkedHashSet<>();
+
+        for (PostChange change : event.getChanges()) {
+            PrefixIndex.Item previous = titleItems.remove(change.getPostId());
+            if (previous != null) {
+                removedTitles.add(previous);
+            }
+            BlogPost after = change.getAfter();
+            if (after != null && after.isPublished()) {
+                PrefixIndex.Item item = titleItem(after);
+                titleItems.put(change.getPostId(), item);
+                addedTitles.add(item);
+            }
+
+            BlogPost before = change.getBefore();
+            if (before != null && before.isPublished()) {
+                tagsOf(before).forEach(tag -> {
+                    // A tag the index never counted stays untracked rather than going negative
+                    tagCounts.computeIfPresent(tag, (key, count) -> count > 1 ? count - 1 : null);
+                    changedTags.add(tag);
+                });
+            }
+            if (after != null && after.isPublished()) {
+                tagsOf(after).forEach(tag -> {
+                    tagCounts.merge(tag, 1, Integer::sum);
+                    changedTags.add(tag);
+                });
+            }
+        }
+
+        // Tag scores are post counts, so a changed count means a replaced item
+        List<PrefixIndex.Item> removedTags = new ArrayList<>();
+        List<PrefixIndex.Item> addedTags = new ArrayList<>();
+        for (String tag : changedTags) {
+            PrefixIndex.Item previous = tagItems.remove(tag);
+            Integer count = tagCounts.get(tag);
+            if (previous != null && count != null && previous.getScore() == count) {
+                tagItems.put(tag, previous);
+                continue;
+            }
+            if (previous != null) {
+                removedTags.add(previous);
+            }
+            if (count != null) {
+                PrefixIndex.Item item = new PrefixIndex.Item(tag, null, count);
+                tagItems.put(tag, item);
+                addedTags.add(item);
+            }
+        }
+
+        if (!removedTitles.isEmpty() || !addedTitles.isEmpty()) {
+            titles.update(removedTitles, addedTitles);
+        }
+        if (!removedTags.isEmpty() || !addedTags.isEmpty()) {
+            tags.update(removedTags, addedTags);
+        }
+    }
+
+    /**
+     * Suggest tags and post titles with a word starting with the prefix. A few of the
+     * most used tags come first, the newest matching posts fill the rest.
+     * @param prefix what the reader has typed so far
+     * @param limit maximum number of suggestions
+     * @return the suggestions
+     */
+    public List<SuggestionDto> suggest(String prefix, int limit) {
+        List<SuggestionDto> suggestions = new ArrayList<>(limit);
+
+        for (PrefixIndex.Item tag : tags.lookup(prefix, Math.min(limit, MAX_TAG_SUGGESTIONS))) {
+            suggestions.add(new SuggestionDto(SuggestionDto.TYPE_TAG, tag.getText(), null));
+        }
+        for (PrefixIndex.Item title : titles.lookup(prefix, limit - suggestions.size())) {
+            suggestions.add(new SuggestionDto(SuggestionDto.TYPE_POST, title.getText(), title.getSlug()));
+        }
+        return suggestions;
+    }
+
+    private static PrefixIndex.Item titleItem(BlogPost post) {
+        double recency = post.getCreatedAt() == null ? 0 : post.getCreatedAt().toInstant(ZoneOffset.UTC).toEpochMilli();
+        return new PrefixIndex.Item(post.getTitle(), post.getSlug(), recency);
+    }
+
+    private static Set<String> tagsOf(BlogPost post) {
+        Set<String> postTags = new LinkedHashSet<>();
+        if (post.getTags() != null) {
+            post.getTags().stream().filter(Objects::nonNull).forEach(postTags::add);
+        }
+        return postTags;
+    }
+}
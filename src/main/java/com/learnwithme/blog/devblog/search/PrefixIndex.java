@@ -0,0 +1,344 @@
+package com.learnwithme.blog.devblog.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sorted-array prefix index for type-ahead. Every word start of every item's text is
+ * a key, stored as (item, offset) pairs in two parallel arrays sorted by the text from
+ * that offset on, so a prefix lookup is a binary search plus a short range scan. The
+ * best items for one and two character prefixes, whose ranges are large, are kept
+ * precomputed. Readers never lock: writers build new arrays and publish them at once.
+ */
+public class PrefixIndex {
+
+    private static final int SHORT_PREFIX_LENGTH = 2;
+    private static final int MAX_WORD_STARTS = 8;
+    private static final int MAX_SCAN = 50_000;
+
+    private static final Comparator<Item> BY_SCORE = Comparator.comparingDouble(Item::getScore).reversed();
+
+    private final int topK;
+
+    private volatile Snapshot snapshot = new Snapshot(new Item[0], new int[0], Map.of());
+
+    public PrefixIndex(int topK) {
+        this.topK = topK;
+    }
+
+    /**
+     * A suggestion with its ranking score; higher scores rank first
+     */
+    public static final class Item {
+        private final String key;
+        private final String text;
+        private final String slug;
+        private final double score;
+
+        public Item(String text, String slug, double score) {
+            this.key = normalize(text);
+            this.text = text;
+            this.slug = slug;
+            this.score = score;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public String getSlug() {
+            return slug;
+        }
+
+        public double getScore() {
+            return score;
+        }
+    }
+
+    /**
+     * Remove and add items in one step
+     * @param removed items to remove, matched by identity
+     * @param added items to add
+     */
+    public synchronized void update(Collection<Item> removed, Collection<Item> added) {
+        Snapshot current = snapshot;
+        Item[] oldItems = current.items;
+        int[] oldOffsets = current.offsets;
+
+        // Positions of the removed keys, found by binary search rather than a full pass
+        int[] drops = removed.stream()
+                .flatMapToInt(item -> wordStarts(item.key).stream()
+                        .mapToInt(offset -> positionOf(oldItems, oldOffsets, item, offset)))
+                .filter(position -> position >= 0)
+                .sorted()
+                .distinct()
+                .toArray();
+
+        // New keys in order, each with the old position it goes in front of
+        List<Key> newKeys = new ArrayList<>();
+        for (Item item : added) {
+            for (int offset : wordStarts(item.key)) {
+                newKeys.add(new Key(item, offset));
+            }
+        }
+        newKeys.sort((a, b) -> compare(a.item, a.offset, b.item, b.offset));
+        int[] inserts = new int[newKeys.size()];
+        for (int i = 0; i < inserts.length; i++) {
+            inserts[i] = lowerBound(oldItems, oldOffsets, newKeys.get(i).item, newKeys.get(i).offset);
+        }
+
+        // Splice: copy the untouched runs in bulk, skip drops, place inserts
+        int size = oldItems.length - drops.length + newKeys.size();
+        Item[] mergedItems = new Item[size];
+        int[] mergedOffsets = new int[size];
+        int out = 0;
+        int from = 0;
+        int nextDrop = 0;
+        int nextInsert = 0;
+        while (from < oldItems.length || nextInsert < inserts.length) {
+            int insertAt = nextInsert < inserts.length ? inserts[nextInsert] : oldItems.length;
+            int dropAt = nextDrop < drops.length ? drops[nextDrop] : oldItems.length;
+            int until = Math.min(insertAt, dropAt);
+
+            System.arraycopy(oldItems, from, mergedItems, out, until - from);
+            System.arraycopy(oldOffsets, from, mergedOffsets, out, until - from);
+            out += until - from;
+            from = until;
+
+            if (nextInsert < inserts.length && insertAt == from) {
+                mergedItems[out] = newKeys.get(nextInsert).item;
+                mergedOffsets[out++] = newKeys.get(nextInsert++).offset;
+            } else if (nextDrop < drops.length && dropAt == from) {
+                from++;
+                nextDrop++;
+            }
+        }
+
+        // Refresh the precomputed short prefixes touched by this update. Added items are
+        // merged into the existing lists; only losing a listed item needs a rescan.
+        Map<String, List<Item>> addedByPrefix = new HashMap<>();
+        for (Item item : added) {
+            for (String prefix : shortPrefixes(item)) {
+                addedByPrefix.computeIfAbsent(prefix, key -> new ArrayList<>()).add(item);
+            }
+        }
+        Set<String> rescan = new HashSet<>();
+        for (Item item : removed) {
+            for (String prefix : shortPrefixes(item)) {
+                if (containsSame(current.shortPrefixTop.getOrDefault(prefix, List.of()), item)) {
+                    rescan.add(prefix);
+                }
+            }
+        }
+
+        Map<String, List<Item>> shortPrefixTop = new HashMap<>(current.shortPrefixTop);
+        for (String prefix : rescan) {
+            List<Item> top = scan(mergedItems, mergedOffsets, prefix, topK, Integer.MAX_VALUE);
+            if (top.isEmpty()) {
+                shortPrefixTop.remove(prefix);
+            } else {
+                shortPrefixTop.put(prefix, top);
+            }
+        }
+        addedByPrefix.forEach((prefix, items) -> {
+            if (rescan.contains(prefix)) {
+                return;
+            }
+            List<Item> listed = shortPrefixTop.getOrDefault(prefix, List.of());
+            List<Item> top = new ArrayList<>(listed);
+            items.stream().filter(item -> !containsSame(listed, item)).forEach(top::add);
+            top.sort(BY_SCORE);
+            shortPrefixTop.put(prefix, List.copyOf(top.subList(0, Math.min(topK, top.size()))));
+        });
+
+        snapshot = new Snapshot(mergedItems, mergedOffsets, shortPrefixTop);
+    }
+
+    /**
+     * Best items having a word that starts with the prefix
+     * @param prefix raw user input
+     * @param limit maximum number of items
+     * @return items, best first
+     */
+    public List<Item> lookup(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        Snapshot current = snapshot;
+        if (normalized.length() <= SHORT_PREFIX_LENGTH && limit <= topK) {
+            List<Item> top = current.shortPrefixTop.getOrDefault(normalized, List.of());
+            return top.size() <= limit ? top : top.subList(0, limit);
+        }
+        return scan(current.items, current.offsets, normalized, limit, MAX_SCAN);
+    }
+
+    public int size() {
+        return snapshot.items.length;
+    }
+
+    /**
+     * Lowercase, strip accents and collapse anything that is not a letter or digit into one space
+     * @param text the text
+     * @return the normalized text
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD).toLowerCase(Locale.ENGLISH);
+        StringBuilder normalized = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                normalized.append(c);
+            } else if (Character.getType(c) != Character.NON_SPACING_MARK
+                    && normalized.length() > 0 && normalized.charAt(normalized.length() - 1) != ' ') {
+                normalized.append(' ');
+            }
+        }
+        int end = normalized.length();
+        return end > 0 && normalized.charAt(end - 1) == ' ' ? normalized.substring(0, end - 1) : normalized.toString();
+    }
+
+    private static List<Item> scan(Item[] items, int[] offsets, String prefix, int limit, int maxScan) {
+        List<Item> top = new ArrayList<>(limit + 1);
+
+        int scanned = 0;
+        for (int i = lowerBound(items, offsets, prefix); i < items.length && scanned < maxScan; i++, scanned++) {
+            Item item = items[i];
+            if (!item.key.startsWith(prefix, offsets[i])) {
+                break;
+            }
+            // An item can match at several word starts; it only needs to be ranked once
+            if ((top.size() == limit && item.score <= top.get(limit - 1).score) || containsSame(top, item)) {
+                continue;
+            }
+
+            int position = top.size();
+            while (position > 0 && top.get(position - 1).score < item.score) {
+                position--;
+            }
+            top.add(position, item);
+            if (top.size() > limit) {
+                top.remove(limit);
+            }
+        }
+        return top;
+    }
+
+    private static boolean containsSame(List<Item> top, Item item) {
+        for (Item candidate : top) {
+            if (candidate == item) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int lowerBound(Item[] items, int[] offsets, String prefix) {
+        int low = 0;
+        int high = items.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareToPrefix(items[mid].key, offsets[mid], prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int lowerBound(Item[] items, int[] offsets, Item item, int offset) {
+        int low = 0;
+        int high = items.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(items[mid], offsets[mid], item, offset) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int positionOf(Item[] items, int[] offsets, Item item, int offset) {
+        for (int i = lowerBound(items, offsets, item, offset);
+             i < items.length && compare(items[i], offsets[i], item, offset) == 0; i++) {
+            if (items[i] == item && offsets[i] == offset) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int compareToPrefix(String key, int offset, String prefix) {
+        int length = Math.min(key.length() - offset, prefix.length());
+        for (int i = 0; i < length; i++) {
+            int diff = key.charAt(offset + i) - prefix.charAt(i);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return (key.length() - offset) - prefix.length() < 0 ? -1 : 0;
+    }
+
+    private static int compare(Item a, int offsetA, Item b, int offsetB) {
+        int lengthA = a.key.length() - offsetA;
+        int lengthB = b.key.length() - offsetB;
+        int length = Math.min(lengthA, lengthB);
+        for (int i = 0; i < length; i++) {
+            int diff = a.key.charAt(offsetA + i) - b.key.charAt(offsetB + i);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return lengthA - lengthB;
+    }
+
+    private static List<Integer> wordStarts(String key) {
+        List<Integer> starts = new ArrayList<>();
+        for (int i = 0; i < key.length() && starts.size() < MAX_WORD_STARTS; i++) {
+            if (i == 0 || key.charAt(i - 1) == ' ') {
+                starts.add(i);
+            }
+        }
+        return starts;
+    }
+
+    private static Set<String> shortPrefixes(Item item) {
+        Set<String> prefixes = new HashSet<>();
+        for (int offset : wordStarts(item.key)) {
+            for (int length = 1; length <= SHORT_PREFIX_LENGTH && offset + length <= item.key.length(); length++) {
+                prefixes.add(item.key.substring(offset, offset + length));
+            }
+        }
+        return prefixes;
+    }
+
+    private record Key(Item item, int offset) { }
+
+    private static final class Snapshot {
+        private final Item[] items;
+        private final int[] offsets;
+        private final Map<String, List<Item>> shortPrefixTop;
+
+        private Snapshot(Item[] items, int[] offsets, Map<String, List<Item>> shortPrefixTop) {
+            this.items = items;
+            this.offsets = offsets;
+            this.shortPrefixTop = shortPrefixTop;
+        }
+    }
+}
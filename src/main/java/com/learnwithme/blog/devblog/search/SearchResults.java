@@ -0,0 +1,37 @@
+package com.learnwithme.blog.devblog.search;
+
+import java.util.List;
+
+import com.learnwithme.blog.devblog.dto.BlogPostSummaryDto;
+
+/**
+ * One page of search hits, the total number of matching posts and, when some query
+ * terms were misspelled, the corrected query
+ */
+public class SearchResults {
+
+    private final List<BlogPostSummaryDto> hits;
+    private final long totalHits;
+    private final String didYouMean;
+
+    public SearchResults(List<BlogPostSummaryDto> hits, long totalHits, String didYouMean) {
+        this.hits = hits;
+        this.totalHits = totalHits;
+        this.didYouMean = didYouMean;
+    }
+
+    public List<BlogPostSummaryDto> getHits() {
+        return hits;
+    }
+
+    public long getTotalHits() {
+        return totalHits;
+    }
+
+    /**
+     * @return the query with misspelled terms replaced, or null if every term is known
+     */
+    public String getDidYouMean() {
+        return didYouMean;
+    }
+}
@@ -0,0 +1,235 @@
+package com.learnwithme.blog.devblog.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Symmetric-delete spelling dictionary. Every term is stored under each string it
+ * becomes after deleting up to {@code maxEditDistance} characters from its prefix, so
+ * finding near misses only needs the deletes of the input, not a scan of all terms.
+ * Candidates are verified with an edit distance that counts transpositions.
+ * Not thread-safe; callers guard it together with the data it describes.
+ */
+public class SymSpellDictionary {
+
+    private final int maxEditDistance;
+    private final int prefixLength;
+
+    private final Set<String> terms = new HashSet<>();
+
+    // Delete -> the one term (String) or several terms (String[]) it came from
+    private final Map<String, Object> deletes = new HashMap<>();
+
+    public SymSpellDictionary(int maxEditDistance, int prefixLength) {
+        this.maxEditDistance = maxEditDistance;
+        this.prefixLength = prefixLength;
+    }
+
+    /**
+     * A known term within edit distance of the looked-up word
+     */
+    public static final class Correction {
+        private final String term;
+        private final int distance;
+
+        Correction(String term, int distance) {
+            this.term = term;
+            this.distance = distance;
+        }
+
+        public String getTerm() {
+            return term;
+        }
+
+        public int getDistance() {
+            return distance;
+        }
+    }
+
+    public void add(String term) {
+        if (!terms.add(term)) {
+            return;
+        }
+        for (String delete : deletesOf(prefix(term))) {
+            deletes.merge(delete, term, SymSpellDictionary::addTerm);
+        }
+    }
+
+    public void remove(String term) {
+        if (!terms.remove(term)) {
+            return;
+        }
+        for (String delete : deletesOf(prefix(term))) {
+            deletes.computeIfPresent(delete, (key, bucket) -> removeTerm(bucket, term));
+        }
+    }
+
+    public void clear() {
+        terms.clear();
+        deletes.clear();
+    }
+
+    public boolean contains(String term) {
+        return terms.contains(term);
+    }
+
+    public int size() {
+        return terms.size();
+    }
+
+    /**
+     * Known terms within an edit distance of a word, closest first
+     * @param word the word, already normalized like the terms
+     * @param maxDistance the largest distance to accept, capped at the dictionary's own
+     * @return the corrections; an exact match has distance 0
+     */
+    public List<Correction> lookup(String word, int maxDistance) {
+        int limit = Math.min(maxDistance, maxEditDistance);
+        List<Correction> corrections = new ArrayList<>();
+        if (word.isEmpty()) {
+            return corrections;
+        }
+
+        String inputPrefix = prefix(word);
+        Set<String> checked = new HashSet<>();
+        Set<String> visited = new HashSet<>();
+        Deque<String> candidates = new ArrayDeque<>();
+        candidates.add(inputPrefix);
+        visited.add(inputPrefix);
+
+        while (!candidates.isEmpty()) {
+            String candidate = candidates.poll();
+            int deleted = inputPrefix.length() - candidate.length();
+
+            for (String term : termsUnder(candidate)) {
+                if (Math.abs(term.length() - word.length()) > limit || !checked.add(term)) {
+                    continue;
+                }
+                int distance = distance(word, term, limit);
+                if (distance <= limit) {
+                    corrections.add(new Correction(term, distance));
+                }
+            }
+
+            // Breadth first: every candidate one delete further out
+            if (deleted < limit && candidate.length() > 1) {
+                for (int i = 0; i < candidate.length(); i++) {
+                    String delete = candidate.substring(0, i) + candidate.substring(i + 1);
+                    if (visited.add(delete)) {
+                        candidates.add(delete);
+                    }
+                }
+            }
+        }
+
+        corrections.sort(Comparator.comparingInt(Correction::getDistance));
+        return corrections;
+    }
+
+    /**
+     * Optimal string alignment distance, giving up once it exceeds a bound
+     * @param a first string
+     * @param b second string
+     * @param bound the largest distance of interest
+     * @return the distance, or {@code bound + 1} if it is larger than the bound
+     */
+    static int distance(String a, String b, int bound) {
+        if (Math.abs(a.length() - b.length()) > bound) {
+            return bound + 1;
+        }
+
+        // Three rolling rows: the transposition check looks two rows back
+        int[] twoRowsBack = new int[b.length() + 1];
+        int[] previousRow = new int[b.length() + 1];
+        int[] row = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            row[j] = j;
+        }
+
+        for (int i = 1; i <= a.length(); i++) {
+            int[] recycled = twoRowsBack;
+            twoRowsBack = previousRow;
+            previousRow = row;
+            row = recycled;
+
+            row[0] = i;
+            int rowMinimum = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previousRow[j] + 1, row[j - 1] + 1), previousRow[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, twoRowsBack[j - 2] + 1);
+                }
+                row[j] = value;
+                rowMinimum = Math.min(rowMinimum, value);
+            }
+            if (rowMinimum > bound) {
+                return bound + 1;
+            }
+        }
+        return Math.min(row[b.length()], bound + 1);
+    }
+
+    private String prefix(String term) {
+        return term.length() > prefixLength ? term.substring(0, prefixLength) : term;
+    }
+
+    private Set<String> deletesOf(String word) {
+        Set<String> result = new HashSet<>();
+        result.add(word);
+        collectDeletes(word, 0, result);
+        return result;
+    }
+
+    private void collectDeletes(String word, int depth, Set<String> result) {
+        if (depth == maxEditDistance || word.length() <= 1) {
+            return;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            String delete = word.substring(0, i) + word.substring(i + 1);
+            if (result.add(delete)) {
+                collectDeletes(delete, depth + 1, result);
+            }
+        }
+    }
+
+    private String[] termsUnder(String delete) {
+        Object bucket = deletes.get(delete);
+        if (bucket == null) {
+            return new String[0];
+        }
+        return bucket instanceof String term ? new String[] {term} : (String[]) bucket;
+    }
+
+    private static Object addTerm(Object bucket, Object term) {
+        if (bucket instanceof String existing) {
+            return new String[] {existing, (String) term};
+        }
+        String[] existing = (String[]) bucket;
+        String[] grown = new String[existing.length + 1];
+        System.arraycopy(existing, 0, grown, 0, existing.length);
+        grown[existing.length] = (String) term;
+        return grown;
+    }
+
+    private static Object removeTerm(Object bucket, String term) {
+        if (bucket instanceof String existing) {
+            return existing.equals(term) ? null : existing;
+        }
+        String[] existing = (String[]) bucket;
+        List<String> remaining = new ArrayList<>(existing.length);
+        for (String candidate : existing) {
+            if (!candidate.equals(term)) {
+                remaining.add(candidate);
+            }
+        }
+        return remaining.size() == 1 ? remaining.get(0) : remaining.toArray(String[]::new);
+    }
+}
@@ -0,0 +1,66 @@
+package com.learnwithme.blog.devblog.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Splits text into lowercase, accent-free search terms, dropping common English stop words
+ */
+public final class Tokenizer {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "but", "by", "for", "from", "how", "if", "in",
+            "into", "is", "it", "its", "not", "of", "on", "or", "so", "that", "the", "their", "then",
+            "there", "these", "this", "to", "was", "we", "what", "when", "which", "will", "with", "you", "your");
+
+    private Tokenizer() {
+        // Utility class with private constructor
+    }
+
+    /**
+     * Tokenize text into search terms, in order of appearance
+     * @param text the text, may be null
+     * @return the terms
+     */
+    public static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFD).toLowerCase(Locale.ENGLISH);
+        StringBuilder term = new StringBuilder();
+        for (int i = 0; i <= normalized.length(); i++) {
+            char c = i < normalized.length() ? normalized.charAt(i) : ' ';
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                term.append(c);
+            } else if (term.length() > 0) {
+                addTerm(terms, term.toString());
+                term.setLength(0);
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Normalize a single word the same way {@link #tokenize(String)} does
+     * @param word the word
+     * @return the term, or null if the word is a stop word or has no letters or digits
+     */
+    public static String normalize(String word) {
+        List<String> terms = tokenize(word);
+        return terms.isEmpty() ? null : terms.get(0);
+    }
+
+    private static void addTerm(List<String> terms, String term) {
+        if (!STOP_WORDS.contains(term)) {
+            terms.add(term);
+        }
+    }
+}
@@ -1,7 +1,14 @@
 package com.learnwithme.blog.devblog.service;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 import com.learnwithme.blog.devblog.dto.BlogPostDto;
+import com.learnwithme.blog.devblog.dto.BlogPostSummaryDto;
 import com.learnwithme.blog.devblog.dto.PageResponseDto;
+import com.learnwithme.blog.devblog.dto.PostPatchDto;
+import com.learnwithme.blog.devblog.dto.SuggestionDto;
+import com.learnwithme.blog.devblog.model.PostFeed;
 import org.springframework.web.multipart.MultipartFile;
 
 public interface BlogPostService {
@@ -15,12 +22,13 @@ public interface BlogPostService {
 
 
     /**
-     * Get all blog posts with pagination
+     * Get all published blog posts with pagination (listing fields only)
      * @param pageNumber the page number
      * @param pageSize the page size
+     * @param includeTotals false for slice mode: hasNext only, no totalElements/totalPages
      * @return paginated blog posts
      */
-    PageResponseDto<BlogPostDto> getAllPosts(int pageNumber, int pageSize);
+    PageResponseDto<BlogPostSummaryDto> getAllPosts(int pageNumber, int pageSize, boolean includeTotals);
 
     /**
      * Get a blog post by its ID
@@ -37,13 +45,21 @@ public interface BlogPostService {
     BlogPostDto getPostBySlug(String slug);
 
     /**
-     * Update a blog post
+     * Update the given fields of a blog post
      * @param postId the ID of the blog post to update
-     * @param blogPostDto the updated blog post data
+     * @param blogPostDto the updated blog post data; a version makes the update fail if the post changed since
      * @return the updated blog post
      */
     BlogPostDto updatePost(String postId, BlogPostDto blogPostDto);
 
+    /**
+     * Apply a partial update made against the version the client last read
+     * @param postId the ID of the blog post to patch
+     * @param patch the changed fields and content edits, with the version or updatedAt they were made against
+     * @return the patched blog post, without its content
+     */
+    BlogPostDto patchPost(String postId, PostPatchDto patch);
+
     /**
      * Delete a blog post
      * @param postId the ID of the blog post to delete
@@ -55,9 +71,10 @@ public interface BlogPostService {
      * @param categoryId the ID of the category
      * @param pageNumber the page number
      * @param pageSize the page size
+     * @param includeTotals false for slice mode: hasNext only, no totalElements/totalPages
      * @return paginated blog posts for the category
      */
-    PageResponseDto<BlogPostDto> getPostsByCategory(String categoryId, int pageNumber, int pageSize);
+    PageResponseDto<BlogPostSummaryDto> getPostsByCategory(String categoryId, int pageNumber, int pageSize, boolean includeTotals);
 
     /**
      * Get blog posts by subcategory with pagination
@@ -65,41 +82,92 @@ public interface BlogPostService {
      * @param subcategorySlug the slug of the subcategory
      * @param pageNumber the page number
      * @param pageSize the page size
+     * @param includeTotals false for slice mode: hasNext only, no totalElements/totalPages
      * @return paginated blog posts for the subcategory
      */
-    PageResponseDto<BlogPostDto> getPostsBySubcategory(String categoryId, String subcategorySlug, int pageNumber, int pageSize);
+    PageResponseDto<BlogPostSummaryDto> getPostsBySubcategory(String categoryId, String subcategorySlug, int pageNumber, int pageSize, boolean includeTotals);
 
     /**
-     * Search for blog posts by title
+     * Search published blog posts by title, tags, summary and content, best match first
      * @param searchTerm the search term
      * @param pageNumber the page number
      * @param pageSize the page size
-     * @return paginated search results
+     * @param includeTotals false for slice mode: hasNext only, no totalElements/totalPages
+     * @param fuzzy also match terms within edit distance 1-2 of misspelled search terms
+     * @return paginated search results, with a "did you mean" query when terms were misspelled
+     */
+    PageResponseDto<BlogPostSummaryDto> searchPosts(String searchTerm, int pageNumber, int pageSize, boolean includeTotals, boolean fuzzy);
+
+    /**
+     * Type-ahead suggestions from published post titles and tags
+     * @param prefix what the reader has typed so far
+     * @param limit maximum number of suggestions
+     * @return matching tags and posts
      */
-    PageResponseDto<BlogPostDto> searchPosts(String searchTerm, int pageNumber, int pageSize);
+    List<SuggestionDto> suggest(String prefix, int limit);
 
     /**
      * Get blog posts by tag with pagination
      * @param tag the tag
      * @param pageNumber the page number
      * @param pageSize the page size
+     * @param includeTotals false for slice mode: hasNext only, no totalElements/totalPages
      * @return paginated blog posts for the tag
      */
-    PageResponseDto<BlogPostDto> getPostsByTag(String tag, int pageNumber, int pageSize);
+    PageResponseDto<BlogPostSummaryDto> getPostsByTag(String tag, int pageNumber, int pageSize, boolean includeTotals);
+
+    /**
+     * Get blog posts by author with pagination
+     * @param author the author
+     * @param pageNumber the page number
+     * @param pageSize the page size
+     * @param includeTotals false for slice mode: hasNext only, no totalElements/totalPages
+     * @return paginated blog posts for the author
+     */
+    PageResponseDto<BlogPostSummaryDto> getPostsByAuthor(String author, int pageNumber, int pageSize, boolean includeTotals);
+
+    /**
+     * Get a page of a feed using keyset pagination on (createdAt, id)
+     * @param feed the feed to read
+     * @param cursor the cursor returned with the previous page, or empty for the first page
+     * @param pageSize the page size
+     * @return the page with a nextCursor unless it is the last one
+     */
+    PageResponseDto<BlogPostSummaryDto> getFeedAfterCursor(PostFeed feed, String cursor, int pageSize);
 
     /**
      * Get recent blog posts
      * @return list of recent blog posts
      */
-    BlogPostDto[] getRecentPosts();
+    BlogPostSummaryDto[] getRecentPosts();
 
     /**
-     * Publish or unpublish a blog post
+     * Publish or unpublish a blog post, dropping any scheduled publish or unpublish time
      * @param postId the ID of the blog post
      * @param publish true to publish, false to unpublish
+     * @param expectedVersion the version the client last read, or null to apply to any version
      * @return the updated blog post
      */
-    BlogPostDto togglePublishStatus(String postId, boolean publish);
+    BlogPostDto togglePublishStatus(String postId, boolean publish, Long expectedVersion);
+
+    /**
+     * Schedule a blog post to be published and/or unpublished at given times
+     * @param postId the ID of the blog post
+     * @param publishAt when to publish it, or null for no scheduled publishing
+     * @param unpublishAt when to unpublish it, or null for no scheduled expiry
+     * @param expectedVersion the version the client last read, or null to apply to any version
+     * @return the updated blog post
+     */
+    BlogPostDto schedulePost(String postId, LocalDateTime publishAt, LocalDateTime unpublishAt, Long expectedVersion);
+
+    /**
+     * Publish or unpublish a blog post as scheduled, provided it is still scheduled for that time
+     * @param postId the ID of the blog post
+     * @param publish true to publish, false to unpublish
+     * @param at the scheduled time
+     * @return the updated blog post, or null if the transition was made elsewhere, rescheduled or cancelled
+     */
+    BlogPostDto applyScheduledTransition(String postId, boolean publish, LocalDateTime at);
 
     /**
      * Upload an image file to S3 and get the URL
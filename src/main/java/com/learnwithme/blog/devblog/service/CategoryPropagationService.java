@@ -0,0 +1,27 @@
+package com.learnwithme.blog.devblog.service;
+
+import java.util.List;
+
+import com.learnwithme.blog.devblog.dto.CategoryPropagationDto;
+
+public interface CategoryPropagationService {
+
+    /**
+     * Queue copying a category's names into its posts; the posts are updated in the background
+     * @param categoryId the ID of the category that was renamed, restructured or deleted
+     */
+    void request(String categoryId);
+
+    /**
+     * Get the progress of every propagation job
+     * @return jobs, most recently requested first
+     */
+    List<CategoryPropagationDto> getPropagations();
+
+    /**
+     * Get the progress of the propagation job of one category
+     * @param categoryId the ID of the category
+     * @return the job
+     */
+    CategoryPropagationDto getPropagation(String categoryId);
+}
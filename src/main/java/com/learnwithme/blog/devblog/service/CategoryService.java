@@ -42,6 +42,14 @@ public interface CategoryService {
      */
     CategoryDto getCategoryBySlug(String slug);
 
+    /**
+     * Get a subcategory of a category
+     * @param categoryId the ID of the category
+     * @param subcategorySlug the slug of the subcategory
+     * @return the subcategory if found
+     */
+    SubcategoryDto getSubcategory(String categoryId, String subcategorySlug);
+
     /**
      * Update a category
      * @param categoryId the ID of the category to update
@@ -0,0 +1,17 @@
+package com.learnwithme.blog.devblog.service;
+
+import java.util.function.Consumer;
+
+import com.learnwithme.blog.devblog.dto.BulkOperationRequestDto;
+import com.learnwithme.blog.devblog.dto.BulkProgressDto;
+
+public interface PostBulkService {
+
+    /**
+     * Apply one operation to every selected blog post, in batches
+     * @param request the operation and the posts it applies to
+     * @param progress receives the running totals after every batch, and once more when done
+     * @return the final totals
+     */
+    BulkProgressDto execute(BulkOperationRequestDto request, Consumer<BulkProgressDto> progress);
+}
@@ -0,0 +1,43 @@
+package com.learnwithme.blog.devblog.service;
+
+import java.util.List;
+
+import com.learnwithme.blog.devblog.dto.BlogPostDto;
+import com.learnwithme.blog.devblog.dto.PostRevisionDto;
+import com.learnwithme.blog.devblog.dto.RevisionDiffDto;
+
+public interface PostRevisionService {
+
+    /**
+     * Get the content revisions of a post
+     * @param postId the post ID
+     * @return revisions without their content, newest first
+     */
+    List<PostRevisionDto> getRevisions(String postId);
+
+    /**
+     * Get one revision of a post with its content
+     * @param postId the post ID
+     * @param revision the revision
+     * @return the revision
+     */
+    PostRevisionDto getRevision(String postId, long revision);
+
+    /**
+     * Compare two revisions of a post line by line
+     * @param postId the post ID
+     * @param fromRevision the older revision, or null for the one before toRevision
+     * @param toRevision the newer revision
+     * @return the diff
+     */
+    RevisionDiffDto diffRevisions(String postId, Long fromRevision, long toRevision);
+
+    /**
+     * Make a revision's content the post's content again; this records a new revision
+     * @param postId the post ID
+     * @param revision the revision to restore
+     * @param expectedVersion the version the client last read, or null to restore over any
+     * @return the updated post
+     */
+    BlogPostDto restoreRevision(String postId, long revision, Long expectedVersion);
+}
@@ -5,4 +5,21 @@ import org.springframework.web.multipart.MultipartFile;
 public interface S3Service {
     String uploadFile(MultipartFile file, String folder);
     void deleteFile(String fileUrl);
+
+    /**
+     * Upload a file under the temporary prefix, to be promoted once the request
+     * that owns it succeeds. Temporary objects that are never promoted or deleted
+     * are left to the bucket's lifecycle rule for that prefix.
+     * @param file the file
+     * @return the URL of the temporary object
+     */
+    String uploadTempFile(MultipartFile file);
+
+    /**
+     * Move a temporary object into its folder, keeping its file name
+     * @param tempUrl URL returned by {@link #uploadTempFile(MultipartFile)}
+     * @param folder the destination folder
+     * @return the URL of the promoted object
+     */
+    String promoteFile(String tempUrl, String folder);
 }
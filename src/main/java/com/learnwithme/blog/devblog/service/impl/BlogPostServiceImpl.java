@@ -2,212 +2,426 @@ package com.learnwithme.blog.devblog.service.impl;
 
 import java.io.IOException;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
 import com.cloudinary.Cloudinary;
+import com.learnwithme.blog.devblog.cache.FeedCountCache;
+import com.learnwithme.blog.devblog.cache.PostCache;
+import com.learnwithme.blog.devblog.cache.SlugFilter;
+import com.learnwithme.blog.devblog.cache.StaleReads;
 import com.learnwithme.blog.devblog.service.ArticleGenerationService;
 import com.learnwithme.blog.devblog.service.S3Service;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import com.learnwithme.blog.devblog.dto.BlogPostDto;
+import com.learnwithme.blog.devblog.dto.BlogPostSummaryDto;
+import com.learnwithme.blog.devblog.dto.CategoryDto;
 import com.learnwithme.blog.devblog.dto.PageResponseDto;
+import com.learnwithme.blog.devblog.dto.PostPatchDto;
+import com.learnwithme.blog.devblog.dto.SubcategoryDto;
+import com.learnwithme.blog.devblog.dto.SuggestionDto;
+import com.learnwithme.blog.devblog.event.PostChangedEvent;
+import com.learnwithme.blog.devblog.exception.BadRequestException;
+import com.learnwithme.blog.devblog.exception.ConflictException;
 import com.learnwithme.blog.devblog.exception.ResourceNotFoundException;
 import com.learnwithme.blog.devblog.model.BlogPost;
-import com.learnwithme.blog.devblog.model.Category;
-import com.learnwithme.blog.devblog.model.Subcategory;
+import com.learnwithme.blog.devblog.model.PostFeed;
 import com.learnwithme.blog.devblog.repository.BlogPostRepository;
-import com.learnwithme.blog.devblog.repository.CategoryRepository;
+import com.learnwithme.blog.devblog.search.PostSearchIndex;
+import com.learnwithme.blog.devblog.search.PostSuggestionIndex;
+import com.learnwithme.blog.devblog.search.SearchResults;
 import com.learnwithme.blog.devblog.service.BlogPostService;
+import com.learnwithme.blog.devblog.service.CategoryService;
+import com.learnwithme.blog.devblog.util.BlogPostMapper;
+import com.learnwithme.blog.devblog.util.ExcerptUtil;
+import com.learnwithme.blog.devblog.util.FeedCursor;
+import com.learnwithme.blog.devblog.util.ImageStaging;
+import com.learnwithme.blog.devblog.util.ImageStaging.StagedImage;
 import com.learnwithme.blog.devblog.util.SlugUtil;
+import com.learnwithme.blog.devblog.util.TextPatch;
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoWriteException;
+import com.mongodb.WriteError;
 import org.springframework.web.multipart.MultipartFile;
 
 @Service
 public class BlogPostServiceImpl implements BlogPostService  {
 
+    private static final String SLUG_INDEX = "slug_unique";
+    private static final int MAX_SLUG_ATTEMPTS = 5;
+    private static final String IMAGE_FOLDER = "blog-images";
+
     @Autowired
     private BlogPostRepository blogPostRepository;
 
     @Autowired
-    private CategoryRepository categoryRepository;
+    private CategoryService categoryService;
 
     @Autowired
     private Cloudinary cloudinary;
 
     @Autowired
     private  S3Service s3Service;
+
+    @Autowired
+    private ImageStaging imageStaging;
+
+    @Autowired
+    private PostCache postCache;
+
+    @Autowired
+    private FeedCountCache feedCountCache;
+
+    @Autowired
+    private StaleReads staleReads;
+
+    @Autowired
+    private SlugFilter slugFilter;
+
+    @Autowired
+    private PostSearchIndex postSearchIndex;
+
+    @Autowired
+    private PostSuggestionIndex postSuggestionIndex;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 //    @Autowired
 //    private ArticleGenerationService articleGenerationService;
 
     @Override
     public BlogPostDto createPost(BlogPostDto blogPostDto, MultipartFile imageFile) {
-        // Generate slug if not provided
-        if (blogPostDto.getSlug() == null || blogPostDto.getSlug().isEmpty()) {
-            blogPostDto.setSlug(SlugUtil.toSlug(blogPostDto.getTitle()));
-        }
+        // Start the image upload first; the checks below run while it is in flight
+        StagedImage image = imageStaging.stage(imageFile);
+        BlogPost saved;
+        try {
+            // Generate slug if not provided; generated slugs are numbered on a clash instead of rejected
+            boolean generatedSlug = blogPostDto.getSlug() == null || blogPostDto.getSlug().isEmpty();
+            if (generatedSlug) {
+                blogPostDto.setSlug(SlugUtil.toSlug(blogPostDto.getTitle()));
+            } else if (!slugFilter.isKnownMissing(blogPostDto.getSlug())
+                    && blogPostRepository.existsBySlug(blogPostDto.getSlug())) {
+                // Fail before the upload completes; the unique index still settles races
+                throw new IllegalArgumentException("Blog post with slug '" + blogPostDto.getSlug() + "' already exists");
+            }
 
-        // Check if slug already exists
-        if (blogPostRepository.existsBySlug(blogPostDto.getSlug())) {
-            throw new IllegalArgumentException("Blog post with slug '" + blogPostDto.getSlug() + "' already exists");
-        }
+            // Handle category and subcategory
+            if (blogPostDto.getCategoryId() != null && !blogPostDto.getCategoryId().isEmpty()) {
+                CategoryDto category = categoryService.getCategoryById(blogPostDto.getCategoryId());
 
-        // Handle category and subcategory
-        if (blogPostDto.getCategoryId() != null && !blogPostDto.getCategoryId().isEmpty()) {
-            Category category = categoryRepository.findById(blogPostDto.getCategoryId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Category", "id", blogPostDto.getCategoryId()));
+                blogPostDto.setCategoryName(category.getName());
 
-            blogPostDto.setCategoryName(category.getName());
+                if (blogPostDto.getSubcategorySlug() != null && !blogPostDto.getSubcategorySlug().isEmpty()) {
+                    SubcategoryDto subcategory = categoryService.getSubcategory(category.getId(), blogPostDto.getSubcategorySlug());
 
-            if (blogPostDto.getSubcategorySlug() != null && !blogPostDto.getSubcategorySlug().isEmpty()) {
-                Subcategory subcategory = category.getSubcategories().stream()
-                        .filter(sub -> sub.getSlug().equals(blogPostDto.getSubcategorySlug()))
-                        .findFirst()
-                        .orElseThrow(() -> new ResourceNotFoundException("Subcategory", "slug", blogPostDto.getSubcategorySlug()));
+                    blogPostDto.setSubcategoryName(subcategory.getName());
+                }
+            }
 
-                blogPostDto.setSubcategoryName(subcategory.getName());
+            // Persist the feed excerpt so listings never need the content
+            if (blogPostDto.getSummary() == null || blogPostDto.getSummary().isBlank()) {
+                blogPostDto.setSummary(ExcerptUtil.toExcerpt(blogPostDto.getContent()));
             }
-        }
 
-        // Upload image to S3 (Replace Cloudinary logic)
-        if (imageFile != null && !imageFile.isEmpty()) {
-            try {
-                String imageUrl = s3Service.uploadFile(imageFile, "blog-images");
+            validateSchedule(blogPostDto.getPublishAt(), blogPostDto.getUnpublishAt());
+
+            // Set timestamps
+            LocalDateTime now = LocalDateTime.now();
+            blogPostDto.setCreatedAt(now);
+            blogPostDto.setUpdatedAt(now);
+
+            // Move the uploaded image out of the temporary prefix now that the post is valid
+            String imageUrl = image.promote(IMAGE_FOLDER);
+            if (imageUrl != null) {
                 blogPostDto.setImageUrl(imageUrl);
-            } catch (Exception e) {
-                throw new RuntimeException("Image upload failed: " + e.getMessage());
             }
-        }
 
-        // Set timestamps
-        LocalDateTime now = LocalDateTime.now();
-        blogPostDto.setCreatedAt(now);
-        blogPostDto.setUpdatedAt(now);
+            // Map to entity
+            BlogPost blogPost = mapToEntity(blogPostDto);
 
-        // Map to entity
-        BlogPost blogPost = mapToEntity(blogPostDto);
+            // Save to DB; the unique slug index settles clashes, so a free slug costs one insert
+            saved = insertWithFreeSlug(blogPost, generatedSlug);
+        } catch (RuntimeException e) {
+            // Cancels the upload if it is still running and deletes whatever it stored
+            image.discard();
+            throw e;
+        }
 
-        // Save to DB
-        BlogPost saved = blogPostRepository.save(blogPost);
+        // The post is stored and refers to the image from here on, whatever a listener does
+        eventPublisher.publishEvent(PostChangedEvent.of(saved.getId(), null, saved));
 
         return mapToDto(saved);
     }
 
+    /**
+     * Insert a new post. A clash on an explicit slug is rejected; a generated slug is
+     * numbered past the highest suffix in use ("my-post-2", "my-post-3", ...) and retried.
+     * @param blogPost the post to insert
+     * @param generatedSlug whether the slug was derived from the title
+     * @return the inserted post
+     */
+    private BlogPost insertWithFreeSlug(BlogPost blogPost, boolean generatedSlug) {
+        String baseSlug = blogPost.getSlug();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return blogPostRepository.insert(blogPost);
+            } catch (DuplicateKeyException e) {
+                if (!isSlugClash(e)) {
+                    throw e;
+                }
+                if (!generatedSlug) {
+                    throw new IllegalArgumentException("Blog post with slug '" + blogPost.getSlug() + "' already exists");
+                }
+                if (attempt == MAX_SLUG_ATTEMPTS) {
+                    throw new IllegalStateException("Could not find a free slug for '" + baseSlug + "'");
+                }
+                // Another post may take the same number concurrently, which the next attempt handles
+                long suffix = Math.max(2, blogPostRepository.findHighestSlugSuffix(baseSlug) + 1);
+                blogPost.setSlug(SlugUtil.withSuffix(baseSlug, suffix));
+            }
+        }
+    }
 
-    @Override
-    public PageResponseDto<BlogPostDto> getAllPosts(int pageNumber, int pageSize) {
-        // Create pageable object
-        Pageable pageable = PageRequest.of(pageNumber, pageSize, Sort.by("createdAt").descending());
+    /**
+     * Whether the duplicate key is in the unique slug index, going by the server's write
+     * error under the translated exception: its key pattern where the server sends one,
+     * otherwise the index it names
+     * @param e the translated exception
+     * @return true for a slug clash, false for a clash on any other unique key
+     */
+    static boolean isSlugClash(DuplicateKeyException e) {
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoWriteException writeException) {
+                WriteError error = writeException.getError();
+                return isSlugIndex(error.getCode(), error.getMessage(), error.getDetails());
+            }
+            if (cause instanceof MongoBulkWriteException bulkException) {
+                return bulkException.getWriteErrors().stream()
+                        .anyMatch(error -> isSlugIndex(error.getCode(), error.getMessage(), error.getDetails()));
+            }
+            if (cause instanceof MongoCommandException commandException) {
+                // findAndModify reports the clash as a command error, with the key pattern in the reply
+                return isSlugIndex(commandException.getErrorCode(), commandException.getErrorMessage(),
+                        commandException.getResponse());
+            }
+        }
+        return false;
+    }
 
-        // Get page of blog posts
-        Page<BlogPost> blogPostsPage = blogPostRepository.findByPublishedTrue(pageable);
+    private static boolean isSlugIndex(int code, String message, BsonDocument details) {
+        if (ErrorCategory.fromErrorCode(code) != ErrorCategory.DUPLICATE_KEY) {
+            return false;
+        }
+        BsonValue keyPattern = details == null ? null : details.get("keyPattern");
+        if (keyPattern != null && keyPattern.isDocument()) {
+            return keyPattern.asDocument().keySet().equals(Set.of("slug"));
+        }
+        return message != null && message.contains("index: " + SLUG_INDEX + " ");
+    }
 
-        // Map to DTOs
-        List<BlogPostDto> blogPostDtos = blogPostsPage.getContent().stream()
-                .map(this::mapToDto)
-                .collect(Collectors.toList());
+    @Override
+    public PageResponseDto<BlogPostSummaryDto> getAllPosts(int pageNumber, int pageSize, boolean includeTotals) {
+        return staleReads.read(StaleReads.Endpoint.FEED, "all:" + pageNumber + ":" + pageSize + ":" + includeTotals, () -> {
+            // Create pageable object
+            Pageable pageable = PageRequest.of(pageNumber, pageSize, Sort.by("createdAt").descending());
 
-        // Create page response DTO
-        PageResponseDto<BlogPostDto> pageResponseDto = new PageResponseDto<>();
-        pageResponseDto.setContent(blogPostDtos);
-        pageResponseDto.setPageNumber(blogPostsPage.getNumber());
-        pageResponseDto.setPageSize(blogPostsPage.getSize());
-        pageResponseDto.setTotalElements(blogPostsPage.getTotalElements());
-        pageResponseDto.setTotalPages(blogPostsPage.getTotalPages());
-        pageResponseDto.setLast(blogPostsPage.isLast());
+            // Get slice of blog posts
+            Slice<BlogPost> blogPostsSlice = blogPostRepository.findByPublishedTrue(pageable);
 
-        return pageResponseDto;
+            // Map listing fields to summary DTOs
+            return toPageResponse(blogPostsSlice, includeTotals ? feedCountCache.count(PostFeed.all()) : null);
+        });
     }
 
     @Override
     public BlogPostDto getPostById(String postId) {
-        BlogPost blogPost = blogPostRepository.findById(postId)
-                .orElseThrow(() -> new ResourceNotFoundException("Blog post", "id", postId));
-        return mapToDto(blogPost);
+        // Cached posts skip the latency guard altogether
+        BlogPostDto cached = postCache.peekById(postId);
+        if (cached != null) {
+            return cached;
+        }
+        return staleReads.read(StaleReads.Endpoint.POST, "id:" + postId, () -> postCache.getById(postId, () -> {
+            BlogPost blogPost = blogPostRepository.findById(postId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Blog post", "id", postId));
+            return mapToDto(blogPost);
+        }));
     }
 
     @Override
     public BlogPostDto getPostBySlug(String slug) {
-        BlogPost blogPost = blogPostRepository.findBySlug(slug)
-                .orElseThrow(() -> new ResourceNotFoundException("Blog post", "slug", slug));
-        return mapToDto(blogPost);
+        // Cached posts skip the latency guard altogether
+        BlogPostDto cached = postCache.peekBySlug(slug);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Unknown slugs, mostly from crawlers and broken links, are turned away in memory
+        if (slugFilter.isKnownMissing(slug)) {
+            throw ResourceNotFoundException.withoutStackTrace("Blog post", "slug", slug);
+        }
+        long slugGeneration = slugFilter.generation();
+        return staleReads.read(StaleReads.Endpoint.POST, "slug:" + slug, () -> postCache.getBySlug(slug, () -> {
+            BlogPost blogPost = blogPostRepository.findBySlug(slug)
+                    .orElseThrow(() -> {
+                        slugFilter.recordMissing(slug, slugGeneration);
+                        return ResourceNotFoundException.withoutStackTrace("Blog post", "slug", slug);
+                    });
+            return mapToDto(blogPost);
+        }));
     }
 
     @Override
     public BlogPostDto updatePost(String postId, BlogPostDto blogPostDto) {
-        // Find blog post
-        BlogPost blogPost = blogPostRepository.findById(postId)
-                .orElseThrow(() -> new ResourceNotFoundException("Blog post", "id", postId));
+        // Collect only the fields this request changes
+        PostUpdate update = new PostUpdate();
+        Long expectedVersion = blogPostDto.getVersion();
 
-        // Update basic fields
         if (blogPostDto.getTitle() != null) {
-            blogPost.setTitle(blogPostDto.getTitle());
+            update.set("title", blogPostDto.getTitle(), BlogPost::setTitle);
         }
 
         if (blogPostDto.getContent() != null) {
-            blogPost.setContent(blogPostDto.getContent());
+            update.set("content", blogPostDto.getContent(), BlogPost::setContent);
+        }
+
+        // Keep the feed excerpt in step with the content unless one is given explicitly
+        if (blogPostDto.getSummary() != null && !blogPostDto.getSummary().isBlank()) {
+            update.set("summary", blogPostDto.getSummary(), BlogPost::setSummary);
+        } else if (blogPostDto.getContent() != null) {
+            update.set("summary", ExcerptUtil.toExcerpt(blogPostDto.getContent()), BlogPost::setSummary);
         }
 
         if (blogPostDto.getTags() != null) {
-            blogPost.setTags(blogPostDto.getTags());
+            update.set("tags", blogPostDto.getTags(), BlogPost::setTags);
         }
 
-        blogPost.setUpdatedAt(LocalDateTime.now());
+        update.set("updatedAt", LocalDateTime.now(), BlogPost::setUpdatedAt);
 
-        // Update slug if provided and different
-        if (blogPostDto.getSlug() != null && !blogPostDto.getSlug().isEmpty()
-                && !blogPostDto.getSlug().equals(blogPost.getSlug())) {
+        // Slug clashes are caught by the unique slug index
+        if (blogPostDto.getSlug() != null && !blogPostDto.getSlug().isEmpty()) {
+            update.set("slug", blogPostDto.getSlug(), BlogPost::setSlug);
+        }
 
-            // Check if new slug already exists
-            if (blogPostRepository.existsBySlug(blogPostDto.getSlug())) {
-                throw new IllegalArgumentException("Blog post with slug '" + blogPostDto.getSlug() + "' already exists");
+        boolean categoryGiven = blogPostDto.getCategoryId() != null && !blogPostDto.getCategoryId().isEmpty();
+        boolean subcategoryGiven = blogPostDto.getSubcategorySlug() != null;
+        if (categoryGiven && subcategoryGiven) {
+            // The full placement is given, so the stored one does not matter
+            SubcategoryDto subcategory = categoryService.getSubcategory(blogPostDto.getCategoryId(), blogPostDto.getSubcategorySlug());
+            setCategory(update, categoryService.getCategoryById(blogPostDto.getCategoryId()));
+            setSubcategory(update, subcategory);
+        } else if (categoryGiven || subcategoryGiven) {
+            // Whether the subcategory is reset or looked up depends on the stored category,
+            // so read it and make the update conditional on the version read
+            BlogPost placement = blogPostRepository.findPlacementById(postId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Blog post", "id", postId));
+            if (expectedVersion != null && !expectedVersion.equals(placement.getVersion())) {
+                throw conflict(postId, expectedVersion);
             }
+            expectedVersion = placement.getVersion();
+
+            if (categoryGiven && !blogPostDto.getCategoryId().equals(placement.getCategoryId())) {
+                setCategory(update, categoryService.getCategoryById(blogPostDto.getCategoryId()));
+
+                // Reset subcategory info if category changed
+                setSubcategory(update, null);
+            }
+
+            if (subcategoryGiven && !blogPostDto.getSubcategorySlug().equals(placement.getSubcategorySlug())) {
+                setSubcategory(update, categoryService.getSubcategory(placement.getCategoryId(), blogPostDto.getSubcategorySlug()));
+            }
+        }
 
-            blogPost.setSlug(blogPostDto.getSlug());
+        BlogPost updatedBlogPost;
+        try {
+            updatedBlogPost = applyUpdate(postId, expectedVersion, update);
+        } catch (DuplicateKeyException e) {
+            if (!isSlugClash(e)) {
+                throw e;
+            }
+            throw new IllegalArgumentException("Blog post with slug '" + blogPostDto.getSlug() + "' already exists");
         }
 
-        // Update category and subcategory information if provided
-        if (blogPostDto.getCategoryId() != null && !blogPostDto.getCategoryId().isEmpty()
-                && !blogPostDto.getCategoryId().equals(blogPost.getCategoryId())) {
+        // Map entity to DTO and return
+        return mapToDto(updatedBlogPost);
+    }
+
+    @Override
+    public BlogPostDto patchPost(String postId, PostPatchDto patch) {
+        if (patch.getVersion() == null && patch.getUpdatedAt() == null) {
+            throw new BadRequestException("A patch needs the version or updatedAt it was made against");
+        }
 
-            Category category = categoryRepository.findById(blogPostDto.getCategoryId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Category", "id", blogPostDto.getCategoryId()));
+        // Collect only the fields this patch changes
+        PostUpdate update = new PostUpdate();
 
-            blogPost.setCategoryId(category.getId());
-            blogPost.setCategoryName(category.getName());
+        if (patch.getTitle() != null) {
+            update.set("title", patch.getTitle(), BlogPost::setTitle);
+        }
 
-            // Reset subcategory info if category changed
-            blogPost.setSubcategorySlug(null);
-            blogPost.setSubcategoryName(null);
+        if (patch.getTags() != null) {
+            update.set("tags", patch.getTags(), BlogPost::setTags);
         }
 
-        // Update subcategory information if provided
-        if (blogPostDto.getSubcategorySlug() != null
-                && !blogPostDto.getSubcategorySlug().equals(blogPost.getSubcategorySlug())) {
+        boolean editsContent = patch.getContentEdits() != null && !patch.getContentEdits().isEmpty();
+        if (patch.getSummary() != null && !patch.getSummary().isBlank()) {
+            update.set("summary", patch.getSummary(), BlogPost::setSummary);
+        }
 
-            Category category = categoryRepository.findById(blogPost.getCategoryId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Category", "id", blogPost.getCategoryId()));
+        // Edits apply to the stored content, so read it (or just the version) and make the
+        // write conditional on the version read
+        BlogPost base = (editsContent ? blogPostRepository.findContentById(postId) : blogPostRepository.findVersionById(postId))
+                .orElseThrow(() -> new ResourceNotFoundException("Blog post", "id", postId));
+        checkPatchBase(postId, patch, base);
 
-            // Find subcategory
-            Subcategory subcategory = category.getSubcategories().stream()
-                    .filter(sub -> sub.getSlug().equals(blogPostDto.getSubcategorySlug()))
-                    .findFirst()
-                    .orElseThrow(() -> new ResourceNotFoundException("Subcategory", "slug", blogPostDto.getSubcategorySlug()));
+        if (editsContent) {
+            String content = TextPatch.apply(base.getContent(), patch.getContentEdits());
+            update.set("content", content, BlogPost::setContent);
 
-            blogPost.setSubcategorySlug(subcategory.getSlug());
-            blogPost.setSubcategoryName(subcategory.getName());
+            // Keep the feed excerpt in step with the content unless one is given explicitly
+            if (patch.getSummary() == null || patch.getSummary().isBlank()) {
+                update.set("summary", ExcerptUtil.toExcerpt(content), BlogPost::setSummary);
+            }
         }
 
-        // Save updated blog post
-        BlogPost updatedBlogPost = blogPostRepository.save(blogPost);
+        update.set("updatedAt", LocalDateTime.now(), BlogPost::setUpdatedAt);
 
-        // Map entity to DTO and return
-        return mapToDto(updatedBlogPost);
+        BlogPostDto patched = mapToDto(applyUpdate(postId, base.getVersion(), update));
+
+        // The client holds the content it patched; sending it back would undo the savings
+        patched.setContent(null);
+        return patched;
+    }
+
+    private static void checkPatchBase(String postId, PostPatchDto patch, BlogPost base) {
+        if (patch.getVersion() != null) {
+            if (!patch.getVersion().equals(base.getVersion())) {
+                throw conflict(postId, patch.getVersion());
+            }
+            return;
+        }
+
+        // Stored times keep milliseconds only
+        LocalDateTime stored = base.getUpdatedAt() == null ? null : base.getUpdatedAt().truncatedTo(ChronoUnit.MILLIS);
+        if (!patch.getUpdatedAt().truncatedTo(ChronoUnit.MILLIS).equals(stored)) {
+            throw new ConflictException("Blog post '" + postId + "' was changed by someone else since "
+                    + patch.getUpdatedAt() + "; reload it and try again");
+        }
     }
 
     @Override
@@ -218,152 +432,274 @@ public class BlogPostServiceImpl implements BlogPostService  {
 
         // Delete blog post
         blogPostRepository.delete(blogPost);
+        eventPublisher.publishEvent(PostChangedEvent.of(postId, blogPost, null));
+    }
+
+    @Override
+    public PageResponseDto<BlogPostSummaryDto> getPostsByCategory(String categoryId, int pageNumber, int pageSize, boolean includeTotals) {
+        String key = "category:" + categoryId + ":" + pageNumber + ":" + pageSize + ":" + includeTotals;
+        return staleReads.read(StaleReads.Endpoint.FEED, key, () -> {
+            // Verify category exists
+            verifyCategoryExists(categoryId);
+
+            // Create pageable object
+            Pageable pageable = PageRequest.of(pageNumber, pageSize, Sort.by("createdAt").descending());
+
+            // Get slice of blog posts for category
+            Slice<BlogPost> blogPostsSlice = blogPostRepository.findByCategoryIdAndPublishedTrue(categoryId, pageable);
+
+            // Map listing fields to summary DTOs
+            return toPageResponse(blogPostsSlice,
+                    includeTotals ? feedCountCache.count(PostFeed.category(categoryId)) : null);
+        });
+    }
+
+    @Override
+    public PageResponseDto<BlogPostSummaryDto> getPostsBySubcategory(String categoryId, String subcategorySlug, int pageNumber, int pageSize, boolean includeTotals) {
+        String key = "subcategory:" + categoryId + ":" + subcategorySlug + ":" + pageNumber + ":" + pageSize + ":" + includeTotals;
+        return staleReads.read(StaleReads.Endpoint.FEED, key, () -> {
+            // Verify category and subcategory exist
+            verifySubcategoryExists(categoryId, subcategorySlug);
+
+            // Create pageable object
+            Pageable pageable = PageRequest.of(pageNumber, pageSize, Sort.by("createdAt").descending());
+
+            // Get slice of blog posts for subcategory
+            Slice<BlogPost> blogPostsSlice = blogPostRepository.findByCategoryIdAndSubcategorySlugAndPublishedTrue(
+                    categoryId, subcategorySlug, pageable);
+
+            // Map listing fields to summary DTOs
+            return toPageResponse(blogPostsSlice,
+                    includeTotals ? feedCountCache.count(PostFeed.subcategory(categoryId, subcategorySlug)) : null);
+        });
     }
 
     @Override
-    public PageResponseDto<BlogPostDto> getPostsByCategory(String categoryId, int pageNumber, int pageSize) {
-        // Verify category exists
-        if (!categoryRepository.existsById(categoryId)) {
-            throw new ResourceNotFoundException("Category", "id", categoryId);
+    public PageResponseDto<BlogPostSummaryDto> searchPosts(String searchTerm, int pageNumber, int pageSize, boolean includeTotals, boolean fuzzy) {
+        // The index pages in memory, so check what PageRequest would have rejected
+        if (pageNumber < 0) {
+            throw new BadRequestException("Page number must not be less than zero");
+        }
+        if (pageSize < 1) {
+            throw new BadRequestException("Page size must not be less than one");
         }
 
-        // Create pageable object
-        Pageable pageable = PageRequest.of(pageNumber, pageSize, Sort.by("createdAt").descending());
+        // Rank published posts from the in-memory search index
+        SearchResults results = postSearchIndex.search(searchTerm, pageNumber, pageSize, fuzzy);
 
-        // Get page of blog posts for category
-        Page<BlogPost> blogPostsPage = blogPostRepository.findByCategoryIdAndPublishedTrue(categoryId, pageable);
+        long totalHits = results.getTotalHits();
+        boolean hasNext = (long) (pageNumber + 1) * pageSize < totalHits;
 
-        // Map to DTOs
-        List<BlogPostDto> blogPostDtos = blogPostsPage.getContent().stream()
-                .map(this::mapToDto)
-                .collect(Collectors.toList());
+        PageResponseDto<BlogPostSummaryDto> pageResponseDto = new PageResponseDto<>();
+        pageResponseDto.setContent(results.getHits());
+        pageResponseDto.setPageNumber(pageNumber);
+        pageResponseDto.setPageSize(pageSize);
+        pageResponseDto.setLast(!hasNext);
+        pageResponseDto.setHasNext(hasNext);
+        pageResponseDto.setDidYouMean(results.getDidYouMean());
 
-        // Create page response DTO
-        PageResponseDto<BlogPostDto> pageResponseDto = new PageResponseDto<>();
-        pageResponseDto.setContent(blogPostDtos);
-        pageResponseDto.setPageNumber(blogPostsPage.getNumber());
-        pageResponseDto.setPageSize(blogPostsPage.getSize());
-        pageResponseDto.setTotalElements(blogPostsPage.getTotalElements());
-        pageResponseDto.setTotalPages(blogPostsPage.getTotalPages());
-        pageResponseDto.setLast(blogPostsPage.isLast());
+        if (includeTotals) {
+            pageResponseDto.setTotalElements(totalHits);
+            pageResponseDto.setTotalPages((int) ((totalHits + pageSize - 1) / pageSize));
+        }
 
         return pageResponseDto;
     }
 
     @Override
-    public PageResponseDto<BlogPostDto> getPostsBySubcategory(String categoryId, String subcategorySlug, int pageNumber, int pageSize) {
-        // Verify category exists
-        Category category = categoryRepository.findById(categoryId)
-                .orElseThrow(() -> new ResourceNotFoundException("Category", "id", categoryId));
-
-        // Verify subcategory exists
-        boolean subcategoryExists = category.getSubcategories().stream()
-                .anyMatch(sub -> sub.getSlug().equals(subcategorySlug));
+    public List<SuggestionDto> suggest(String prefix, int limit) {
+        // Served from the in-memory prefix index, never from the database
+        return postSuggestionIndex.suggest(prefix, limit);
+    }
 
-        if (!subcategoryExists) {
-            throw new ResourceNotFoundException("Subcategory", "slug", subcategorySlug);
-        }
+    @Override
+    public PageResponseDto<BlogPostSummaryDto> getPostsByTag(String tag, int pageNumber, int pageSize, boolean includeTotals) {
+        return staleReads.read(StaleReads.Endpoint.FEED, "tag:" + tag + ":" + pageNumber + ":" + pageSize + ":" + includeTotals, () -> {
+            // Create pageable object
+            Pageable pageable = PageRequest.of(pageNumber, pageSize, Sort.by("createdAt").descending());
 
-        // Create pageable object
-        Pageable pageable = PageRequest.of(pageNumber, pageSize, Sort.by("createdAt").descending());
+            // Get slice of blog posts for tag
+            Slice<BlogPost> blogPostsSlice = blogPostRepository.findByTagAndPublishedTrue(tag, pageable);
 
-        // Get page of blog posts for subcategory
-        Page<BlogPost> blogPostsPage = blogPostRepository.findByCategoryIdAndSubcategorySlugAndPublishedTrue(
-                categoryId, subcategorySlug, pageable);
+            // Map listing fields to summary DTOs
+            return toPageResponse(blogPostsSlice, includeTotals ? feedCountCache.count(PostFeed.tag(tag)) : null);
+        });
+    }
 
-        // Map to DTOs
-        List<BlogPostDto> blogPostDtos = blogPostsPage.getContent().stream()
-                .map(this::mapToDto)
-                .collect(Collectors.toList());
+    @Override
+    public PageResponseDto<BlogPostSummaryDto> getPostsByAuthor(String author, int pageNumber, int pageSize, boolean includeTotals) {
+        return staleReads.read(StaleReads.Endpoint.FEED, "author:" + author + ":" + pageNumber + ":" + pageSize + ":" + includeTotals, () -> {
+            // Create pageable object
+            Pageable pageable = PageRequest.of(pageNumber, pageSize, Sort.by("createdAt").descending());
 
-        // Create page response DTO
-        PageResponseDto<BlogPostDto> pageResponseDto = new PageResponseDto<>();
-        pageResponseDto.setContent(blogPostDtos);
-        pageResponseDto.setPageNumber(blogPostsPage.getNumber());
-        pageResponseDto.setPageSize(blogPostsPage.getSize());
-        pageResponseDto.setTotalElements(blogPostsPage.getTotalElements());
-        pageResponseDto.setTotalPages(blogPostsPage.getTotalPages());
-        pageResponseDto.setLast(blogPostsPage.isLast());
+            // Get slice of blog posts for author
+            Slice<BlogPost> blogPostsSlice = blogPostRepository.findByAuthorAndPublishedTrue(author, pageable);
 
-        return pageResponseDto;
+            // Map listing fields to summary DTOs
+            return toPageResponse(blogPostsSlice, includeTotals ? feedCountCache.count(PostFeed.author(author)) : null);
+        });
     }
 
     @Override
-    public PageResponseDto<BlogPostDto> searchPosts(String searchTerm, int pageNumber, int pageSize) {
-        // Create pageable object
-        Pageable pageable = PageRequest.of(pageNumber, pageSize, Sort.by("createdAt").descending());
+    public PageResponseDto<BlogPostSummaryDto> getFeedAfterCursor(PostFeed feed, String cursor, int pageSize) {
+        return staleReads.read(StaleReads.Endpoint.FEED, "cursor:" + feed.getKey() + ":" + cursor + ":" + pageSize, () -> {
+            // Verify the feed's category and subcategory exist
+            if (feed.getType() == PostFeed.Type.CATEGORY) {
+                verifyCategoryExists(feed.getCategoryId());
+            } else if (feed.getType() == PostFeed.Type.SUBCATEGORY) {
+                verifySubcategoryExists(feed.getCategoryId(), feed.getSubcategorySlug());
+            }
 
-        // Search blog posts by title
-        Page<BlogPost> blogPostsPage = blogPostRepository.searchByTitleAndPublishedTrue(searchTerm, pageable);
+            // An empty cursor starts at the newest post
+            FeedCursor after = (cursor == null || cursor.isEmpty()) ? null : FeedCursor.decode(cursor);
 
-        // Map to DTOs
-        List<BlogPostDto> blogPostDtos = blogPostsPage.getContent().stream()
-                .map(this::mapToDto)
-                .collect(Collectors.toList());
+            // Fetch one extra post to learn whether another page follows
+            List<BlogPost> blogPosts = blogPostRepository.findFeedAfter(feed, after, pageSize + 1);
+            boolean hasNext = blogPosts.size() > pageSize;
+            if (hasNext) {
+                blogPosts = blogPosts.subList(0, pageSize);
+            }
 
-        // Create page response DTO
-        PageResponseDto<BlogPostDto> pageResponseDto = new PageResponseDto<>();
-        pageResponseDto.setContent(blogPostDtos);
-        pageResponseDto.setPageNumber(blogPostsPage.getNumber());
-        pageResponseDto.setPageSize(blogPostsPage.getSize());
-        pageResponseDto.setTotalElements(blogPostsPage.getTotalElements());
-        pageResponseDto.setTotalPages(blogPostsPage.getTotalPages());
-        pageResponseDto.setLast(blogPostsPage.isLast());
+            PageResponseDto<BlogPostSummaryDto> pageResponseDto = new PageResponseDto<>();
+            pageResponseDto.setContent(blogPosts.stream()
+                    .map(BlogPostMapper::toSummaryDto)
+                    .collect(Collectors.toList()));
+            pageResponseDto.setPageSize(pageSize);
+            pageResponseDto.setLast(!hasNext);
+            pageResponseDto.setHasNext(hasNext);
+
+            if (hasNext) {
+                BlogPost lastPost = blogPosts.get(blogPosts.size() - 1);
+                pageResponseDto.setNextCursor(FeedCursor.of(lastPost.getCreatedAt(), lastPost.getId()).encode());
+            }
 
-        return pageResponseDto;
+            return pageResponseDto;
+        });
     }
 
     @Override
-    public PageResponseDto<BlogPostDto> getPostsByTag(String tag, int pageNumber, int pageSize) {
-        // Create pageable object
-        Pageable pageable = PageRequest.of(pageNumber, pageSize, Sort.by("createdAt").descending());
+    public BlogPostSummaryDto[] getRecentPosts() {
+        return staleReads.read(StaleReads.Endpoint.RECENT, "top5", () -> {
+            // Get recent blog posts
+            List<BlogPost> recentPosts = blogPostRepository.findTop5ByPublishedTrueOrderByCreatedAtDesc();
+
+            // Map to summary DTOs
+            return recentPosts.stream()
+                    .map(BlogPostMapper::toSummaryDto)
+                    .toArray(BlogPostSummaryDto[]::new);
+        });
+    }
 
-        // Get page of blog posts for tag
-        Page<BlogPost> blogPostsPage = blogPostRepository.findByTagAndPublishedTrue(tag, pageable);
+    @Override
+    public BlogPostDto togglePublishStatus(String postId, boolean publish, Long expectedVersion) {
+        // Only the changed fields are written, never the content. The state set by hand
+        // overrides the schedule: left in place, a pending transition would undo it
+        PostUpdate update = new PostUpdate()
+                .set("published", publish, BlogPost::setPublished)
+                .set("publishAt", null, BlogPost::setPublishAt)
+                .set("unpublishAt", null, BlogPost::setUnpublishAt)
+                .set("updatedAt", LocalDateTime.now(), BlogPost::setUpdatedAt);
+
+        return mapToDto(applyUpdate(postId, expectedVersion, update));
+    }
 
-        // Map to DTOs
-        List<BlogPostDto> blogPostDtos = blogPostsPage.getContent().stream()
-                .map(this::mapToDto)
-                .collect(Collectors.toList());
+    @Override
+    public BlogPostDto schedulePost(String postId, LocalDateTime publishAt, LocalDateTime unpublishAt, Long expectedVersion) {
+        validateSchedule(publishAt, unpublishAt);
 
-        // Create page response DTO
-        PageResponseDto<BlogPostDto> pageResponseDto = new PageResponseDto<>();
-        pageResponseDto.setContent(blogPostDtos);
-        pageResponseDto.setPageNumber(blogPostsPage.getNumber());
-        pageResponseDto.setPageSize(blogPostsPage.getSize());
-        pageResponseDto.setTotalElements(blogPostsPage.getTotalElements());
-        pageResponseDto.setTotalPages(blogPostsPage.getTotalPages());
-        pageResponseDto.setLast(blogPostsPage.isLast());
+        PostUpdate update = new PostUpdate()
+                .set("publishAt", toStoredTime(publishAt), BlogPost::setPublishAt)
+                .set("unpublishAt", toStoredTime(unpublishAt), BlogPost::setUnpublishAt)
+                .set("updatedAt", LocalDateTime.now(), BlogPost::setUpdatedAt);
 
-        return pageResponseDto;
+        // The change event puts the new times on every node's publish scheduler
+        return mapToDto(applyUpdate(postId, expectedVersion, update));
     }
 
     @Override
-    public BlogPostDto[] getRecentPosts() {
-        // Get recent blog posts
-        List<BlogPost> recentPosts = blogPostRepository.findTop5ByPublishedTrueOrderByCreatedAtDesc();
+    public BlogPostDto applyScheduledTransition(String postId, boolean publish, LocalDateTime at) {
+        // Publishes or unpublishes and clears the schedule field in one write, only while
+        // the post is still scheduled for that time: the first node to fire wins
+        PostUpdate update = new PostUpdate()
+                .set("published", publish, BlogPost::setPublished)
+                .set(scheduleField(publish), null, scheduleSetter(publish))
+                .set("updatedAt", LocalDateTime.now(), BlogPost::setUpdatedAt);
+
+        BlogPost before = blogPostRepository.findAndModifyIfScheduled(postId, scheduleField(publish), at, update.toUpdate());
+        if (before == null) {
+            return null;
+        }
 
-        // Map to DTOs
-        return recentPosts.stream()
-                .map(this::mapToDto)
-                .toArray(BlogPostDto[]::new);
+        BlogPost after = update.applyTo(before);
+        eventPublisher.publishEvent(PostChangedEvent.of(postId, before, after));
+        return mapToDto(after);
     }
 
-    @Override
-    public BlogPostDto togglePublishStatus(String postId, boolean publish) {
-        // Find blog post
-        BlogPost blogPost = blogPostRepository.findById(postId)
-                .orElseThrow(() -> new ResourceNotFoundException("Blog post", "id", postId));
+    private static String scheduleField(boolean publish) {
+        return publish ? "publishAt" : "unpublishAt";
+    }
 
-        // Set publish status
-        blogPost.setPublished(publish);
-        blogPost.setUpdatedAt(LocalDateTime.now());
+    private static BiConsumer<BlogPost, LocalDateTime> scheduleSetter(boolean publish) {
+        return publish ? BlogPost::setPublishAt : BlogPost::setUnpublishAt;
+    }
 
-        // Save updated blog post
-        BlogPost updatedBlogPost = blogPostRepository.save(blogPost);
+    private static void validateSchedule(LocalDateTime publishAt, LocalDateTime unpublishAt) {
+        if (publishAt != null && unpublishAt != null && !unpublishAt.isAfter(publishAt)) {
+            throw new BadRequestException("unpublishAt must be after publishAt");
+        }
+    }
 
-        // Map entity to DTO and return
-        return mapToDto(updatedBlogPost);
+    /**
+     * Stored times keep milliseconds only; truncating up front keeps the times in change
+     * events equal to the stored ones
+     */
+    private static LocalDateTime toStoredTime(LocalDateTime time) {
+        return time == null ? null : time.truncatedTo(ChronoUnit.MILLIS);
+    }
+
+    /**
+     * Write an update in one findAndModify and announce the change
+     * @param postId the post ID
+     * @param expectedVersion the version the update is based on, or null for any
+     * @param update the changed fields
+     * @return the post after the update
+     */
+    private BlogPost applyUpdate(String postId, Long expectedVersion, PostUpdate update) {
+        BlogPost before = blogPostRepository.findAndModify(postId, expectedVersion, update.toUpdate());
+        if (before == null) {
+            if (expectedVersion == null || !blogPostRepository.existsById(postId)) {
+                throw new ResourceNotFoundException("Blog post", "id", postId);
+            }
+            throw conflict(postId, expectedVersion);
+        }
+
+        BlogPost after = update.applyTo(before);
+        eventPublisher.publishEvent(PostChangedEvent.of(postId, before, after));
+        return after;
+    }
+
+    private static ConflictException conflict(String postId, Long expectedVersion) {
+        return new ConflictException("Blog post '" + postId + "' was changed by someone else since version "
+                + expectedVersion + "; reload it and try again");
+    }
+
+    private static void setCategory(PostUpdate update, CategoryDto category) {
+        update.set("categoryId", category.getId(), BlogPost::setCategoryId)
+                .set("categoryName", category.getName(), BlogPost::setCategoryName);
+    }
+
+    private static void setSubcategory(PostUpdate update, SubcategoryDto subcategory) {
+        update.set("subcategorySlug", subcategory == null ? null : subcategory.getSlug(), BlogPost::setSubcategorySlug)
+                .set("subcategoryName", subcategory == null ? null : subcategory.getName(), BlogPost::setSubcategoryName);
+    }
+
+    private void verifyCategoryExists(String categoryId) {
+        // Throws if absent; answered from the in-memory category snapshot
+        categoryService.getCategoryById(categoryId);
+    }
+
+    private void verifySubcategoryExists(String categoryId, String subcategorySlug) {
+        categoryService.getSubcategory(categoryId, subcategorySlug);
     }
 
     // Helper methods for mapping between entity and DTO
@@ -373,6 +709,7 @@ public class BlogPostServiceImpl implements BlogPostService  {
         blogPostDto.setTitle(blogPost.getTitle());
         blogPostDto.setSlug(blogPost.getSlug());
         blogPostDto.setContent(blogPost.getContent());
+        blogPostDto.setSummary(blogPost.getSummary());
         blogPostDto.setCategoryId(blogPost.getCategoryId());
         blogPostDto.setCategoryName(blogPost.getCategoryName());
         blogPostDto.setSubcategorySlug(blogPost.getSubcategorySlug());
@@ -380,17 +717,43 @@ public class BlogPostServiceImpl implements BlogPostService  {
         blogPostDto.setAuthor(blogPost.getAuthor());
         blogPostDto.setCreatedAt(blogPost.getCreatedAt());
         blogPostDto.setUpdatedAt(blogPost.getUpdatedAt());
+        blogPostDto.setCategorySyncedAt(blogPost.getCategorySyncedAt());
         blogPostDto.setTags(blogPost.getTags());
         blogPostDto.setPublished(blogPost.isPublished());
        blogPostDto.setImageUrl(blogPost.getImageUrl());
+        blogPostDto.setVersion(blogPost.getVersion());
+        blogPostDto.setPublishAt(blogPost.getPublishAt());
+        blogPostDto.setUnpublishAt(blogPost.getUnpublishAt());
         return blogPostDto;
     }
 
+    private PageResponseDto<BlogPostSummaryDto> toPageResponse(Slice<BlogPost> blogPostsSlice, Long totalElements) {
+        List<BlogPostSummaryDto> summaryDtos = blogPostsSlice.getContent().stream()
+                .map(BlogPostMapper::toSummaryDto)
+                .collect(Collectors.toList());
+
+        PageResponseDto<BlogPostSummaryDto> pageResponseDto = new PageResponseDto<>();
+        pageResponseDto.setContent(summaryDtos);
+        pageResponseDto.setPageNumber(blogPostsSlice.getNumber());
+        pageResponseDto.setPageSize(blogPostsSlice.getSize());
+        pageResponseDto.setLast(!blogPostsSlice.hasNext());
+        pageResponseDto.setHasNext(blogPostsSlice.hasNext());
+
+        // Totals come from the count cache; slice mode skips them entirely
+        if (totalElements != null) {
+            pageResponseDto.setTotalElements(totalElements);
+            pageResponseDto.setTotalPages((int) ((totalElements + blogPostsSlice.getSize() - 1) / blogPostsSlice.getSize()));
+        }
+
+        return pageResponseDto;
+    }
+
     private BlogPost mapToEntity(BlogPostDto blogPostDto) {
         BlogPost blogPost = new BlogPost();
         blogPost.setTitle(blogPostDto.getTitle());
         blogPost.setSlug(blogPostDto.getSlug());
         blogPost.setContent(blogPostDto.getContent());
+        blogPost.setSummary(blogPostDto.getSummary());
         blogPost.setCategoryId(blogPostDto.getCategoryId());
         blogPost.setCategoryName(blogPostDto.getCategoryName());
         blogPost.setSubcategorySlug(blogPostDto.getSubcategorySlug());
@@ -401,6 +764,8 @@ public class BlogPostServiceImpl implements BlogPostService  {
         blogPost.setTags(blogPostDto.getTags());
         blogPost.setPublished(blogPostDto.isPublished());
         blogPost.setImageUrl(blogPostDto.getImageUrl());
+        blogPost.setPublishAt(toStoredTime(blogPostDto.getPublishAt()));
+        blogPost.setUnpublishAt(toStoredTime(blogPostDto.getUnpublishAt()));
         // Don't set ID for new entities (ID will be generated)
         if (blogPostDto.getId() != null) {
             blogPost.setId(blogPostDto.getId());
@@ -0,0 +1,377 @@
+package com.learnwithme.blog.devblog.service.impl;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.learnwithme.blog.devblog.cache.InvalidationBus;
+import com.learnwithme.blog.devblog.dto.CategoryPropagationDto;
+import com.learnwithme.blog.devblog.event.PostChange;
+import com.learnwithme.blog.devblog.event.PostChangedEvent;
+import com.learnwithme.blog.devblog.exception.ResourceNotFoundException;
+import com.learnwithme.blog.devblog.model.BlogPost;
+import com.learnwithme.blog.devblog.model.Category;
+import com.learnwithme.blog.devblog.model.CategoryPropagation;
+import com.learnwithme.blog.devblog.model.Subcategory;
+import com.learnwithme.blog.devblog.repository.BlogPostRepository;
+import com.learnwithme.blog.devblog.repository.CategoryPropagationRepository;
+import com.learnwithme.blog.devblog.repository.CategoryRepository;
+import com.learnwithme.blog.devblog.service.CategoryPropagationService;
+import com.mongodb.client.result.UpdateResult;
+
+/**
+ * Keeps the category and subcategory names copied into posts in step with the
+ * categories. A change only records a job; a background worker on every node claims
+ * pending jobs under a lease and walks the category's posts in _id order, fixing
+ * stale copies with one updateMany per subcategory and batch, pausing between
+ * batches. The last post handled is saved after every batch, so a job cut short by a
+ * restart resumes where it stopped, on whichever node claims it next.
+ */
+@Service
+public class CategoryPropagationServiceImpl implements CategoryPropagationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CategoryPropagationServiceImpl.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CategoryPropagationRepository propagationRepository;
+
+    @Autowired
+    private InvalidationBus invalidationBus;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.category-propagation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.category-propagation.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.category-propagation.throttle:200ms}")
+    private Duration throttle;
+
+    @Value("${app.category-propagation.lease:2m}")
+    private Duration lease;
+
+    @Value("${app.category-propagation.poll-interval:30s}")
+    private Duration pollInterval;
+
+    @Value("${app.category-propagation.retry-delay:1m}")
+    private Duration retryDelay;
+
+    private final Object signal = new Object();
+    private boolean signalled;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || worker != null) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::work, "category-propagation");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            try {
+                worker.join(throttle.toMillis() + 5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            worker = null;
+        }
+    }
+
+    @Override
+    public void request(String categoryId) {
+        // One job per category: a change while it runs restarts it from the first post
+        Update update = new Update()
+                .inc("generation", 1)
+                .set("status", CategoryPropagation.Status.PENDING)
+                .set("requestedAt", LocalDateTime.now())
+                .set("postsScanned", 0)
+                .set("postsUpdated", 0)
+                .set("batches", 0)
+                .unset("lastPostId")
+                .unset("finishedAt")
+                .unset("error");
+        mongoTemplate.upsert(Query.query(Criteria.where("_id").is(categoryId)), update, CategoryPropagation.class);
+
+        synchronized (signal) {
+            signalled = true;
+            signal.notifyAll();
+        }
+    }
+
+    @Override
+    public List<CategoryPropagationDto> getPropagations() {
+        return propagationRepository.findAllByOrderByRequestedAtDesc().stream()
+                .map(this::mapToDto)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public CategoryPropagationDto getPropagation(String categoryId) {
+        CategoryPropagation job = propagationRepository.findById(categoryId)
+                .orElseThrow(() -> new ResourceNotFoundException("Category propagation", "categoryId", categoryId));
+        return mapToDto(job);
+    }
+
+    private void work() {
+        while (running) {
+            try {
+                CategoryPropagation job = claim();
+                if (job == null) {
+                    await(pollInterval);
+                } else {
+                    run(job);
+                }
+            } catch (InterruptedException e) {
+                break;
+            } catch (RuntimeException e) {
+                logger.warn("Category propagation worker failed, retrying: {}", e.getMessage());
+                try {
+                    await(pollInterval);
+                } catch (InterruptedException interrupted) {
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Take a pending job, or one whose runner stopped renewing its lease
+     */
+    private CategoryPropagation claim() {
+        LocalDateTime now = LocalDateTime.now();
+        Query query = new Query(new Criteria().orOperator(
+                Criteria.where("status").is(CategoryPropagation.Status.PENDING),
+                Criteria.where("status").in(CategoryPropagation.Status.RUNNING, CategoryPropagation.Status.FAILED)
+                        .and("leaseUntil").lt(now)));
+        Update update = new Update()
+                .set("status", CategoryPropagation.Status.RUNNING)
+                .set("owner", invalidationBus.getNodeId())
+                .set("leaseUntil", now.plus(lease))
+                .set("startedAt", now);
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true),
+                CategoryPropagation.class);
+    }
+
+    private void run(CategoryPropagation job) throws InterruptedException {
+        String categoryId = job.getId();
+        long generation = job.getGeneration();
+        // Read from the database, not the snapshot, which may still be reloading on this node
+        Category category = categoryRepository.findById(categoryId).orElse(null);
+        String lastPostId = job.getLastPostId();
+        logger.info("Propagating category {} to its posts{}", categoryId,
+                lastPostId == null ? "" : ", resuming after post " + lastPostId);
+
+        try {
+            while (running) {
+                Query query = Query.query(Criteria.where("categoryId").is(categoryId))
+                        .with(Sort.by("_id"))
+                        .limit(batchSize);
+                if (lastPostId != null) {
+                    query.addCriteria(Criteria.where("_id").gt(lastPostId));
+                }
+                query.fields().include(BlogPostRepository.SNAPSHOT_FIELDS);
+                List<BlogPost> batch = mongoTemplate.find(query, BlogPost.class);
+                if (batch.isEmpty()) {
+                    break;
+                }
+
+                long updated = propagate(categoryId, category, batch);
+                lastPostId = batch.get(batch.size() - 1).getId();
+                if (!saveProgress(job, generation, lastPostId, batch.size(), updated)) {
+                    // The category changed again; the job starts over from its new generation
+                    logger.info("Propagation of category {} superseded by a newer change", categoryId);
+                    return;
+                }
+                if (batch.size() < batchSize) {
+                    break;
+                }
+                Thread.sleep(throttle.toMillis());
+            }
+
+            if (running) {
+                settle(job, generation, new Update()
+                        .set("status", CategoryPropagation.Status.DONE)
+                        .set("finishedAt", LocalDateTime.now())
+                        .unset("owner")
+                        .unset("leaseUntil"));
+                logger.info("Propagated category {} to its posts", categoryId);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Propagation of category {} failed after post {}: {}", categoryId, lastPostId, e.getMessage());
+            settle(job, generation, new Update()
+                    .set("status", CategoryPropagation.Status.FAILED)
+                    .set("error", e.getMessage())
+                    .set("leaseUntil", LocalDateTime.now().plus(retryDelay)));
+        }
+    }
+
+    /**
+     * Fix the category copies of one batch of posts
+     * @param category the category as it is now, or null if it was deleted
+     * @return the number of posts updated
+     */
+    private long propagate(String categoryId, Category category, List<BlogPost> batch) {
+        Map<String, String> subcategoryNames = new HashMap<>();
+        if (category != null) {
+            for (Subcategory subcategory : category.getSubcategories()) {
+                subcategoryNames.put(subcategory.getSlug(), subcategory.getName());
+            }
+        }
+
+        // Posts needing the same fix share one updateMany: grouped by the subcategory they
+        // were read with, which also decides the one they keep
+        Map<String, List<String>> groups = new LinkedHashMap<>();
+        List<PostChange> changes = new ArrayList<>();
+        LocalDateTime syncedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        for (BlogPost before : batch) {
+            BlogPost after = before.toBuilder().categorySyncedAt(syncedAt).build();
+            if (category == null) {
+                after.setCategoryId(null);
+                after.setCategoryName(null);
+                after.setSubcategorySlug(null);
+                after.setSubcategoryName(null);
+            } else {
+                after.setCategoryName(category.getName());
+                String subcategorySlug = subcategoryNames.containsKey(before.getSubcategorySlug())
+                        ? before.getSubcategorySlug()
+                        : null;
+                after.setSubcategorySlug(subcategorySlug);
+                after.setSubcategoryName(subcategoryNames.get(subcategorySlug));
+            }
+
+            if (Objects.equals(before.getCategoryId(), after.getCategoryId())
+                    && Objects.equals(before.getCategoryName(), after.getCategoryName())
+                    && Objects.equals(before.getSubcategorySlug(), after.getSubcategorySlug())
+                    && Objects.equals(before.getSubcategoryName(), after.getSubcategoryName())) {
+                continue;
+            }
+            groups.computeIfAbsent(before.getSubcategorySlug(), slug -> new ArrayList<>()).add(before.getId());
+            changes.add(new PostChange(before.getId(), before, after));
+        }
+
+        long updated = 0;
+        for (Map.Entry<String, List<String>> group : groups.entrySet()) {
+            String keptSlug = subcategoryNames.containsKey(group.getKey()) ? group.getKey() : null;
+            // Copies of the category's own fields only, so the post version is left alone
+            // and editors holding a post do not get a conflict for a change they did not make;
+            // categorySyncedAt moves the post's HTTP validators on instead of updatedAt
+            Update update = new Update().set("categorySyncedAt", syncedAt);
+            if (category == null) {
+                update.unset("categoryId").unset("categoryName").unset("subcategorySlug").unset("subcategoryName");
+            } else if (keptSlug == null) {
+                update.set("categoryName", category.getName()).unset("subcategorySlug").unset("subcategoryName");
+            } else {
+                update.set("categoryName", category.getName()).set("subcategoryName", subcategoryNames.get(keptSlug));
+            }
+
+            // Still in the category and subcategory it was read with: a post an editor moved
+            // meanwhile is left as it is
+            Criteria criteria = Criteria.where("_id").in(group.getValue()).and("categoryId").is(categoryId);
+            if (group.getKey() == null) {
+                criteria.and("subcategorySlug").exists(false);
+            } else {
+                criteria.and("subcategorySlug").is(group.getKey());
+            }
+            UpdateResult result = mongoTemplate.updateMulti(Query.query(criteria), update, BlogPost.class);
+            updated += result.getModifiedCount();
+        }
+
+        if (!changes.isEmpty()) {
+            // One event per batch, so caches and indexes are invalidated once for all its posts
+            eventPublisher.publishEvent(new PostChangedEvent(changes));
+        }
+        return updated;
+    }
+
+    /**
+     * Record a finished batch and renew the lease
+     * @return false if the job was requested again meanwhile
+     */
+    private boolean saveProgress(CategoryPropagation job, long generation, String lastPostId, int scanned, long updated) {
+        Update update = new Update()
+                .set("lastPostId", lastPostId)
+                .set("leaseUntil", LocalDateTime.now().plus(lease))
+                .inc("postsScanned", scanned)
+                .inc("postsUpdated", updated)
+                .inc("batches", 1);
+        return settle(job, generation, update);
+    }
+
+    /**
+     * Update the job, provided this node still owns it and it was not requested again
+     */
+    private boolean settle(CategoryPropagation job, long generation, Update update) {
+        Query query = Query.query(Criteria.where("_id").is(job.getId())
+                .and("generation").is(generation)
+                .and("owner").is(invalidationBus.getNodeId()));
+        return mongoTemplate.updateFirst(query, update, CategoryPropagation.class).getMatchedCount() > 0;
+    }
+
+    private void await(Duration timeout) throws InterruptedException {
+        synchronized (signal) {
+            if (!signalled) {
+                signal.wait(timeout.toMillis());
+            }
+            signalled = false;
+        }
+    }
+
+    private CategoryPropagationDto mapToDto(CategoryPropagation job) {
+        return CategoryPropagationDto.builder()
+                .categoryId(job.getId())
+                .status(job.getStatus() == null ? null : job.getStatus().name())
+                .postsScanned(job.getPostsScanned())
+                .postsUpdated(job.getPostsUpdated())
+                .batches(job.getBatches())
+                .lastPostId(job.getLastPostId())
+                .owner(job.getOwner())
+                .requestedAt(job.getRequestedAt())
+                .startedAt(job.getStartedAt())
+                .finishedAt(job.getFinishedAt())
+                .error(job.getError())
+                .build();
+    }
+}
@@ -1,26 +1,53 @@
 package com.learnwithme.blog.devblog.service.impl;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 import com.learnwithme.blog.devblog.dto.CategoryDto;
 import com.learnwithme.blog.devblog.dto.SubcategoryDto;
+import com.learnwithme.blog.devblog.event.CategoryChangedEvent;
 import com.learnwithme.blog.devblog.exception.ResourceNotFoundException;
 import com.learnwithme.blog.devblog.model.Category;
 import com.learnwithme.blog.devblog.model.Subcategory;
 import com.learnwithme.blog.devblog.repository.CategoryRepository;
+import com.learnwithme.blog.devblog.service.CategoryPropagationService;
 import com.learnwithme.blog.devblog.service.CategoryService;
 import com.learnwithme.blog.devblog.util.SlugUtil;
 
 @Service
 public class CategoryServiceImpl implements CategoryService {
 
+    private static final Logger logger = LoggerFactory.getLogger(CategoryServiceImpl.class);
+
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private CategoryPropagationService categoryPropagationService;
+
+    // Reload interval of the tree, for writes on other nodes whose events never arrived
+    @Value("${app.categories.snapshot-ttl:1m}")
+    private Duration snapshotTtl;
+
+    // Whole category tree, loaded on first use and swapped after every write
+    private final AtomicReference<CategorySnapshot> snapshot = new AtomicReference<>();
+
     @Override
     public CategoryDto createCategory(CategoryDto categoryDto) {
         // Generate slug if not provided
@@ -38,6 +65,9 @@ public class CategoryServiceImpl implements CategoryService {
 
         // Save category
         Category savedCategory = categoryRepository.save(category);
+        CategoryDto savedDto = mapToDto(savedCategory);
+        swap(current -> current.with(savedDto));
+        eventPublisher.publishEvent(new CategoryChangedEvent(savedCategory.getId()));
 
         // Map entity to DTO and return
         return mapToDto(savedCategory);
@@ -70,6 +100,9 @@ public class CategoryServiceImpl implements CategoryService {
 
         // Save category
         Category updatedCategory = categoryRepository.save(category);
+        CategoryDto updatedDto = mapToDto(updatedCategory);
+        swap(current -> current.with(updatedDto));
+        eventPublisher.publishEvent(new CategoryChangedEvent(categoryId));
 
         // Map entity to DTO and return
         return mapToDto(updatedCategory);
@@ -77,24 +110,38 @@ public class CategoryServiceImpl implements CategoryService {
 
     @Override
     public List<CategoryDto> getAllCategories() {
-        List<Category> categories = categoryRepository.findAllByOrderByNameAsc();
-        return categories.stream()
-                .map(this::mapToDto)
-                .collect(Collectors.toList());
+        return snapshot().categories();
     }
 
     @Override
     public CategoryDto getCategoryById(String categoryId) {
-        Category category = categoryRepository.findById(categoryId)
-                .orElseThrow(() -> new ResourceNotFoundException("Category", "id", categoryId));
-        return mapToDto(category);
+        CategoryDto category = snapshot().byId(categoryId);
+        if (category == null) {
+            throw new ResourceNotFoundException("Category", "id", categoryId);
+        }
+        return category;
     }
 
     @Override
     public CategoryDto getCategoryBySlug(String slug) {
-        Category category = categoryRepository.findBySlug(slug)
-                .orElseThrow(() -> new ResourceNotFoundException("Category", "slug", slug));
-        return mapToDto(category);
+        CategoryDto category = snapshot().bySlug(slug);
+        if (category == null) {
+            throw new ResourceNotFoundException("Category", "slug", slug);
+        }
+        return category;
+    }
+
+    @Override
+    public SubcategoryDto getSubcategory(String categoryId, String subcategorySlug) {
+        CategorySnapshot current = snapshot();
+        if (current.byId(categoryId) == null) {
+            throw new ResourceNotFoundException("Category", "id", categoryId);
+        }
+        SubcategoryDto subcategory = current.subcategory(categoryId, subcategorySlug);
+        if (subcategory == null) {
+            throw new ResourceNotFoundException("Subcategory", "slug", subcategorySlug);
+        }
+        return subcategory;
     }
 
     @Override
@@ -102,6 +149,10 @@ public class CategoryServiceImpl implements CategoryService {
         Category category = categoryRepository.findById(categoryId)
                 .orElseThrow(() -> new ResourceNotFoundException("Category", "id", categoryId));
 
+        // Posts keep copies of the names, so note whether any of them change
+        String oldName = category.getName();
+        List<Subcategory> oldSubs = new ArrayList<>(category.getSubcategories());
+
         category.setName(categoryDto.getName());
 
         if (categoryDto.getSlug() != null && !categoryDto.getSlug().isEmpty()
@@ -124,6 +175,14 @@ public class CategoryServiceImpl implements CategoryService {
 
         // Save updated category
         Category updatedCategory = categoryRepository.save(category);
+        CategoryDto updatedDto = mapToDto(updatedCategory);
+        swap(current -> current.with(updatedDto));
+        eventPublisher.publishEvent(new CategoryChangedEvent(categoryId));
+
+        // Posts pick up the new names in the background
+        if (!Objects.equals(oldName, updatedCategory.getName()) || !oldSubs.equals(updatedCategory.getSubcategories())) {
+            categoryPropagationService.request(categoryId);
+        }
 
         return mapToDto(updatedCategory);
     }
@@ -136,6 +195,65 @@ public class CategoryServiceImpl implements CategoryService {
 
         // Delete category
         categoryRepository.delete(category);
+        swap(current -> current.without(categoryId));
+        eventPublisher.publishEvent(new CategoryChangedEvent(categoryId));
+
+        // Its posts are left uncategorized in the background
+        categoryPropagationService.request(categoryId);
+    }
+
+    @EventListener
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        // A write on another node: reload the tree on next use
+        if (event.isRemote()) {
+            synchronized (snapshot) {
+                snapshot.set(null);
+            }
+        }
+    }
+
+    /**
+     * The current category tree, loaded from the database on first use and again
+     * once it is older than the TTL
+     */
+    private CategorySnapshot snapshot() {
+        CategorySnapshot current = snapshot.get();
+        if (current != null && current.isFresh(snapshotTtl)) {
+            return current;
+        }
+        synchronized (snapshot) {
+            current = snapshot.get();
+            if (current != null && current.isFresh(snapshotTtl)) {
+                return current;
+            }
+            try {
+                CategorySnapshot loaded = CategorySnapshot.of(categoryRepository.findAllByOrderByNameAsc().stream()
+                        .map(this::mapToDto)
+                        .collect(Collectors.toList()));
+                snapshot.set(loaded);
+                return loaded;
+            } catch (RuntimeException e) {
+                if (current == null) {
+                    throw e;
+                }
+                // Keep answering from the old tree; the next read tries again
+                logger.warn("Could not reload categories, using the tree loaded earlier: {}", e.getMessage());
+                return current;
+            }
+        }
+    }
+
+    /**
+     * Apply a write to the snapshot. Writes are applied one at a time, so a
+     * snapshot that is still loading cannot overwrite them.
+     */
+    private void swap(UnaryOperator<CategorySnapshot> write) {
+        synchronized (snapshot) {
+            CategorySnapshot current = snapshot.get();
+            if (current != null) {
+                snapshot.set(write.apply(current));
+            }
+        }
     }
 
     // Helper methods for mapping
@@ -0,0 +1,116 @@
+package com.learnwithme.blog.devblog.service.impl;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import com.learnwithme.blog.devblog.dto.CategoryDto;
+import com.learnwithme.blog.devblog.dto.SubcategoryDto;
+
+/**
+ * Immutable view of the whole category tree, indexed by id, by slug and by
+ * (category id, subcategory slug). Writers derive a new snapshot and swap it in;
+ * the DTOs inside are shared by every reader and must not be modified. A snapshot
+ * remembers when its tree was read from the database; snapshots derived from it by
+ * local writes keep that time, as writes on other nodes are still missing from them.
+ */
+final class CategorySnapshot {
+
+    static final CategorySnapshot EMPTY = new CategorySnapshot(List.of(), System.nanoTime());
+
+    private final List<CategoryDto> categories;
+    private final Map<String, CategoryDto> byId;
+    private final Map<String, CategoryDto> bySlug;
+    private final Map<String, Map<String, SubcategoryDto>> subcategories;
+    // System.nanoTime() when the tree was read
+    private final long loadedAt;
+
+    private CategorySnapshot(List<CategoryDto> categories, long loadedAt) {
+        List<CategoryDto> sorted = new ArrayList<>(categories);
+        sorted.sort(Comparator.comparing(CategoryDto::getName, Comparator.nullsFirst(Comparator.naturalOrder())));
+
+        Map<String, CategoryDto> ids = new HashMap<>();
+        Map<String, CategoryDto> slugs = new HashMap<>();
+        Map<String, Map<String, SubcategoryDto>> subs = new HashMap<>();
+        for (CategoryDto category : sorted) {
+            ids.put(category.getId(), category);
+            slugs.put(category.getSlug(), category);
+
+            Map<String, SubcategoryDto> bySubSlug = new LinkedHashMap<>();
+            for (SubcategoryDto subcategory : category.getSubcategories()) {
+                // The first subcategory with a slug wins, like the linear scans did
+                bySubSlug.putIfAbsent(subcategory.getSlug(), subcategory);
+            }
+            subs.put(category.getId(), bySubSlug);
+        }
+
+        this.categories = List.copyOf(sorted);
+        this.byId = ids;
+        this.bySlug = slugs;
+        this.subcategories = subs;
+        this.loadedAt = loadedAt;
+    }
+
+    /**
+     * @param categories the whole tree, just read from the database
+     * @return a snapshot of it
+     */
+    static CategorySnapshot of(List<CategoryDto> categories) {
+        return new CategorySnapshot(categories, System.nanoTime());
+    }
+
+    /**
+     * @param category a created or updated category
+     * @return a new snapshot with the category added or replaced
+     */
+    CategorySnapshot with(CategoryDto category) {
+        List<CategoryDto> updated = categories.stream()
+                .filter(existing -> !existing.getId().equals(category.getId()))
+                .collect(Collectors.toCollection(ArrayList::new));
+        updated.add(category);
+        return new CategorySnapshot(updated, loadedAt);
+    }
+
+    /**
+     * @param categoryId the id of a deleted category
+     * @return a new snapshot without the category
+     */
+    CategorySnapshot without(String categoryId) {
+        return new CategorySnapshot(categories.stream()
+                .filter(existing -> !existing.getId().equals(categoryId))
+                .collect(Collectors.toList()), loadedAt);
+    }
+
+    /**
+     * @param ttl how long a tree read from the database may be used
+     * @return true if the tree was read less than the TTL ago
+     */
+    boolean isFresh(Duration ttl) {
+        return System.nanoTime() - loadedAt < ttl.toNanos();
+    }
+
+    /**
+     * @return every category, ordered by name
+     */
+    List<CategoryDto> categories() {
+        return categories;
+    }
+
+    CategoryDto byId(String categoryId) {
+        return byId.get(categoryId);
+    }
+
+    CategoryDto bySlug(String slug) {
+        return bySlug.get(slug);
+    }
+
+    SubcategoryDto subcategory(String categoryId, String subcategorySlug) {
+        Map<String, SubcategoryDto> bySubSlug = subcategories.get(categoryId);
+        return bySubSlug == null ? null : bySubSlug.get(subcategorySlug);
+    }
+}
@@ -0,0 +1,344 @@
+package com.learnwithme.blog.devblog.service.impl;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import com.learnwithme.blog.devblog.dto.BulkOperationRequestDto;
+import com.learnwithme.blog.devblog.dto.BulkOperationRequestDto.Operation;
+import com.learnwithme.blog.devblog.dto.BulkProgressDto;
+import com.learnwithme.blog.devblog.dto.CategoryDto;
+import com.learnwithme.blog.devblog.dto.SubcategoryDto;
+import com.learnwithme.blog.devblog.event.PostChange;
+import com.learnwithme.blog.devblog.event.PostChangedEvent;
+import com.learnwithme.blog.devblog.exception.BadRequestException;
+import com.learnwithme.blog.devblog.model.BlogPost;
+import com.learnwithme.blog.devblog.repository.BlogPostRepository;
+import com.learnwithme.blog.devblog.service.CategoryService;
+import com.learnwithme.blog.devblog.service.PostBulkService;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+
+/**
+ * Applies one operation to many posts with a bulkWrite per batch. Posts are read in
+ * _id order with their listing fields only, each write is conditional on the version
+ * read, and every batch publishes a single change event, so caches, indexes and the
+ * CDN are invalidated once per batch rather than once per post.
+ */
+@Service
+public class PostBulkServiceImpl implements PostBulkService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostBulkServiceImpl.class);
+
+    private static final int MAX_REPORTED_ERRORS = 20;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.bulk.batch-size:500}")
+    private int defaultBatchSize;
+
+    @Value("${app.bulk.max-batch-size:1000}")
+    private int maxBatchSize;
+
+    @Override
+    public BulkProgressDto execute(BulkOperationRequestDto request, Consumer<BulkProgressDto> progress) {
+        PostChanger changer = changerFor(request);
+        Criteria selection = selectionOf(request);
+        int batchSize = request.getBatchSize() == null
+                ? defaultBatchSize
+                : Math.max(1, Math.min(request.getBatchSize(), maxBatchSize));
+
+        Totals totals = new Totals();
+        String lastId = null;
+        while (true) {
+            // Keyset paging on _id, so posts the operation moves out of the filter are not skipped
+            // and combined with $and, since a selection by ids already holds an _id criterion
+            Criteria page = lastId == null
+                    ? selection
+                    : new Criteria().andOperator(selection, Criteria.where("_id").gt(lastId));
+            Query query = new Query(page).with(Sort.by("_id")).limit(batchSize);
+            query.fields().include(BlogPostRepository.SNAPSHOT_FIELDS);
+            List<BlogPost> batch = mongoTemplate.find(query, BlogPost.class);
+            if (batch.isEmpty()) {
+                break;
+            }
+            lastId = batch.get(batch.size() - 1).getId();
+
+            boolean stop = writeBatch(batch, changer, request.isOrdered(), totals);
+            totals.batches++;
+            progress.accept(totals.toDto(false));
+            if (stop || batch.size() < batchSize) {
+                break;
+            }
+        }
+
+        BulkProgressDto result = totals.toDto(true);
+        progress.accept(result);
+        logger.info("Bulk {} matched {} posts, modified {}, conflicts {}, failed {}", request.getOperation(),
+                result.getMatched(), result.getModified(), result.getConflicts(), result.getFailed());
+        return result;
+    }
+
+    /**
+     * @return true if the run must stop: an ordered batch failed
+     */
+    private boolean writeBatch(List<BlogPost> batch, PostChanger changer, boolean ordered, Totals totals) {
+        totals.matched += batch.size();
+
+        BulkOperations operations = mongoTemplate.bulkOps(
+                ordered ? BulkOperations.BulkMode.ORDERED : BulkOperations.BulkMode.UNORDERED, BlogPost.class);
+        List<PostChange> planned = new ArrayList<>();
+        for (BlogPost before : batch) {
+            // Skip the write if another writer changed the post since it was read
+            Query current = Query.query(Criteria.where("_id").is(before.getId()).and("version").is(before.getVersion()));
+            if (changer == null) {
+                operations.remove(current);
+                planned.add(new PostChange(before.getId(), before, null));
+                continue;
+            }
+
+            PostUpdate update = new PostUpdate();
+            if (!changer.change(before, update)) {
+                totals.unchanged++;
+                continue;
+            }
+            update.set("updatedAt", LocalDateTime.now(), BlogPost::setUpdatedAt);
+            operations.updateOne(current, update.toUpdate().inc("version", 1));
+            planned.add(new PostChange(before.getId(), before, update.applyTo(before)));
+        }
+        if (planned.isEmpty()) {
+            return false;
+        }
+
+        BulkWriteResult result;
+        List<BulkWriteError> errors = List.of();
+        try {
+            result = operations.execute();
+        } catch (BulkOperationException e) {
+            result = e.getResult();
+            errors = e.getErrors();
+        }
+
+        int written = changer == null ? result.getDeletedCount() : result.getMatchedCount();
+        totals.modified += written;
+        if (ordered && !errors.isEmpty()) {
+            // An ordered batch stops at the failed write; the ones after it were never tried
+            int failedAt = errors.get(0).getIndex();
+            totals.conflicts += failedAt - written;
+            totals.failed += planned.size() - failedAt;
+        } else {
+            totals.conflicts += planned.size() - written - errors.size();
+            totals.failed += errors.size();
+        }
+        for (BulkWriteError error : errors) {
+            totals.error("Post " + planned.get(error.getIndex()).getPostId() + ": " + error.getMessage());
+        }
+
+        List<PostChange> changes = written == planned.size() ? planned : reread(planned);
+        if (!changes.isEmpty()) {
+            eventPublisher.publishEvent(new PostChangedEvent(changes));
+        }
+        return ordered && !errors.isEmpty();
+    }
+
+    /**
+     * Some writes of the batch were skipped, so read back what the posts look like now
+     */
+    private List<PostChange> reread(List<PostChange> planned) {
+        List<String> ids = planned.stream().map(PostChange::getPostId).toList();
+        Query query = Query.query(Criteria.where("_id").in(ids));
+        query.fields().include(BlogPostRepository.SNAPSHOT_FIELDS);
+
+        Map<String, BlogPost> current = new HashMap<>();
+        for (BlogPost post : mongoTemplate.find(query, BlogPost.class)) {
+            current.put(post.getId(), post);
+        }
+
+        List<PostChange> changes = new ArrayList<>();
+        for (PostChange change : planned) {
+            BlogPost after = current.get(change.getPostId());
+            if (after == null || !Objects.equals(after.getVersion(), change.getBefore().getVersion())) {
+                changes.add(new PostChange(change.getPostId(), change.getBefore(), after));
+            }
+        }
+        return changes;
+    }
+
+    private static Criteria selectionOf(BulkOperationRequestDto request) {
+        if (request.getIds() != null && !request.getIds().isEmpty()) {
+            return Criteria.where("_id").in(request.getIds());
+        }
+
+        List<Criteria> filters = new ArrayList<>();
+        if (request.getFilterCategoryId() != null) {
+            filters.add(Criteria.where("categoryId").is(request.getFilterCategoryId()));
+        }
+        if (request.getFilterSubcategorySlug() != null) {
+            filters.add(Criteria.where("subcategorySlug").is(request.getFilterSubcategorySlug()));
+        }
+        if (request.getFilterTag() != null) {
+            filters.add(Criteria.where("tags").is(request.getFilterTag()));
+        }
+        if (request.getFilterAuthor() != null) {
+            filters.add(Criteria.where("author").is(request.getFilterAuthor()));
+        }
+        if (request.getFilterPublished() != null) {
+            filters.add(Criteria.where("published").is(request.getFilterPublished()));
+        }
+        if (filters.isEmpty()) {
+            // Never apply an operation to every post by accident
+            throw new BadRequestException("Select posts by ids or by at least one filter");
+        }
+        return new Criteria().andOperator(filters);
+    }
+
+    /**
+     * @return the change to make to each post, or null for deletes
+     */
+    private PostChanger changerFor(BulkOperationRequestDto request) {
+        Operation operation = request.getOperation();
+        if (operation == null) {
+            throw new BadRequestException("Bulk operation is required");
+        }
+
+        switch (operation) {
+            case SET_TAGS: {
+                if (request.getTags() == null) {
+                    throw new BadRequestException("SET_TAGS needs tags");
+                }
+                List<String> tags = List.copyOf(new LinkedHashSet<>(request.getTags()));
+                return (post, update) -> {
+                    if (tags.equals(post.getTags())) {
+                        return false;
+                    }
+                    update.set("tags", new ArrayList<>(tags), BlogPost::setTags);
+                    return true;
+                };
+            }
+            case ADD_TAG:
+            case REMOVE_TAG: {
+                if (request.getTag() == null || request.getTag().isBlank()) {
+                    throw new BadRequestException(operation + " needs a tag");
+                }
+                String tag = request.getTag();
+                boolean add = operation == Operation.ADD_TAG;
+                return (post, update) -> {
+                    Set<String> tags = new LinkedHashSet<>(post.getTags() == null ? List.of() : post.getTags());
+                    if (!(add ? tags.add(tag) : tags.remove(tag))) {
+                        return false;
+                    }
+                    update.set("tags", new ArrayList<>(tags), BlogPost::setTags);
+                    return true;
+                };
+            }
+            case MOVE_CATEGORY: {
+                if (request.getCategoryId() == null || request.getCategoryId().isEmpty()) {
+                    throw new BadRequestException("MOVE_CATEGORY needs a categoryId");
+                }
+                CategoryDto category = categoryService.getCategoryById(request.getCategoryId());
+                SubcategoryDto subcategory = request.getSubcategorySlug() == null || request.getSubcategorySlug().isEmpty()
+                        ? null
+                        : categoryService.getSubcategory(category.getId(), request.getSubcategorySlug());
+                String subcategorySlug = subcategory == null ? null : subcategory.getSlug();
+                String subcategoryName = subcategory == null ? null : subcategory.getName();
+                return (post, update) -> {
+                    if (category.getId().equals(post.getCategoryId())
+                            && Objects.equals(subcategorySlug, post.getSubcategorySlug())) {
+                        return false;
+                    }
+                    update.set("categoryId", category.getId(), BlogPost::setCategoryId)
+                            .set("categoryName", category.getName(), BlogPost::setCategoryName)
+                            .set("subcategorySlug", subcategorySlug, BlogPost::setSubcategorySlug)
+                            .set("subcategoryName", subcategoryName, BlogPost::setSubcategoryName);
+                    return true;
+                };
+            }
+            case PUBLISH:
+            case UNPUBLISH: {
+                boolean publish = operation == Operation.PUBLISH;
+                return (post, update) -> {
+                    // As with a single post, setting the state by hand overrides any schedule,
+                    // so a post already in that state still has its pending transitions dropped
+                    if (post.isPublished() == publish && post.getPublishAt() == null && post.getUnpublishAt() == null) {
+                        return false;
+                    }
+                    update.set("published", publish, BlogPost::setPublished)
+                            .set("publishAt", null, BlogPost::setPublishAt)
+                            .set("unpublishAt", null, BlogPost::setUnpublishAt);
+                    return true;
+                };
+            }
+            case DELETE:
+                return null;
+            default:
+                throw new BadRequestException("Unsupported bulk operation " + operation);
+        }
+    }
+
+    /**
+     * Adds the fields to change on one post to its update
+     */
+    @FunctionalInterface
+    private interface PostChanger {
+
+        /**
+         * @return false if the post is already as the operation wants it
+         */
+        boolean change(BlogPost post, PostUpdate update);
+    }
+
+    private static final class Totals {
+        private int batches;
+        private long matched;
+        private long modified;
+        private long unchanged;
+        private long conflicts;
+        private long failed;
+        private final List<String> errors = new ArrayList<>();
+
+        private void error(String message) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(message);
+            }
+        }
+
+        private BulkProgressDto toDto(boolean done) {
+            return BulkProgressDto.builder()
+                    .batches(batches)
+                    .matched(matched)
+                    .modified(modified)
+                    .unchanged(unchanged)
+                    .conflicts(conflicts)
+                    .failed(failed)
+                    .errors(new ArrayList<>(errors))
+                    .done(done)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.learnwithme.blog.devblog.service.impl;
+
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.learnwithme.blog.devblog.model.BlogPost;
+import com.learnwithme.blog.devblog.util.ExcerptUtil;
+
+/**
+ * Fills in fields added to {@link BlogPost} after documents were already written
+ */
+@Component
+public class PostDataBackfill {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostDataBackfill.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        backfillSummaries();
+        backfillVersions();
+    }
+
+    private void backfillSummaries() {
+        Query missingSummary = new Query(Criteria.where("summary").exists(false));
+        missingSummary.fields().include("content");
+
+        int updated = 0;
+        try (Stream<BlogPost> posts = mongoTemplate.stream(missingSummary, BlogPost.class)) {
+            for (BlogPost post : (Iterable<BlogPost>) posts::iterator) {
+                mongoTemplate.updateFirst(
+                        new Query(Criteria.where("_id").is(post.getId())),
+                        Update.update("summary", ExcerptUtil.toExcerpt(post.getContent())),
+                        BlogPost.class);
+                updated++;
+            }
+        }
+
+        if (updated > 0) {
+            logger.info("Backfilled feed excerpts for {} blog posts", updated);
+        }
+    }
+
+    /**
+     * Posts written before versioning count as version 0, so optimistic updates can match them
+     */
+    private void backfillVersions() {
+        long updated = mongoTemplate.updateMulti(
+                new Query(Criteria.where("version").exists(false)),
+                Update.update("version", 0L),
+                BlogPost.class).getModifiedCount();
+
+        if (updated > 0) {
+            logger.info("Backfilled versions for {} blog posts", updated);
+        }
+    }
+}
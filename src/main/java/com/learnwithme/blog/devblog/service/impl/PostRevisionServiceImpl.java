@@ -0,0 +1,259 @@
+package com.learnwithme.blog.devblog.service.impl;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+
+import com.learnwithme.blog.devblog.dto.BlogPostDto;
+import com.learnwithme.blog.devblog.dto.PostRevisionDto;
+import com.learnwithme.blog.devblog.dto.RevisionDiffDto;
+import com.learnwithme.blog.devblog.event.PostChange;
+import com.learnwithme.blog.devblog.event.PostChangedEvent;
+import com.learnwithme.blog.devblog.exception.BadRequestException;
+import com.learnwithme.blog.devblog.exception.ResourceNotFoundException;
+import com.learnwithme.blog.devblog.model.BlogPost;
+import com.learnwithme.blog.devblog.model.PostRevision;
+import com.learnwithme.blog.devblog.repository.BlogPostRepository;
+import com.learnwithme.blog.devblog.repository.PostRevisionRepository;
+import com.learnwithme.blog.devblog.service.BlogPostService;
+import com.learnwithme.blog.devblog.service.PostRevisionService;
+import com.learnwithme.blog.devblog.util.LineDiff;
+import com.learnwithme.blog.devblog.util.TextDelta;
+
+/**
+ * Keeps every version of a post's content. Content changes are recorded from the
+ * change events of local writes, which carry the content before and after, so each
+ * revision is a delta against exactly the revision it was edited from, even when two
+ * edits race. A revision stores the whole text instead once the chain of deltas since
+ * the last snapshot reaches its limit, or when the delta would not be smaller.
+ */
+@Service
+public class PostRevisionServiceImpl implements PostRevisionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostRevisionServiceImpl.class);
+
+    private static final int DIFF_CONTEXT_LINES = 3;
+
+    @Autowired
+    private PostRevisionRepository revisionRepository;
+
+    @Autowired
+    private BlogPostRepository blogPostRepository;
+
+    @Autowired
+    private BlogPostService blogPostService;
+
+    @Value("${app.revisions.snapshot-every:20}")
+    private int snapshotEvery;
+
+    @EventListener
+    public void onPostChanged(PostChangedEvent event) {
+        // The node that made the write records it
+        if (event.isRemote()) {
+            return;
+        }
+        for (PostChange change : event.getChanges()) {
+            try {
+                record(change);
+            } catch (RuntimeException e) {
+                // The write itself succeeded; the next edit fills the gap with a snapshot
+                logger.warn("Could not record a revision of post {}: {}", change.getPostId(), e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public List<PostRevisionDto> getRevisions(String postId) {
+        List<PostRevision> revisions = revisionRepository.findHistoryByPostId(postId);
+        if (revisions.isEmpty() && !blogPostRepository.existsById(postId)) {
+            throw new ResourceNotFoundException("Blog post", "id", postId);
+        }
+        return revisions.stream()
+                .map(revision -> mapToDto(revision, null))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public PostRevisionDto getRevision(String postId, long revision) {
+        PostRevision target = findRevision(postId, revision);
+        return mapToDto(target, reconstruct(target));
+    }
+
+    @Override
+    public RevisionDiffDto diffRevisions(String postId, Long fromRevision, long toRevision) {
+        PostRevision to = findRevision(postId, toRevision);
+        PostRevision from;
+        if (fromRevision == null) {
+            from = revisionRepository.findFirstByPostIdAndRevisionLessThanOrderByRevisionDesc(postId, toRevision)
+                    .orElse(null);
+        } else {
+            if (fromRevision == toRevision) {
+                throw new BadRequestException("Pick two different revisions to compare");
+            }
+            from = findRevision(postId, fromRevision);
+        }
+
+        LineDiff diff = LineDiff.of(from == null ? null : reconstruct(from), reconstruct(to));
+        return RevisionDiffDto.builder()
+                .postId(postId)
+                .fromRevision(from == null ? null : from.getRevision())
+                .toRevision(toRevision)
+                .linesAdded(diff.getAdded())
+                .linesRemoved(diff.getRemoved())
+                .diff(diff.toUnified(from == null ? "/dev/null" : "revision " + from.getRevision(),
+                        "revision " + toRevision, DIFF_CONTEXT_LINES))
+                .build();
+    }
+
+    @Override
+    public BlogPostDto restoreRevision(String postId, long revision, Long expectedVersion) {
+        String content = reconstruct(findRevision(postId, revision));
+
+        // Tags default to an empty list, which would clear them
+        BlogPostDto update = BlogPostDto.builder()
+                .content(content)
+                .tags(null)
+                .version(expectedVersion)
+                .build();
+        return blogPostService.updatePost(postId, update);
+    }
+
+    private void record(PostChange change) {
+        BlogPost before = change.getBefore();
+        BlogPost after = change.getAfter();
+        if (after == null) {
+            if (before != null) {
+                revisionRepository.deleteByPostId(change.getPostId());
+            }
+            return;
+        }
+        // Writes that leave the content alone announce listing fields only
+        if (after.getContent() == null || after.getVersion() == null) {
+            return;
+        }
+        String previous = before == null ? null : before.getContent();
+        if (after.getContent().equals(previous)) {
+            return;
+        }
+
+        PostRevision base = null;
+        if (previous != null && before.getVersion() != null) {
+            base = revisionRepository.findByPostIdAndRevision(change.getPostId(), before.getVersion())
+                    .orElse(null);
+            if (base == null) {
+                // Posts from before revisions were kept, or whose last revision was missed
+                base = save(snapshot(change.getPostId(), before.getVersion(), previous, timeOf(before)));
+            }
+        }
+
+        PostRevision revision = snapshot(change.getPostId(), after.getVersion(), after.getContent(), timeOf(after));
+        if (base != null && base.getChainLength() + 1 < snapshotEvery) {
+            byte[] delta = TextDelta.diff(previous, after.getContent());
+            if (delta.length < revision.getData().length) {
+                revision.setSnapshot(false);
+                revision.setBaseRevision(base.getRevision());
+                revision.setChainLength(base.getChainLength() + 1);
+                revision.setData(delta);
+            }
+        }
+        save(revision);
+    }
+
+    /**
+     * Rebuild a revision's content from the nearest snapshot on its chain
+     * @param target the revision
+     * @return its content
+     */
+    private String reconstruct(PostRevision target) {
+        if (target.isSnapshot()) {
+            return TextDelta.apply("", target.getData());
+        }
+
+        // The chain almost always lies between the newest earlier snapshot and the target
+        Map<Long, PostRevision> loaded = new HashMap<>();
+        revisionRepository.findFirstByPostIdAndSnapshotTrueAndRevisionLessThanEqualOrderByRevisionDesc(
+                        target.getPostId(), target.getRevision())
+                .ifPresent(snapshot -> revisionRepository
+                        .findRange(target.getPostId(), snapshot.getRevision(), target.getRevision())
+                        .forEach(revision -> loaded.put(revision.getRevision(), revision)));
+
+        Deque<PostRevision> chain = new ArrayDeque<>();
+        PostRevision current = target;
+        while (!current.isSnapshot()) {
+            chain.push(current);
+            long baseRevision = current.getBaseRevision();
+            PostRevision base = loaded.get(baseRevision);
+            if (base == null) {
+                base = revisionRepository.findByPostIdAndRevision(target.getPostId(), baseRevision)
+                        .orElseThrow(() -> new IllegalStateException("Revision " + baseRevision + " of post "
+                                + target.getPostId() + " is missing; later revisions cannot be rebuilt"));
+            }
+            current = base;
+        }
+
+        String content = TextDelta.apply("", current.getData());
+        while (!chain.isEmpty()) {
+            content = TextDelta.apply(content, chain.pop().getData());
+        }
+        return content;
+    }
+
+    private PostRevision findRevision(String postId, long revision) {
+        return revisionRepository.findByPostIdAndRevision(postId, revision)
+                .orElseThrow(() -> new ResourceNotFoundException("Revision " + revision + " of blog post", "id", postId));
+    }
+
+    private PostRevision save(PostRevision revision) {
+        revision.setStoredBytes(revision.getData().length);
+        try {
+            return revisionRepository.save(revision);
+        } catch (DuplicateKeyException e) {
+            // Already recorded; keep the stored one, which later deltas may be based on
+            return revisionRepository.findByPostIdAndRevision(revision.getPostId(), revision.getRevision())
+                    .orElseThrow(() -> e);
+        }
+    }
+
+    private static PostRevision snapshot(String postId, long revision, String content, LocalDateTime createdAt) {
+        return PostRevision.builder()
+                .postId(postId)
+                .revision(revision)
+                .snapshot(true)
+                .chainLength(0)
+                .data(TextDelta.diff("", content))
+                .contentLength(content.length())
+                .createdAt(createdAt)
+                .build();
+    }
+
+    private static LocalDateTime timeOf(BlogPost post) {
+        if (post.getUpdatedAt() != null) {
+            return post.getUpdatedAt();
+        }
+        return post.getCreatedAt() != null ? post.getCreatedAt() : LocalDateTime.now();
+    }
+
+    private static PostRevisionDto mapToDto(PostRevision revision, String content) {
+        return PostRevisionDto.builder()
+                .postId(revision.getPostId())
+                .revision(revision.getRevision())
+                .snapshot(revision.isSnapshot())
+                .contentLength(revision.getContentLength())
+                .storedBytes(revision.getStoredBytes())
+                .createdAt(revision.getCreatedAt())
+                .content(content)
+                .build();
+    }
+}
@@ -0,0 +1,54 @@
+package com.learnwithme.blog.devblog.service.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.learnwithme.blog.devblog.model.BlogPost;
+
+/**
+ * The fields a write changes on one blog post, kept twice: as a Mongo update that
+ * sets only those fields, and as setters that replay the same change on the pre-image
+ * the update returns, which yields the post after the write without reading it again.
+ */
+final class PostUpdate {
+
+    private final Update update = new Update();
+    private final List<Consumer<BlogPost>> changes = new ArrayList<>();
+
+    /**
+     * @param field the document field
+     * @param value the new value; null removes the field
+     * @param setter sets the value on a {@link BlogPost}
+     * @return this update
+     */
+    <T> PostUpdate set(String field, T value, BiConsumer<BlogPost, T> setter) {
+        if (value == null) {
+            update.unset(field);
+        } else {
+            update.set(field, value);
+        }
+        changes.add(post -> setter.accept(post, value));
+        return this;
+    }
+
+    Update toUpdate() {
+        return update;
+    }
+
+    /**
+     * @param before the post as it was before the update was applied
+     * @return a copy of the post with the update applied and its version bumped
+     */
+    BlogPost applyTo(BlogPost before) {
+        BlogPost after = before.toBuilder()
+                .tags(before.getTags() == null ? null : new ArrayList<>(before.getTags()))
+                .build();
+        changes.forEach(change -> change.accept(after));
+        after.setVersion(before.getVersion() == null ? 1 : before.getVersion() + 1);
+        return after;
+    }
+}
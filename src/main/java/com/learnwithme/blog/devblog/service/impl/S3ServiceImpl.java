@@ -7,6 +7,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CopyObjectRequest;
 import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 
@@ -18,6 +19,8 @@ import java.util.UUID;
 @Service
 public class S3ServiceImpl implements S3Service {
 
+    private static final String TEMP_FOLDER = "tmp";
+
     private final S3Client s3Client;
 
     @Value("${aws.s3.bucket-name}")
@@ -73,6 +76,40 @@ public class S3ServiceImpl implements S3Service {
         }
     }
 
+    @Override
+    public String uploadTempFile(MultipartFile file) {
+        return uploadFile(file, TEMP_FOLDER);
+    }
+
+    @Override
+    public String promoteFile(String tempUrl, String folder) {
+        try {
+            String tempKey = tempUrl.replace(baseUrl, "");
+            String key = folder + "/" + tempKey.substring(tempKey.lastIndexOf('/') + 1);
+
+            // A server-side copy: the bytes are not uploaded again
+            CopyObjectRequest copyObjectRequest = CopyObjectRequest.builder()
+                    .sourceBucket(bucketName)
+                    .sourceKey(tempKey)
+                    .destinationBucket(bucketName)
+                    .destinationKey(key)
+                    .build();
+
+            s3Client.copyObject(copyObjectRequest);
+
+            try {
+                deleteFile(tempUrl);
+            } catch (RuntimeException e) {
+                // The promoted copy is what counts; the lifecycle rule expires the temporary one
+            }
+
+            return baseUrl + key;
+
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to promote file in S3: " + e.getMessage());
+        }
+    }
+
     private void validateImageFile(MultipartFile file) {
         if (file.isEmpty()) {
             throw new IllegalArgumentException("File is empty");
@@ -0,0 +1,37 @@
+package com.learnwithme.blog.devblog.util;
+
+import com.learnwithme.blog.devblog.dto.BlogPostSummaryDto;
+import com.learnwithme.blog.devblog.model.BlogPost;
+
+/**
+ * Mapping from blog post entities to the listing DTO, shared by feeds and search
+ */
+public class BlogPostMapper {
+
+    private BlogPostMapper() {
+        // Utility class with private constructor
+    }
+
+    /**
+     * Map the listing fields of a post
+     * @param blogPost the post, possibly loaded with listing fields only
+     * @return the summary DTO
+     */
+    public static BlogPostSummaryDto toSummaryDto(BlogPost blogPost) {
+        BlogPostSummaryDto summaryDto = new BlogPostSummaryDto();
+        summaryDto.setId(blogPost.getId());
+        summaryDto.setTitle(blogPost.getTitle());
+        summaryDto.setSlug(blogPost.getSlug());
+        summaryDto.setSummary(blogPost.getSummary());
+        summaryDto.setCategoryId(blogPost.getCategoryId());
+        summaryDto.setCategoryName(blogPost.getCategoryName());
+        summaryDto.setSubcategorySlug(blogPost.getSubcategorySlug());
+        summaryDto.setSubcategoryName(blogPost.getSubcategoryName());
+        summaryDto.setImageUrl(blogPost.getImageUrl());
+        summaryDto.setAuthor(blogPost.getAuthor());
+        summaryDto.setCreatedAt(blogPost.getCreatedAt());
+        summaryDto.setUpdatedAt(blogPost.getUpdatedAt());
+        summaryDto.setTags(blogPost.getTags());
+        return summaryDto;
+    }
+}
@@ -0,0 +1,39 @@
+package com.learnwithme.blog.devblog.util;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import com.learnwithme.blog.devblog.cache.ContentVersion;
+
+public final class ConditionalRequests {
+
+    private ConditionalRequests() {
+        // Utility class with private constructor
+    }
+
+    /**
+     * Answer a conditional GET. When the client's If-None-Match / If-Modified-Since
+     * still match, the response becomes a 304 and the handler should return null.
+     * Otherwise ETag and Last-Modified are set, along with "no-cache" so clients keep
+     * the body but revalidate it (Spring Security's default would be "no-store").
+     * @param webRequest the current request
+     * @param version validators of the representation about to be served
+     * @return true if the client's copy is still current
+     */
+    public static boolean notModified(WebRequest webRequest, ContentVersion version) {
+        if (webRequest.checkNotModified(version.getEtag(), version.getLastModified())) {
+            return true;
+        }
+
+        if (webRequest instanceof ServletWebRequest servletWebRequest) {
+            HttpServletResponse response = servletWebRequest.getResponse();
+            if (response != null && !response.containsHeader(HttpHeaders.CACHE_CONTROL)) {
+                response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,59 @@
+package com.learnwithme.blog.devblog.util;
+
+import java.util.regex.Pattern;
+
+/**
+ * Utility class for deriving plain-text excerpts from markdown content
+ */
+public class ExcerptUtil {
+
+    public static final int MAX_LENGTH = 200;
+
+    private static final Pattern CODE_BLOCK = Pattern.compile("```[\\s\\S]*?```");
+    private static final Pattern IMAGE = Pattern.compile("!\\[[^\\]]*]\\([^)]*\\)");
+    private static final Pattern LINK = Pattern.compile("\\[([^\\]]*)]\\([^)]*\\)");
+    private static final Pattern HTML_TAG = Pattern.compile("<[^>]+>");
+    private static final Pattern MARKUP = Pattern.compile("(?m)^\\s{0,3}(#{1,6}|>|[-*+]|\\d+\\.)\\s+|[*_`~]");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private ExcerptUtil() {
+        // Utility class with private constructor
+    }
+
+    /**
+     * Build a plain-text excerpt of at most {@link #MAX_LENGTH} characters, cut at a word boundary
+     * @param markdown the markdown content
+     * @return the excerpt, empty if there is no content
+     */
+    public static String toExcerpt(String markdown) {
+        String text = toPlainText(markdown);
+
+        if (text.length() <= MAX_LENGTH) {
+            return text;
+        }
+
+        int cut = text.lastIndexOf(' ', MAX_LENGTH);
+        if (cut <= 0) {
+            cut = MAX_LENGTH;
+        }
+        return text.substring(0, cut) + "…";
+    }
+
+    /**
+     * Strip markdown and HTML markup and collapse whitespace
+     * @param markdown the markdown content
+     * @return the plain text, empty if there is no content
+     */
+    public static String toPlainText(String markdown) {
+        if (markdown == null) {
+            return "";
+        }
+
+        String text = CODE_BLOCK.matcher(markdown).replaceAll(" ");
+        text = IMAGE.matcher(text).replaceAll(" ");
+        text = LINK.matcher(text).replaceAll("$1");
+        text = HTML_TAG.matcher(text).replaceAll(" ");
+        text = MARKUP.matcher(text).replaceAll("");
+        return WHITESPACE.matcher(text).replaceAll(" ").trim();
+    }
+}
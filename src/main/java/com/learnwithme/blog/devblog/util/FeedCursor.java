@@ -0,0 +1,70 @@
+package com.learnwithme.blog.devblog.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+import com.learnwithme.blog.devblog.exception.BadRequestException;
+
+/**
+ * Opaque keyset pagination cursor: the (createdAt, id) of the last post on a page
+ */
+public final class FeedCursor {
+
+    private final LocalDateTime createdAt;
+    private final String id;
+
+    private FeedCursor(LocalDateTime createdAt, String id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    /**
+     * @param createdAt creation time of the last post on the page
+     * @param id id of that post
+     * @return the cursor
+     * @throws IllegalArgumentException if the post has no creation time, which keyset feeds never return
+     */
+    public static FeedCursor of(LocalDateTime createdAt, String id) {
+        if (createdAt == null) {
+            throw new IllegalArgumentException("Post " + id + " has no creation time to page by");
+        }
+        return new FeedCursor(createdAt, id);
+    }
+
+    /**
+     * Decode a cursor returned by {@link #encode()}
+     * @param token the encoded cursor
+     * @return the cursor
+     * @throws BadRequestException if the token is malformed
+     */
+    public static FeedCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            long epochMillis = Long.parseLong(raw.substring(0, separator));
+            String id = raw.substring(separator + 1);
+            if (id.isEmpty()) {
+                throw new IllegalArgumentException("Missing id");
+            }
+            return new FeedCursor(LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneOffset.UTC), id);
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid pagination cursor");
+        }
+    }
+
+    public String encode() {
+        String raw = createdAt.toInstant(ZoneOffset.UTC).toEpochMilli() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+}
@@ -0,0 +1,163 @@
+package com.learnwithme.blog.devblog.util;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.learnwithme.blog.devblog.service.S3Service;
+
+/**
+ * Uploads images while the request that owns them does its other work. An image goes
+ * to a temporary key first and is only promoted into its folder once the request is
+ * sure to keep it; a request that fails discards it instead, which cancels an upload
+ * still in flight and deletes whatever was already stored.
+ */
+@Component
+public class ImageStaging {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageStaging.class);
+
+    private final S3Service s3Service;
+    private final ThreadPoolExecutor executor;
+
+    public ImageStaging(S3Service s3Service,
+                        @Value("${app.uploads.threads:8}") int threads,
+                        @Value("${app.uploads.queue-size:64}") int queueSize,
+                        @Value("${app.uploads.keep-alive:60s}") Duration keepAlive) {
+        this.s3Service = s3Service;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        // When every worker is busy the request thread uploads its image itself
+        this.executor = new ThreadPoolExecutor(threads, threads, keepAlive.toMillis(), TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), runnable -> {
+                    Thread thread = new Thread(runnable, "image-upload-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Start uploading an image to a temporary key
+     * @param file the image; null or empty stages nothing
+     * @return the staged image
+     */
+    public StagedImage stage(MultipartFile file) {
+        StagedImage image = new StagedImage();
+        if (file != null && !file.isEmpty()) {
+            image.upload = executor.submit(() -> image.uploaded(s3Service.uploadTempFile(file)));
+        }
+        return image;
+    }
+
+    /**
+     * An image on its way to S3. Either {@link #promote(String)} or {@link #discard()}
+     * settles it; discard may follow promote, and deletes the promoted object then.
+     */
+    public final class StagedImage {
+
+        private Future<?> upload;
+        private String tempUrl;
+        private String promotedUrl;
+        private boolean discarded;
+
+        private StagedImage() {
+        }
+
+        /**
+         * Wait for the upload and move the image into its folder
+         * @param folder the destination folder
+         * @return the image URL, or null if there is no image
+         */
+        public String promote(String folder) {
+            if (upload == null) {
+                return null;
+            }
+            try {
+                upload.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Image upload interrupted");
+            } catch (ExecutionException e) {
+                throw new RuntimeException("Image upload failed: " + e.getCause().getMessage());
+            } catch (CancellationException e) {
+                throw new RuntimeException("Image upload cancelled");
+            }
+
+            String url;
+            synchronized (this) {
+                if (discarded) {
+                    throw new IllegalStateException("Image was discarded");
+                }
+                url = tempUrl;
+            }
+            String promoted = s3Service.promoteFile(url, folder);
+            synchronized (this) {
+                tempUrl = null;
+                promotedUrl = promoted;
+            }
+            return promoted;
+        }
+
+        /**
+         * Drop the image: cancel its upload and delete what was stored
+         */
+        public void discard() {
+            String stored;
+            synchronized (this) {
+                discarded = true;
+                stored = promotedUrl != null ? promotedUrl : tempUrl;
+                promotedUrl = null;
+                tempUrl = null;
+            }
+            if (upload != null) {
+                upload.cancel(true);
+            }
+            delete(stored);
+        }
+
+        private Void uploaded(String url) {
+            boolean orphaned;
+            synchronized (this) {
+                orphaned = discarded;
+                if (!orphaned) {
+                    tempUrl = url;
+                }
+            }
+            // The request gave up while the upload was finishing
+            if (orphaned) {
+                delete(url);
+            }
+            return null;
+        }
+
+        private void delete(String url) {
+            if (url == null) {
+                return;
+            }
+            try {
+                s3Service.deleteFile(url);
+            } catch (RuntimeException e) {
+                logger.warn("Could not delete discarded image {}: {}", url, e.getMessage());
+            }
+        }
+    }
+}
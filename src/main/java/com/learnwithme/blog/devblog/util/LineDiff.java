@@ -0,0 +1,224 @@
+package com.learnwithme.blog.devblog.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Line diff of two texts, rendered in the unified format. Common leading and trailing
+ * lines are set aside first and Myers' algorithm finds the shortest edit script for
+ * the rest; texts too far apart for that to stay cheap are shown as one replacement.
+ */
+public final class LineDiff {
+
+    private static final int MAX_EDIT_DISTANCE = 1000;
+
+    private static final char EQUAL = ' ';
+    private static final char DELETE = '-';
+    private static final char INSERT = '+';
+
+    private final List<Line> lines;
+    private final int added;
+    private final int removed;
+
+    private LineDiff(List<Line> lines) {
+        this.lines = lines;
+        this.added = (int) lines.stream().filter(line -> line.operation == INSERT).count();
+        this.removed = (int) lines.stream().filter(line -> line.operation == DELETE).count();
+    }
+
+    /**
+     * @param from the old text, null for none
+     * @param to the new text, null for none
+     * @return the diff
+     */
+    public static LineDiff of(String from, String to) {
+        List<String> a = split(from);
+        List<String> b = split(to);
+
+        int prefix = 0;
+        while (prefix < a.size() && prefix < b.size() && a.get(prefix).equals(b.get(prefix))) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < a.size() - prefix && suffix < b.size() - prefix
+                && a.get(a.size() - 1 - suffix).equals(b.get(b.size() - 1 - suffix))) {
+            suffix++;
+        }
+
+        List<Line> lines = new ArrayList<>(a.size() + b.size() - prefix - suffix);
+        for (int i = 0; i < prefix; i++) {
+            lines.add(new Line(EQUAL, a.get(i)));
+        }
+        List<String> middleA = a.subList(prefix, a.size() - suffix);
+        List<String> middleB = b.subList(prefix, b.size() - suffix);
+        if (!shortestEdit(middleA, middleB, lines)) {
+            middleA.forEach(line -> lines.add(new Line(DELETE, line)));
+            middleB.forEach(line -> lines.add(new Line(INSERT, line)));
+        }
+        for (int i = a.size() - suffix; i < a.size(); i++) {
+            lines.add(new Line(EQUAL, a.get(i)));
+        }
+        return new LineDiff(lines);
+    }
+
+    public int getAdded() {
+        return added;
+    }
+
+    public int getRemoved() {
+        return removed;
+    }
+
+    /**
+     * @param fromLabel name of the old text
+     * @param toLabel name of the new text
+     * @param context unchanged lines shown around each change
+     * @return the diff in the unified format; empty if the texts are equal
+     */
+    public String toUnified(String fromLabel, String toLabel, int context) {
+        if (added == 0 && removed == 0) {
+            return "";
+        }
+
+        // Lines of each text before each position of the script
+        int[] oldLine = new int[lines.size() + 1];
+        int[] newLine = new int[lines.size() + 1];
+        for (int i = 0; i < lines.size(); i++) {
+            char operation = lines.get(i).operation;
+            oldLine[i + 1] = oldLine[i] + (operation == INSERT ? 0 : 1);
+            newLine[i + 1] = newLine[i] + (operation == DELETE ? 0 : 1);
+        }
+
+        StringBuilder out = new StringBuilder();
+        out.append("--- ").append(fromLabel).append('\n');
+        out.append("+++ ").append(toLabel).append('\n');
+
+        int position = 0;
+        while (true) {
+            int change = position;
+            while (change < lines.size() && lines.get(change).operation == EQUAL) {
+                change++;
+            }
+            if (change == lines.size()) {
+                break;
+            }
+
+            // A hunk runs on while the next change is close enough to share its context
+            int start = Math.max(position, change - context);
+            int end = change;
+            while (end < lines.size()) {
+                if (lines.get(end).operation != EQUAL) {
+                    end++;
+                    continue;
+                }
+                int unchanged = end;
+                while (unchanged < lines.size() && lines.get(unchanged).operation == EQUAL) {
+                    unchanged++;
+                }
+                if (unchanged < lines.size() && unchanged - end <= 2 * context) {
+                    end = unchanged;
+                    continue;
+                }
+                end = Math.min(unchanged, end + context);
+                break;
+            }
+
+            int oldCount = oldLine[end] - oldLine[start];
+            int newCount = newLine[end] - newLine[start];
+            out.append("@@ -").append(oldLine[start] + (oldCount == 0 ? 0 : 1)).append(',').append(oldCount)
+                    .append(" +").append(newLine[start] + (newCount == 0 ? 0 : 1)).append(',').append(newCount)
+                    .append(" @@\n");
+            for (int i = start; i < end; i++) {
+                out.append(lines.get(i).operation).append(lines.get(i).text).append('\n');
+            }
+            position = end;
+        }
+        return out.toString();
+    }
+
+    /**
+     * Myers' greedy algorithm, keeping the furthest-reaching paths of every round to
+     * walk the edit script back from the end
+     * @return false if the texts differ in more lines than is worth searching
+     */
+    private static boolean shortestEdit(List<String> a, List<String> b, List<Line> out) {
+        int n = a.size();
+        int m = b.size();
+        int limit = Math.min(n + m, MAX_EDIT_DISTANCE);
+        int offset = limit + 1;
+        int[] furthest = new int[2 * limit + 3];
+        // Round d keeps diagonals -d..d of the paths before it, which is all it reads back
+        List<int[]> trace = new ArrayList<>();
+
+        for (int d = 0; d <= limit; d++) {
+            trace.add(Arrays.copyOfRange(furthest, offset - d, offset + d + 1));
+            for (int k = -d; k <= d; k += 2) {
+                int x = k == -d || (k != d && furthest[offset + k - 1] < furthest[offset + k + 1])
+                        ? furthest[offset + k + 1]
+                        : furthest[offset + k - 1] + 1;
+                int y = x - k;
+                while (x < n && y < m && a.get(x).equals(b.get(y))) {
+                    x++;
+                    y++;
+                }
+                furthest[offset + k] = x;
+                if (x >= n && y >= m) {
+                    backtrack(a, b, trace, d, out);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void backtrack(List<String> a, List<String> b, List<int[]> trace, int distance, List<Line> out) {
+        List<Line> reversed = new ArrayList<>();
+        int x = a.size();
+        int y = b.size();
+        for (int d = distance; d > 0; d--) {
+            int[] previous = trace.get(d);
+            int k = x - y;
+            boolean down = k == -d || (k != d && previous[k - 1 + d] < previous[k + 1 + d]);
+            int previousK = down ? k + 1 : k - 1;
+            int previousX = previous[previousK + d];
+            int previousY = previousX - previousK;
+
+            while (x > previousX && y > previousY) {
+                reversed.add(new Line(EQUAL, a.get(--x)));
+                y--;
+            }
+            if (down) {
+                reversed.add(new Line(INSERT, b.get(previousY)));
+            } else {
+                reversed.add(new Line(DELETE, a.get(previousX)));
+            }
+            x = previousX;
+            y = previousY;
+        }
+        while (x > 0 && y > 0) {
+            reversed.add(new Line(EQUAL, a.get(--x)));
+            y--;
+        }
+        Collections.reverse(reversed);
+        out.addAll(reversed);
+    }
+
+    private static List<String> split(String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+        return Arrays.asList(text.split("\n", -1));
+    }
+
+    private static final class Line {
+        private final char operation;
+        private final String text;
+
+        private Line(char operation, String text) {
+            this.operation = operation;
+            this.text = text;
+        }
+    }
+}
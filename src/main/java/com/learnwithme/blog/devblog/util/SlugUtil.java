@@ -40,4 +40,14 @@ public class SlugUtil {
                 .replaceAll("-{2,}", "-")  // Remove duplicated hyphens
                 .replaceAll("^-|-$", "");  // Remove leading and trailing hyphens
     }
-}
\ No newline at end of file
+
+    /**
+     * Number a slug to tell it apart from an existing one
+     * @param slug the base slug
+     * @param suffix the number, 2 or greater
+     * @return the slug with the number appended, e.g. "my-post-2"
+     */
+    public static String withSuffix(String slug, long suffix) {
+        return slug + "-" + suffix;
+    }
+}
@@ -0,0 +1,203 @@
+package com.learnwithme.blog.devblog.util;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Compressed deltas between two versions of a text. A delta copies ranges of the old
+ * text and inserts new characters; ranges are found by hashing fixed-size blocks of
+ * the old text and rolling the same hash over the new one, so an edit anywhere, or a
+ * passage moved around, costs about the size of the edit rather than of the text.
+ * The encoded operations are deflated. A delta from the empty text is the whole text
+ * compressed, which is how full snapshots are stored.
+ */
+public final class TextDelta {
+
+    private static final int BLOCK = 16;
+    private static final int BASE = 31;
+    private static final int BLOCK_POWER = power(BASE, BLOCK - 1);
+
+    private static final int COPY = 1;
+    private static final int INSERT = 2;
+
+    private TextDelta() {
+    }
+
+    /**
+     * @param from the old text
+     * @param to the new text
+     * @return the compressed delta that turns from into to
+     */
+    public static byte[] diff(String from, String to) {
+        // Blocks of the old text at block boundaries, by hash; the first of equal blocks wins
+        Map<Integer, Integer> blocks = new HashMap<>();
+        for (int i = 0; i + BLOCK <= from.length(); i += BLOCK) {
+            blocks.putIfAbsent(hash(from, i), i);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.max(32, to.length() / 8));
+        try (OutputStream out = new BufferedOutputStream(new DeflaterOutputStream(bytes))) {
+            writeVarint(out, to.length());
+
+            int n = to.length();
+            int literalStart = 0;
+            int position = 0;
+            int hash = n >= BLOCK ? hash(to, 0) : 0;
+            while (position + BLOCK <= n) {
+                Integer candidate = blocks.get(hash);
+                if (candidate != null && from.regionMatches(candidate, to, position, BLOCK)) {
+                    // Grow the match both ways: back into the pending insert, forward past the block
+                    int start = candidate;
+                    int target = position;
+                    while (target > literalStart && start > 0 && from.charAt(start - 1) == to.charAt(target - 1)) {
+                        start--;
+                        target--;
+                    }
+                    int end = candidate + BLOCK;
+                    int targetEnd = position + BLOCK;
+                    while (end < from.length() && targetEnd < n && from.charAt(end) == to.charAt(targetEnd)) {
+                        end++;
+                        targetEnd++;
+                    }
+
+                    writeInsert(out, to, literalStart, target);
+                    out.write(COPY);
+                    writeVarint(out, start);
+                    writeVarint(out, end - start);
+
+                    position = targetEnd;
+                    literalStart = position;
+                    if (position + BLOCK <= n) {
+                        hash = hash(to, position);
+                    }
+                    continue;
+                }
+
+                if (position + BLOCK < n) {
+                    hash = (hash - to.charAt(position) * BLOCK_POWER) * BASE + to.charAt(position + BLOCK);
+                }
+                position++;
+            }
+            writeInsert(out, to, literalStart, n);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @param from the old text the delta was made against
+     * @param delta a delta from {@link #diff(String, String)}
+     * @return the new text
+     * @throws IllegalStateException if the delta is corrupt or was made against another text
+     */
+    public static String apply(String from, byte[] delta) {
+        Reader in = new Reader(inflate(delta));
+        int length = in.varint();
+        StringBuilder text = new StringBuilder(length);
+        while (text.length() < length) {
+            int operation = in.next();
+            if (operation == COPY) {
+                int offset = in.varint();
+                int count = in.varint();
+                if (offset + count > from.length()) {
+                    throw new IllegalStateException("Text delta copies past the end of its base text");
+                }
+                text.append(from, offset, offset + count);
+            } else if (operation == INSERT) {
+                int count = in.varint();
+                for (int i = 0; i < count; i++) {
+                    text.append((char) in.varint());
+                }
+            } else {
+                throw new IllegalStateException("Corrupt text delta");
+            }
+        }
+        if (text.length() != length) {
+            throw new IllegalStateException("Text delta produced " + text.length() + " characters, expected " + length);
+        }
+        return text.toString();
+    }
+
+    private static void writeInsert(OutputStream out, String text, int start, int end) throws IOException {
+        if (start >= end) {
+            return;
+        }
+        out.write(INSERT);
+        writeVarint(out, end - start);
+        // Characters rather than UTF-8, so a surrogate pair split by a copy survives
+        for (int i = start; i < end; i++) {
+            writeVarint(out, text.charAt(i));
+        }
+    }
+
+    private static void writeVarint(OutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static byte[] inflate(byte[] delta) {
+        // Inflated in one go: reading byte by byte from the stream costs more than the rest
+        try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(delta))) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new IllegalStateException("Corrupt text delta", e);
+        }
+    }
+
+    private static int hash(String text, int start) {
+        int hash = 0;
+        for (int i = start; i < start + BLOCK; i++) {
+            hash = hash * BASE + text.charAt(i);
+        }
+        return hash;
+    }
+
+    private static final class Reader {
+        private final byte[] bytes;
+        private int position;
+
+        private Reader(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        private int next() {
+            if (position == bytes.length) {
+                throw new IllegalStateException("Truncated text delta");
+            }
+            return bytes[position++] & 0xFF;
+        }
+
+        private int varint() {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                int b = next();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalStateException("Corrupt text delta");
+        }
+    }
+
+    private static int power(int base, int exponent) {
+        int result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result *= base;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,63 @@
+package com.learnwithme.blog.devblog.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+import com.learnwithme.blog.devblog.dto.TextEditDto;
+import com.learnwithme.blog.devblog.exception.BadRequestException;
+import com.learnwithme.blog.devblog.exception.ConflictException;
+
+/**
+ * Utility class for applying text edits to a stored text
+ */
+public class TextPatch {
+
+    private TextPatch() {
+        // Utility class with private constructor
+    }
+
+    /**
+     * Apply edits made against a text. Every edit must find the text it deletes where it
+     * expects it, so edits made against another version of the text are rejected rather
+     * than applied in the wrong place.
+     * @param text the stored text; null counts as empty
+     * @param edits non-overlapping edits, all against the stored text
+     * @return the edited text
+     * @throws BadRequestException if an edit is missing, out of range or overlaps another
+     * @throws ConflictException if an edit does not match the stored text
+     */
+    public static String apply(String text, List<TextEditDto> edits) {
+        String base = text == null ? "" : text;
+        if (edits.stream().anyMatch(Objects::isNull)) {
+            throw new BadRequestException("Content edits must not contain null entries");
+        }
+        List<TextEditDto> sorted = new ArrayList<>(edits);
+        sorted.sort(Comparator.comparingInt(TextEditDto::getOffset));
+
+        StringBuilder result = new StringBuilder(base.length());
+        int position = 0;
+        for (TextEditDto edit : sorted) {
+            String delete = edit.getDelete() == null ? "" : edit.getDelete();
+            String insert = edit.getInsert() == null ? "" : edit.getInsert();
+            int offset = edit.getOffset();
+
+            if (offset < position) {
+                throw new BadRequestException(offset < 0
+                        ? "Edit offset " + offset + " is negative"
+                        : "Edit at offset " + offset + " overlaps the previous edit");
+            }
+            if (offset + delete.length() > base.length()) {
+                throw new ConflictException("Edit at offset " + offset + " goes past the end of the stored text");
+            }
+            if (!base.startsWith(delete, offset)) {
+                throw new ConflictException("Edit at offset " + offset + " does not match the stored text");
+            }
+
+            result.append(base, position, offset).append(insert);
+            position = offset + delete.length();
+        }
+        return result.append(base, position, base.length()).toString();
+    }
+}
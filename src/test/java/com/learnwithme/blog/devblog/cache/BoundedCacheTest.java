@@ -0,0 +1,210 @@
+package com.learnwithme.blog.devblog.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Limits, expiry, shared loads and the generation guard of the cache behind the post reads
+ */
+class BoundedCacheTest {
+
+    @Test
+    void leastRecentlyUsedEntryIsEvictedFirst() {
+        BoundedCache<String, String> cache = cache(3, 1000, Duration.ofHours(1));
+        cache.put("a", "A");
+        cache.put("b", "B");
+        cache.put("c", "C");
+        cache.peek("a");
+
+        cache.put("d", "D");
+
+        assertNull(cache.peek("b"));
+        assertEquals("A", cache.peek("a"));
+        assertEquals("D", cache.peek("d"));
+        assertEquals(1, cache.stats().getEvictions());
+    }
+
+    @Test
+    void weightLimitEvictsUntilTheCacheFits() {
+        BoundedCache<String, String> cache = cache(100, 10, Duration.ofHours(1));
+        cache.put("a", "aaaa");
+        cache.put("b", "bbbb");
+
+        cache.put("c", "ccccccc");
+
+        assertNull(cache.peek("a"));
+        assertNull(cache.peek("b"));
+        assertEquals(7, cache.stats().getWeight());
+        assertEquals(1, cache.stats().getSize());
+    }
+
+    @Test
+    void expiredEntryIsLoadedAgain() throws InterruptedException {
+        BoundedCache<String, String> cache = cache(10, 1000, Duration.ofMillis(50));
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("a", key -> "v" + loads.incrementAndGet());
+        Thread.sleep(100);
+
+        assertEquals("v2", cache.get("a", key -> "v" + loads.incrementAndGet()));
+        assertEquals(1, cache.stats().getExpirations());
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() throws InterruptedException {
+        BoundedCache<String, String> cache = cache(10, 1000, Duration.ofHours(1));
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        AtomicReference<String> first = new AtomicReference<>();
+
+        Thread loader = start(() -> first.set(cache.get("a", key -> {
+            loads.incrementAndGet();
+            await(release);
+            return "A";
+        })));
+        awaitState(loader, Thread.State.TIMED_WAITING);
+        AtomicReference<String> second = new AtomicReference<>();
+        Thread waiter = start(() -> second.set(cache.get("a", key -> "other")));
+        awaitState(waiter, Thread.State.WAITING);
+        release.countDown();
+        loader.join();
+        waiter.join();
+
+        assertEquals(1, loads.get());
+        assertEquals("A", first.get());
+        assertEquals("A", second.get());
+    }
+
+    @Test
+    void waitersOfAFailedLoadGetItsException() throws InterruptedException {
+        BoundedCache<String, String> cache = cache(10, 1000, Duration.ofHours(1));
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("down");
+
+        Thread loader = start(() -> assertThrows(IllegalStateException.class, () -> cache.get("a", key -> {
+            await(release);
+            throw failure;
+        })));
+        awaitState(loader, Thread.State.TIMED_WAITING);
+        AtomicReference<RuntimeException> seen = new AtomicReference<>();
+        Thread waiter = start(() -> {
+            try {
+                cache.get("a", key -> "other");
+            } catch (RuntimeException e) {
+                seen.set(e);
+            }
+        });
+        awaitState(waiter, Thread.State.WAITING);
+        release.countDown();
+        loader.join();
+        waiter.join();
+
+        assertSame(failure, seen.get());
+        assertEquals(1, cache.stats().getLoadFailures());
+        // Nothing was cached, the next read loads again
+        assertEquals("A", cache.get("a", key -> "A"));
+    }
+
+    @Test
+    void loadRacedByAnInvalidationIsNotCached() {
+        BoundedCache<String, String> cache = cache(10, 1000, Duration.ofHours(1));
+
+        String loaded = cache.get("a", key -> {
+            cache.invalidate(key);
+            return "stale";
+        });
+
+        assertEquals("stale", loaded);
+        assertNull(cache.peek("a"));
+    }
+
+    @Test
+    void putIfUnchangedSkipsValuesReadBeforeAnInvalidation() {
+        BoundedCache<String, String> cache = cache(10, 1000, Duration.ofHours(1));
+
+        long before = cache.generation();
+        cache.invalidateIf(key -> key.startsWith("feed:"));
+        cache.putIfUnchanged("feed:all", "stale", before);
+        assertNull(cache.peek("feed:all"));
+
+        cache.putIfUnchanged("feed:all", "fresh", cache.generation());
+        assertEquals("fresh", cache.peek("feed:all"));
+    }
+
+    @Test
+    void pinnedEntriesAreSkippedByEviction() {
+        BoundedCache<String, String> cache = cache(2, 1000, Duration.ofHours(1));
+        cache.pinIf(key -> key.startsWith("pinned:"));
+        cache.put("pinned:a", "A");
+        cache.put("b", "B");
+
+        cache.put("c", "C");
+
+        assertEquals("A", cache.peek("pinned:a"));
+        assertNull(cache.peek("b"));
+        assertEquals(1, cache.stats().getPinned());
+
+        // Pinned entries can still be removed explicitly
+        cache.invalidate("pinned:a");
+        assertNull(cache.peek("pinned:a"));
+    }
+
+    @Test
+    void largeCacheKeepsItsOverallLimits() {
+        BoundedCache<String, String> cache = cache(1024, 1 << 20, Duration.ofHours(1));
+        for (int i = 0; i < 4096; i++) {
+            cache.put("post:" + i, "v");
+        }
+
+        int size = cache.stats().getSize();
+        // Each segment holds its share, so the total stays at the configured limit
+        assertTrue(size <= 1024, "size " + size);
+        assertTrue(size > 900, "size " + size);
+        assertEquals("v", cache.peek("post:4095"));
+
+        cache.invalidateAll();
+        assertEquals(0, cache.stats().getSize());
+        assertEquals(0, cache.stats().getWeight());
+    }
+
+    private static BoundedCache<String, String> cache(int maxEntries, long maxWeight, Duration ttl) {
+        return new BoundedCache<>("test", maxEntries, maxWeight, ttl, String::length);
+    }
+
+    private static Thread start(Runnable task) {
+        Thread thread = new Thread(task);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Wait until a thread is parked: a loader inside its load, a waiter on the load it joined
+     */
+    private static void awaitState(Thread thread, Thread.State state) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (thread.getState() != state) {
+            assertTrue(System.nanoTime() < deadline, "thread never reached " + state);
+            Thread.sleep(1);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
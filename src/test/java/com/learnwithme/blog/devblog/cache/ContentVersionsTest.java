@@ -0,0 +1,78 @@
+package com.learnwithme.blog.devblog.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import com.learnwithme.blog.devblog.model.ChangeCounter;
+import com.learnwithme.blog.devblog.model.PostFeed;
+
+/**
+ * Feed validators as the shared change counters are read, missed and read again
+ */
+@ExtendWith(MockitoExtension.class)
+class ContentVersionsTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private PostCache postCache;
+
+    @InjectMocks
+    private ContentVersions contentVersions;
+
+    @Test
+    void unreadCountersGiveValidatorsThatNeverMatch() {
+        when(mongoTemplate.findAll(ChangeCounter.class)).thenThrow(new DataAccessResourceFailureException("down"));
+
+        contentVersions.load();
+
+        assertNotEquals(contentVersions.forFeed(PostFeed.all()).getEtag(),
+                contentVersions.forFeed(PostFeed.all()).getEtag());
+        assertEquals(-1, contentVersions.writeSequence());
+    }
+
+    @Test
+    void refreshCatchesUpWithWritesOfOtherNodes() {
+        when(mongoTemplate.findAll(ChangeCounter.class))
+                .thenReturn(List.of(counter(PostFeed.all().getKey(), 3)))
+                .thenReturn(List.of(counter(PostFeed.all().getKey(), 4)));
+
+        contentVersions.load();
+        String before = contentVersions.forFeed(PostFeed.all()).getEtag();
+        assertEquals(before, contentVersions.forFeed(PostFeed.all()).getEtag());
+        // No remote event arrived for the write, the next refresh still sees it
+        contentVersions.load();
+
+        assertNotEquals(before, contentVersions.forFeed(PostFeed.all()).getEtag());
+    }
+
+    @Test
+    void failedRefreshTurnsValidatorsOff() {
+        when(mongoTemplate.findAll(ChangeCounter.class))
+                .thenReturn(List.of(counter(PostFeed.all().getKey(), 3)))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+
+        contentVersions.load();
+        assertEquals("\"3\"", contentVersions.forFeed(PostFeed.all()).getEtag());
+        contentVersions.load();
+
+        assertNotEquals("\"3\"", contentVersions.forFeed(PostFeed.all()).getEtag());
+    }
+
+    private static ChangeCounter counter(String key, long seq) {
+        return ChangeCounter.builder().id(key).seq(seq).changedAt(LocalDateTime.of(2024, 1, 1, 0, 0)).build();
+    }
+}
@@ -0,0 +1,77 @@
+package com.learnwithme.blog.devblog.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import com.learnwithme.blog.devblog.event.CategoryChangedEvent;
+import com.learnwithme.blog.devblog.event.PostChange;
+import com.learnwithme.blog.devblog.event.PostChangedEvent;
+import com.learnwithme.blog.devblog.model.BlogPost;
+
+/**
+ * Two buses sharing one embedded Mongo stand in for two nodes: a change published
+ * on one node must arrive on the other as a remote event, and nowhere else.
+ */
+@DataMongoTest(properties = "de.flapdoodle.mongodb.embedded.version=6.0.5")
+class InvalidationBusTest {
+
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Test
+    void changesReachOtherNodesAsRemoteEvents() throws InterruptedException {
+        List<Object> receivedA = new CopyOnWriteArrayList<>();
+        List<Object> receivedB = new CopyOnWriteArrayList<>();
+        InvalidationBus nodeA = new InvalidationBus(mongoTemplate, receivedA::add, true,
+                "test_invalidations", 1 << 20, InvalidationBus.MODE_TAILABLE);
+        InvalidationBus nodeB = new InvalidationBus(mongoTemplate, receivedB::add, true,
+                "test_invalidations", 1 << 20, InvalidationBus.MODE_TAILABLE);
+        nodeA.start();
+        nodeB.start();
+        try {
+            BlogPost before = BlogPost.builder().id("p1").slug("old-slug").title("Old").content("Body").build();
+            BlogPost after = before.toBuilder().slug("new-slug").title("New").build();
+            nodeA.onPostChanged(PostChangedEvent.of("p1", before, after));
+            nodeA.onCategoryChanged(new CategoryChangedEvent("c1"));
+
+            long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+            while (receivedB.size() < 2 && System.currentTimeMillis() < deadline) {
+                TimeUnit.MILLISECONDS.sleep(50);
+            }
+
+            assertEquals(2, receivedB.size(), "node B should receive both changes");
+            PostChangedEvent postEvent = (PostChangedEvent) receivedB.get(0);
+            assertTrue(postEvent.isRemote());
+            PostChange change = postEvent.getChanges().get(0);
+            assertEquals("p1", change.getPostId());
+            assertEquals("old-slug", change.getBefore().getSlug());
+            assertEquals("new-slug", change.getAfter().getSlug());
+            // Content stays off the bus
+            assertNull(change.getAfter().getContent());
+
+            CategoryChangedEvent categoryEvent = (CategoryChangedEvent) receivedB.get(1);
+            assertTrue(categoryEvent.isRemote());
+            assertEquals("c1", categoryEvent.getCategoryId());
+
+            // A node ignores its own messages, and never republishes what it received
+            nodeB.onPostChanged(postEvent);
+            TimeUnit.MILLISECONDS.sleep(500);
+            assertTrue(receivedA.isEmpty(), "node A should not replay its own changes");
+        } finally {
+            nodeA.stop();
+            nodeB.stop();
+        }
+    }
+}
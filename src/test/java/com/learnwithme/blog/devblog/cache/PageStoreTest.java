@@ -0,0 +1,169 @@
+package com.learnwithme.blog.devblog.cache;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * The page file across restarts: recovery up to a torn record, tombstones, compaction
+ * when the file fills up, expiry, and one owner per directory.
+ */
+class PageStoreTest {
+
+    private static final long MAX_BYTES = 4096;
+
+    @TempDir
+    Path directory;
+
+    private final List<PageStore> opened = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        opened.forEach(PageStore::shutdown);
+    }
+
+    @Test
+    void pagesSurviveARestart() {
+        PageStore store = open(Duration.ofHours(1));
+        store.put("/api/posts", Set.of("feed:all"), page("feed"));
+        store.shutdown();
+
+        PageStore reopened = open(Duration.ofHours(1));
+
+        assertArrayEquals(page("feed"), reopened.get("/api/posts"));
+    }
+
+    @Test
+    void tornRecordEndsRecovery() throws IOException {
+        PageStore store = open(Duration.ofHours(1));
+        store.put("first", Set.of(), page("first"));
+        store.put("second", Set.of(), page("second"));
+        store.shutdown();
+
+        // The crash hit while the second record was being written
+        corrupt(page("second"));
+        PageStore reopened = open(Duration.ofHours(1));
+
+        assertArrayEquals(page("first"), reopened.get("first"));
+        assertNull(reopened.get("second"));
+
+        // Appends continue where the intact records end
+        reopened.put("third", Set.of(), page("third"));
+        reopened.shutdown();
+        PageStore again = open(Duration.ofHours(1));
+        assertArrayEquals(page("first"), again.get("first"));
+        assertArrayEquals(page("third"), again.get("third"));
+    }
+
+    @Test
+    void tombstoneRemovesThePageAcrossRestarts() {
+        PageStore store = open(Duration.ofHours(1));
+        store.put("a", Set.of("post:p1"), page("a"));
+        store.put("b", Set.of("post:p2"), page("b"));
+        store.removeTagged("post:p1");
+        store.shutdown();
+
+        PageStore reopened = open(Duration.ofHours(1));
+
+        assertNull(reopened.get("a"));
+        assertArrayEquals(page("b"), reopened.get("b"));
+    }
+
+    @Test
+    void fullFileIsCompactedToTheNewestPages() {
+        PageStore store = open(Duration.ofHours(1));
+        for (int i = 0; i < 30; i++) {
+            store.put("page-" + i, Set.of(), page("page-" + i));
+        }
+
+        assertTrue(store.stats().getEvictions() > 0);
+        assertNull(store.get("page-0"));
+        assertArrayEquals(page("page-29"), store.get("page-29"));
+
+        store.shutdown();
+        PageStore reopened = open(Duration.ofHours(1));
+        assertNull(reopened.get("page-0"));
+        assertArrayEquals(page("page-29"), reopened.get("page-29"));
+    }
+
+    @Test
+    void expiredPagesAreDropped() throws InterruptedException {
+        PageStore store = open(Duration.ofMillis(50));
+        store.put("old", Set.of(), page("old"));
+        store.put("older", Set.of(), page("older"));
+        Thread.sleep(100);
+
+        assertNull(store.get("old"));
+        assertEquals(1, store.stats().getExpirations());
+
+        // Nor do they come back on the next start
+        store.shutdown();
+        assertEquals(0, open(Duration.ofMillis(50)).stats().getSize());
+    }
+
+    @Test
+    void secondInstanceOnTheSameDirectoryStaysOff() {
+        PageStore owner = open(Duration.ofHours(1));
+        owner.put("a", Set.of(), page("a"));
+
+        PageStore other = open(Duration.ofHours(1));
+        other.put("b", Set.of(), page("b"));
+
+        assertNull(other.get("a"));
+        assertEquals(0, other.stats().getSize());
+        owner.shutdown();
+        PageStore next = open(Duration.ofHours(1));
+        assertArrayEquals(page("a"), next.get("a"));
+        assertNull(next.get("b"));
+    }
+
+    private PageStore open(Duration maxAge) {
+        PageStore store = new PageStore(true, directory.toString(), MAX_BYTES, maxAge, Duration.ofHours(1),
+                100, Duration.ofHours(1));
+        store.open();
+        opened.add(store);
+        return store;
+    }
+
+    /**
+     * Flip a byte of the given page in the data file
+     */
+    private void corrupt(byte[] page) throws IOException {
+        Path file = directory.resolve("pages.dat");
+        byte[] data = Files.readAllBytes(file);
+        int at = indexOf(data, page);
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(at);
+            raf.write(data[at] ^ 0xFF);
+        }
+    }
+
+    private static int indexOf(byte[] data, byte[] part) {
+        for (int i = 0; i <= data.length - part.length; i++) {
+            if (Arrays.equals(data, i, i + part.length, part, 0, part.length)) {
+                return i;
+            }
+        }
+        throw new AssertionError("Page not found in the data file");
+    }
+
+    private static byte[] page(String name) {
+        return ("<html>" + name + " " + "x".repeat(200) + "</html>").getBytes(StandardCharsets.UTF_8);
+    }
+}
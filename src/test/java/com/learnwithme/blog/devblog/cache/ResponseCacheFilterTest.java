@@ -0,0 +1,150 @@
+package com.learnwithme.blog.devblog.cache;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Replaying stored responses: hits and misses, the gzip variant and its validator, and
+ * conditional GETs answered from the cache.
+ */
+class ResponseCacheFilterTest {
+
+    private static final String LAST_MODIFIED = "Wed, 01 Jan 2025 00:00:00 GMT";
+    private static final byte[] BODY = ("{\"content\":\"" + "post ".repeat(400) + "\"}").getBytes(StandardCharsets.UTF_8);
+
+    private ResponseCacheFilter filter;
+    private int renders;
+    private boolean tagged = true;
+
+    @BeforeEach
+    void setUp() {
+        PageStore pageStore = new PageStore(false, "unused", 4096, Duration.ofHours(1), Duration.ofHours(1), 10,
+                Duration.ofHours(1));
+        filter = new ResponseCacheFilter(pageStore, Mockito.mock(ContentVersions.class), true, 100, 1 << 20, 1 << 20,
+                Duration.ofMinutes(5), 0);
+    }
+
+    @Test
+    void secondRequestIsReplayedWithoutRendering() throws Exception {
+        MockHttpServletResponse miss = get(request());
+        MockHttpServletResponse hit = get(request());
+
+        assertEquals("MISS", miss.getHeader("X-Cache"));
+        assertEquals("HIT", hit.getHeader("X-Cache"));
+        assertEquals(1, renders);
+        assertArrayEquals(BODY, hit.getContentAsByteArray());
+        assertEquals("\"v1\"", hit.getHeader(HttpHeaders.ETAG));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, hit.getHeader(HttpHeaders.VARY));
+    }
+
+    @Test
+    void untaggedResponseIsNotStored() throws Exception {
+        tagged = false;
+
+        get(request());
+        MockHttpServletResponse again = get(request());
+
+        assertEquals(2, renders);
+        assertNull(again.getHeader("X-Cache"));
+    }
+
+    @Test
+    void gzipVariantHasATagOfItsOwn() throws Exception {
+        get(request());
+        MockHttpServletRequest request = request();
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "br, gzip");
+
+        MockHttpServletResponse hit = get(request);
+
+        assertEquals("gzip", hit.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("\"v1-gzip\"", hit.getHeader(HttpHeaders.ETAG));
+        assertArrayEquals(BODY, gunzip(hit.getContentAsByteArray()));
+    }
+
+    @Test
+    void ifNoneMatchIsCheckedAgainstTheVariantServed() throws Exception {
+        get(request());
+
+        assertEquals(304, get(conditional(null, "\"v1\"")).getStatus());
+        assertEquals(200, get(conditional("gzip", "\"v1\"")).getStatus());
+        assertEquals(304, get(conditional("gzip", "\"v1-gzip\"")).getStatus());
+        assertEquals(200, get(conditional(null, "\"v0\"")).getStatus());
+    }
+
+    @Test
+    void ifModifiedSinceIsAnsweredFromTheCache() throws Exception {
+        get(request());
+
+        MockHttpServletRequest unchanged = request();
+        unchanged.addHeader(HttpHeaders.IF_MODIFIED_SINCE, LAST_MODIFIED);
+        assertEquals(304, get(unchanged).getStatus());
+
+        MockHttpServletRequest older = request();
+        older.addHeader(HttpHeaders.IF_MODIFIED_SINCE, "Tue, 31 Dec 2024 00:00:00 GMT");
+        assertEquals(200, get(older).getStatus());
+
+        // An entity tag that does not match wins over the date
+        MockHttpServletRequest both = conditional(null, "\"v0\"");
+        both.addHeader(HttpHeaders.IF_MODIFIED_SINCE, LAST_MODIFIED);
+        assertEquals(200, get(both).getStatus());
+        assertEquals(1, renders);
+    }
+
+    private MockHttpServletResponse get(MockHttpServletRequest request) throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, render());
+        return response;
+    }
+
+    private FilterChain render() {
+        return (request, response) -> {
+            renders++;
+            if (tagged) {
+                request.setAttribute(ResponseTags.ATTRIBUTE, Set.of(ResponseTags.FEED));
+            }
+            HttpServletResponse httpResponse = (HttpServletResponse) response;
+            httpResponse.setContentType("application/json");
+            httpResponse.setHeader(HttpHeaders.ETAG, "\"v1\"");
+            httpResponse.setHeader(HttpHeaders.LAST_MODIFIED, LAST_MODIFIED);
+            httpResponse.getOutputStream().write(BODY);
+        };
+    }
+
+    private static MockHttpServletRequest conditional(String acceptEncoding, String ifNoneMatch) {
+        MockHttpServletRequest request = request();
+        if (acceptEncoding != null) {
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        return request;
+    }
+
+    private static MockHttpServletRequest request() {
+        return new MockHttpServletRequest("GET", "/api/posts");
+    }
+
+    private static byte[] gunzip(byte[] body) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return in.readAllBytes();
+        }
+    }
+}
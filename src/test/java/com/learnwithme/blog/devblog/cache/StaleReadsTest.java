@@ -0,0 +1,153 @@
+package com.learnwithme.blog.devblog.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.mock.env.MockEnvironment;
+
+import com.learnwithme.blog.devblog.cache.StaleReads.Endpoint;
+import com.learnwithme.blog.devblog.dto.StaleReadStatsDto;
+import com.learnwithme.blog.devblog.event.PostChangedEvent;
+import com.learnwithme.blog.devblog.exception.ResourceNotFoundException;
+import com.learnwithme.blog.devblog.model.BlogPost;
+
+/**
+ * Reads slower than the budget or failing on the database, and writes that must keep
+ * their old results from being served.
+ */
+class StaleReadsTest {
+
+    private StaleReads staleReads;
+
+    @BeforeEach
+    void setUp() {
+        // One worker, so a read queued behind another only starts once that one is done
+        staleReads = new StaleReads(new MockEnvironment(), true, Duration.ofMillis(50), 100, 1, 16);
+    }
+
+    @AfterEach
+    void tearDown() {
+        staleReads.shutdown();
+    }
+
+    @Test
+    void slowReadServesTheLastGoodResult() {
+        seed(Endpoint.POST, "id:p1", "first");
+        CountDownLatch release = new CountDownLatch(1);
+
+        Object served = staleReads.read(Endpoint.POST, "id:p1", () -> blockUntil(release, "second"));
+
+        assertEquals("first", served);
+        assertEquals(1, stats(Endpoint.POST).getStaleOnTimeout());
+        release.countDown();
+        drain();
+        // The slow read still refreshed the last good result once it finished
+        assertEquals("second", staleReads.read(Endpoint.POST, "id:p1", StaleReadsTest::unavailable));
+    }
+
+    @Test
+    void unavailableDatabaseServesTheLastGoodResult() {
+        seed(Endpoint.FEED, "all:0:10:false", "page");
+
+        assertEquals("page", staleReads.read(Endpoint.FEED, "all:0:10:false", StaleReadsTest::unavailable));
+        assertEquals(1, stats(Endpoint.FEED).getStaleOnFailure());
+    }
+
+    @Test
+    void otherFailuresAreAnswersNotOutages() {
+        seed(Endpoint.POST, "id:p1", "first");
+
+        assertThrows(ResourceNotFoundException.class, () -> staleReads.read(Endpoint.POST, "id:p1", () -> {
+            throw new ResourceNotFoundException("Blog post", "id", "p1");
+        }));
+    }
+
+    @Test
+    void changedPostEvictsItsListsToo() {
+        seed(Endpoint.POST, "id:p1", "post");
+        seed(Endpoint.FEED, "tag:java:0:10:false", "page");
+        seed(Endpoint.RECENT, "top5", "recent");
+
+        staleReads.onPostChanged(PostChangedEvent.of("p1", post(true), post(false)));
+
+        assertThrows(DataAccessResourceFailureException.class,
+                () -> staleReads.read(Endpoint.POST, "id:p1", StaleReadsTest::unavailable));
+        assertThrows(DataAccessResourceFailureException.class,
+                () -> staleReads.read(Endpoint.FEED, "tag:java:0:10:false", StaleReadsTest::unavailable));
+        assertThrows(DataAccessResourceFailureException.class,
+                () -> staleReads.read(Endpoint.RECENT, "top5", StaleReadsTest::unavailable));
+    }
+
+    @Test
+    void draftEditKeepsTheLists() {
+        seed(Endpoint.FEED, "all:0:10:false", "page");
+
+        staleReads.onPostChanged(PostChangedEvent.of("p2", post(false), post(false)));
+
+        assertEquals("page", staleReads.read(Endpoint.FEED, "all:0:10:false", StaleReadsTest::unavailable));
+    }
+
+    @Test
+    void readInFlightDuringWriteIsNotKept() {
+        seed(Endpoint.FEED, "all:0:10:false", "before");
+        CountDownLatch release = new CountDownLatch(1);
+        assertEquals("before", staleReads.read(Endpoint.FEED, "all:0:10:false", () -> blockUntil(release, "racing")));
+
+        // The write lands while the read is still running, then the read returns its old result
+        staleReads.onPostChanged(PostChangedEvent.of("p1", null, post(true)));
+        release.countDown();
+        drain();
+
+        assertThrows(DataAccessResourceFailureException.class,
+                () -> staleReads.read(Endpoint.FEED, "all:0:10:false", StaleReadsTest::unavailable));
+    }
+
+    /**
+     * Read a value and wait until its read has let go of the key, so the next read of
+     * that key starts a query of its own
+     */
+    private void seed(Endpoint endpoint, String key, String value) {
+        staleReads.read(endpoint, key, () -> value);
+        drain();
+    }
+
+    /**
+     * Wait for the read already queued on the single worker to finish
+     */
+    private void drain() {
+        staleReads.read(Endpoint.RECENT, "drain", () -> "drained");
+    }
+
+    private StaleReadStatsDto stats(Endpoint endpoint) {
+        return staleReads.staleReadStats().stream()
+                .filter(stats -> stats.getEndpoint().equals(endpoint.getName()))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static String blockUntil(CountDownLatch release, String value) {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return value;
+    }
+
+    private static Object unavailable() {
+        throw new DataAccessResourceFailureException("database down");
+    }
+
+    private static BlogPost post(boolean published) {
+        return BlogPost.builder().id("p1").slug("my-post").published(published).tags(List.of("java")).build();
+    }
+}
@@ -0,0 +1,99 @@
+package com.learnwithme.blog.devblog.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+
+import com.learnwithme.blog.devblog.model.BlogPost;
+import com.learnwithme.blog.devblog.model.PostFeed;
+import com.learnwithme.blog.devblog.util.FeedCursor;
+
+/**
+ * Keyset paging of a feed against an embedded Mongo: every post is read exactly once,
+ * whatever ties on createdAt or writes between pages.
+ */
+@DataMongoTest(properties = "de.flapdoodle.mongodb.embedded.version=6.0.5")
+class BlogPostRepositoryFeedTest {
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+    @Autowired
+    private BlogPostRepository blogPostRepository;
+
+    @BeforeEach
+    void clear() {
+        blogPostRepository.deleteAll();
+    }
+
+    @Test
+    void postsCreatedAtTheSameTimeArePagedByIdWithoutGapsOrRepeats() {
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            expected.add(0, insert("tied-" + i, NOON).getId());
+        }
+        expected.add(insert("older", NOON.minusDays(1)).getId());
+
+        assertEquals(expected, readAll(2));
+    }
+
+    @Test
+    void postsWrittenBetweenPagesDoNotShiftLaterPages() {
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            expected.add(0, insert("post-" + i, NOON.plusHours(i)).getId());
+        }
+
+        List<BlogPost> firstPage = blogPostRepository.findFeedAfter(PostFeed.all(), null, 2);
+        // A newer post lands before the cursor, an older one after it
+        insert("newest", NOON.plusDays(1));
+        String older = insert("oldest", NOON.minusDays(1)).getId();
+
+        List<String> seen = new ArrayList<>(firstPage.stream().map(BlogPost::getId).toList());
+        BlogPost last = firstPage.get(firstPage.size() - 1);
+        seen.addAll(readAll(FeedCursor.of(last.getCreatedAt(), last.getId()), 2));
+
+        expected.add(older);
+        assertEquals(expected, seen);
+    }
+
+    @Test
+    void postsWithoutCreationTimeAreLeftOut() {
+        String dated = insert("dated", NOON).getId();
+        insert("undated", null);
+
+        assertEquals(List.of(dated), readAll(1));
+    }
+
+    private List<String> readAll(int pageSize) {
+        return readAll(null, pageSize);
+    }
+
+    private List<String> readAll(FeedCursor after, int pageSize) {
+        List<String> ids = new ArrayList<>();
+        while (true) {
+            List<BlogPost> page = blogPostRepository.findFeedAfter(PostFeed.all(), after, pageSize);
+            page.forEach(post -> ids.add(post.getId()));
+            if (page.size() < pageSize) {
+                return ids;
+            }
+            BlogPost last = page.get(page.size() - 1);
+            after = FeedCursor.of(last.getCreatedAt(), last.getId());
+        }
+    }
+
+    private BlogPost insert(String slug, LocalDateTime createdAt) {
+        return blogPostRepository.insert(BlogPost.builder()
+                .title(slug)
+                .slug(slug)
+                .published(true)
+                .createdAt(createdAt)
+                .build());
+    }
+}
@@ -0,0 +1,103 @@
+package com.learnwithme.blog.devblog.scheduling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * A small, fast wheel, so timers span several turns within a test. Only lower bounds
+ * on firing times are checked; how late a timer fires depends on the machine.
+ */
+class TimerWheelTest {
+
+    private static final long TICK_MILLIS = 10;
+    private static final int WHEEL_SIZE = 4;
+
+    private final TimerWheel<String> wheel = new TimerWheel<>("test-wheel", TICK_MILLIS, WHEEL_SIZE);
+
+    @AfterEach
+    void stop() {
+        wheel.stop();
+    }
+
+    @Test
+    void timerSeveralTurnsAwayWaitsOutItsRounds() throws InterruptedException {
+        wheel.start();
+        CountDownLatch fired = new CountDownLatch(1);
+        long[] firedAt = new long[1];
+        // Over three turns of 40ms, so its bucket comes round three times before it is due
+        long deadline = System.currentTimeMillis() + 150;
+        wheel.schedule("post", deadline, () -> {
+            firedAt[0] = System.currentTimeMillis();
+            fired.countDown();
+        });
+
+        assertTrue(fired.await(5, TimeUnit.SECONDS), "timer never fired");
+        assertTrue(firedAt[0] >= deadline - 1, "fired " + (deadline - firedAt[0]) + " ms early");
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cancelledTimerNeverFires() throws InterruptedException {
+        wheel.start();
+        List<String> fired = new CopyOnWriteArrayList<>();
+        CountDownLatch later = new CountDownLatch(1);
+        long now = System.currentTimeMillis();
+        wheel.schedule("cancelled", now + 50, () -> fired.add("cancelled"));
+        wheel.schedule("kept", now + 90, () -> {
+            fired.add("kept");
+            later.countDown();
+        });
+
+        assertTrue(wheel.cancel("cancelled"));
+        assertFalse(wheel.cancel("cancelled"));
+        assertEquals(1, wheel.size());
+
+        assertTrue(later.await(5, TimeUnit.SECONDS), "timer never fired");
+        assertEquals(List.of("kept"), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void schedulingAKeyAgainReplacesItsTimer() throws InterruptedException {
+        wheel.start();
+        List<String> fired = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+        long now = System.currentTimeMillis();
+        wheel.schedule("post", now + 30, () -> fired.add("first"));
+        wheel.schedule("post", now + 120, () -> {
+            fired.add("second");
+            done.countDown();
+        });
+
+        assertTrue(done.await(5, TimeUnit.SECONDS), "timer never fired");
+        assertEquals(List.of("second"), fired);
+    }
+
+    @Test
+    void overdueTimersFireOnTheNextTickInDeadlineOrder() throws InterruptedException {
+        List<String> fired = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(2);
+        long now = System.currentTimeMillis();
+        wheel.schedule("later", now - 10, () -> {
+            fired.add("later");
+            done.countDown();
+        });
+        wheel.schedule("earlier", now - 20, () -> {
+            fired.add("earlier");
+            done.countDown();
+        });
+        wheel.start();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS), "timers never fired");
+        assertEquals(List.of("earlier", "later"), fired);
+    }
+}
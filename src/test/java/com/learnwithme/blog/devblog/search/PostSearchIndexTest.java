@@ -0,0 +1,107 @@
+package com.learnwithme.blog.devblog.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.learnwithme.blog.devblog.dto.BlogPostSummaryDto;
+import com.learnwithme.blog.devblog.event.PostChangedEvent;
+import com.learnwithme.blog.devblog.model.BlogPost;
+
+/**
+ * Ranking, paging and snippets of the search index, fed by change events carrying
+ * the content, so no database is needed.
+ */
+class PostSearchIndexTest {
+
+    private final PostSearchIndex index = new PostSearchIndex();
+
+    @Test
+    void titleMatchRanksAboveContentMatch() {
+        index(post("p1", "Cooking pasta", "A post that mentions kubernetes once among other words"));
+        index(post("p2", "Kubernetes in practice", "Running containers in production"));
+
+        assertEquals(List.of("p2", "p1"), ids(index.search("kubernetes", 0, 10, false)));
+    }
+
+    @Test
+    void postMatchingMoreTermsRanksFirst() {
+        index(post("p1", "Spring", "Dependency injection explained"));
+        index(post("p2", "Spring", "Reactive streams explained"));
+        index(post("p3", "Spring", "Reactive streams and dependency injection"));
+
+        assertEquals("p3", ids(index.search("reactive injection", 0, 10, false)).get(0));
+    }
+
+    @Test
+    void unpublishedPostLeavesTheIndex() {
+        index(post("p1", "Gradle builds", "Tasks and plugins"));
+
+        BlogPost draft = post("p1", "Gradle builds", "Tasks and plugins");
+        draft.setPublished(false);
+        index.onPostChanged(PostChangedEvent.of("p1", post("p1", "Gradle builds", "Tasks and plugins"), draft));
+
+        assertEquals(0, index.search("gradle", 0, 10, false).getTotalHits());
+    }
+
+    @Test
+    void hitsArePagedAfterRanking() {
+        for (int i = 1; i <= 5; i++) {
+            index(post("p" + i, "Post " + i, "Notes about java"));
+        }
+
+        SearchResults lastPage = index.search("java", 2, 2, false);
+        assertEquals(5, lastPage.getTotalHits());
+        assertEquals(1, lastPage.getHits().size());
+
+        // Far past the end, where page times size does not fit in an int
+        SearchResults beyond = index.search("java", Integer.MAX_VALUE, 1000, false);
+        assertEquals(5, beyond.getTotalHits());
+        assertTrue(beyond.getHits().isEmpty());
+    }
+
+    @Test
+    void invalidPageIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> index.search("java", -1, 10, false));
+        assertThrows(IllegalArgumentException.class, () -> index.search("java", 0, 0, false));
+    }
+
+    @Test
+    void snippetMarksQueryTermsAndEscapesText() {
+        index(post("p1", "Q&A", "Questions & answers about caching, and more caching"));
+
+        String snippet = index.search("caching", 0, 10, false).getHits().get(0).getSnippet();
+
+        assertEquals("Questions &amp; answers about <mark>caching</mark>, and more <mark>caching</mark>", snippet);
+    }
+
+    @Test
+    void misspelledQueryGetsACorrection() {
+        index(post("p1", "Concurrency", "Threads and locks"));
+
+        SearchResults exact = index.search("concurency", 0, 10, false);
+        assertEquals("concurrency", exact.getDidYouMean());
+        assertEquals(0, exact.getTotalHits());
+
+        SearchResults fuzzy = index.search("concurency", 0, 10, true);
+        assertEquals(List.of("p1"), ids(fuzzy));
+        assertNull(index.search("concurrency", 0, 10, false).getDidYouMean());
+    }
+
+    private void index(BlogPost post) {
+        index.onPostChanged(PostChangedEvent.of(post.getId(), null, post));
+    }
+
+    private static List<String> ids(SearchResults results) {
+        return results.getHits().stream().map(BlogPostSummaryDto::getId).toList();
+    }
+
+    private static BlogPost post(String id, String title, String content) {
+        return BlogPost.builder().id(id).slug(id).title(title).content(content).published(true).build();
+    }
+}
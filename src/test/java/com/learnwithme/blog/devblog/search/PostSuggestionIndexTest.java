@@ -0,0 +1,52 @@
+package com.learnwithme.blog.devblog.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.learnwithme.blog.devblog.dto.SuggestionDto;
+import com.learnwithme.blog.devblog.event.PostChangedEvent;
+import com.learnwithme.blog.devblog.model.BlogPost;
+
+/**
+ * Tag suggestions kept current from change events, starting from an empty index.
+ */
+class PostSuggestionIndexTest {
+
+    private final PostSuggestionIndex index = new PostSuggestionIndex();
+
+    @Test
+    void tagIsSuggestedWhileAnyPublishedPostCarriesIt() {
+        index.onPostChanged(PostChangedEvent.of("p1", null, post("p1", "java")));
+        index.onPostChanged(PostChangedEvent.of("p2", null, post("p2", "java")));
+
+        index.onPostChanged(PostChangedEvent.of("p1", post("p1", "java"), null));
+        assertEquals(List.of("java"), tagSuggestions("ja"));
+
+        index.onPostChanged(PostChangedEvent.of("p2", post("p2", "java"), null));
+        assertTrue(tagSuggestions("ja").isEmpty());
+    }
+
+    @Test
+    void removingUncountedTagLeavesItUntracked() {
+        index.onPostChanged(PostChangedEvent.of("p1", post("p1", "ghost"), null));
+        assertTrue(tagSuggestions("gh").isEmpty());
+
+        index.onPostChanged(PostChangedEvent.of("p2", null, post("p2", "ghost")));
+        assertEquals(List.of("ghost"), tagSuggestions("gh"));
+    }
+
+    private List<String> tagSuggestions(String prefix) {
+        return index.suggest(prefix, 10).stream()
+                .filter(suggestion -> SuggestionDto.TYPE_TAG.equals(suggestion.getType()))
+                .map(SuggestionDto::getText)
+                .toList();
+    }
+
+    private static BlogPost post(String id, String tag) {
+        return BlogPost.builder().id(id).slug(id).title("Post " + id).published(true).tags(List.of(tag)).build();
+    }
+}
@@ -0,0 +1,121 @@
+package com.learnwithme.blog.devblog.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Fuzzy lookups against a dictionary of 100k distinct terms, the size of a large blog's
+ * search vocabulary. The latency check is tagged as a benchmark, so it only runs with
+ * {@code gradle benchmark} and never fails a regular build on a slow machine.
+ */
+class SymSpellDictionaryTest {
+
+    private static final int TERM_COUNT = 100_000;
+    private static final int QUERY_COUNT = 5_000;
+
+    private static final List<String> terms = new ArrayList<>();
+    private static final SymSpellDictionary dictionary = new SymSpellDictionary(2, 7);
+
+    @BeforeAll
+    static void buildDictionary() {
+        Random random = new Random(42);
+        Set<String> distinct = new LinkedHashSet<>();
+        while (distinct.size() < TERM_COUNT) {
+            distinct.add(randomWord(random, 4 + random.nextInt(9)));
+        }
+        terms.addAll(distinct);
+        terms.forEach(dictionary::add);
+    }
+
+    @Test
+    void findsTermsWithinTwoEdits() {
+        Random random = new Random(7);
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            String target = terms.get(random.nextInt(terms.size()));
+            String query = misspell(random, target, 1 + random.nextInt(2));
+            assertTrue(dictionary.lookup(query, 2).stream().anyMatch(correction -> correction.getTerm().equals(target)),
+                    () -> "No correction of '" + target + "' for '" + query + "'");
+        }
+    }
+
+    /**
+     * Only guards against order-of-magnitude regressions, such as falling back to a scan
+     */
+    @Test
+    @Tag("benchmark")
+    void medianLookupTakesWellUnderFiveMilliseconds() {
+        Random random = new Random(7);
+        String[] misspelled = new String[QUERY_COUNT];
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            misspelled[i] = misspell(random, terms.get(random.nextInt(terms.size())), 1 + random.nextInt(2));
+        }
+
+        // Warm up before measuring
+        for (String query : misspelled) {
+            dictionary.lookup(query, 2);
+        }
+
+        long[] latencies = new long[QUERY_COUNT];
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            long start = System.nanoTime();
+            dictionary.lookup(misspelled[i], 2);
+            latencies[i] = System.nanoTime() - start;
+        }
+
+        Arrays.sort(latencies);
+        long median = latencies[QUERY_COUNT / 2];
+        assertTrue(median < 5_000_000, "Median fuzzy lookup took " + median / 1_000 + " us");
+    }
+
+    @Test
+    void ranksExactMatchFirstAndHonoursRemoval() {
+        String term = terms.get(0);
+        assertEquals(0, dictionary.lookup(term, 2).get(0).getDistance());
+
+        String extra = "kubernetes";
+        dictionary.add(extra);
+        assertEquals(extra, dictionary.lookup("kubernets", 2).get(0).getTerm());
+        dictionary.remove(extra);
+        assertTrue(dictionary.lookup("kubernets", 2).stream().noneMatch(correction -> correction.getTerm().equals(extra)));
+    }
+
+    @Test
+    void countsTranspositionAsOneEdit() {
+        assertEquals(1, SymSpellDictionary.distance("sprign", "spring", 2));
+        assertEquals(1, SymSpellDictionary.distance("sprng", "spring", 2));
+        assertEquals(3, SymSpellDictionary.distance("abc", "xyzabc", 2));
+    }
+
+    private static String randomWord(Random random, int length) {
+        StringBuilder word = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(26)));
+        }
+        return word.toString();
+    }
+
+    private static String misspell(Random random, String word, int edits) {
+        StringBuilder misspelled = new StringBuilder(word);
+        for (int edit = 0; edit < edits; edit++) {
+            int position = random.nextInt(misspelled.length());
+            char letter = (char) ('a' + random.nextInt(26));
+            switch (random.nextInt(3)) {
+                case 0 -> misspelled.deleteCharAt(position);
+                case 1 -> misspelled.insert(position, letter);
+                default -> misspelled.setCharAt(position, letter);
+            }
+        }
+        return misspelled.toString();
+    }
+}
@@ -0,0 +1,283 @@
+package com.learnwithme.blog.devblog.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.learnwithme.blog.devblog.cache.SlugFilter;
+import com.learnwithme.blog.devblog.dto.BlogPostDto;
+import com.learnwithme.blog.devblog.dto.PostPatchDto;
+import com.learnwithme.blog.devblog.dto.TextEditDto;
+import com.learnwithme.blog.devblog.event.PostChange;
+import com.learnwithme.blog.devblog.event.PostChangedEvent;
+import com.learnwithme.blog.devblog.exception.BadRequestException;
+import com.learnwithme.blog.devblog.exception.ConflictException;
+import com.learnwithme.blog.devblog.exception.ResourceNotFoundException;
+import com.learnwithme.blog.devblog.model.BlogPost;
+import com.learnwithme.blog.devblog.repository.BlogPostRepository;
+import com.learnwithme.blog.devblog.util.ImageStaging;
+import com.learnwithme.blog.devblog.util.ImageStaging.StagedImage;
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.WriteError;
+
+/**
+ * Writes of single posts against a mocked repository: how a clash on the unique slug
+ * index is told apart from other duplicate keys and resolved, how a conditional
+ * update that matched nothing is reported, and which base a patch is checked against.
+ */
+@ExtendWith(MockitoExtension.class)
+class BlogPostServiceImplTest {
+
+    @Mock
+    private BlogPostRepository blogPostRepository;
+
+    @Mock
+    private ImageStaging imageStaging;
+
+    @Mock
+    private StagedImage stagedImage;
+
+    @Mock
+    private SlugFilter slugFilter;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private BlogPostServiceImpl blogPostService;
+
+    @Test
+    void generatedSlugIsNumberedPastTheHighestSuffix() {
+        List<String> triedSlugs = new ArrayList<>();
+        when(blogPostRepository.insert(any(BlogPost.class))).thenAnswer(invocation -> {
+            BlogPost post = invocation.getArgument(0);
+            triedSlugs.add(post.getSlug());
+            if (triedSlugs.size() == 1) {
+                throw slugClash(post.getSlug());
+            }
+            return post.toBuilder().id("p1").build();
+        });
+        when(blogPostRepository.findHighestSlugSuffix("my-post")).thenReturn(3L);
+
+        BlogPostDto created = create(draft(null));
+
+        assertEquals(List.of("my-post", "my-post-4"), triedSlugs);
+        assertEquals("my-post-4", created.getSlug());
+        verify(stagedImage, never()).discard();
+    }
+
+    @Test
+    void explicitSlugClashIsRejected() {
+        when(blogPostRepository.existsBySlug("taken")).thenReturn(false);
+        when(blogPostRepository.insert(any(BlogPost.class))).thenThrow(slugClash("taken"));
+
+        // Another post took the slug between the check and the insert
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> create(draft("taken")));
+
+        assertTrue(e.getMessage().contains("'taken'"));
+        verify(blogPostRepository, never()).findHighestSlugSuffix(any());
+        verify(stagedImage).discard();
+    }
+
+    @Test
+    void otherDuplicateKeysAreNotSlugClashes() {
+        DuplicateKeyException idClash = new DuplicateKeyException("duplicate", new MongoWriteException(
+                new WriteError(11000, "E11000 duplicate key error collection: blog.blog_posts index: _id_ "
+                        + "dup key: { _id: \"p1\" } slug_unique", new BsonDocument()), new ServerAddress(), Set.of()));
+        when(blogPostRepository.insert(any(BlogPost.class))).thenThrow(idClash);
+
+        DuplicateKeyException e = assertThrows(DuplicateKeyException.class,
+                () -> create(draft(null)));
+
+        assertSame(idClash, e);
+        assertFalse(BlogPostServiceImpl.isSlugClash(idClash));
+    }
+
+    @Test
+    void slugClashOfFindAndModifyIsReadFromTheKeyPattern() {
+        BsonDocument reply = new BsonDocument("ok", new BsonInt32(0))
+                .append("code", new BsonInt32(11000))
+                .append("keyPattern", new BsonDocument("slug", new BsonInt32(1)));
+        DuplicateKeyException e = new DuplicateKeyException("duplicate",
+                new MongoCommandException(reply, new ServerAddress()));
+
+        assertTrue(BlogPostServiceImpl.isSlugClash(e));
+    }
+
+    @Test
+    void failingListenerKeepsTheImageOfTheStoredPost() {
+        when(blogPostRepository.insert(any(BlogPost.class)))
+                .thenAnswer(invocation -> invocation.<BlogPost>getArgument(0).toBuilder().id("p1").build());
+        doThrow(new IllegalStateException("listener failed")).when(eventPublisher).publishEvent(any(PostChangedEvent.class));
+
+        assertThrows(IllegalStateException.class, () -> create(draft(null)));
+
+        verify(stagedImage).promote(any());
+        verify(stagedImage, never()).discard();
+    }
+
+    @Test
+    void updateOfStaleVersionIsAConflict() {
+        when(blogPostRepository.findAndModify(eq("p1"), eq(3L), any(Update.class))).thenReturn(null);
+        when(blogPostRepository.existsById("p1")).thenReturn(true);
+
+        assertThrows(ConflictException.class, () -> blogPostService.updatePost("p1", retitle(3L)));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void updateOfMissingPostIsNotFoundWhateverTheVersion() {
+        when(blogPostRepository.findAndModify(eq("p1"), eq(3L), any(Update.class))).thenReturn(null);
+        when(blogPostRepository.existsById("p1")).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () -> blogPostService.updatePost("p1", retitle(3L)));
+    }
+
+    @Test
+    void unconditionalUpdateOfMissingPostIsNotFound() {
+        when(blogPostRepository.findAndModify(eq("p1"), isNull(), any(Update.class))).thenReturn(null);
+
+        assertThrows(ResourceNotFoundException.class, () -> blogPostService.updatePost("p1", retitle(null)));
+        // Without an expected version nothing else can explain the miss
+        verify(blogPostRepository, never()).existsById(any());
+    }
+
+    @Test
+    void updateAnnouncesThePostBeforeAndAfter() {
+        BlogPost before = BlogPost.builder().id("p1").slug("my-post").title("Old title").version(3L).build();
+        when(blogPostRepository.findAndModify(eq("p1"), eq(3L), any(Update.class))).thenReturn(before);
+
+        BlogPostDto updated = blogPostService.updatePost("p1", retitle(3L));
+
+        assertEquals("New title", updated.getTitle());
+        assertEquals(4L, updated.getVersion());
+        ArgumentCaptor<PostChangedEvent> event = ArgumentCaptor.forClass(PostChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        PostChange change = event.getValue().getChanges().get(0);
+        assertSame(before, change.getBefore());
+        assertEquals("New title", change.getAfter().getTitle());
+    }
+
+    @Test
+    void patchAppliesContentEditsToTheVersionItWasMadeAgainst() {
+        BlogPost stored = BlogPost.builder().id("p1").slug("my-post").content("Some content").version(3L).build();
+        when(blogPostRepository.findContentById("p1")).thenReturn(Optional.of(stored));
+        when(blogPostRepository.findAndModify(eq("p1"), eq(3L), any(Update.class))).thenReturn(stored);
+
+        BlogPostDto patched = blogPostService.patchPost("p1", PostPatchDto.builder().version(3L)
+                .contentEdits(List.of(TextEditDto.builder().offset(5).delete("content").insert("text").build()))
+                .build());
+
+        assertEquals(4L, patched.getVersion());
+        // The client already holds the content it patched
+        assertNull(patched.getContent());
+        ArgumentCaptor<PostChangedEvent> event = ArgumentCaptor.forClass(PostChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals("Some text", event.getValue().getChanges().get(0).getAfter().getContent());
+    }
+
+    @Test
+    void patchOfStaleVersionIsAConflict() {
+        when(blogPostRepository.findContentById("p1"))
+                .thenReturn(Optional.of(BlogPost.builder().id("p1").content("Some content").version(4L).build()));
+
+        PostPatchDto patch = PostPatchDto.builder().version(3L)
+                .contentEdits(List.of(TextEditDto.builder().offset(0).delete("Some").insert("More").build()))
+                .build();
+
+        assertThrows(ConflictException.class, () -> blogPostService.patchPost("p1", patch));
+        verify(blogPostRepository, never()).findAndModify(any(), any(), any());
+    }
+
+    @Test
+    void patchWithoutVersionIsCheckedAgainstUpdatedAt() {
+        LocalDateTime updatedAt = LocalDateTime.of(2025, 1, 1, 12, 0, 0, 123_000_000);
+        BlogPost stored = BlogPost.builder().id("p1").title("Old title").updatedAt(updatedAt).version(3L).build();
+        when(blogPostRepository.findVersionById("p1")).thenReturn(Optional.of(stored));
+        when(blogPostRepository.findAndModify(eq("p1"), eq(3L), any(Update.class))).thenReturn(stored);
+
+        // The client's copy of the time carries more precision than the database keeps
+        BlogPostDto patched = blogPostService.patchPost("p1", PostPatchDto.builder()
+                .updatedAt(updatedAt.plusNanos(456_789)).title("New title").build());
+
+        assertEquals("New title", patched.getTitle());
+        PostPatchDto stale = PostPatchDto.builder().updatedAt(updatedAt.minusSeconds(1)).title("Newer title").build();
+        assertThrows(ConflictException.class, () -> blogPostService.patchPost("p1", stale));
+    }
+
+    @Test
+    void patchNeedsABaseAndNoNullEdits() {
+        assertThrows(BadRequestException.class,
+                () -> blogPostService.patchPost("p1", PostPatchDto.builder().title("New title").build()));
+
+        when(blogPostRepository.findContentById("p1"))
+                .thenReturn(Optional.of(BlogPost.builder().id("p1").content("Some content").version(3L).build()));
+        PostPatchDto patch = PostPatchDto.builder().version(3L).contentEdits(Arrays.asList((TextEditDto) null)).build();
+        assertThrows(BadRequestException.class, () -> blogPostService.patchPost("p1", patch));
+    }
+
+    @Test
+    void searchRejectsInvalidPaging() {
+        assertThrows(BadRequestException.class, () -> blogPostService.searchPosts("java", -1, 10, false, false));
+        assertThrows(BadRequestException.class, () -> blogPostService.searchPosts("java", 0, 0, true, false));
+    }
+
+    private static BlogPostDto retitle(Long version) {
+        BlogPostDto dto = new BlogPostDto();
+        dto.setTitle("New title");
+        dto.setTags(null);
+        dto.setVersion(version);
+        return dto;
+    }
+
+    private BlogPostDto create(BlogPostDto dto) {
+        when(imageStaging.stage(any())).thenReturn(stagedImage);
+        return blogPostService.createPost(dto, null);
+    }
+
+    private static DuplicateKeyException slugClash(String slug) {
+        return new DuplicateKeyException("duplicate", new MongoWriteException(
+                new WriteError(11000, "E11000 duplicate key error collection: blog.blog_posts index: slug_unique "
+                        + "dup key: { slug: \"" + slug + "\" }", new BsonDocument()), new ServerAddress(), Set.of()));
+    }
+
+    private static BlogPostDto draft(String slug) {
+        BlogPostDto dto = new BlogPostDto();
+        dto.setTitle("My post");
+        dto.setSlug(slug);
+        dto.setContent("Some content");
+        return dto;
+    }
+}
@@ -0,0 +1,193 @@
+package com.learnwithme.blog.devblog.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.learnwithme.blog.devblog.cache.InvalidationBus;
+import com.learnwithme.blog.devblog.model.BlogPost;
+import com.learnwithme.blog.devblog.model.Category;
+import com.learnwithme.blog.devblog.model.CategoryPropagation;
+import com.learnwithme.blog.devblog.model.Subcategory;
+import com.learnwithme.blog.devblog.repository.CategoryRepository;
+import com.mongodb.client.result.UpdateResult;
+
+/**
+ * Propagation jobs against a mocked MongoTemplate: claiming under a lease, resuming
+ * after the last post saved, and giving way to a newer request.
+ */
+@ExtendWith(MockitoExtension.class)
+class CategoryPropagationServiceImplTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private InvalidationBus invalidationBus;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private CategoryPropagationServiceImpl propagationService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(propagationService, "batchSize", 2);
+        ReflectionTestUtils.setField(propagationService, "throttle", Duration.ZERO);
+        ReflectionTestUtils.setField(propagationService, "lease", Duration.ofMinutes(2));
+        ReflectionTestUtils.setField(propagationService, "retryDelay", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(propagationService, "running", true);
+        when(invalidationBus.getNodeId()).thenReturn("node-a");
+    }
+
+    @Test
+    void claimTakesPendingJobsAndJobsWithExpiredLeases() {
+        ReflectionTestUtils.invokeMethod(propagationService, "claim");
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(query.capture(), update.capture(), any(FindAndModifyOptions.class),
+                eq(CategoryPropagation.class));
+        List<Document> alternatives = query.getValue().getQueryObject().getList("$or", Document.class);
+        assertEquals(CategoryPropagation.Status.PENDING, alternatives.get(0).get("status"));
+        Document expired = alternatives.get(1);
+        assertEquals(List.of(CategoryPropagation.Status.RUNNING, CategoryPropagation.Status.FAILED),
+                List.copyOf((Collection<?>) expired.get("status", Document.class).get("$in")));
+        assertTrue(expired.get("leaseUntil", Document.class).containsKey("$lt"));
+        Document set = update.getValue().getUpdateObject().get("$set", Document.class);
+        assertEquals("node-a", set.get("owner"));
+    }
+
+    @Test
+    void resumedJobStartsAfterTheLastSavedPost() {
+        when(categoryRepository.findById("c1")).thenReturn(Optional.of(category("Java")));
+        when(mongoTemplate.find(any(Query.class), eq(BlogPost.class))).thenReturn(List.of(post("p3", "Old name")));
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(BlogPost.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(CategoryPropagation.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        run(job("p2"));
+
+        ArgumentCaptor<Query> batches = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(batches.capture(), eq(BlogPost.class));
+        assertEquals(new Document("$gt", "p2"), batches.getValue().getQueryObject().get("_id"));
+
+        // Progress, then completion, both only while this node owns the current generation
+        ArgumentCaptor<Query> settled = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(2)).updateFirst(settled.capture(), updates.capture(), eq(CategoryPropagation.class));
+        assertEquals("node-a", settled.getValue().getQueryObject().get("owner"));
+        assertEquals(7L, settled.getValue().getQueryObject().get("generation"));
+        assertEquals("p3", updates.getAllValues().get(0).getUpdateObject().get("$set", Document.class).get("lastPostId"));
+        assertEquals(CategoryPropagation.Status.DONE,
+                updates.getAllValues().get(1).getUpdateObject().get("$set", Document.class).get("status"));
+    }
+
+    @Test
+    void jobRequestedAgainStopsAfterTheCurrentBatch() {
+        when(categoryRepository.findById("c1")).thenReturn(Optional.of(category("Java")));
+        when(mongoTemplate.find(any(Query.class), eq(BlogPost.class)))
+                .thenReturn(List.of(post("p1", "Old name"), post("p2", "Old name")));
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(BlogPost.class)))
+                .thenReturn(UpdateResult.acknowledged(2, 2L, null));
+        // The generation moved on, so saving progress matches nothing
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(CategoryPropagation.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        run(job(null));
+
+        // A full batch would otherwise be followed by another read
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(BlogPost.class));
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), updates.capture(), eq(CategoryPropagation.class));
+        assertFalse(updates.getValue().getUpdateObject().get("$set", Document.class).containsKey("status"));
+    }
+
+    @Test
+    void postsAreOnlyUpdatedInTheSubcategoryTheyWereReadWith() {
+        Category category = category("Java");
+        category.getSubcategories().add(new Subcategory("Spring Boot", "spring"));
+        when(categoryRepository.findById("c1")).thenReturn(Optional.of(category));
+        BlogPost inSpring = post("p1", "Old name");
+        inSpring.setSubcategorySlug("spring");
+        BlogPost inRemoved = post("p2", "Old name");
+        inRemoved.setSubcategorySlug("gone");
+        when(mongoTemplate.find(any(Query.class), eq(BlogPost.class)))
+                .thenReturn(List.of(inSpring, inRemoved, post("p3", "Old name")))
+                .thenReturn(List.of());
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(BlogPost.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(CategoryPropagation.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        run(job(null));
+
+        ArgumentCaptor<Query> filters = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(3)).updateMulti(filters.capture(), updates.capture(), eq(BlogPost.class));
+        // An editor moving a post meanwhile makes its filter miss, so the edit is kept
+        assertEquals("spring", filters.getAllValues().get(0).getQueryObject().get("subcategorySlug"));
+        assertEquals("Spring Boot",
+                updates.getAllValues().get(0).getUpdateObject().get("$set", Document.class).get("subcategoryName"));
+        assertEquals("gone", filters.getAllValues().get(1).getQueryObject().get("subcategorySlug"));
+        assertTrue(updates.getAllValues().get(1).getUpdateObject().get("$unset", Document.class)
+                .containsKey("subcategorySlug"));
+        assertEquals(new Document("$exists", false),
+                filters.getAllValues().get(2).getQueryObject().get("subcategorySlug"));
+    }
+
+    private void run(CategoryPropagation job) {
+        ReflectionTestUtils.invokeMethod(propagationService, "run", job);
+    }
+
+    private static CategoryPropagation job(String lastPostId) {
+        return CategoryPropagation.builder()
+                .id("c1")
+                .status(CategoryPropagation.Status.RUNNING)
+                .generation(7L)
+                .lastPostId(lastPostId)
+                .owner("node-a")
+                .build();
+    }
+
+    private static Category category(String name) {
+        Category category = new Category();
+        category.setId("c1");
+        category.setName(name);
+        return category;
+    }
+
+    private static BlogPost post(String id, String categoryName) {
+        return BlogPost.builder().id(id).slug(id).categoryId("c1").categoryName(categoryName).version(1L).build();
+    }
+}
@@ -0,0 +1,110 @@
+package com.learnwithme.blog.devblog.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.learnwithme.blog.devblog.dto.CategoryDto;
+import com.learnwithme.blog.devblog.dto.SubcategoryDto;
+import com.learnwithme.blog.devblog.exception.ResourceNotFoundException;
+import com.learnwithme.blog.devblog.model.Category;
+import com.learnwithme.blog.devblog.model.Subcategory;
+import com.learnwithme.blog.devblog.repository.CategoryRepository;
+
+/**
+ * The category tree as indexed by a snapshot, and how long the service keeps using one.
+ */
+@ExtendWith(MockitoExtension.class)
+class CategorySnapshotTest {
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @InjectMocks
+    private CategoryServiceImpl categoryService;
+
+    @Test
+    void lookupsFollowWrites() {
+        CategorySnapshot snapshot = CategorySnapshot.of(List.of(dto("c2", "Python"), dto("c1", "Java", "spring")));
+
+        assertEquals(List.of("Java", "Python"), snapshot.categories().stream().map(CategoryDto::getName).toList());
+        assertEquals("c1", snapshot.bySlug("java").getId());
+        assertEquals("Spring", snapshot.subcategory("c1", "spring").getName());
+        assertNull(snapshot.subcategory("c2", "spring"));
+
+        CategorySnapshot renamed = snapshot.with(dto("c1", "Kotlin"));
+        assertEquals("Kotlin", renamed.byId("c1").getName());
+        assertNull(renamed.bySlug("java"));
+        assertNull(renamed.subcategory("c1", "spring"));
+        // Snapshots are immutable, the old one still answers as before
+        assertEquals("Java", snapshot.byId("c1").getName());
+
+        assertNull(renamed.without("c1").byId("c1"));
+    }
+
+    @Test
+    void localWritesDoNotMakeTheTreeFresh() throws InterruptedException {
+        CategorySnapshot snapshot = CategorySnapshot.of(List.of(dto("c1", "Java")));
+        assertTrue(snapshot.isFresh(Duration.ofMinutes(1)));
+
+        Thread.sleep(20);
+
+        assertFalse(snapshot.with(dto("c2", "Go")).isFresh(Duration.ofMillis(10)));
+    }
+
+    @Test
+    void categoryDeletedElsewhereIsGoneOnceTheTreeExpires() {
+        ReflectionTestUtils.setField(categoryService, "snapshotTtl", Duration.ZERO);
+        when(categoryRepository.findAllByOrderByNameAsc())
+                .thenReturn(List.of(category("c1", "Java")))
+                .thenReturn(List.of());
+
+        assertEquals("Java", categoryService.getCategoryById("c1").getName());
+        // No event arrived for the delete, the reload still sees it
+        assertThrows(ResourceNotFoundException.class, () -> categoryService.getCategoryById("c1"));
+    }
+
+    @Test
+    void freshTreeIsNotReloaded() {
+        ReflectionTestUtils.setField(categoryService, "snapshotTtl", Duration.ofMinutes(1));
+        when(categoryRepository.findAllByOrderByNameAsc()).thenReturn(List.of(category("c1", "Java")));
+
+        categoryService.getCategoryById("c1");
+        categoryService.getAllCategories();
+
+        verify(categoryRepository, times(1)).findAllByOrderByNameAsc();
+    }
+
+    private static CategoryDto dto(String id, String name, String... subcategorySlugs) {
+        List<SubcategoryDto> subcategories = new ArrayList<>();
+        for (String slug : subcategorySlugs) {
+            subcategories.add(new SubcategoryDto(Character.toUpperCase(slug.charAt(0)) + slug.substring(1), slug));
+        }
+        return new CategoryDto(id, name, name.toLowerCase(), subcategories);
+    }
+
+    private static Category category(String id, String name) {
+        Category category = new Category();
+        category.setId(id);
+        category.setName(name);
+        category.setSlug(name.toLowerCase());
+        category.getSubcategories().add(new Subcategory("Basics", "basics"));
+        return category;
+    }
+}
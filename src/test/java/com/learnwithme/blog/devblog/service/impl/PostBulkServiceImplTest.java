@@ -0,0 +1,236 @@
+package com.learnwithme.blog.devblog.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.learnwithme.blog.devblog.dto.BulkOperationRequestDto;
+import com.learnwithme.blog.devblog.dto.BulkOperationRequestDto.Operation;
+import com.learnwithme.blog.devblog.dto.BulkProgressDto;
+import com.learnwithme.blog.devblog.event.PostChange;
+import com.learnwithme.blog.devblog.event.PostChangedEvent;
+import com.learnwithme.blog.devblog.model.BlogPost;
+import com.learnwithme.blog.devblog.service.CategoryService;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+
+/**
+ * Bulk operations against a mocked MongoTemplate: which writes are planned for a
+ * batch, and how the bulkWrite outcome is reported.
+ */
+@ExtendWith(MockitoExtension.class)
+class PostBulkServiceImplTest {
+
+    private static final LocalDateTime LATER = LocalDateTime.of(2030, 1, 1, 12, 0);
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private CategoryService categoryService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @InjectMocks
+    private PostBulkServiceImpl bulkService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(bulkService, "defaultBatchSize", 500);
+        ReflectionTestUtils.setField(bulkService, "maxBatchSize", 1000);
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(BlogPost.class))).thenReturn(bulkOperations);
+    }
+
+    @Test
+    void bulkUnpublishDropsPendingPublish() {
+        BlogPost draft = post("p1", false, 3L);
+        draft.setPublishAt(LATER);
+        batchOf(draft);
+        when(bulkOperations.execute()).thenReturn(updated(1));
+
+        BulkProgressDto result = bulkService.execute(request(Operation.UNPUBLISH, "p1"), progress -> { });
+
+        assertEquals(1, result.getModified());
+        Document update = plannedUpdates().get(0).getUpdateObject();
+        assertEquals(false, update.get("$set", Document.class).get("published"));
+        assertTrue(update.get("$unset", Document.class).containsKey("publishAt"));
+        assertTrue(update.get("$unset", Document.class).containsKey("unpublishAt"));
+
+        // The event tells every node's publish scheduler to drop the timer
+        BlogPost after = publishedChange().getChanges().get(0).getAfter();
+        assertFalse(after.isPublished());
+        assertNull(after.getPublishAt());
+        assertEquals(4L, after.getVersion());
+    }
+
+    @Test
+    void bulkPublishDropsPendingUnpublish() {
+        BlogPost live = post("p1", true, 1L);
+        live.setUnpublishAt(LATER);
+        batchOf(live);
+        when(bulkOperations.execute()).thenReturn(updated(1));
+
+        BulkProgressDto result = bulkService.execute(request(Operation.PUBLISH, "p1"), progress -> { });
+
+        assertEquals(1, result.getModified());
+        assertEquals(0, result.getUnchanged());
+        Document update = plannedUpdates().get(0).getUpdateObject();
+        assertTrue(update.get("$unset", Document.class).containsKey("unpublishAt"));
+        assertNull(publishedChange().getChanges().get(0).getAfter().getUnpublishAt());
+    }
+
+    @Test
+    void bulkPublishLeavesUnscheduledPublishedPostAlone() {
+        batchOf(post("p1", true, 1L));
+
+        BulkProgressDto result = bulkService.execute(request(Operation.PUBLISH, "p1"), progress -> { });
+
+        assertEquals(1, result.getUnchanged());
+        assertEquals(0, result.getModified());
+        verify(bulkOperations, never()).execute();
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void selectionByIdsPagesPastTheFirstBatch() {
+        when(mongoTemplate.find(any(Query.class), eq(BlogPost.class)))
+                .thenReturn(List.of(post("p1", false, 1L), post("p2", false, 1L)))
+                .thenReturn(List.of(post("p3", false, 1L)));
+        when(bulkOperations.execute()).thenReturn(updated(2), updated(1));
+        BulkOperationRequestDto request = tagRequest(true, "p1", "p2", "p3");
+        request.setBatchSize(2);
+
+        BulkProgressDto result = bulkService.execute(request, progress -> { });
+
+        assertEquals(2, result.getBatches());
+        assertEquals(3, result.getMatched());
+        assertEquals(3, result.getModified());
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).find(queries.capture(), eq(BlogPost.class));
+        // The second page keeps the id selection and continues after the last id read
+        List<?> page = queries.getAllValues().get(1).getQueryObject().get("$and", List.class);
+        assertEquals(2, page.size());
+        assertEquals(new Document("$gt", "p2"), ((Document) page.get(1)).get("_id"));
+    }
+
+    @Test
+    void orderedBatchStopsAtTheFailedWrite() {
+        when(mongoTemplate.find(any(Query.class), eq(BlogPost.class)))
+                .thenReturn(List.of(post("p1", false, 1L), post("p2", false, 1L), post("p3", false, 1L)))
+                .thenReturn(List.of(post("p1", false, 2L), post("p2", false, 1L), post("p3", false, 1L)));
+        when(bulkOperations.execute()).thenThrow(failed(updated(1), 1));
+
+        BulkProgressDto result = bulkService.execute(tagRequest(true, "p1", "p2", "p3"), progress -> { });
+
+        // p1 was written, p2 failed and p3 was never tried
+        assertEquals(1, result.getModified());
+        assertEquals(0, result.getConflicts());
+        assertEquals(2, result.getFailed());
+        assertEquals(1, result.getErrors().size());
+        assertTrue(result.getErrors().get(0).startsWith("Post p2"));
+        assertEquals(List.of("p1"), changedIds());
+    }
+
+    @Test
+    void unorderedBatchCountsConflictsApartFromFailures() {
+        when(mongoTemplate.find(any(Query.class), eq(BlogPost.class)))
+                .thenReturn(List.of(post("p1", false, 1L), post("p2", false, 1L),
+                        post("p3", false, 1L), post("p4", false, 1L)))
+                .thenReturn(List.of(post("p1", false, 2L), post("p2", false, 2L),
+                        post("p3", false, 5L), post("p4", false, 1L)));
+        when(bulkOperations.execute()).thenThrow(failed(updated(2), 3));
+
+        BulkProgressDto result = bulkService.execute(tagRequest(false, "p1", "p2", "p3", "p4"), progress -> { });
+
+        // p3 was changed by another writer in between, p4 failed
+        assertEquals(2, result.getModified());
+        assertEquals(1, result.getConflicts());
+        assertEquals(1, result.getFailed());
+        assertTrue(result.getErrors().get(0).startsWith("Post p4"));
+        assertEquals(List.of("p1", "p2", "p3"), changedIds());
+    }
+
+    private void batchOf(BlogPost... posts) {
+        when(mongoTemplate.find(any(Query.class), eq(BlogPost.class))).thenReturn(List.of(posts));
+    }
+
+    private List<Update> plannedUpdates() {
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations, atLeastOnce()).updateOne(any(Query.class), updates.capture());
+        return updates.getAllValues();
+    }
+
+    private PostChangedEvent publishedChange() {
+        ArgumentCaptor<Object> events = ArgumentCaptor.forClass(Object.class);
+        verify(eventPublisher).publishEvent(events.capture());
+        return (PostChangedEvent) events.getValue();
+    }
+
+    private List<String> changedIds() {
+        return publishedChange().getChanges().stream().map(PostChange::getPostId).toList();
+    }
+
+    private static BulkOperationRequestDto tagRequest(boolean ordered, String... ids) {
+        BulkOperationRequestDto request = request(Operation.ADD_TAG, ids);
+        request.setTag("java");
+        request.setOrdered(ordered);
+        return request;
+    }
+
+    private static BulkOperationRequestDto request(Operation operation, String... ids) {
+        return BulkOperationRequestDto.builder()
+                .operation(operation)
+                .ids(List.of(ids))
+                .batchSize(100)
+                .build();
+    }
+
+    private static BlogPost post(String id, boolean published, Long version) {
+        return BlogPost.builder().id(id).slug(id).published(published).version(version).build();
+    }
+
+    private static BulkWriteResult updated(int matched) {
+        return BulkWriteResult.acknowledged(0, matched, 0, matched, List.of(), List.of());
+    }
+
+    private static BulkOperationException failed(BulkWriteResult result, int index) {
+        BulkWriteError error = new BulkWriteError(2, "write failed", new BsonDocument(), index);
+        return new BulkOperationException("Bulk write failed", new MongoBulkWriteException(
+                result, List.of(error), null, new ServerAddress(), Set.of()));
+    }
+}
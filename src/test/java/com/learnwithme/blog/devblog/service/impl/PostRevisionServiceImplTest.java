@@ -0,0 +1,153 @@
+package com.learnwithme.blog.devblog.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.learnwithme.blog.devblog.dto.BlogPostDto;
+import com.learnwithme.blog.devblog.event.PostChangedEvent;
+import com.learnwithme.blog.devblog.exception.ConflictException;
+import com.learnwithme.blog.devblog.model.BlogPost;
+import com.learnwithme.blog.devblog.model.PostRevision;
+import com.learnwithme.blog.devblog.repository.BlogPostRepository;
+import com.learnwithme.blog.devblog.repository.PostRevisionRepository;
+import com.learnwithme.blog.devblog.service.BlogPostService;
+
+/**
+ * Revisions recorded from change events into an in-memory stand-in for the revision
+ * collection: where snapshots go, how long delta chains grow, and restores.
+ */
+@ExtendWith(MockitoExtension.class)
+class PostRevisionServiceImplTest {
+
+    private static final int SNAPSHOT_EVERY = 4;
+
+    @Mock
+    private PostRevisionRepository revisionRepository;
+
+    @Mock
+    private BlogPostRepository blogPostRepository;
+
+    @Mock
+    private BlogPostService blogPostService;
+
+    @InjectMocks
+    private PostRevisionServiceImpl revisionService;
+
+    // Revisions of post p1 by revision number
+    private final TreeMap<Long, PostRevision> stored = new TreeMap<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(revisionService, "snapshotEvery", SNAPSHOT_EVERY);
+
+        lenient().when(revisionRepository.save(any(PostRevision.class))).thenAnswer(invocation -> {
+            PostRevision revision = invocation.getArgument(0);
+            stored.put(revision.getRevision(), revision);
+            return revision;
+        });
+        lenient().when(revisionRepository.findByPostIdAndRevision(eq("p1"), anyLong()))
+                .thenAnswer(invocation -> Optional.ofNullable(stored.get(invocation.<Long>getArgument(1))));
+        lenient().when(revisionRepository.findFirstByPostIdAndSnapshotTrueAndRevisionLessThanEqualOrderByRevisionDesc(
+                eq("p1"), anyLong())).thenAnswer(invocation -> stored.headMap(invocation.getArgument(1), true)
+                .descendingMap().values().stream().filter(PostRevision::isSnapshot).findFirst());
+        lenient().when(revisionRepository.findRange(eq("p1"), anyLong(), anyLong())).thenAnswer(invocation ->
+                new ArrayList<>(stored.subMap(invocation.getArgument(1), true, invocation.getArgument(2), true).values()));
+    }
+
+    @Test
+    void firstEditOfPostWithoutHistoryStoresBaselineSnapshot() {
+        String original = article();
+        String edited = original + "One more paragraph\n";
+
+        revisionService.onPostChanged(PostChangedEvent.of("p1", post(1L, original), post(2L, edited)));
+
+        PostRevision baseline = stored.get(1L);
+        assertTrue(baseline.isSnapshot());
+        assertEquals(0, baseline.getChainLength());
+        PostRevision revision = stored.get(2L);
+        assertFalse(revision.isSnapshot());
+        assertEquals(1L, revision.getBaseRevision());
+        assertEquals(1, revision.getChainLength());
+        assertEquals(original, revisionService.getRevision("p1", 1).getContent());
+        assertEquals(edited, revisionService.getRevision("p1", 2).getContent());
+    }
+
+    @Test
+    void chainIsCutWithSnapshotAtItsLimit() {
+        List<String> versions = new ArrayList<>();
+        versions.add(article());
+        for (long version = 1; version < 10; version++) {
+            String edited = versions.get(versions.size() - 1) + "Paragraph added in version " + (version + 1) + "\n";
+            revisionService.onPostChanged(PostChangedEvent.of("p1",
+                    post(version, versions.get(versions.size() - 1)), post(version + 1, edited)));
+            versions.add(edited);
+        }
+
+        List<Integer> chainLengths = stored.values().stream().map(PostRevision::getChainLength).toList();
+        assertEquals(List.of(0, 1, 2, 3, 0, 1, 2, 3, 0, 1), chainLengths);
+        assertTrue(stored.get(5L).isSnapshot());
+        assertTrue(stored.get(9L).isSnapshot());
+
+        // Rebuilding revision 8 starts from the snapshot at 5 and applies three deltas
+        assertEquals(versions.get(7), revisionService.getRevision("p1", 8).getContent());
+        verify(revisionRepository).findRange("p1", 5L, 8L);
+    }
+
+    @Test
+    void restoreIsConditionalOnTheExpectedVersion() {
+        String original = article();
+        revisionService.onPostChanged(PostChangedEvent.of("p1", post(1L, original), post(2L, original + "Edit\n")));
+        when(blogPostService.updatePost(anyString(), any(BlogPostDto.class)))
+                .thenThrow(new ConflictException("Blog post 'p1' was changed by someone else since version 2"));
+
+        assertThrows(ConflictException.class, () -> revisionService.restoreRevision("p1", 1, 2L));
+
+        ArgumentCaptor<BlogPostDto> update = ArgumentCaptor.forClass(BlogPostDto.class);
+        verify(blogPostService).updatePost(eq("p1"), update.capture());
+        assertEquals(2L, update.getValue().getVersion());
+        assertEquals(original, update.getValue().getContent());
+        assertNull(update.getValue().getTags());
+    }
+
+    private static BlogPost post(Long version, String content) {
+        return BlogPost.builder()
+                .id("p1")
+                .version(version)
+                .content(content)
+                .updatedAt(LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(version))
+                .build();
+    }
+
+    private static String article() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            text.append("Paragraph ").append(i).append(" of the article with some words\n");
+        }
+        return text.toString();
+    }
+}
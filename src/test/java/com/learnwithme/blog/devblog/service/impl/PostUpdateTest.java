@@ -0,0 +1,63 @@
+package com.learnwithme.blog.devblog.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import com.learnwithme.blog.devblog.model.BlogPost;
+
+/**
+ * The Mongo update and the replayed change of a {@link PostUpdate} must agree.
+ */
+class PostUpdateTest {
+
+    @Test
+    void setsAndUnsetsOnlyTheGivenFields() {
+        PostUpdate update = new PostUpdate()
+                .set("title", "New title", BlogPost::setTitle)
+                .set("subcategorySlug", null, BlogPost::setSubcategorySlug);
+
+        Document document = update.toUpdate().getUpdateObject();
+        assertEquals(new Document("title", "New title"), document.get("$set"));
+        assertEquals(List.of("subcategorySlug"), new ArrayList<>(document.get("$unset", Document.class).keySet()));
+    }
+
+    @Test
+    void appliesChangesToACopyAndBumpsTheVersion() {
+        BlogPost before = BlogPost.builder()
+                .id("p1")
+                .title("Old title")
+                .subcategorySlug("basics")
+                .tags(new ArrayList<>(List.of("java")))
+                .version(4L)
+                .build();
+
+        PostUpdate update = new PostUpdate()
+                .set("title", "New title", BlogPost::setTitle)
+                .set("subcategorySlug", null, BlogPost::setSubcategorySlug);
+        BlogPost after = update.applyTo(before);
+        after.getTags().add("spring");
+
+        assertEquals("New title", after.getTitle());
+        assertNull(after.getSubcategorySlug());
+        assertEquals(5L, after.getVersion());
+        // The pre-image stays as it was, tags included, for listeners comparing the two
+        assertEquals("Old title", before.getTitle());
+        assertEquals("basics", before.getSubcategorySlug());
+        assertEquals(List.of("java"), before.getTags());
+        assertEquals(4L, before.getVersion());
+    }
+
+    @Test
+    void postWithoutVersionStartsAtOne() {
+        BlogPost after = new PostUpdate().applyTo(BlogPost.builder().id("p1").build());
+        assertEquals(1L, after.getVersion());
+        assertTrue(after.getTags().isEmpty());
+    }
+}
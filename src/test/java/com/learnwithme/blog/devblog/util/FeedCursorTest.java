@@ -0,0 +1,43 @@
+package com.learnwithme.blog.devblog.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+
+import com.learnwithme.blog.devblog.exception.BadRequestException;
+
+/**
+ * Encoding and decoding of keyset pagination cursors.
+ */
+class FeedCursorTest {
+
+    @Test
+    void roundTripsAtStoredPrecision() {
+        // Stored times keep milliseconds, which is all a cursor needs to carry
+        LocalDateTime createdAt = LocalDateTime.of(2024, 3, 1, 10, 15, 30, 123_000_000);
+        FeedCursor decoded = FeedCursor.decode(FeedCursor.of(createdAt, "65f1c0ffee0000000000abcd").encode());
+
+        assertEquals(createdAt, decoded.getCreatedAt());
+        assertEquals("65f1c0ffee0000000000abcd", decoded.getId());
+    }
+
+    @Test
+    void idsWithSeparatorsSurvive() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 3, 1, 10, 15);
+        assertEquals("legacy:id:1", FeedCursor.decode(FeedCursor.of(createdAt, "legacy:id:1").encode()).getId());
+    }
+
+    @Test
+    void malformedTokensAreBadRequests() {
+        assertThrows(BadRequestException.class, () -> FeedCursor.decode("not a cursor"));
+        assertThrows(BadRequestException.class, () -> FeedCursor.decode("MTIzOg"));
+    }
+
+    @Test
+    void postWithoutCreationTimeHasNoCursor() {
+        assertThrows(IllegalArgumentException.class, () -> FeedCursor.of(null, "p1"));
+    }
+}
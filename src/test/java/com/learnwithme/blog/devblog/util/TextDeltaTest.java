@@ -0,0 +1,92 @@
+package com.learnwithme.blog.devblog.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Round trips of deltas between successive edits of a long post, their size against
+ * a full compressed copy, and rebuilding a revision at the end of a chain.
+ */
+class TextDeltaTest {
+
+    private static final int CHAIN_LENGTH = 20;
+
+    @Test
+    void deltasRebuildEveryEdit() {
+        Random random = new Random(7);
+        String text = article(random, 3_000);
+        long deltaBytes = 0;
+        for (int i = 0; i < 200; i++) {
+            String edited = edit(random, text);
+            byte[] delta = TextDelta.diff(text, edited);
+            assertEquals(edited, TextDelta.apply(text, delta));
+            deltaBytes += delta.length;
+            text = edited;
+        }
+
+        int fullBytes = TextDelta.diff("", text).length;
+        assertEquals(text, TextDelta.apply("", TextDelta.diff("", text)));
+        assertTrue(deltaBytes / 200 < fullBytes / 20,
+                "Average delta of " + deltaBytes / 200 + " bytes against a full copy of " + fullBytes);
+    }
+
+    @Test
+    void surrogatePairsSplitAcrossCopiesSurvive() {
+        String from = "emoji 😀😁 repeated often enough to be matched by blocks";
+        String to = "emoji 😀😂 repeated often enough to be matched by blocks";
+        assertEquals(to, TextDelta.apply(from, TextDelta.diff(from, to)));
+        assertEquals("", TextDelta.apply(from, TextDelta.diff(from, "")));
+    }
+
+    @Test
+    void chainRebuildsFromSnapshot() {
+        Random random = new Random(11);
+        String snapshot = article(random, 5_000);
+        List<byte[]> chain = new ArrayList<>();
+        String text = snapshot;
+        for (int i = 0; i < CHAIN_LENGTH; i++) {
+            String edited = edit(random, text);
+            chain.add(TextDelta.diff(text, edited));
+            text = edited;
+        }
+
+        // Each delta applies to the text it was made from
+        String rebuilt = TextDelta.apply("", TextDelta.diff("", snapshot));
+        for (byte[] delta : chain) {
+            rebuilt = TextDelta.apply(rebuilt, delta);
+        }
+        assertEquals(text, rebuilt);
+    }
+
+    @Test
+    void deltaAgainstAnotherTextIsRejected() {
+        String from = "a".repeat(100);
+        byte[] delta = TextDelta.diff(from, from + "b");
+        assertThrows(IllegalStateException.class, () -> TextDelta.apply("short", delta));
+    }
+
+    private static String article(Random random, int lines) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            text.append("Paragraph ").append(i).append(" talks about topic ").append(random.nextInt(500)).append('\n');
+        }
+        return text.toString();
+    }
+
+    private static String edit(Random random, String text) {
+        StringBuilder edited = new StringBuilder(text);
+        for (int i = 0; i < 1 + random.nextInt(5); i++) {
+            int position = random.nextInt(edited.length());
+            int length = Math.min(random.nextInt(60), edited.length() - position);
+            edited.replace(position, position + length, "new words é😀 ".repeat(random.nextInt(3)));
+        }
+        return edited.toString();
+    }
+}
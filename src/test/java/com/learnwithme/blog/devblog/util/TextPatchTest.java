@@ -0,0 +1,75 @@
+package com.learnwithme.blog.devblog.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.learnwithme.blog.devblog.dto.TextEditDto;
+import com.learnwithme.blog.devblog.exception.BadRequestException;
+import com.learnwithme.blog.devblog.exception.ConflictException;
+
+/**
+ * Edits applied to the stored text: out of order, touching and overlapping, at the
+ * ends of the text, and made against text that is no longer there.
+ */
+class TextPatchTest {
+
+    private static final String TEXT = "The quick brown fox";
+
+    @Test
+    void editsApplyInOffsetOrder() {
+        String patched = TextPatch.apply(TEXT, List.of(edit(16, "fox", "cat"), edit(4, "quick", "slow")));
+
+        assertEquals("The slow brown cat", patched);
+    }
+
+    @Test
+    void touchingEditsAreNotOverlaps() {
+        String patched = TextPatch.apply(TEXT, List.of(edit(4, "quick", "slow"), edit(9, " ", "-")));
+
+        assertEquals("The slow-brown fox", patched);
+    }
+
+    @Test
+    void editsAtBothEndsOfTheText() {
+        String patched = TextPatch.apply(TEXT, List.of(edit(0, "", "> "), edit(TEXT.length(), "", "!")));
+
+        assertEquals("> The quick brown fox!", patched);
+        assertEquals("Hello", TextPatch.apply(null, List.of(edit(0, "", "Hello"))));
+    }
+
+    @Test
+    void overlappingEditsAreRejected() {
+        List<TextEditDto> edits = List.of(edit(4, "quick brown", "slow"), edit(10, "brown", "red"));
+
+        assertThrows(BadRequestException.class, () -> TextPatch.apply(TEXT, edits));
+    }
+
+    @Test
+    void negativeOffsetIsRejected() {
+        assertThrows(BadRequestException.class, () -> TextPatch.apply(TEXT, List.of(edit(-1, "", "x"))));
+    }
+
+    @Test
+    void nullEditIsRejected() {
+        List<TextEditDto> edits = Arrays.asList(edit(0, "The", "A"), null);
+
+        assertThrows(BadRequestException.class, () -> TextPatch.apply(TEXT, edits));
+    }
+
+    @Test
+    void editAgainstOtherTextIsAConflict() {
+        assertThrows(ConflictException.class, () -> TextPatch.apply(TEXT, List.of(edit(4, "slow", "fast"))));
+        // Deleting past the end means the client saw a longer text
+        assertThrows(ConflictException.class, () -> TextPatch.apply(TEXT, List.of(edit(16, "foxes", "cats"))));
+        assertThrows(ConflictException.class, () -> TextPatch.apply(TEXT, List.of(edit(TEXT.length() + 1, "", "!"))));
+    }
+
+    private static TextEditDto edit(int offset, String delete, String insert) {
+        return TextEditDto.builder().offset(offset).delete(delete).insert(insert).build();
+    }
+}